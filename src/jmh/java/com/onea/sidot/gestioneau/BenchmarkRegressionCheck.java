@@ -0,0 +1,101 @@
+package com.onea.sidot.gestioneau;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of a JMH run with the ones of a baseline run, both written with {@code -rf json}, and fails
+ * when a benchmark regressed by more than a percentage of its baseline score.
+ * <p>
+ * Run by the {@code benchmarks} profile once the benchmarks ran, with as arguments the result file, the baseline
+ * file, the regression in percent, and whether a missing baseline fails the run rather than only being reported.
+ * The benchmarks missing from either file are not compared, as they were added or not run.
+ */
+public final class BenchmarkRegressionCheck {
+
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    private BenchmarkRegressionCheck() {}
+
+    public static void main(String[] args) throws IOException {
+        Path resultFile = Path.of(args[0]);
+        Path baselineFile = Path.of(args[1]);
+        double regression = Double.parseDouble(args[2]);
+        boolean requireBaseline = Boolean.parseBoolean(args[3]);
+        if (!Files.exists(baselineFile)) {
+            String message = "No benchmark baseline in " + baselineFile + ": the regressions are not checked.";
+            if (requireBaseline) {
+                System.err.println(message);
+                System.exit(1);
+            }
+            System.out.println("WARNING: " + message);
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselineFile);
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : read(resultFile).entrySet()) {
+            Score score = entry.getValue();
+            Score baselineScore = baseline.get(entry.getKey());
+            if (baselineScore == null || !baselineScore.unit.equals(score.unit)) {
+                System.out.println("Not compared, no baseline: " + entry.getKey());
+                continue;
+            }
+            String line = String.format("%s: %.3f %s, baseline %.3f", entry.getKey(), score.value, score.unit, baselineScore.value);
+            System.out.println(line);
+            if (score.isWorseThan(baselineScore, regression)) {
+                regressions.add(line);
+            }
+        }
+        if (!regressions.isEmpty()) {
+            System.err.println("Benchmarks regressed by more than " + regression + "%:");
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the scores of a result file, by benchmark, parameters and mode.
+     */
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String mode = run.path("mode").asText();
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(
+                run.path("benchmark").asText() + params + " " + mode,
+                new Score(THROUGHPUT_MODE.equals(mode), metric.path("score").asDouble(), metric.path("scoreUnit").asText())
+            );
+        }
+        return scores;
+    }
+
+    private static final class Score {
+
+        private final boolean higherIsBetter;
+
+        private final double value;
+
+        private final String unit;
+
+        Score(boolean higherIsBetter, double value, String unit) {
+            this.higherIsBetter = higherIsBetter;
+            this.value = value;
+            this.unit = unit;
+        }
+
+        boolean isWorseThan(Score baseline, double regression) {
+            return higherIsBetter ? value < baseline.value * (100 - regression) / 100 : value > baseline.value * (100 + regression) / 100;
+        }
+    }
+}
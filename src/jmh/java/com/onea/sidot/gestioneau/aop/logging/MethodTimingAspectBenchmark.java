@@ -0,0 +1,78 @@
+package com.onea.sidot.gestioneau.aop.logging;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.AspectJAroundAdvice;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.SingletonAspectInstanceFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * Benchmarks of the overhead of the {@link MethodTimingAspect} on a service call, against the same call through a
+ * proxy without advice, as the service beans are proxied anyway.
+ * <p>
+ * The advice is applied as Spring AOP applies it to the beans, with a pointcut on the benchmarked method instead of
+ * the one on the application packages, so that the target needs no stereotype.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MethodTimingAspectBenchmark {
+
+    @Param({ "0.0", "0.1", "1.0" })
+    private double sampleRate;
+
+    private Target plainTarget;
+
+    private Target timedTarget;
+
+    private long value;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        ProxyFactory proxyFactory = new ProxyFactory(new Target());
+        proxyFactory.setProxyTargetClass(true);
+        plainTarget = (Target) proxyFactory.getProxy();
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMethodTiming().setSampleRate(sampleRate);
+        MethodTimingAspect aspect = new MethodTimingAspect(new SimpleMeterRegistry(), applicationProperties);
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("execution(long next(long))");
+        AspectJAroundAdvice advice = new AspectJAroundAdvice(
+            MethodTimingAspect.class.getMethod("timeAround", ProceedingJoinPoint.class),
+            pointcut,
+            new SingletonAspectInstanceFactory(aspect)
+        );
+        ProxyFactory timedProxyFactory = new ProxyFactory(new Target());
+        timedProxyFactory.setProxyTargetClass(true);
+        timedProxyFactory.addAdvice(ExposeInvocationInterceptor.INSTANCE);
+        timedProxyFactory.addAdvisor(new DefaultPointcutAdvisor(pointcut, advice));
+        timedTarget = (Target) timedProxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public long plainCall() {
+        return plainTarget.next(value++);
+    }
+
+    @Benchmark
+    public long timedCall() {
+        return timedTarget.next(value++);
+    }
+
+    public static class Target {
+
+        public long next(long value) {
+            return value + 1;
+        }
+    }
+}
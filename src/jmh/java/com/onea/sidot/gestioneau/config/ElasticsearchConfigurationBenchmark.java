@@ -0,0 +1,79 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.InstantReadingConverter;
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.InstantWritingConverter;
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.LocalDateReadingConverter;
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.LocalDateWritingConverter;
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.ZonedDateTimeReadingConverter;
+import com.onea.sidot.gestioneau.config.ElasticsearchConfiguration.ZonedDateTimeWritingConverter;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the date converters of the {@link ElasticsearchConfiguration}, run for every date of every indexed or
+ * searched document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ElasticsearchConfigurationBenchmark {
+
+    private final ZonedDateTimeWritingConverter zonedDateTimeWritingConverter = new ZonedDateTimeWritingConverter();
+
+    private final ZonedDateTimeReadingConverter zonedDateTimeReadingConverter = new ZonedDateTimeReadingConverter();
+
+    private final InstantWritingConverter instantWritingConverter = new InstantWritingConverter();
+
+    private final InstantReadingConverter instantReadingConverter = new InstantReadingConverter();
+
+    private final LocalDateWritingConverter localDateWritingConverter = new LocalDateWritingConverter();
+
+    private final LocalDateReadingConverter localDateReadingConverter = new LocalDateReadingConverter();
+
+    private final Instant instant = Instant.parse("2021-03-01T08:15:30.123Z");
+
+    private final ZonedDateTime zonedDateTime = instant.atZone(ZoneId.of("Africa/Ouagadougou"));
+
+    private final LocalDate localDate = LocalDate.of(2021, 3, 1);
+
+    private final String instantText = instant.toString();
+
+    private final String localDateText = localDate.toString();
+
+    @Benchmark
+    public String writeZonedDateTime() {
+        return zonedDateTimeWritingConverter.convert(zonedDateTime);
+    }
+
+    @Benchmark
+    public ZonedDateTime readZonedDateTime() {
+        return zonedDateTimeReadingConverter.convert(instantText);
+    }
+
+    @Benchmark
+    public String writeInstant() {
+        return instantWritingConverter.convert(instant);
+    }
+
+    @Benchmark
+    public Instant readInstant() {
+        return instantReadingConverter.convert(instantText);
+    }
+
+    @Benchmark
+    public String writeLocalDate() {
+        return localDateWritingConverter.convert(localDate);
+    }
+
+    @Benchmark
+    public LocalDate readLocalDate() {
+        return localDateReadingConverter.convert(localDateText);
+    }
+}
@@ -0,0 +1,71 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
+import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapperBenchmark;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks of the JSON serialization of the {@link FicheSuiviOuvrageDTO} lists, with the modules of the
+ * {@link JacksonConfiguration} and the Spring Boot defaults.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonConfigurationBenchmark {
+
+    @Param({ "20", "1000" })
+    private int size;
+
+    private ObjectWriter listWriter;
+
+    private List<FicheSuiviOuvrageDTO> ficheSuiviOuvrageDTOs;
+
+    @Setup
+    public void setUp() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        listWriter =
+            Jackson2ObjectMapperBuilder
+                .json()
+                .modules(
+                    jacksonConfiguration.javaTimeModule(),
+                    jacksonConfiguration.jdk8TimeModule(),
+                    jacksonConfiguration.hibernate5Module(),
+                    jacksonConfiguration.problemModule(),
+                    jacksonConfiguration.constraintViolationProblemModule()
+                )
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(new TypeReference<List<FicheSuiviOuvrageDTO>>() {});
+        try (
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                FicheSuiviOuvrageMapper.class.getPackageName()
+            )
+        ) {
+            FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper = context.getBean(FicheSuiviOuvrageMapper.class);
+            ficheSuiviOuvrageDTOs =
+                LongStream
+                    .rangeClosed(1, size)
+                    .mapToObj(FicheSuiviOuvrageMapperBenchmark::createFicheSuiviOuvrage)
+                    .map(ficheSuiviOuvrageMapper::toDto)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return listWriter.writeValueAsBytes(ficheSuiviOuvrageDTOs);
+    }
+}
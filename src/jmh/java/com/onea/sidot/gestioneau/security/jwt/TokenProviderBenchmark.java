@@ -0,0 +1,52 @@
+package com.onea.sidot.gestioneau.security.jwt;
+
+import com.onea.sidot.gestioneau.security.AuthoritiesConstants;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Benchmarks of the {@link TokenProvider}, which checks the JWT of every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenProviderBenchmark {
+
+    private static final String BASE64_SECRET =
+        "NzMzZDlhN2Y3NjJhMmRjMGZhNmM3NDczNjhiNWU1ODBlZjVlYjFjM2YxZWM2NmQ4ZThmMWY5MDg2NjUxNDBlZTcwMjZjNTI5NzY2N2E5MGZkZWJiNDU0ODRkNGU5YTJhNGU4M2VkNmIzMGQ1MmQ0OWQwZDJhYmMwNmJmNjdlYzk=";
+
+    private TokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        tokenProvider = new TokenProvider(jHipsterProperties);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "user",
+            "",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))
+        );
+        token = tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return tokenProvider.getAuthentication(token);
+    }
+}
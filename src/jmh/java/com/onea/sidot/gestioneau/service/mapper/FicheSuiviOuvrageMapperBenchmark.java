@@ -0,0 +1,101 @@
+package com.onea.sidot.gestioneau.service.mapper;
+
+import com.onea.sidot.gestioneau.domain.*;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Benchmarks of the {@link FicheSuiviOuvrageMapper}, with the references of a sheet set as when it is read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FicheSuiviOuvrageMapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    private FicheSuiviOuvrage ficheSuiviOuvrage;
+
+    private FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO;
+
+    /**
+     * Create a sheet with all its fields and references set.
+     *
+     * @param id the id of the sheet.
+     * @return the sheet.
+     */
+    public static FicheSuiviOuvrage createFicheSuiviOuvrage(long id) {
+        Instant date = Instant.parse("2021-03-01T08:00:00Z").plus(id % 365, ChronoUnit.DAYS);
+        FicheSuiviOuvrage ficheSuiviOuvrage = new FicheSuiviOuvrage()
+            .prjAppuis("PRJ-" + id)
+            .nomBenef("OUEDRAOGO")
+            .prenomBenef("Aminata")
+            .professionBenef("Commercante")
+            .nbUsagers(8L)
+            .contacts("70 00 00 00")
+            .longitude(-1.5197f)
+            .latitude(12.3714f)
+            .dateRemiseDevis(date)
+            .dateDebutTravaux(date.plus(7, ChronoUnit.DAYS))
+            .dateFinTravaux(date.plus(21, ChronoUnit.DAYS))
+            .rue("Rue 12.34")
+            .porte("56")
+            .coutMenage("25000")
+            .subvOnea(50000)
+            .subvProjet(30000)
+            .autreSubv(0)
+            .toles(4)
+            .animateur("Animateur")
+            .superviseur("Superviseur")
+            .controleur("Controleur")
+            .parcelle(new Parcelle().id(id % 1000).libelle("Parcelle " + id % 1000))
+            .natureouvrage(new NatureOuvrage().id(1L).libelle("Latrine VIP"))
+            .typehabitation(new TypeHabitation().id(2L).libelle("Concession"))
+            .sourceapprovep(new SourceApprovEp().id(3L).libelle("Borne fontaine"))
+            .modeevacuationeauusee(new ModeEvacuationEauUsee().id(4L).libelle("Puisard"))
+            .modeevacexcreta(new ModeEvacExcreta().id(5L).libelle("Fosse"))
+            .macon(new Macon().id(6L).libelle("Macon"))
+            .prefabricant(new Prefabricant().id(7L).libelle("Prefabricant"));
+        ficheSuiviOuvrage.setId(id);
+        return ficheSuiviOuvrage;
+    }
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(FicheSuiviOuvrageMapper.class.getPackageName());
+        ficheSuiviOuvrageMapper = context.getBean(FicheSuiviOuvrageMapper.class);
+        ficheSuiviOuvrage = createFicheSuiviOuvrage(1L);
+        ficheSuiviOuvrageDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrageDTO toDto() {
+        return ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrage toEntity() {
+        return ficheSuiviOuvrageMapper.toEntity(ficheSuiviOuvrageDTO);
+    }
+
+    @Benchmark
+    public FicheSuiviOuvrage partialUpdate() {
+        FicheSuiviOuvrage target = new FicheSuiviOuvrage();
+        ficheSuiviOuvrageMapper.partialUpdate(target, ficheSuiviOuvrageDTO);
+        return target;
+    }
+}
@@ -0,0 +1,309 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory stand-in for Elasticsearch, for the load tests of the {@code loadtest} profile, which run without an
+ * Elasticsearch node.
+ * <p>
+ * It answers the requests of the application as a single node Elasticsearch 7 would: the documents are kept by index
+ * and id, and a search returns the page it asks for of all the documents of the index, in id order, without
+ * evaluating the query, the sorts or the aggregations. The other requests, on the settings, mappings and aliases,
+ * are acknowledged and ignored. The search scenarios thus measure the application around Elasticsearch, not
+ * Elasticsearch itself.
+ */
+public class ElasticsearchStandIn {
+
+    private static final String DOCUMENT_TYPE = "_doc";
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final Logger log = LoggerFactory.getLogger(ElasticsearchStandIn.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    // Ids in numeric order, as the ids of the entities are numbers
+    private final Comparator<String> idOrder = Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private final ConcurrentMap<String, ConcurrentNavigableMap<String, JsonNode>> indices = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequenceNumber = new AtomicLong();
+
+    ElasticsearchStandIn(ObjectMapper objectMapper, int port, int threads) throws IOException {
+        this.objectMapper = objectMapper;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        log.info("Elasticsearch stand-in listening on port {}", getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            List<String> path = new ArrayList<>();
+            for (String segment : exchange.getRequestURI().getPath().split("/")) {
+                if (!segment.isEmpty()) {
+                    path.add(segment);
+                }
+            }
+            String query = exchange.getRequestURI().getQuery();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            Response response;
+            try {
+                response = route(method, path, query == null ? "" : query, body);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Elasticsearch stand-in could not answer {} {}: {}", method, exchange.getRequestURI(), e.getMessage());
+                ObjectNode error = objectMapper.createObjectNode();
+                error.putObject("error").put("type", "stand_in_exception").put("reason", String.valueOf(e.getMessage()));
+                error.put("status", 500);
+                response = new Response(500, error);
+            }
+            send(exchange, method, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(String method, List<String> path, String query, byte[] body) throws IOException {
+        if (path.isEmpty()) {
+            return new Response(200, getInfo());
+        }
+        String last = path.get(path.size() - 1);
+        if ("_bulk".equals(last)) {
+            return new Response(200, bulk(path.size() > 1 ? path.get(0) : null, body));
+        }
+        if (path.size() == 2 && "_search".equals(path.get(0)) && "scroll".equals(path.get(1))) {
+            // The first page of a scroll has all the hits
+            return "DELETE".equals(method) ? new Response(200, scrollCleared()) : new Response(200, searchResult(List.of(), 0, true));
+        }
+        String index = path.get(0);
+        if (path.size() == 1) {
+            return indexRequest(method, index);
+        }
+        if ("_search".equals(last)) {
+            return new Response(200, search(index, body, query.contains("scroll=")));
+        }
+        if ("_count".equals(last)) {
+            return new Response(200, objectMapper.createObjectNode().put("count", getIndex(index).size()).set("_shards", shards()));
+        }
+        if ("_refresh".equals(last) || "_flush".equals(last)) {
+            return new Response(200, objectMapper.createObjectNode().set("_shards", shards()));
+        }
+        if (path.size() == 3 && List.of(DOCUMENT_TYPE, "_create", "_update").contains(path.get(1))) {
+            return documentRequest(method, index, path.get(1), path.get(2), body);
+        }
+        if (path.size() == 2 && DOCUMENT_TYPE.equals(path.get(1))) {
+            return documentRequest(method, index, DOCUMENT_TYPE, String.valueOf(sequenceNumber.incrementAndGet()), body);
+        }
+        return new Response(200, acknowledged());
+    }
+
+    private Response indexRequest(String method, String index) {
+        switch (method) {
+            case "HEAD":
+                return new Response(200, null);
+            case "DELETE":
+                indices.remove(index);
+                return new Response(200, acknowledged());
+            case "PUT":
+                getIndex(index);
+                return new Response(200, acknowledged().put("shards_acknowledged", true).put("index", index));
+            default:
+                return new Response(200, objectMapper.createObjectNode().set(index, objectMapper.createObjectNode()));
+        }
+    }
+
+    private Response documentRequest(String method, String index, String endpoint, String id, byte[] body) throws IOException {
+        ConcurrentNavigableMap<String, JsonNode> documents = getIndex(index);
+        if ("DELETE".equals(method)) {
+            boolean found = documents.remove(id) != null;
+            return new Response(found ? 200 : 404, writeResult(index, id, found ? "deleted" : "not_found"));
+        }
+        if ("GET".equals(method)) {
+            JsonNode source = documents.get(id);
+            ObjectNode result = hit(index, id, source).put("_version", 1).put("found", source != null);
+            return new Response(source == null ? 404 : 200, result);
+        }
+        JsonNode source = objectMapper.readTree(body);
+        if ("_update".equals(endpoint)) {
+            source = update(documents.get(id), source);
+        }
+        boolean created = documents.put(id, source) == null;
+        return new Response(created ? 201 : 200, writeResult(index, id, created ? "created" : "updated"));
+    }
+
+    private ObjectNode bulk(String defaultIndex, byte[] body) throws IOException {
+        ArrayNode items = objectMapper.createArrayNode();
+        String[] lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            Map.Entry<String, JsonNode> action = objectMapper.readTree(lines[i]).fields().next();
+            String index = action.getValue().path("_index").asText(defaultIndex);
+            String id = action.getValue().path("_id").asText(String.valueOf(sequenceNumber.incrementAndGet()));
+            ConcurrentNavigableMap<String, JsonNode> documents = getIndex(index);
+            ObjectNode result;
+            if ("delete".equals(action.getKey())) {
+                boolean found = documents.remove(id) != null;
+                result = writeResult(index, id, found ? "deleted" : "not_found").put("status", found ? 200 : 404);
+            } else {
+                JsonNode source = objectMapper.readTree(lines[++i]);
+                if ("update".equals(action.getKey())) {
+                    source = update(documents.get(id), source);
+                }
+                boolean created = documents.put(id, source) == null;
+                result = writeResult(index, id, created ? "created" : "updated").put("status", created ? 201 : 200);
+            }
+            items.addObject().set(action.getKey(), result);
+        }
+        ObjectNode response = objectMapper.createObjectNode().put("took", 0).put("errors", false);
+        response.set("items", items);
+        return response;
+    }
+
+    private ObjectNode search(String index, byte[] body, boolean scroll) throws IOException {
+        JsonNode request = body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+        int from = request.path("from").asInt(0);
+        int size = request.path("size").asInt(DEFAULT_SIZE);
+        ConcurrentNavigableMap<String, JsonNode> documents = getIndex(index);
+        List<ObjectNode> hits = new ArrayList<>();
+        documents
+            .entrySet()
+            .stream()
+            .skip(from)
+            .limit(size)
+            .forEach(document -> hits.add(hit(index, document.getKey(), document.getValue()).put("_score", 1.0)));
+        return searchResult(hits, documents.size(), scroll);
+    }
+
+    private ObjectNode searchResult(List<ObjectNode> hits, long total, boolean scroll) {
+        ObjectNode result = objectMapper.createObjectNode().put("took", 0).put("timed_out", false);
+        if (scroll) {
+            result.put("_scroll_id", "stand-in");
+        }
+        result.set("_shards", shards().put("skipped", 0));
+        ObjectNode hitsNode = result.putObject("hits");
+        hitsNode.putObject("total").put("value", total).put("relation", "eq");
+        hitsNode.put("max_score", 1.0);
+        hitsNode.putArray("hits").addAll(hits);
+        return result;
+    }
+
+    private ObjectNode hit(String index, String id, JsonNode source) {
+        ObjectNode hit = objectMapper.createObjectNode().put("_index", index).put("_type", DOCUMENT_TYPE).put("_id", id);
+        if (source != null) {
+            hit.set("_source", source);
+        }
+        return hit;
+    }
+
+    private JsonNode update(JsonNode current, JsonNode update) {
+        ObjectNode document = current == null ? objectMapper.createObjectNode() : (ObjectNode) current.deepCopy();
+        JsonNode changes = update.has("doc") ? update.get("doc") : update.path("upsert");
+        if (changes.isObject()) {
+            document.setAll((ObjectNode) changes);
+        }
+        return document;
+    }
+
+    private ObjectNode writeResult(String index, String id, String result) {
+        ObjectNode node = objectMapper
+            .createObjectNode()
+            .put("_index", index)
+            .put("_type", DOCUMENT_TYPE)
+            .put("_id", id)
+            .put("_version", 1)
+            .put("result", result);
+        node.set("_shards", shards());
+        return node.put("_seq_no", sequenceNumber.incrementAndGet()).put("_primary_term", 1);
+    }
+
+    private ObjectNode getInfo() {
+        ObjectNode info = objectMapper.createObjectNode().put("name", "stand-in").put("cluster_name", "stand-in");
+        info.putObject("version").put("number", "7.9.3").put("lucene_version", "8.6.2");
+        return info.put("tagline", "You Know, for Search");
+    }
+
+    private ObjectNode scrollCleared() {
+        return objectMapper.createObjectNode().put("succeeded", true).put("num_freed", 1);
+    }
+
+    private ObjectNode acknowledged() {
+        return objectMapper.createObjectNode().put("acknowledged", true);
+    }
+
+    private ObjectNode shards() {
+        return objectMapper.createObjectNode().put("total", 1).put("successful", 1).put("failed", 0);
+    }
+
+    private ConcurrentNavigableMap<String, JsonNode> getIndex(String index) {
+        return indices.computeIfAbsent(index, key -> new ConcurrentSkipListMap<>(idOrder));
+    }
+
+    private void send(HttpExchange exchange, String method, Response response) throws IOException {
+        if (response.body == null || "HEAD".equals(method)) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(response.body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static final class Response {
+
+        private final int status;
+
+        private final JsonNode body;
+
+        Response(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
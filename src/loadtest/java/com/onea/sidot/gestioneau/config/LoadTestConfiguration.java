@@ -0,0 +1,53 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the load test profile, whose Elasticsearch is the {@link ElasticsearchStandIn}.
+ * <p>
+ * Compiled from {@code src/loadtest/java} by the {@code loadtest} maven profile only, so it is not shipped.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_LOADTEST)
+public class LoadTestConfiguration {
+
+    private static final int STAND_IN_THREADS = 16;
+
+    /**
+     * Start the Elasticsearch stand-in on the port of {@code spring.elasticsearch.rest.uris}.
+     *
+     * @param objectMapper the mapper of the documents.
+     * @param uris the Elasticsearch URIs, the first one is the stand-in's.
+     * @return the stand-in.
+     * @throws IOException if the port cannot be bound.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ElasticsearchStandIn elasticsearchStandIn(
+        ObjectMapper objectMapper,
+        @Value("${spring.elasticsearch.rest.uris}") String[] uris
+    ) throws IOException {
+        return new ElasticsearchStandIn(objectMapper, URI.create(uris[0]).getPort(), STAND_IN_THREADS);
+    }
+
+    /**
+     * The Elasticsearch client, built once the stand-in started, as the search repositories check their index when
+     * they are created. It replaces the one of the Spring Boot auto-configuration.
+     *
+     * @param restClientBuilder the builder configured by Spring Boot.
+     * @return the client.
+     */
+    @Bean
+    @DependsOn("elasticsearchStandIn")
+    public RestHighLevelClient elasticsearchRestHighLevelClient(RestClientBuilder restClientBuilder) {
+        return new RestHighLevelClient(restClientBuilder);
+    }
+}
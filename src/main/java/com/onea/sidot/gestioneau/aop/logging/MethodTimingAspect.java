@@ -0,0 +1,219 @@
+package com.onea.sidot.gestioneau.aop.logging;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect timing the service, repository and Web REST endpoint methods, cheap enough to run in production.
+ * <p>
+ * A sample of the calls, {@link ApplicationProperties.MethodTiming#getSampleRate()}, is recorded in the
+ * {@code method.timed} timer tagged with the class, the method and the exception thrown, whose histogram is
+ * published as configured by {@code management.metrics.distribution}: the counts of the timers are the ones of the
+ * sampled calls. Every call slower than {@link ApplicationProperties.MethodTiming#getSlowThresholdMs()} is logged
+ * with its arguments, each cut to {@link ApplicationProperties.MethodTiming#getMaxArgumentLength()} characters; the
+ * other calls do not turn their arguments into strings.
+ * <p>
+ * Only the scalar and text arguments are logged with their value: the collections and arrays are logged with their
+ * type and size, and the other objects, such as the DTOs, which may hold personal data, with their type only. The
+ * calls streaming to an {@link OutputStream}, a {@link Writer} or a response, such as the export and the sync, last
+ * as long as the client takes to read them, and are not logged.
+ */
+@Aspect
+public class MethodTimingAspect {
+
+    static final String TIMER_NAME = "method.timed";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final double sampleRate;
+
+    private final long slowThresholdNanos;
+
+    private final int maxArgumentLength;
+
+    // By bean class, as the methods inherited by the repositories are declared by the Spring Data interfaces
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.MethodTiming properties = applicationProperties.getMethodTiming();
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = properties.getSampleRate();
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowThresholdMs());
+        this.maxArgumentLength = properties.getMaxArgumentLength();
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut(
+        "within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)"
+    )
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut(
+        "within(com.onea.sidot.gestioneau.repository..*)" +
+        " || within(com.onea.sidot.gestioneau.service..*)" +
+        " || within(com.onea.sidot.gestioneau.web.rest..*)"
+    )
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method, and logs it if it is slow.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception thrown by the method.
+     */
+    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean sampled = sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        long start = System.nanoTime();
+        Throwable exception = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (sampled) {
+                getTimer(joinPoint, exception).record(duration, TimeUnit.NANOSECONDS);
+            }
+            if (duration >= slowThresholdNanos) {
+                logSlowCall(joinPoint, duration);
+            }
+        }
+    }
+
+    private Timer getTimer(ProceedingJoinPoint joinPoint, Throwable exception) {
+        Class<?> beanClass = joinPoint.getThis().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        if (exception == null) {
+            return timers
+                .computeIfAbsent(beanClass, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> buildTimer(beanClass, method, NO_EXCEPTION));
+        }
+        // Seldom, so the timer is looked up in the registry rather than kept
+        return buildTimer(beanClass, method, exception.getClass().getSimpleName());
+    }
+
+    private Timer buildTimer(Class<?> beanClass, Method method, String exception) {
+        return Timer
+            .builder(TIMER_NAME)
+            .description("Duration of the service, repository and REST endpoint methods")
+            .tag("class", getUserClass(beanClass).getSimpleName())
+            .tag("method", method.getName())
+            .tag("exception", exception)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the class of the bean, or for a JDK proxy its first interface, which is the repository interface.
+     */
+    private static Class<?> getUserClass(Class<?> beanClass) {
+        if (Proxy.isProxyClass(beanClass) && beanClass.getInterfaces().length > 0) {
+            return beanClass.getInterfaces()[0];
+        }
+        return ClassUtils.getUserClass(beanClass);
+    }
+
+    private void logSlowCall(ProceedingJoinPoint joinPoint, long duration) {
+        Logger logger = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+        if (logger.isWarnEnabled() && !isStreaming(joinPoint.getArgs())) {
+            logger.warn(
+                "Slow call: {}() took {} ms with argument[s] = {}",
+                joinPoint.getSignature().getName(),
+                TimeUnit.NANOSECONDS.toMillis(duration),
+                formatArguments(joinPoint.getArgs())
+            );
+        }
+    }
+
+    private static boolean isStreaming(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof OutputStream || argument instanceof Writer || argument instanceof ServletResponse) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String formatArguments(Object[] arguments) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < arguments.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            appendArgument(builder, arguments[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    private void appendArgument(StringBuilder builder, Object argument) {
+        if (argument == null) {
+            builder.append("null");
+        } else if (argument instanceof CharSequence) {
+            CharSequence text = (CharSequence) argument;
+            if (text.length() <= maxArgumentLength) {
+                builder.append(text);
+            } else {
+                builder.append(text, 0, maxArgumentLength).append("... (").append(text.length()).append(" characters)");
+            }
+        } else if (
+            argument instanceof Number ||
+            argument instanceof Boolean ||
+            argument instanceof Character ||
+            argument instanceof Enum ||
+            argument instanceof TemporalAccessor ||
+            argument instanceof UUID
+        ) {
+            builder.append(argument);
+        } else if (argument instanceof Collection) {
+            builder.append(argument.getClass().getSimpleName()).append("(size=").append(((Collection<?>) argument).size()).append(')');
+        } else if (argument instanceof Map) {
+            builder.append(argument.getClass().getSimpleName()).append("(size=").append(((Map<?, ?>) argument).size()).append(')');
+        } else if (argument.getClass().isArray()) {
+            builder
+                .append(argument.getClass().getComponentType().getSimpleName())
+                .append('[')
+                .append(Array.getLength(argument))
+                .append(']');
+        } else {
+            builder.append(ClassUtils.getUserClass(argument).getSimpleName());
+        }
+    }
+}
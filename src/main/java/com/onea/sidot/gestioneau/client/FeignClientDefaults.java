@@ -0,0 +1,40 @@
+package com.onea.sidot.gestioneau.client;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import feign.Client;
+import feign.Feign;
+import feign.Retryer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Scope;
+
+/**
+ * Configuration of each Feign client, registered in the context of the client by
+ * {@link com.onea.sidot.gestioneau.config.FeignConfiguration}: it is not a {@code @Configuration}, so that it is not
+ * picked by the component scan.
+ * <p>
+ * The HTTP client of the Feign client, the pooled Apache client behind the load balancer, is wrapped in a
+ * {@link GuardedFeignClient} with the settings of {@code application.feign-clients.clients.<name>}, or the defaults.
+ */
+public class FeignClientDefaults {
+
+    @Bean
+    @Scope("prototype")
+    public Feign.Builder feignBuilder(
+        Retryer retryer,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        @Value("${feign.client.name}") String clientName
+    ) {
+        ApplicationProperties.FeignClients feignClients = applicationProperties.getFeignClients();
+        ApplicationProperties.FeignClient settings = feignClients.getClients().getOrDefault(clientName, feignClients.getDefaults());
+        return new Feign.Builder() {
+            @Override
+            public Feign.Builder client(Client client) {
+                return super.client(new GuardedFeignClient(client, clientName, settings, meterRegistry));
+            }
+        }
+            .retryer(retryer);
+    }
+}
@@ -0,0 +1,174 @@
+package com.onea.sidot.gestioneau.client;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.config.ExpiringCache;
+import com.onea.sidot.gestioneau.security.SecurityUtils;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Feign {@link Client} of a peer service which bounds the calls in flight, times them, and may cache the responses of
+ * the GET requests.
+ * <p>
+ * The calls in flight are bounded by a bulkhead, so that a slow peer holds at most the max concurrent calls request
+ * threads: a call which does not get in within the max wait fails with an {@link IOException}, which Feign rethrows as
+ * a {@code RetryableException}. The calls are published as the {@code feign.client.requests} timer, tagged with the
+ * client, the method, the status and the exception.
+ * <p>
+ * When the cache time to live is positive, the successful responses of the GET requests are buffered and kept for that
+ * long, keyed by the current user and the URL since the peer answers with the data the user may see, in an
+ * {@link ExpiringCache} whose meters are the ones of the {@code feign-<client>} cache.
+ */
+public class GuardedFeignClient implements Client {
+
+    private static final String NONE = "none";
+
+    private final Client delegate;
+
+    private final String clientName;
+
+    private final Semaphore bulkhead;
+
+    private final long maxWaitMs;
+
+    private final long cacheTimeToLiveMs;
+
+    private final int cacheMaxSize;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final ExpiringCache<String, CachedResponse> cache;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public GuardedFeignClient(Client delegate, String clientName, ApplicationProperties.FeignClient settings, MeterRegistry meterRegistry) {
+        this(delegate, clientName, settings, meterRegistry, Clock.systemUTC());
+    }
+
+    GuardedFeignClient(
+        Client delegate,
+        String clientName,
+        ApplicationProperties.FeignClient settings,
+        MeterRegistry meterRegistry,
+        Clock clock
+    ) {
+        this.delegate = delegate;
+        this.clientName = clientName;
+        this.bulkhead = new Semaphore(settings.getMaxConcurrentCalls(), true);
+        this.maxWaitMs = settings.getMaxWaitMs();
+        this.cacheTimeToLiveMs = TimeUnit.SECONDS.toMillis(settings.getCacheTimeToLiveSeconds());
+        this.cacheMaxSize = settings.getCacheMaxSize();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.cache = new ExpiringCache<>(Math.max(cacheMaxSize, 0), clock);
+        if (isCacheEnabled()) {
+            cache.bindTo(meterRegistry, "feign-" + clientName);
+        }
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!isCacheEnabled() || request.httpMethod() != Request.HttpMethod.GET) {
+            return call(request, options);
+        }
+        String key = SecurityUtils.getCurrentUserLogin().orElse("") + ' ' + request.url();
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            return cached.toResponse(request);
+        }
+        Response response = call(request, options);
+        if (response.status() != 200 || response.body() == null) {
+            return response;
+        }
+        CachedResponse buffered;
+        try (InputStream body = response.body().asInputStream()) {
+            buffered = new CachedResponse(response, StreamUtils.copyToByteArray(body));
+        }
+        cache.put(key, buffered, clock.millis() + cacheTimeToLiveMs);
+        return buffered.toResponse(request);
+    }
+
+    private Response call(Request request, Request.Options options) throws IOException {
+        long start = meterRegistry.config().clock().monotonicTime();
+        try {
+            if (!bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                record(request, 0, "BulkheadFullException", start);
+                throw new IOException("Too many concurrent calls of the Feign client " + clientName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a call of the Feign client " + clientName);
+        }
+        try {
+            Response response = delegate.execute(request, options);
+            record(request, response.status(), NONE, start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            record(request, 0, e.getClass().getSimpleName(), start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void record(Request request, int status, String exception, long start) {
+        String method = request.httpMethod().name();
+        String statusTag = status == 0 ? NONE : String.valueOf(status);
+        timers
+            .computeIfAbsent(method + ' ' + statusTag + ' ' + exception, key -> buildTimer(method, statusTag, exception))
+            .record(meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer buildTimer(String method, String status, String exception) {
+        return Timer
+            .builder("feign.client.requests")
+            .description("Calls of the peer services, including the wait for the bulkhead")
+            .tag("client", clientName)
+            .tag("method", method)
+            .tag("status", status)
+            .tag("exception", exception)
+            .register(meterRegistry);
+    }
+
+    private boolean isCacheEnabled() {
+        return cacheTimeToLiveMs > 0 && cacheMaxSize > 0;
+    }
+
+    private static final class CachedResponse {
+
+        private final int status;
+
+        private final String reason;
+
+        private final Map<String, Collection<String>> headers;
+
+        private final byte[] body;
+
+        CachedResponse(Response response, byte[] body) {
+            this.status = response.status();
+            this.reason = response.reason();
+            this.headers = response.headers();
+            this.body = body;
+        }
+
+        Response toResponse(Request request) {
+            return Response.builder().status(status).reason(reason).headers(headers).body(body).request(request).build();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.onea.sidot.gestioneau.config;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +13,645 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final SearchOutbox searchOutbox = new SearchOutbox();
+
+    private final SearchReindex searchReindex = new SearchReindex();
+
+    private final LocationTree locationTree = new LocationTree();
+
+    private final MapClusters mapClusters = new MapClusters();
+
+    private final EntityVersions entityVersions = new EntityVersions();
+
+    private final Sync sync = new Sync();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final Execution execution = new Execution();
+
+    private final FeignClients feignClients = new FeignClients();
+
+    private final SearchFacets searchFacets = new SearchFacets();
+
+    private final List<CacheRegion> cacheRegions = new ArrayList<>();
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public SearchOutbox getSearchOutbox() {
+        return searchOutbox;
+    }
+
+    public SearchReindex getSearchReindex() {
+        return searchReindex;
+    }
+
+    public LocationTree getLocationTree() {
+        return locationTree;
+    }
+
+    public MapClusters getMapClusters() {
+        return mapClusters;
+    }
+
+    public EntityVersions getEntityVersions() {
+        return entityVersions;
+    }
+
+    public Sync getSync() {
+        return sync;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public FeignClients getFeignClients() {
+        return feignClients;
+    }
+
+    public SearchFacets getSearchFacets() {
+        return searchFacets;
+    }
+
+    public List<CacheRegion> getCacheRegions() {
+        return cacheRegions;
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of rows persisted and indexed per transaction by the bulk import endpoints.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Upper bound for the chunk size a client may request.
+         */
+        private int maxChunkSize = 5000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxChunkSize() {
+            return maxChunkSize;
+        }
+
+        public void setMaxChunkSize(int maxChunkSize) {
+            this.maxChunkSize = maxChunkSize;
+        }
+    }
+
+    public static class SearchOutbox {
+
+        /**
+         * Number of outbox entries indexed per Elasticsearch bulk request.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay between two polls of the outbox, which pick up the retries and the entries of other instances.
+         */
+        private long pollIntervalMs = 1000;
+
+        /**
+         * Delay before the first retry of a failed entry, doubled on each following failure.
+         */
+        private long initialBackoffMs = 1000;
+
+        /**
+         * Upper bound of the delay between two retries.
+         */
+        private long maxBackoffMs = 300000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    public static class SearchReindex {
+
+        /**
+         * Number of rows read from the database and sent per Elasticsearch bulk request by the reindex job.
+         */
+        private int batchSize = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class LocationTree {
+
+        /**
+         * Upper bound for the number of levels of descendants returned under a node: 2 stops under the regions at the
+         * communes. The parcelles are only returned under a lot requested on its own.
+         */
+        private int maxDepth = 2;
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    public static class MapClusters {
+
+        /**
+         * Number of zoom levels the clusters are finer than the map tiles: 1 splits each tile in 2 x 2 cells. The
+         * max tiles times 4^cell-precision cells must stay within 3,120, checked at startup: each cell and its up to
+         * 20 nature d'ouvrage buckets count against the 65,535 Elasticsearch search.max_buckets.
+         */
+        private int cellPrecision = 1;
+
+        /**
+         * Upper bound for the number of map tiles of a viewport.
+         */
+        private int maxTiles = 100;
+
+        /**
+         * Time to live of the cached clusters of a tile, in case an eviction is missed.
+         */
+        private int timeToLiveSeconds = 3600;
+
+        public int getCellPrecision() {
+            return cellPrecision;
+        }
+
+        public void setCellPrecision(int cellPrecision) {
+            this.cellPrecision = cellPrecision;
+        }
+
+        public int getMaxTiles() {
+            return maxTiles;
+        }
+
+        public void setMaxTiles(int maxTiles) {
+            this.maxTiles = maxTiles;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+    }
+
+    public static class EntityVersions {
+
+        /**
+         * Upper bound for the number of entity versions kept per member to answer the conditional GETs.
+         */
+        private int maxSize = 100000;
+
+        /**
+         * Time to live of a kept version, in case a change is missed.
+         */
+        private int timeToLiveSeconds = 3600;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+    }
+
+    public static class Sync {
+
+        /**
+         * Number of rows read from the database per query by the delta sync endpoint.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Rows modified up to this long before a sync token are sent again, for the transactions which committed
+         * after the token was issued.
+         */
+        private int overlapSeconds = 60;
+
+        /**
+         * Time the deletions are kept for; a token older than that gets a full sync.
+         */
+        private int tombstoneRetentionDays = 90;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getOverlapSeconds() {
+            return overlapSeconds;
+        }
+
+        public void setOverlapSeconds(int overlapSeconds) {
+            this.overlapSeconds = overlapSeconds;
+        }
+
+        public int getTombstoneRetentionDays() {
+            return tombstoneRetentionDays;
+        }
+
+        public void setTombstoneRetentionDays(int tombstoneRetentionDays) {
+            this.tombstoneRetentionDays = tombstoneRetentionDays;
+        }
+    }
+
+    public static class MethodTiming {
+
+        /**
+         * Whether the service, repository and REST endpoint methods are timed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Share of the calls recorded in the method timers, from 0 to 1.
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * Duration from which a call is logged with its arguments.
+         */
+        private long slowThresholdMs = 1000;
+
+        /**
+         * Upper bound for the length of each text argument of a slow call in the log.
+         */
+        private int maxArgumentLength = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getSlowThresholdMs() {
+            return slowThresholdMs;
+        }
+
+        public void setSlowThresholdMs(long slowThresholdMs) {
+            this.slowThresholdMs = slowThresholdMs;
+        }
+
+        public int getMaxArgumentLength() {
+            return maxArgumentLength;
+        }
+
+        public void setMaxArgumentLength(int maxArgumentLength) {
+            this.maxArgumentLength = maxArgumentLength;
+        }
+    }
+
+    public static class TokenCache {
+
+        /**
+         * Upper bound for the number of verified JWT tokens kept per member, 0 to verify every request.
+         */
+        private int maxSize = 10000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class Execution {
+
+        /**
+         * How the requests and the {@code @Async} tasks are run.
+         */
+        private ExecutionMode mode = ExecutionMode.POOLED;
+
+        /**
+         * Upper bound for the number of request threads, and for the number of task threads, in the elastic mode.
+         */
+        private int maxThreads = 1000;
+
+        public ExecutionMode getMode() {
+            return mode;
+        }
+
+        public void setMode(ExecutionMode mode) {
+            this.mode = mode;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+    }
+
+    public enum ExecutionMode {
+        /**
+         * The requests run on the Undertow worker pool of {@code server.undertow.threads}, and the tasks queue for the
+         * core threads of {@code spring.task.execution.pool}.
+         */
+        POOLED,
+
+        /**
+         * A thread per request and per task, started on demand up to the max threads and kept while busy, for the
+         * bursts of blocking calls: the tasks do not queue, and the requests wait for a database connection rather
+         * than for a thread.
+         */
+        ELASTIC
+    }
+
+    public static class FeignClients {
+
+        /**
+         * Settings of the Feign clients which are not in the clients.
+         */
+        private FeignClient defaults = new FeignClient();
+
+        /**
+         * Settings of the Feign clients by name.
+         */
+        private Map<String, FeignClient> clients = new HashMap<>();
+
+        public FeignClient getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(FeignClient defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, FeignClient> getClients() {
+            return clients;
+        }
+
+        public void setClients(Map<String, FeignClient> clients) {
+            this.clients = clients;
+        }
+    }
+
+    public static class FeignClient {
+
+        /**
+         * Upper bound for the number of calls of the client in flight, the bulkhead keeping a slow peer from holding
+         * all the request threads.
+         */
+        private int maxConcurrentCalls = 20;
+
+        /**
+         * Time a call waits for one of the others to end when the bulkhead is full, before it fails.
+         */
+        private long maxWaitMs = 1000;
+
+        /**
+         * Time to live of the cached responses of the GET requests, 0 not to cache them.
+         */
+        private int cacheTimeToLiveSeconds = 0;
+
+        /**
+         * Upper bound for the number of responses cached.
+         */
+        private int cacheMaxSize = 1000;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getCacheTimeToLiveSeconds() {
+            return cacheTimeToLiveSeconds;
+        }
+
+        public void setCacheTimeToLiveSeconds(int cacheTimeToLiveSeconds) {
+            this.cacheTimeToLiveSeconds = cacheTimeToLiveSeconds;
+        }
+
+        public int getCacheMaxSize() {
+            return cacheMaxSize;
+        }
+
+        public void setCacheMaxSize(int cacheMaxSize) {
+            this.cacheMaxSize = cacheMaxSize;
+        }
+    }
+
+    public static class SearchFacets {
+
+        /**
+         * Facets counted by the faceted sheet search, per facet set name: each facet is a field of the sheet search
+         * fields, counted by id.
+         */
+        private Map<String, List<String>> sets = new HashMap<>(
+            Map.of(
+                "default",
+                List.of("natureouvrage", "typehabitation", "sourceapprovep", "modeevacuationeauusee", "modeevacexcreta", "macon", "annee")
+            )
+        );
+
+        /**
+         * Upper bound for the number of values counted per facet, the most frequent ones.
+         */
+        private int size = 100;
+
+        /**
+         * Time to live of the cached counts of a filter combination, the ones of the previous generations included.
+         */
+        private int timeToLiveSeconds = 600;
+
+        /**
+         * Upper bound for the number of cached counts per cluster member.
+         */
+        private int maxSize = 10000;
+
+        public Map<String, List<String>> getSets() {
+            return sets;
+        }
+
+        public void setSets(Map<String, List<String>> sets) {
+            this.sets = sets;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class CacheRegion {
+
+        /**
+         * Simple name of the entity, whose cache region, collection regions and Spring caches are configured.
+         */
+        private String name;
+
+        /**
+         * Time to live of the entries, or none for the one of all the domain caches.
+         */
+        private Integer timeToLiveSeconds;
+
+        /**
+         * Upper bound for the number of entries per cluster member, or 0 for no bound.
+         */
+        private int maxSize = 0;
+
+        /**
+         * Whether the members keep a local copy of the entries they read, invalidated when the entries change.
+         */
+        private boolean nearCache = false;
+
+        /**
+         * Upper bound for the number of entries of the near cache.
+         */
+        private int nearCacheMaxSize = 10000;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public boolean isNearCache() {
+            return nearCache;
+        }
+
+        public void setNearCache(boolean nearCache) {
+            this.nearCache = nearCache;
+        }
+
+        public int getNearCacheMaxSize() {
+            return nearCacheMaxSize;
+        }
+
+        public void setNearCacheMaxSize(int nearCacheMaxSize) {
+            this.nearCacheMaxSize = nearCacheMaxSize;
+        }
+    }
+}
@@ -23,8 +23,11 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties, ApplicationProperties applicationProperties) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -33,8 +36,15 @@ public class AsyncConfiguration implements AsyncConfigurer {
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
-        executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
-        executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
+        if (applicationProperties.getExecution().getMode() == ApplicationProperties.ExecutionMode.ELASTIC) {
+            // No queue: a task gets a new thread when the others are busy, and the idle threads stop after the keep alive
+            executor.setMaxPoolSize(applicationProperties.getExecution().getMaxThreads());
+            executor.setQueueCapacity(0);
+        } else {
+            executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
+            executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
+        }
+        executor.setKeepAliveSeconds((int) taskExecutionProperties.getPool().getKeepAlive().getSeconds());
         executor.setThreadNamePrefix(taskExecutionProperties.getThreadNamePrefix());
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
@@ -3,6 +3,10 @@ package com.onea.sidot.gestioneau.config;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.onea.sidot.gestioneau.domain.AbstractAuditingEntity;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageFacetService;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +17,7 @@ import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.client.serviceregistry.Registration;
@@ -27,6 +32,11 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    /**
+     * The package of the entities, prefixing the names of their Hibernate cache regions.
+     */
+    private static final String DOMAIN_PACKAGE = AbstractAuditingEntity.class.getPackageName();
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
@@ -38,12 +48,20 @@ public class CacheConfiguration {
 
     private final DiscoveryClient discoveryClient;
 
+    private final ApplicationProperties applicationProperties;
+
     private Registration registration;
 
-    public CacheConfiguration(Environment env, ServerProperties serverProperties, DiscoveryClient discoveryClient) {
+    public CacheConfiguration(
+        Environment env,
+        ServerProperties serverProperties,
+        DiscoveryClient discoveryClient,
+        ApplicationProperties applicationProperties
+    ) {
         this.env = env;
         this.serverProperties = serverProperties;
         this.discoveryClient = discoveryClient;
+        this.applicationProperties = applicationProperties;
     }
 
     @Autowired(required = false)
@@ -58,9 +76,22 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public CacheManager cacheManager(HazelcastInstance hazelcastInstance) {
+    public CacheManager cacheManager(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
         log.debug("Starting HazelcastCacheManager");
-        return new com.hazelcast.spring.cache.HazelcastCacheManager(hazelcastInstance);
+        // The puts and evictions wait for the transaction to commit. A read may still put data a change replaced after
+        // the eviction of the change: the cached lists are keyed by the generation of their cache, see
+        // GenerationalCacheManager
+        return new TransactionAwareCacheManagerProxy(
+            new GenerationalCacheManager(
+                new MeteredCacheManager(new com.hazelcast.spring.cache.HazelcastCacheManager(hazelcastInstance), meterRegistry),
+                hazelcastInstance.getMap(GenerationalCacheManager.CACHE_GENERATIONS_MAP)
+            )
+        );
+    }
+
+    @Bean(CacheGenerationKeyGenerator.NAME)
+    public KeyGenerator cacheGenerationKeyGenerator(HazelcastInstance hazelcastInstance) {
+        return new CacheGenerationKeyGenerator(hazelcastInstance.getMap(GenerationalCacheManager.CACHE_GENERATIONS_MAP));
     }
 
     @Bean
@@ -107,6 +138,16 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        for (ApplicationProperties.CacheRegion cacheRegion : applicationProperties.getCacheRegions()) {
+            String regionName = getRegionName(cacheRegion);
+            // The entity region, then the ones of its collections and the Spring caches named after it
+            config.addMapConfig(initializeRegionMapConfig(regionName, cacheRegion, jHipsterProperties));
+            config.addMapConfig(initializeRegionMapConfig(regionName + ".*", cacheRegion, jHipsterProperties));
+        }
+        config.addMapConfig(initializeCacheGenerationsMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeTableVersionsMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeEntityVersionsMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeFacetCountsMapConfig(applicationProperties.getSearchFacets(), jHipsterProperties));
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -146,6 +187,93 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    static MapConfig initializeRegionMapConfig(
+        String name,
+        ApplicationProperties.CacheRegion cacheRegion,
+        JHipsterProperties jHipsterProperties
+    ) {
+        MapConfig mapConfig = new MapConfig(name);
+        mapConfig.setTimeToLiveSeconds(
+            cacheRegion.getTimeToLiveSeconds() == null
+                ? jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds()
+                : cacheRegion.getTimeToLiveSeconds()
+        );
+        if (cacheRegion.getMaxSize() > 0) {
+            mapConfig
+                .getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                .setSize(cacheRegion.getMaxSize());
+        }
+        if (cacheRegion.isNearCache()) {
+            /*
+            The near cache saves the network round-trip of the reads on this member. It is invalidated when an entry
+            changes on any member, so the reads may only lag behind the writes of the other members by the time of the
+            invalidation.
+            */
+            NearCacheConfig nearCacheConfig = new NearCacheConfig().setInvalidateOnChange(true).setCacheLocalEntries(true);
+            nearCacheConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.LRU).setSize(cacheRegion.getNearCacheMaxSize());
+            mapConfig.setNearCacheConfig(nearCacheConfig);
+        }
+        return mapConfig;
+    }
+
+    private MapConfig initializeCacheGenerationsMapConfig(JHipsterProperties jHipsterProperties) {
+        // The generations must not be evicted, or the keys would go back to the ones of the cleared entries
+        MapConfig mapConfig = new MapConfig(GenerationalCacheManager.CACHE_GENERATIONS_MAP);
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.NONE);
+        return mapConfig;
+    }
+
+    private MapConfig initializeTableVersionsMapConfig(JHipsterProperties jHipsterProperties) {
+        // The counters must not be evicted, or the tags would go back to previous values
+        MapConfig mapConfig = new MapConfig(EntityVersionService.TABLE_VERSIONS_MAP);
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.NONE);
+        return mapConfig;
+    }
+
+    private MapConfig initializeEntityVersionsMapConfig(JHipsterProperties jHipsterProperties) {
+        ApplicationProperties.EntityVersions entityVersions = applicationProperties.getEntityVersions();
+        MapConfig mapConfig = new MapConfig(EntityVersionService.ENTITY_VERSIONS_MAP);
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.setTimeToLiveSeconds(entityVersions.getTimeToLiveSeconds());
+        mapConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(entityVersions.getMaxSize());
+        return mapConfig;
+    }
+
+    static MapConfig initializeFacetCountsMapConfig(
+        ApplicationProperties.SearchFacets searchFacets,
+        JHipsterProperties jHipsterProperties
+    ) {
+        MapConfig mapConfig = new MapConfig(FicheSuiviOuvrageFacetService.FACET_COUNTS_MAP);
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        mapConfig.setTimeToLiveSeconds(searchFacets.getTimeToLiveSeconds());
+        mapConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(EvictionPolicy.LRU)
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(searchFacets.getMaxSize());
+        return mapConfig;
+    }
+
+    /**
+     * @return the name of the Hibernate cache region of the entity of a cache region setting.
+     */
+    static String getRegionName(ApplicationProperties.CacheRegion cacheRegion) {
+        return DOMAIN_PACKAGE + "." + cacheRegion.getName();
+    }
+
+    @Bean
+    public CacheRegionMetrics cacheRegionMetrics(HazelcastInstance hazelcastInstance) {
+        return new CacheRegionMetrics(hazelcastInstance, applicationProperties.getCacheRegions());
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
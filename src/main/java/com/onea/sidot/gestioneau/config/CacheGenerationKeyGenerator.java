@@ -0,0 +1,45 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.hazelcast.map.IMap;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * Cache {@link KeyGenerator} prefixing the key of a read with the generation of its cache, see
+ * {@link GenerationalCacheManager}.
+ * <p>
+ * The cache is the single one named by the {@link Cacheable#cacheNames} of the method.
+ */
+public class CacheGenerationKeyGenerator implements KeyGenerator {
+
+    public static final String NAME = "cacheGenerationKeyGenerator";
+
+    private final IMap<String, Long> generations;
+
+    private final ConcurrentMap<Method, String> cacheNames = new ConcurrentHashMap<>();
+
+    public CacheGenerationKeyGenerator(IMap<String, Long> generations) {
+        this.generations = generations;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Object[] key = new Object[params.length + 1];
+        key[0] = generations.getOrDefault(cacheNames.computeIfAbsent(method, CacheGenerationKeyGenerator::getCacheName), 0L);
+        System.arraycopy(params, 0, key, 1, params.length);
+        return new SimpleKey(key);
+    }
+
+    private static String getCacheName(Method method) {
+        Cacheable cacheable = AnnotatedElementUtils.findMergedAnnotation(method, Cacheable.class);
+        if (cacheable == null || cacheable.cacheNames().length != 1) {
+            throw new IllegalStateException("No single cache for the generation of " + method);
+        }
+        return cacheable.cacheNames()[0];
+    }
+}
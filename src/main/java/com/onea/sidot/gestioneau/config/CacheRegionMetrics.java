@@ -0,0 +1,101 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.nearcache.NearCacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the statistics of the Hazelcast maps of the configured cache regions, tagged with the region name:
+ * {@code cache.region.gets} and {@code cache.region.hits}, the {@code cache.region.hit.ratio}, the
+ * {@code cache.region.get.latency}, the {@code cache.region.entries}, and the {@code cache.region.near.hits} and
+ * {@code cache.region.near.misses} of the regions with a near cache.
+ * <p>
+ * The statistics are the ones of this member, for the entries it owns.
+ */
+public class CacheRegionMetrics implements MeterBinder {
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final List<ApplicationProperties.CacheRegion> cacheRegions;
+
+    public CacheRegionMetrics(HazelcastInstance hazelcastInstance, List<ApplicationProperties.CacheRegion> cacheRegions) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.cacheRegions = cacheRegions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ApplicationProperties.CacheRegion cacheRegion : cacheRegions) {
+            String regionName = CacheConfiguration.getRegionName(cacheRegion);
+            IMap<Object, Object> map = hazelcastInstance.getMap(regionName);
+            FunctionCounter
+                .builder("cache.region.gets", map, statistic(LocalMapStats::getGetOperationCount))
+                .description("Reads of the cache region")
+                .tag("region", cacheRegion.getName())
+                .register(registry);
+            FunctionCounter
+                .builder("cache.region.hits", map, statistic(LocalMapStats::getHits))
+                .description("Reads of the cache region which found an entry")
+                .tag("region", cacheRegion.getName())
+                .register(registry);
+            Gauge
+                .builder("cache.region.hit.ratio", map, statistic(CacheRegionMetrics::getHitRatio))
+                .description("Share of the reads of the cache region which found an entry")
+                .tag("region", cacheRegion.getName())
+                .register(registry);
+            FunctionTimer
+                .builder(
+                    "cache.region.get.latency",
+                    map,
+                    regionMap -> regionMap.getLocalMapStats().getGetOperationCount(),
+                    regionMap -> regionMap.getLocalMapStats().getTotalGetLatency(),
+                    TimeUnit.MILLISECONDS
+                )
+                .description("Time spent reading the cache region")
+                .tag("region", cacheRegion.getName())
+                .register(registry);
+            Gauge
+                .builder("cache.region.entries", map, statistic(LocalMapStats::getOwnedEntryCount))
+                .description("Entries of the cache region owned by this member")
+                .tag("region", cacheRegion.getName())
+                .register(registry);
+            if (cacheRegion.isNearCache()) {
+                FunctionCounter
+                    .builder("cache.region.near.hits", map, nearCacheStatistic(NearCacheStats::getHits))
+                    .description("Reads of the cache region served by the near cache")
+                    .tag("region", cacheRegion.getName())
+                    .register(registry);
+                FunctionCounter
+                    .builder("cache.region.near.misses", map, nearCacheStatistic(NearCacheStats::getMisses))
+                    .description("Reads of the cache region missing the near cache")
+                    .tag("region", cacheRegion.getName())
+                    .register(registry);
+            }
+        }
+    }
+
+    private static double getHitRatio(LocalMapStats stats) {
+        long gets = stats.getGetOperationCount();
+        return gets == 0 ? Double.NaN : (double) stats.getHits() / gets;
+    }
+
+    private static ToDoubleFunction<IMap<Object, Object>> statistic(ToDoubleFunction<LocalMapStats> statistic) {
+        return map -> statistic.applyAsDouble(map.getLocalMapStats());
+    }
+
+    private static ToDoubleFunction<IMap<Object, Object>> nearCacheStatistic(ToDoubleFunction<NearCacheStats> statistic) {
+        return map -> {
+            NearCacheStats stats = map.getLocalMapStats().getNearCacheStats();
+            return stats == null ? 0 : statistic.applyAsDouble(stats);
+        };
+    }
+}
@@ -7,5 +7,10 @@ public final class Constants {
 
     public static final String SYSTEM = "system";
 
+    /**
+     * Spring profile of the load tests, added to the development profile.
+     */
+    public static final String SPRING_PROFILE_LOADTEST = "loadtest";
+
     private Constants() {}
 }
@@ -1,5 +1,6 @@
 package com.onea.sidot.gestioneau.config;
 
+import com.onea.sidot.gestioneau.repository.KeysetRepositoryImpl;
 import java.sql.SQLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +16,7 @@ import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
 @Configuration
-@EnableJpaRepositories("com.onea.sidot.gestioneau.repository")
+@EnableJpaRepositories(basePackages = "com.onea.sidot.gestioneau.repository", repositoryBaseClass = KeysetRepositoryImpl.class)
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
 @EnableElasticsearchRepositories("com.onea.sidot.gestioneau.repository.search")
@@ -0,0 +1,110 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of a member, bounded in size, whose entries expire each at its own date.
+ * <p>
+ * Backed by Caffeine: once the cache is full, the entries least likely to be read again are evicted in amortized
+ * constant time, and the expired entries are removed as the cache is used, without scanning it. This maintenance runs
+ * on the threads using the cache. The lookups are published as the {@code cache.gets} meter, tagged with whether the
+ * value was found, the removals as {@code cache.evictions}, and the entries as {@code cache.size}.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Clock clock;
+
+    private final Cache<K, Entry<V>> cache;
+
+    /**
+     * @param maxSize upper bound for the number of entries.
+     * @param clock the clock the expiration dates are compared with.
+     */
+    public ExpiringCache(int maxSize, Clock clock) {
+        this.clock = clock;
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(
+                    new Expiry<K, Entry<V>>() {
+                        @Override
+                        public long expireAfterCreate(K key, Entry<V> entry, long currentTime) {
+                            return entry.getTimeToLiveNanos(clock.millis());
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(K key, Entry<V> entry, long currentTime, long currentDuration) {
+                            return entry.getTimeToLiveNanos(clock.millis());
+                        }
+
+                        @Override
+                        public long expireAfterRead(K key, Entry<V> entry, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    }
+                )
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param key the key.
+     * @return the value, or {@code null} if it was not kept or has expired since.
+     */
+    public V get(K key) {
+        Entry<V> entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Keep a value until a date, unless the date is past.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @param expiresAt the date the value expires, in milliseconds since the epoch.
+     */
+    public void put(K key, V value, long expiresAt) {
+        if (expiresAt > clock.millis()) {
+            cache.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Publish the meters of the cache.
+     *
+     * @param registry the registry.
+     * @param cacheName the name of the cache, in the {@code cache} tag.
+     */
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        long getTimeToLiveNanos(long now) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - now));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.onea.sidot.gestioneau.config;
 
+import com.onea.sidot.gestioneau.client.FeignClientDefaults;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.cloud.openfeign.FeignClientsConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -7,7 +8,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 @Configuration
-@EnableFeignClients(basePackages = "com.onea.sidot.gestioneau")
+@EnableFeignClients(basePackages = "com.onea.sidot.gestioneau", defaultConfiguration = FeignClientDefaults.class)
 @Import(FeignClientsConfiguration.class)
 public class FeignConfiguration {
 
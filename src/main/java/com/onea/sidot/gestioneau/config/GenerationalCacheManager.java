@@ -0,0 +1,135 @@
+package com.onea.sidot.gestioneau.config;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Decorates the caches of a {@link CacheManager} to move the generation of a cache each time it is cleared.
+ * <p>
+ * The generation is read by the {@link CacheGenerationKeyGenerator} before the data, and is part of the keys: a read
+ * which started before a clear puts its value under a generation the next reads do not use anymore, even when the put
+ * lands after the clear. The generations are kept in the {@link #CACHE_GENERATIONS_MAP} map, shared by the members.
+ */
+public class GenerationalCacheManager implements CacheManager {
+
+    public static final String CACHE_GENERATIONS_MAP = "cache-generations";
+
+    private final CacheManager cacheManager;
+
+    private final IMap<String, Long> generations;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public GenerationalCacheManager(CacheManager cacheManager, IMap<String, Long> generations) {
+        this.cacheManager = cacheManager;
+        this.generations = generations;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache targetCache = cacheManager.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new GenerationalCache(targetCache, generations));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
+    static class GenerationalCache implements Cache {
+
+        private final Cache cache;
+
+        private final IMap<String, Long> generations;
+
+        GenerationalCache(Cache cache, IMap<String, Long> generations) {
+            this.cache = cache;
+            this.generations = generations;
+        }
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return cache.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return cache.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return cache.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            cache.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return cache.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            // First move the generation, so that no read puts a value of the previous generation after the clear
+            generations.executeOnKey(cache.getName(), new IncrementProcessor());
+            cache.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            generations.executeOnKey(cache.getName(), new IncrementProcessor());
+            return cache.invalidate();
+        }
+    }
+
+    /**
+     * Moves the generation of an entry of the {@link #CACHE_GENERATIONS_MAP} map.
+     */
+    public static class IncrementProcessor implements EntryProcessor<String, Long, Long> {
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            long value = entry.getValue() == null ? 1L : entry.getValue() + 1L;
+            entry.setValue(value);
+            return value;
+        }
+    }
+}
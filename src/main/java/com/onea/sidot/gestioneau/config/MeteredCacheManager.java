@@ -0,0 +1,157 @@
+package com.onea.sidot.gestioneau.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Decorates the caches of a {@link CacheManager} to count their lookups, as the {@code cache.gets} meter tagged with
+ * the cache name and whether the value was found, and their evictions, as {@code cache.evictions}.
+ * <p>
+ * The Hazelcast maps only count their hits, and only for the caches created before the meters are bound at startup.
+ */
+public class MeteredCacheManager implements CacheManager {
+
+    private final CacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public MeteredCacheManager(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache targetCache = cacheManager.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new MeteredCache(targetCache, meterRegistry));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
+    static class MeteredCache implements Cache {
+
+        private final Cache cache;
+
+        private final Counter hitCounter;
+
+        private final Counter missCounter;
+
+        private final Counter evictionCounter;
+
+        MeteredCache(Cache cache, MeterRegistry meterRegistry) {
+            this.cache = cache;
+            this.hitCounter = Counter
+                .builder("cache.gets")
+                .description("Cache lookups which found a value")
+                .tag("cache", cache.getName())
+                .tag("result", "hit")
+                .register(meterRegistry);
+            this.missCounter = Counter
+                .builder("cache.gets")
+                .description("Cache lookups which found no value")
+                .tag("cache", cache.getName())
+                .tag("result", "miss")
+                .register(meterRegistry);
+            this.evictionCounter = Counter
+                .builder("cache.evictions")
+                .description("Cache evictions")
+                .tag("cache", cache.getName())
+                .register(meterRegistry);
+        }
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper valueWrapper = cache.get(key);
+            count(valueWrapper != null);
+            return valueWrapper;
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            T value = cache.get(key, type);
+            count(value != null);
+            return value;
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            AtomicBoolean loaded = new AtomicBoolean();
+            T value = cache.get(
+                key,
+                () -> {
+                    loaded.set(true);
+                    return valueLoader.call();
+                }
+            );
+            count(!loaded.get());
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            evictionCounter.increment();
+            cache.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            evictionCounter.increment();
+            return cache.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            evictionCounter.increment();
+            cache.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            evictionCounter.increment();
+            return cache.invalidate();
+        }
+
+        private void count(boolean hit) {
+            (hit ? hitCounter : missCounter).increment();
+        }
+    }
+}
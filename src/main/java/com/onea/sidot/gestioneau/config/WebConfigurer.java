@@ -3,6 +3,7 @@ package com.onea.sidot.gestioneau.config;
 import javax.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
@@ -47,6 +48,30 @@ public class WebConfigurer implements ServletContextInitializer {
         log.info("Web application fully configured");
     }
 
+    /**
+     * Size the Undertow worker pool for the {@link ApplicationProperties.ExecutionMode#ELASTIC} execution mode.
+     * <p>
+     * The requests then wait for a database connection rather than for a thread: the Hikari pool is not to grow with
+     * the threads, the database does not run more queries at once with more connections than it has cores to run
+     * them, and its {@code connection-timeout} bounds the wait.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> executionModeCustomizer(
+        ApplicationProperties applicationProperties
+    ) {
+        return factory -> {
+            ApplicationProperties.Execution execution = applicationProperties.getExecution();
+            if (execution.getMode() == ApplicationProperties.ExecutionMode.ELASTIC) {
+                log.info(
+                    "Elastic execution mode: up to {} request threads share the {} connections of the database pool",
+                    execution.getMaxThreads(),
+                    env.getProperty("spring.datasource.hikari.maximum-pool-size", "10")
+                );
+                factory.addBuilderCustomizers(builder -> builder.setWorkerThreads(execution.getMaxThreads()));
+            }
+        };
+    }
+
     @Bean
     public CorsFilter corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
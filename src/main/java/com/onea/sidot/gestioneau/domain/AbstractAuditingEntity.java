@@ -10,6 +10,8 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 /**
@@ -29,6 +31,7 @@ public abstract class AbstractAuditingEntity implements Serializable {
 
     @CreatedDate
     @Column(name = "created_date", updatable = false)
+    @Field(type = FieldType.Date)
     @JsonIgnore
     private Instant createdDate = Instant.now();
 
@@ -39,6 +42,7 @@ public abstract class AbstractAuditingEntity implements Serializable {
 
     @LastModifiedDate
     @Column(name = "last_modified_date")
+    @Field(type = FieldType.Date)
     @JsonIgnore
     private Instant lastModifiedDate = Instant.now();
 
@@ -6,7 +6,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A Annee.
@@ -15,21 +19,31 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "annee")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "annee")
-public class Annee implements Serializable {
+@Setting(settingPath = "config/elasticsearch/settings.json")
+public class Annee extends AbstractAuditingEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String libelle;
 
+    // The inverse side is left out of the search documents, which would otherwise loop
     @JsonIgnoreProperties(value = { "centre", "refannee" }, allowSetters = true)
     @OneToOne(mappedBy = "refannee")
+    @org.springframework.data.annotation.Transient
     private Prevision prevision;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -46,6 +60,14 @@ public class Annee implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
@@ -6,7 +6,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A Centre.
@@ -15,6 +19,7 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "centre")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "centre")
+@Setting(settingPath = "config/elasticsearch/settings.json")
 public class Centre implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -22,26 +27,38 @@ public class Centre implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String libelle;
 
     @NotNull
     @Column(name = "responsable", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String responsable;
 
     @NotNull
     @Column(name = "contact", nullable = false)
+    @Field(type = FieldType.Keyword)
     private String contact;
 
     @ManyToOne
     @JsonIgnoreProperties(value = { "directionregionale" }, allowSetters = true)
+    @Field(type = FieldType.Object)
     private CentreRegroupement centreregroupement;
 
+    // The inverse side is left out of the search documents, which would otherwise loop
     @JsonIgnoreProperties(value = { "centre", "refannee" }, allowSetters = true)
     @OneToOne(mappedBy = "centre")
+    @org.springframework.data.annotation.Transient
     private Prevision prevision;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -58,6 +75,14 @@ public class Centre implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
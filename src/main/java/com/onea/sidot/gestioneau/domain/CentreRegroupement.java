@@ -5,7 +5,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A CentreRegroupement.
@@ -14,6 +18,7 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "centre_regroupement")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "centreregroupement")
+@Setting(settingPath = "config/elasticsearch/settings.json")
 public class CentreRegroupement implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -21,21 +26,31 @@ public class CentreRegroupement implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String libelle;
 
     @NotNull
     @Column(name = "responsable", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String responsable;
 
     @NotNull
     @Column(name = "contact", nullable = false)
+    @Field(type = FieldType.Keyword)
     private String contact;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private DirectionRegionale directionregionale;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -52,6 +67,14 @@ public class CentreRegroupement implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
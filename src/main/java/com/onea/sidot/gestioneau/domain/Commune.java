@@ -6,7 +6,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A Commune.
@@ -15,6 +19,7 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "commune")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "commune")
+@Setting(settingPath = "config/elasticsearch/settings.json")
 public class Commune implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -22,17 +27,26 @@ public class Commune implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String libelle;
 
     @ManyToOne
     @JsonIgnoreProperties(value = { "region" }, allowSetters = true)
+    @Field(type = FieldType.Object)
     private Province province;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private TypeCommune typecommune;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -49,6 +63,14 @@ public class Commune implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
@@ -7,135 +7,241 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.AccessType;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 
 /**
  * A FicheSuiviOuvrage.
  */
 @Entity
 @Table(name = "fiche_suivi_ouvrage")
+@NamedEntityGraph(
+    name = FicheSuiviOuvrage.WITH_REFERENCES_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode(value = "parcelle", subgraph = "parcelle"),
+        @NamedAttributeNode(value = "prevision", subgraph = "prevision"),
+        @NamedAttributeNode("natureouvrage"),
+        @NamedAttributeNode("typehabitation"),
+        @NamedAttributeNode("sourceapprovep"),
+        @NamedAttributeNode("modeevacuationeauusee"),
+        @NamedAttributeNode("modeevacexcreta"),
+        @NamedAttributeNode("macon"),
+        @NamedAttributeNode("prefabricant"),
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "parcelle", attributeNodes = @NamedAttributeNode(value = "lot", subgraph = "lot")),
+        @NamedSubgraph(name = "lot", attributeNodes = @NamedAttributeNode(value = "section", subgraph = "section")),
+        @NamedSubgraph(name = "section", attributeNodes = @NamedAttributeNode(value = "secteur", subgraph = "secteur")),
+        @NamedSubgraph(name = "secteur", attributeNodes = @NamedAttributeNode(value = "localite", subgraph = "localite")),
+        @NamedSubgraph(name = "localite", attributeNodes = @NamedAttributeNode(value = "commune", subgraph = "commune")),
+        @NamedSubgraph(
+            name = "commune",
+            attributeNodes = { @NamedAttributeNode(value = "province", subgraph = "province"), @NamedAttributeNode("typecommune") }
+        ),
+        @NamedSubgraph(name = "province", attributeNodes = @NamedAttributeNode("region")),
+        @NamedSubgraph(
+            name = "prevision",
+            attributeNodes = {
+                @NamedAttributeNode(value = "centre", subgraph = "centre"), @NamedAttributeNode(value = "refannee", subgraph = "refannee"),
+            }
+        ),
+        // The inverse one-to-ones back to Prevision are fetched too, Hibernate would otherwise select them one by one
+        @NamedSubgraph(
+            name = "centre",
+            attributeNodes = {
+                @NamedAttributeNode(value = "centreregroupement", subgraph = "centreregroupement"), @NamedAttributeNode("prevision"),
+            }
+        ),
+        @NamedSubgraph(name = "centreregroupement", attributeNodes = @NamedAttributeNode("directionregionale")),
+        @NamedSubgraph(name = "refannee", attributeNodes = @NamedAttributeNode("prevision")),
+    }
+)
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "fichesuiviouvrage")
-public class FicheSuiviOuvrage implements Serializable {
+@Setting(settingPath = "config/elasticsearch/settings.json")
+public class FicheSuiviOuvrage extends AbstractAuditingEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Entity graph fetching all the references of a ficheSuiviOuvrage, and their own references, with the entity.
+     */
+    public static final String WITH_REFERENCES_GRAPH = "FicheSuiviOuvrage.withReferences";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "prj_appuis", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String prjAppuis;
 
     @NotNull
     @Column(name = "nom_benef", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String nomBenef;
 
     @NotNull
     @Column(name = "prenom_benef", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String prenomBenef;
 
     @NotNull
     @Column(name = "profession_benef", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String professionBenef;
 
     @NotNull
     @Column(name = "nb_usagers", nullable = false)
+    @Field(type = FieldType.Long)
     private Long nbUsagers;
 
     @NotNull
     @Column(name = "contacts", nullable = false)
+    @Field(type = FieldType.Keyword)
     private String contacts;
 
     @NotNull
     @Column(name = "longitude", nullable = false)
+    @Field(type = FieldType.Float)
     private Float longitude;
 
     @NotNull
     @Column(name = "latitude", nullable = false)
+    @Field(type = FieldType.Float)
     private Float latitude;
 
     @NotNull
     @Column(name = "date_remise_devis", nullable = false)
+    @Field(type = FieldType.Date)
     private Instant dateRemiseDevis;
 
     @NotNull
     @Column(name = "date_debut_travaux", nullable = false)
+    @Field(type = FieldType.Date)
     private Instant dateDebutTravaux;
 
     @NotNull
     @Column(name = "date_fin_travaux", nullable = false)
+    @Field(type = FieldType.Date)
     private Instant dateFinTravaux;
 
     @Column(name = "rue")
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String rue;
 
     @Column(name = "porte")
+    @Field(type = FieldType.Keyword)
     private String porte;
 
     @NotNull
     @Column(name = "cout_menage", nullable = false)
+    @Field(type = FieldType.Keyword)
     private String coutMenage;
 
     @NotNull
     @Column(name = "subv_onea", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer subvOnea;
 
     @NotNull
     @Column(name = "subv_projet", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer subvProjet;
 
     @NotNull
     @Column(name = "autre_subv", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer autreSubv;
 
     @NotNull
     @Column(name = "toles", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer toles;
 
     @NotNull
     @Column(name = "animateur", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String animateur;
 
     @NotNull
     @Column(name = "superviseur", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String superviseur;
 
     @NotNull
     @Column(name = "controleur", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String controleur;
 
     @ManyToOne
     @JsonIgnoreProperties(value = { "lot" }, allowSetters = true)
+    @Field(type = FieldType.Object)
     private Parcelle parcelle;
 
     @ManyToOne
     @JsonIgnoreProperties(value = { "centre", "refannee" }, allowSetters = true)
+    @Field(type = FieldType.Object)
     private Prevision prevision;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private NatureOuvrage natureouvrage;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private TypeHabitation typehabitation;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private SourceApprovEp sourceapprovep;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private ModeEvacuationEauUsee modeevacuationeauusee;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private ModeEvacExcreta modeevacexcreta;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private Macon macon;
 
     @ManyToOne
+    @Field(type = FieldType.Object)
     private Prefabricant prefabricant;
 
+    /**
+     * The latitude and longitude as a {@code geo_point}, for the geo queries of the search index.
+     */
+    @Transient
+    @AccessType(AccessType.Type.PROPERTY)
+    @GeoPointField
+    private GeoPoint location;
+
+    /**
+     * The associations flattened for the search index, see {@link FicheSuiviOuvrageSearchFields}.
+     */
+    @Transient
+    @AccessType(AccessType.Type.PROPERTY)
+    @Field(type = FieldType.Object)
+    private FicheSuiviOuvrageSearchFields searchFields;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -150,6 +256,14 @@ public class FicheSuiviOuvrage implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getPrjAppuis() {
         return this.prjAppuis;
     }
@@ -254,6 +368,25 @@ public class FicheSuiviOuvrage implements Serializable {
         this.latitude = latitude;
     }
 
+    public GeoPoint getLocation() {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return new GeoPoint(latitude, longitude);
+    }
+
+    public void setLocation(GeoPoint location) {
+        // Derived from the latitude and the longitude
+    }
+
+    public FicheSuiviOuvrageSearchFields getSearchFields() {
+        return FicheSuiviOuvrageSearchFields.of(this);
+    }
+
+    public void setSearchFields(FicheSuiviOuvrageSearchFields searchFields) {
+        // Derived from the associations
+    }
+
     public Instant getDateRemiseDevis() {
         return this.dateRemiseDevis;
     }
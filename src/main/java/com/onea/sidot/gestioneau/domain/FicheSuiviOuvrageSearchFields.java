@@ -0,0 +1,287 @@
+package com.onea.sidot.gestioneau.domain;
+
+import java.io.Serializable;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+
+/**
+ * The fields of a {@link FicheSuiviOuvrage} flattened for its search document: every level of its location, from the
+ * parcelle to the région, the centre and year of its prévision, and its reference data, each with its id and libellé
+ * side by side, so that one query filters or aggregates on any of them, as {@code searchFields.commune.id}.
+ * <p>
+ * Built from the entity when it is indexed, and not stored in the database.
+ */
+public class FicheSuiviOuvrageSearchFields implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Field(type = FieldType.Object)
+    private Label parcelle;
+
+    @Field(type = FieldType.Object)
+    private Label lot;
+
+    @Field(type = FieldType.Object)
+    private Label section;
+
+    @Field(type = FieldType.Object)
+    private Label secteur;
+
+    @Field(type = FieldType.Object)
+    private Label localite;
+
+    @Field(type = FieldType.Object)
+    private Label commune;
+
+    @Field(type = FieldType.Object)
+    private Label typecommune;
+
+    @Field(type = FieldType.Object)
+    private Label province;
+
+    @Field(type = FieldType.Object)
+    private Label region;
+
+    @Field(type = FieldType.Object)
+    private Label prevision;
+
+    @Field(type = FieldType.Object)
+    private Label centre;
+
+    @Field(type = FieldType.Object)
+    private Label centreregroupement;
+
+    @Field(type = FieldType.Object)
+    private Label directionregionale;
+
+    @Field(type = FieldType.Object)
+    private Label annee;
+
+    @Field(type = FieldType.Object)
+    private Label natureouvrage;
+
+    @Field(type = FieldType.Object)
+    private Label typehabitation;
+
+    @Field(type = FieldType.Object)
+    private Label sourceapprovep;
+
+    @Field(type = FieldType.Object)
+    private Label modeevacuationeauusee;
+
+    @Field(type = FieldType.Object)
+    private Label modeevacexcreta;
+
+    @Field(type = FieldType.Object)
+    private Label macon;
+
+    @Field(type = FieldType.Object)
+    private Label prefabricant;
+
+    /**
+     * Flatten the associations of a sheet, which must be loaded.
+     */
+    public static FicheSuiviOuvrageSearchFields of(FicheSuiviOuvrage ficheSuiviOuvrage) {
+        FicheSuiviOuvrageSearchFields searchFields = new FicheSuiviOuvrageSearchFields();
+        Parcelle parcelle = ficheSuiviOuvrage.getParcelle();
+        Lot lot = parcelle == null ? null : parcelle.getLot();
+        Section section = lot == null ? null : lot.getSection();
+        Secteur secteur = section == null ? null : section.getSecteur();
+        Localite localite = secteur == null ? null : secteur.getLocalite();
+        Commune commune = localite == null ? null : localite.getCommune();
+        Province province = commune == null ? null : commune.getProvince();
+        Region region = province == null ? null : province.getRegion();
+        if (parcelle != null) {
+            searchFields.parcelle = new Label(parcelle.getId(), parcelle.getLibelle());
+        }
+        if (lot != null) {
+            searchFields.lot = new Label(lot.getId(), lot.getLibelle());
+        }
+        if (section != null) {
+            searchFields.section = new Label(section.getId(), section.getLibelle());
+        }
+        if (secteur != null) {
+            searchFields.secteur = new Label(secteur.getId(), secteur.getLibelle());
+        }
+        if (localite != null) {
+            searchFields.localite = new Label(localite.getId(), localite.getLibelle());
+        }
+        if (commune != null) {
+            searchFields.commune = new Label(commune.getId(), commune.getLibelle());
+            if (commune.getTypecommune() != null) {
+                searchFields.typecommune = new Label(commune.getTypecommune().getId(), commune.getTypecommune().getLibelle());
+            }
+        }
+        if (province != null) {
+            searchFields.province = new Label(province.getId(), province.getLibelle());
+        }
+        if (region != null) {
+            searchFields.region = new Label(region.getId(), region.getLibelle());
+        }
+
+        Prevision prevision = ficheSuiviOuvrage.getPrevision();
+        Centre centre = prevision == null ? null : prevision.getCentre();
+        CentreRegroupement centreregroupement = centre == null ? null : centre.getCentreregroupement();
+        DirectionRegionale directionregionale = centreregroupement == null ? null : centreregroupement.getDirectionregionale();
+        Annee annee = prevision == null ? null : prevision.getRefannee();
+        if (prevision != null) {
+            searchFields.prevision = new Label(prevision.getId(), null);
+        }
+        if (centre != null) {
+            searchFields.centre = new Label(centre.getId(), centre.getLibelle());
+        }
+        if (centreregroupement != null) {
+            searchFields.centreregroupement = new Label(centreregroupement.getId(), centreregroupement.getLibelle());
+        }
+        if (directionregionale != null) {
+            searchFields.directionregionale = new Label(directionregionale.getId(), directionregionale.getLibelle());
+        }
+        if (annee != null) {
+            searchFields.annee = new Label(annee.getId(), annee.getLibelle());
+        }
+
+        if (ficheSuiviOuvrage.getNatureouvrage() != null) {
+            searchFields.natureouvrage =
+                new Label(ficheSuiviOuvrage.getNatureouvrage().getId(), ficheSuiviOuvrage.getNatureouvrage().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getTypehabitation() != null) {
+            searchFields.typehabitation =
+                new Label(ficheSuiviOuvrage.getTypehabitation().getId(), ficheSuiviOuvrage.getTypehabitation().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getSourceapprovep() != null) {
+            searchFields.sourceapprovep =
+                new Label(ficheSuiviOuvrage.getSourceapprovep().getId(), ficheSuiviOuvrage.getSourceapprovep().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getModeevacuationeauusee() != null) {
+            searchFields.modeevacuationeauusee =
+                new Label(ficheSuiviOuvrage.getModeevacuationeauusee().getId(), ficheSuiviOuvrage.getModeevacuationeauusee().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getModeevacexcreta() != null) {
+            searchFields.modeevacexcreta =
+                new Label(ficheSuiviOuvrage.getModeevacexcreta().getId(), ficheSuiviOuvrage.getModeevacexcreta().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getMacon() != null) {
+            searchFields.macon = new Label(ficheSuiviOuvrage.getMacon().getId(), ficheSuiviOuvrage.getMacon().getLibelle());
+        }
+        if (ficheSuiviOuvrage.getPrefabricant() != null) {
+            searchFields.prefabricant =
+                new Label(ficheSuiviOuvrage.getPrefabricant().getId(), ficheSuiviOuvrage.getPrefabricant().getLibelle());
+        }
+        return searchFields;
+    }
+
+    public Label getParcelle() {
+        return parcelle;
+    }
+
+    public Label getLot() {
+        return lot;
+    }
+
+    public Label getSection() {
+        return section;
+    }
+
+    public Label getSecteur() {
+        return secteur;
+    }
+
+    public Label getLocalite() {
+        return localite;
+    }
+
+    public Label getCommune() {
+        return commune;
+    }
+
+    public Label getTypecommune() {
+        return typecommune;
+    }
+
+    public Label getProvince() {
+        return province;
+    }
+
+    public Label getRegion() {
+        return region;
+    }
+
+    public Label getPrevision() {
+        return prevision;
+    }
+
+    public Label getCentre() {
+        return centre;
+    }
+
+    public Label getCentreregroupement() {
+        return centreregroupement;
+    }
+
+    public Label getDirectionregionale() {
+        return directionregionale;
+    }
+
+    public Label getAnnee() {
+        return annee;
+    }
+
+    public Label getNatureouvrage() {
+        return natureouvrage;
+    }
+
+    public Label getTypehabitation() {
+        return typehabitation;
+    }
+
+    public Label getSourceapprovep() {
+        return sourceapprovep;
+    }
+
+    public Label getModeevacuationeauusee() {
+        return modeevacuationeauusee;
+    }
+
+    public Label getModeevacexcreta() {
+        return modeevacexcreta;
+    }
+
+    public Label getMacon() {
+        return macon;
+    }
+
+    public Label getPrefabricant() {
+        return prefabricant;
+    }
+
+    /**
+     * The id and libellé of an associated entity.
+     */
+    public static class Label implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Field(type = FieldType.Long)
+        private Long id;
+
+        @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
+        private String libelle;
+
+        public Label() {}
+
+        public Label(Long id, String libelle) {
+            this.id = id;
+            this.libelle = libelle;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+}
@@ -6,7 +6,11 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A Localite.
@@ -15,6 +19,7 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "localite")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "localite")
+@Setting(settingPath = "config/elasticsearch/settings.json")
 public class Localite implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -22,14 +27,22 @@ public class Localite implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "libelle", nullable = false)
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword))
     private String libelle;
 
     @ManyToOne
     @JsonIgnoreProperties(value = { "province", "typecommune" }, allowSetters = true)
+    @Field(type = FieldType.Object)
     private Commune commune;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -46,6 +59,14 @@ public class Localite implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return this.libelle;
     }
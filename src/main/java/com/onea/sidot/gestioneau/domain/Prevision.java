@@ -6,7 +6,9 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 /**
  * A Prevision.
@@ -15,6 +17,7 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 @Table(name = "prevision")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "prevision")
+@Setting(settingPath = "config/elasticsearch/settings.json")
 public class Prevision implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -22,32 +25,44 @@ public class Prevision implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
+    @Field(type = FieldType.Long)
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Field(type = FieldType.Long)
+    private long version;
+
     @NotNull
     @Column(name = "nb_latrine", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer nbLatrine;
 
     @NotNull
     @Column(name = "nb_puisard", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer nbPuisard;
 
     @NotNull
     @Column(name = "nb_public", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer nbPublic;
 
     @NotNull
     @Column(name = "nb_scolaire", nullable = false)
+    @Field(type = FieldType.Integer)
     private Integer nbScolaire;
 
     @JsonIgnoreProperties(value = { "centreregroupement", "prevision" }, allowSetters = true)
     @OneToOne
     @JoinColumn(unique = true)
+    @Field(type = FieldType.Object)
     private Centre centre;
 
     @JsonIgnoreProperties(value = { "prevision" }, allowSetters = true)
     @OneToOne
     @JoinColumn(unique = true)
+    @Field(type = FieldType.Object)
     private Annee refannee;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -64,6 +79,14 @@ public class Prevision implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Integer getNbLatrine() {
         return this.nbLatrine;
     }
@@ -0,0 +1,68 @@
+package com.onea.sidot.gestioneau.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The number of {@link FicheSuiviOuvrage} of a prevision and a nature d'ouvrage.
+ * <p>
+ * Maintained in the transaction writing the sheets by
+ * {@link com.onea.sidot.gestioneau.service.RealisationAnalyticsService}, so that the completion rates are computed
+ * without reading the sheets.
+ */
+@Entity
+@Table(name = "realisation_rollup")
+public class RealisationRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private RealisationRollupId id;
+
+    @NotNull
+    @Column(name = "nb_realise", nullable = false)
+    private Long nbRealise;
+
+    public RealisationRollupId getId() {
+        return id;
+    }
+
+    public void setId(RealisationRollupId id) {
+        this.id = id;
+    }
+
+    public Long getNbRealise() {
+        return nbRealise;
+    }
+
+    public void setNbRealise(Long nbRealise) {
+        this.nbRealise = nbRealise;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RealisationRollup)) {
+            return false;
+        }
+        return id != null && id.equals(((RealisationRollup) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RealisationRollup{" +
+            "id=" + getId() +
+            ", nbRealise=" + getNbRealise() +
+            "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.onea.sidot.gestioneau.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The identifier of a {@link RealisationRollup}: the prevision and the nature d'ouvrage of the counted sheets.
+ */
+@Embeddable
+public class RealisationRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Column(name = "prevision_id", nullable = false)
+    private Long previsionId;
+
+    @NotNull
+    @Column(name = "natureouvrage_id", nullable = false)
+    private Long natureouvrageId;
+
+    public RealisationRollupId() {}
+
+    public RealisationRollupId(Long previsionId, Long natureouvrageId) {
+        this.previsionId = previsionId;
+        this.natureouvrageId = natureouvrageId;
+    }
+
+    /**
+     * @return the rollup counting the sheet, or {@code null} if the sheet has no prevision or no nature d'ouvrage, and
+     * is then not counted.
+     */
+    public static RealisationRollupId of(FicheSuiviOuvrage ficheSuiviOuvrage) {
+        if (ficheSuiviOuvrage.getPrevision() == null || ficheSuiviOuvrage.getNatureouvrage() == null) {
+            return null;
+        }
+        return new RealisationRollupId(ficheSuiviOuvrage.getPrevision().getId(), ficheSuiviOuvrage.getNatureouvrage().getId());
+    }
+
+    public Long getPrevisionId() {
+        return previsionId;
+    }
+
+    public void setPrevisionId(Long previsionId) {
+        this.previsionId = previsionId;
+    }
+
+    public Long getNatureouvrageId() {
+        return natureouvrageId;
+    }
+
+    public void setNatureouvrageId(Long natureouvrageId) {
+        this.natureouvrageId = natureouvrageId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RealisationRollupId)) {
+            return false;
+        }
+        RealisationRollupId realisationRollupId = (RealisationRollupId) o;
+        return (
+            Objects.equals(previsionId, realisationRollupId.previsionId) &&
+            Objects.equals(natureouvrageId, realisationRollupId.natureouvrageId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(previsionId, natureouvrageId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RealisationRollupId{" +
+            "previsionId=" + getPrevisionId() +
+            ", natureouvrageId=" + getNatureouvrageId() +
+            "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.onea.sidot.gestioneau.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The deletion of an entity, kept for the field tablets to remove it from their copy when they synchronize.
+ * <p>
+ * Entries are written in the transaction deleting the entity, and purged by
+ * {@link com.onea.sidot.gestioneau.service.SyncService} once older than the sync token retention.
+ */
+@Entity
+@Table(name = "sync_tombstone")
+public class SyncTombstone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    private Long id;
+
+    @NotNull
+    @Column(name = "entity_type", length = 100, nullable = false)
+    private String entityType;
+
+    @NotNull
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @NotNull
+    @Column(name = "deleted_date", nullable = false)
+    private Instant deletedDate;
+
+    public SyncTombstone() {}
+
+    public SyncTombstone(String entityType, Long entityId, Instant deletedDate) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deletedDate = deletedDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Instant getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SyncTombstone)) {
+            return false;
+        }
+        return id != null && id.equals(((SyncTombstone) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SyncTombstone{" +
+            "id=" + getId() +
+            ", entityType='" + getEntityType() + "'" +
+            ", entityId=" + getEntityId() +
+            ", deletedDate='" + getDeletedDate() + "'" +
+            "}";
+    }
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Annee;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AnneeRepository extends JpaRepository<Annee, Long> {}
+public interface AnneeRepository extends KeysetRepository<Annee, Long>, VersionedRepository<Annee> {
+    List<Annee> findAllByLibelleOrderById(String libelle);
+}
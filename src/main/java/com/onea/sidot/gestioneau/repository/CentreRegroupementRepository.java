@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CentreRegroupementRepository extends JpaRepository<CentreRegroupement, Long> {}
+public interface CentreRegroupementRepository extends KeysetRepository<CentreRegroupement, Long>, VersionedRepository<CentreRegroupement> {}
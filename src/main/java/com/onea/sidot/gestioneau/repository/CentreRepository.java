@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CentreRepository extends JpaRepository<Centre, Long> {}
+public interface CentreRepository extends KeysetRepository<Centre, Long>, VersionedRepository<Centre> {}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Commune;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CommuneRepository extends JpaRepository<Commune, Long> {}
+public interface CommuneRepository extends KeysetRepository<Commune, Long>, VersionedRepository<Commune> {
+    List<IdLibelle> findAllByProvinceIdOrderByLibelle(Long provinceId);
+}
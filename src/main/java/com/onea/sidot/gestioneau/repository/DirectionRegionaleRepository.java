@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface DirectionRegionaleRepository extends JpaRepository<DirectionRegionale, Long> {}
+public interface DirectionRegionaleRepository extends KeysetRepository<DirectionRegionale, Long>, VersionedRepository<DirectionRegionale> {}
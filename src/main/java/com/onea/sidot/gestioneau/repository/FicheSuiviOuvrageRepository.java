@@ -1,6 +1,14 @@
 package com.onea.sidot.gestioneau.repository;
 
+import static org.hibernate.jpa.QueryHints.*;
+
 import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +17,35 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FicheSuiviOuvrageRepository extends JpaRepository<FicheSuiviOuvrage, Long> {}
+public interface FicheSuiviOuvrageRepository extends KeysetRepository<FicheSuiviOuvrage, Long>, VersionedRepository<FicheSuiviOuvrage> {
+    // The references (and their own references) are eager: fetch them with the entity, not one select per row
+    @Override
+    @EntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH)
+    Page<FicheSuiviOuvrage> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH)
+    Optional<FicheSuiviOuvrage> findById(Long id);
+
+    @Override
+    @EntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH)
+    Slice<FicheSuiviOuvrage> findAllAfter(Long after, Pageable pageable);
+
+    /**
+     * Stream all the ficheSuiviOuvrages in id order, fetching rows from the database {@code 500} at a time.
+     * <p>
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @return the stream of entities.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+        }
+    )
+    @EntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH)
+    @Query("select ficheSuiviOuvrage from FicheSuiviOuvrage ficheSuiviOuvrage order by ficheSuiviOuvrage.id")
+    Stream<FicheSuiviOuvrage> streamAll();
+}
@@ -0,0 +1,10 @@
+package com.onea.sidot.gestioneau.repository;
+
+/**
+ * Projection of a reference entity on its id and libelle: the queries returning it only select these two columns.
+ */
+public interface IdLibelle {
+    Long getId();
+
+    String getLibelle();
+}
@@ -0,0 +1,26 @@
+package com.onea.sidot.gestioneau.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Spring Data SQL repository adding keyset (seek) pagination on the primary key.
+ * <p>
+ * Implemented once for every repository by {@link KeysetRepositoryImpl}, the repository base class.
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T, ID extends Comparable<? super ID>> extends JpaRepository<T, ID> {
+    /**
+     * Returns the entities whose id is greater than {@code after}, in id order.
+     * <p>
+     * Unlike {@link #findAll(Pageable)}, the rows are sought through the primary key index instead of being
+     * skipped with an offset, and no {@code count(*)} query is issued.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first entity.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    Slice<T> findAllAfter(ID after, Pageable pageable);
+}
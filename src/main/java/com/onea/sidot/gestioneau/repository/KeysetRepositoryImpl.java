@@ -0,0 +1,59 @@
+package com.onea.sidot.gestioneau.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+/**
+ * Repository base class implementing {@link KeysetRepository}.
+ * <p>
+ * Fetch graphs declared with {@link org.springframework.data.jpa.repository.EntityGraph} on an overriding
+ * {@code findAllAfter} are applied, as they are for the other {@link SimpleJpaRepository} methods.
+ */
+public class KeysetRepositoryImpl<T, ID extends Comparable<? super ID>>
+    extends SimpleJpaRepository<T, ID>
+    implements KeysetRepository<T, ID> {
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+
+    private final EntityManager entityManager;
+
+    public KeysetRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<T> findAllAfter(ID after, Pageable pageable) {
+        int size = pageable.getPageSize();
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteria = builder.createQuery(getDomainClass());
+        Root<T> root = criteria.from(getDomainClass());
+        Path<ID> id = root.get(entityInformation.getIdAttribute().getName());
+        criteria.select(root).orderBy(builder.asc(id));
+        if (after != null) {
+            criteria.where(builder.greaterThan(id, after));
+        }
+        TypedQuery<T> query = entityManager.createQuery(criteria);
+        getQueryHints().withFetchGraphs(entityManager).forEach(query::setHint);
+        // One extra row tells whether there is a next slice, without counting
+        List<T> content = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Localite;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface LocaliteRepository extends JpaRepository<Localite, Long> {}
+public interface LocaliteRepository extends KeysetRepository<Localite, Long>, VersionedRepository<Localite> {
+    List<IdLibelle> findAllByCommuneIdOrderByLibelle(Long communeId);
+}
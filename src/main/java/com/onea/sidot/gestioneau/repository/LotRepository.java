@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Lot;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface LotRepository extends JpaRepository<Lot, Long> {}
+public interface LotRepository extends KeysetRepository<Lot, Long>, VersionedRepository<Lot> {
+    List<IdLibelle> findAllBySectionIdOrderByLibelle(Long sectionId);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Macon;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MaconRepository extends JpaRepository<Macon, Long> {}
+public interface MaconRepository extends KeysetRepository<Macon, Long>, VersionedRepository<Macon> {
+    List<Macon> findAllByLibelleOrderById(String libelle);
+}
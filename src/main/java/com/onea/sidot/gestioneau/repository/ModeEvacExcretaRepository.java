@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.ModeEvacExcreta;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ModeEvacExcretaRepository extends JpaRepository<ModeEvacExcreta, Long> {}
+public interface ModeEvacExcretaRepository extends KeysetRepository<ModeEvacExcreta, Long>, VersionedRepository<ModeEvacExcreta> {
+    List<ModeEvacExcreta> findAllByLibelleOrderById(String libelle);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.ModeEvacuationEauUsee;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,7 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ModeEvacuationEauUseeRepository extends JpaRepository<ModeEvacuationEauUsee, Long> {}
+public interface ModeEvacuationEauUseeRepository
+    extends KeysetRepository<ModeEvacuationEauUsee, Long>, VersionedRepository<ModeEvacuationEauUsee> {
+    List<ModeEvacuationEauUsee> findAllByLibelleOrderById(String libelle);
+}
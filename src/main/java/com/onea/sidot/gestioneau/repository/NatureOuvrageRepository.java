@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface NatureOuvrageRepository extends JpaRepository<NatureOuvrage, Long> {}
+public interface NatureOuvrageRepository extends KeysetRepository<NatureOuvrage, Long>, VersionedRepository<NatureOuvrage> {
+    List<NatureOuvrage> findAllByLibelleOrderById(String libelle);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Parcelle;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {}
+public interface ParcelleRepository extends KeysetRepository<Parcelle, Long>, VersionedRepository<Parcelle> {
+    List<IdLibelle> findAllByLotIdOrderByLibelle(Long lotId);
+}
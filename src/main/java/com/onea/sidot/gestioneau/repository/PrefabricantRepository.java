@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Prefabricant;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PrefabricantRepository extends JpaRepository<Prefabricant, Long> {}
+public interface PrefabricantRepository extends KeysetRepository<Prefabricant, Long>, VersionedRepository<Prefabricant> {
+    List<Prefabricant> findAllByLibelleOrderById(String libelle);
+}
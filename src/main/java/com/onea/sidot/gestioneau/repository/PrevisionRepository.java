@@ -1,7 +1,11 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Prevision;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,15 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PrevisionRepository extends JpaRepository<Prevision, Long> {}
+public interface PrevisionRepository extends KeysetRepository<Prevision, Long>, VersionedRepository<Prevision> {
+    /**
+     * Lock a prevision, to serialize the writers of its realisation rollups.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select prevision from Prevision prevision where prevision.id = :id")
+    Optional<Prevision> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select prevision from Prevision prevision")
+    List<Prevision> findAllForUpdate();
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Province;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProvinceRepository extends JpaRepository<Province, Long> {}
+public interface ProvinceRepository extends KeysetRepository<Province, Long>, VersionedRepository<Province> {
+    List<IdLibelle> findAllByRegionIdOrderByLibelle(Long regionId);
+}
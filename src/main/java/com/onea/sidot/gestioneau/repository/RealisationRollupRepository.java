@@ -0,0 +1,55 @@
+package com.onea.sidot.gestioneau.repository;
+
+import com.onea.sidot.gestioneau.domain.RealisationRollup;
+import com.onea.sidot.gestioneau.domain.RealisationRollupId;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the RealisationRollup entity.
+ * <p>
+ * The rollups are only written with the queries below, so that no stale rollup is ever held by the persistence
+ * context.
+ */
+@Repository
+public interface RealisationRollupRepository extends JpaRepository<RealisationRollup, RealisationRollupId> {
+    /**
+     * Add to the count of a rollup, if it exists.
+     *
+     * @return the number of updated rollups, 0 or 1.
+     */
+    @Modifying
+    @Query(
+        "update RealisationRollup rollup set rollup.nbRealise = rollup.nbRealise + :delta " +
+        "where rollup.id.previsionId = :previsionId and rollup.id.natureouvrageId = :natureouvrageId"
+    )
+    int increment(@Param("previsionId") Long previsionId, @Param("natureouvrageId") Long natureouvrageId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(
+        "delete from RealisationRollup rollup where rollup.nbRealise <= 0 " +
+        "and rollup.id.previsionId = :previsionId and rollup.id.natureouvrageId = :natureouvrageId"
+    )
+    int deleteIfEmpty(@Param("previsionId") Long previsionId, @Param("natureouvrageId") Long natureouvrageId);
+
+    @Modifying
+    @Query(
+        value = "insert into realisation_rollup (prevision_id, natureouvrage_id, nb_realise) " +
+        "values (:previsionId, :natureouvrageId, :nbRealise)",
+        nativeQuery = true
+    )
+    void insert(@Param("previsionId") Long previsionId, @Param("natureouvrageId") Long natureouvrageId, @Param("nbRealise") long nbRealise);
+
+    /**
+     * Insert the rollups counted from the sheets, which must not have any rollup yet.
+     */
+    @Modifying
+    @Query(
+        value = "insert into realisation_rollup (prevision_id, natureouvrage_id, nb_realise) " +
+        "select prevision_id, natureouvrage_id, count(*) from fiche_suivi_ouvrage " +
+        "where prevision_id is not null and natureouvrage_id is not null group by prevision_id, natureouvrage_id",
+        nativeQuery = true
+    )
+    void insertCountedFicheSuiviOuvrages();
+}
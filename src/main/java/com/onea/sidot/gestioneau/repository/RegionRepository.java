@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RegionRepository extends JpaRepository<Region, Long> {}
+public interface RegionRepository extends KeysetRepository<Region, Long>, VersionedRepository<Region> {}
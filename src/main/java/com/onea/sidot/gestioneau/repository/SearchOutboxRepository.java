@@ -0,0 +1,33 @@
+package com.onea.sidot.gestioneau.repository;
+
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SearchOutboxEntry entity.
+ */
+@Repository
+public interface SearchOutboxRepository extends JpaRepository<SearchOutboxEntry, Long> {
+    /**
+     * Lock the oldest entries due for indexing, skipping the ones already locked by another instance.
+     *
+     * @param now the current date.
+     * @param pageable the maximum number of entries.
+     * @return the list of entries, in creation order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is Hibernate's LockOptions.SKIP_LOCKED
+    @QueryHints({ @QueryHint(name = "javax.persistence.lock.timeout", value = "-2") })
+    @Query("select entry from SearchOutboxEntry entry where entry.nextAttemptDate <= :now order by entry.id")
+    List<SearchOutboxEntry> findDueForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    @Query("select min(entry.createdDate) from SearchOutboxEntry entry")
+    Instant findOldestCreatedDate();
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Secteur;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SecteurRepository extends JpaRepository<Secteur, Long> {}
+public interface SecteurRepository extends KeysetRepository<Secteur, Long>, VersionedRepository<Secteur> {
+    List<IdLibelle> findAllByLocaliteIdOrderByLibelle(Long localiteId);
+}
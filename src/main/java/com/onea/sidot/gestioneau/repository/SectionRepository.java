@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.Section;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SectionRepository extends JpaRepository<Section, Long> {}
+public interface SectionRepository extends KeysetRepository<Section, Long>, VersionedRepository<Section> {
+    List<IdLibelle> findAllBySecteurIdOrderByLibelle(Long secteurId);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.SourceApprovEp;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SourceApprovEpRepository extends JpaRepository<SourceApprovEp, Long> {}
+public interface SourceApprovEpRepository extends KeysetRepository<SourceApprovEp, Long>, VersionedRepository<SourceApprovEp> {
+    List<SourceApprovEp> findAllByLibelleOrderById(String libelle);
+}
@@ -0,0 +1,39 @@
+package com.onea.sidot.gestioneau.repository;
+
+import com.onea.sidot.gestioneau.domain.SyncTombstone;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SyncTombstone entity.
+ */
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+    /**
+     * Get the deletions of an entity type since a date, after a tombstone id.
+     *
+     * @param entityType the simple name of the entity class.
+     * @param since the date.
+     * @param after the id after which to start.
+     * @param pageable the maximum number of tombstones.
+     * @return the list of tombstones, in id order.
+     */
+    @Query(
+        "select tombstone from SyncTombstone tombstone where tombstone.entityType = :entityType and tombstone.deletedDate >= :since" +
+        " and tombstone.id > :after order by tombstone.id"
+    )
+    List<SyncTombstone> findAllSince(
+        @Param("entityType") String entityType,
+        @Param("since") Instant since,
+        @Param("after") Long after,
+        Pageable pageable
+    );
+
+    @Modifying
+    @Query("delete from SyncTombstone tombstone where tombstone.deletedDate < :before")
+    int deleteAllBefore(@Param("before") Instant before);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.TypeCommune;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TypeCommuneRepository extends JpaRepository<TypeCommune, Long> {}
+public interface TypeCommuneRepository extends KeysetRepository<TypeCommune, Long>, VersionedRepository<TypeCommune> {
+    List<TypeCommune> findAllByLibelleOrderById(String libelle);
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.repository;
 
 import com.onea.sidot.gestioneau.domain.TypeHabitation;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TypeHabitationRepository extends JpaRepository<TypeHabitation, Long> {}
+public interface TypeHabitationRepository extends KeysetRepository<TypeHabitation, Long>, VersionedRepository<TypeHabitation> {
+    List<TypeHabitation> findAllByLibelleOrderById(String libelle);
+}
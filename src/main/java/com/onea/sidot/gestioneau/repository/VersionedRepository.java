@@ -0,0 +1,24 @@
+package com.onea.sidot.gestioneau.repository;
+
+/**
+ * Spring Data SQL repository fragment saving the entities with a {@link javax.persistence.Version}, checked against
+ * the version an update was made from.
+ * <p>
+ * Implemented once for every repository by {@link VersionedRepositoryImpl}.
+ */
+public interface VersionedRepository<T> {
+    /**
+     * Saves an entity and flushes the change, for the returned entity to carry its new version.
+     * <p>
+     * A new entity is persisted. A loaded entity is updated if it is still at the given version, or whatever its
+     * version without one, as for a partial update. A detached entity is merged at the given version, which it must
+     * have, as a full update without a version would overwrite the changes it was not made from.
+     *
+     * @param entity the entity to save.
+     * @param version the version the update was made from, or {@code null} if unknown.
+     * @return the saved entity.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the entity has changed since that version.
+     * @throws IllegalArgumentException if the entity is detached and there is no version.
+     */
+    <S extends T> S saveAndFlush(S entity, Long version);
+}
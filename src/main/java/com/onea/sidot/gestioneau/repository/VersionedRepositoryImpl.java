@@ -0,0 +1,59 @@
+package com.onea.sidot.gestioneau.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.SingularAttribute;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository fragment implementing {@link VersionedRepository}.
+ * <p>
+ * Hibernate checks the version of a detached entity when merging it. The version of a loaded entity is not checked,
+ * as Hibernate only reads it when loading the entity: it is compared here with the loaded one.
+ */
+public class VersionedRepositoryImpl<T> implements VersionedRepository<T> {
+
+    private final EntityManager entityManager;
+
+    public VersionedRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> S saveAndFlush(S entity, Long version) {
+        S result = entity;
+        if (entityManager.contains(entity)) {
+            EntityEntry entry = entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(entity);
+            if (version != null && !version.equals(entry.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(entity.getClass(), entry.getId());
+            }
+        } else if (entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity) == null) {
+            entityManager.persist(entity);
+        } else {
+            if (version == null) {
+                throw new IllegalArgumentException("No version to update " + entity.getClass().getSimpleName() + " from");
+            }
+            new DirectFieldAccessFallbackBeanWrapper(entity).setPropertyValue(getVersionName(entity), version);
+            result = entityManager.merge(entity);
+        }
+        entityManager.flush();
+        return result;
+    }
+
+    private String getVersionName(Object entity) {
+        return entityManager
+            .getMetamodel()
+            .entity(entity.getClass())
+            .getSingularAttributes()
+            .stream()
+            .filter(SingularAttribute::isVersion)
+            .map(Attribute::getName)
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException(entity.getClass().getSimpleName() + " has no version"));
+    }
+}
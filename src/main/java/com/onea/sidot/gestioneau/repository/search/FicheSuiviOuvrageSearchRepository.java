@@ -1,9 +1,161 @@
 package com.onea.sidot.gestioneau.repository.search;
 
 import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.data.util.StreamUtils;
 
 /**
  * Spring Data Elasticsearch repository for the {@link FicheSuiviOuvrage} entity.
  */
-public interface FicheSuiviOuvrageSearchRepository extends ElasticsearchRepository<FicheSuiviOuvrage, Long> {}
+public interface FicheSuiviOuvrageSearchRepository
+    extends ElasticsearchRepository<FicheSuiviOuvrage, Long>, FicheSuiviOuvrageSearchRepositoryInternal {}
+
+interface FicheSuiviOuvrageSearchRepositoryInternal {
+    /**
+     * Stream all the documents matching the query, using a scroll so that only one batch is held in memory.
+     * <p>
+     * The stream must be closed to release the scroll context.
+     *
+     * @param query the query of the search.
+     * @return the stream of matching entities.
+     */
+    Stream<FicheSuiviOuvrage> searchForStream(QueryBuilder query);
+
+    /**
+     * Stream the ids of all the documents matching the query, reading nothing else from the index.
+     * <p>
+     * The stream must be closed to release the scroll context.
+     *
+     * @param query the query of the search.
+     * @return the stream of matching ids.
+     */
+    Stream<Long> searchIdsForStream(QueryBuilder query);
+
+    /**
+     * Search for a page of documents, reading only their id, coordinates and nature d'ouvrage from the index.
+     *
+     * @param query the query of the search.
+     * @param sort the sort of the search, applied before the one of the pageable, or {@code null}.
+     * @param pageable the pagination information.
+     * @return the page of entities, with only these fields set.
+     */
+    Page<FicheSuiviOuvrage> searchPoints(QueryBuilder query, SortBuilder<?> sort, Pageable pageable);
+
+    /**
+     * Search for a page of documents and run aggregations on all the documents matching the query, in one request.
+     *
+     * @param query the query of the search.
+     * @param aggregations the aggregations to run, if any.
+     * @param pageable the pagination information.
+     * @return the hits of the page, their total and the results of the aggregations.
+     */
+    SearchHits<FicheSuiviOuvrage> searchWithAggregations(
+        QueryBuilder query,
+        Collection<? extends AbstractAggregationBuilder<?>> aggregations,
+        Pageable pageable
+    );
+
+    /**
+     * Run an aggregation on the documents matching the query, without reading the documents.
+     *
+     * @param query the query of the search.
+     * @param aggregation the aggregation to run.
+     * @return the result of the aggregation.
+     */
+    Aggregations aggregate(QueryBuilder query, AbstractAggregationBuilder<?> aggregation);
+}
+
+class FicheSuiviOuvrageSearchRepositoryInternalImpl implements FicheSuiviOuvrageSearchRepositoryInternal {
+
+    private static final int SCROLL_SIZE = 500;
+
+    private static final String[] POINT_FIELDS = { "id", "latitude", "longitude", "natureouvrage.id" };
+
+    private static final String[] ID_FIELDS = { "id" };
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    FicheSuiviOuvrageSearchRepositoryInternalImpl(ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    @Override
+    public Stream<FicheSuiviOuvrage> searchForStream(QueryBuilder query) {
+        SearchHitsIterator<FicheSuiviOuvrage> hits = elasticsearchOperations.searchForStream(
+            new NativeSearchQueryBuilder().withQuery(query).withPageable(PageRequest.of(0, SCROLL_SIZE)).build(),
+            FicheSuiviOuvrage.class
+        );
+        return StreamUtils.createStreamFromIterator(hits).map(SearchHit::getContent);
+    }
+
+    @Override
+    public Stream<Long> searchIdsForStream(QueryBuilder query) {
+        SearchHitsIterator<FicheSuiviOuvrage> hits = elasticsearchOperations.searchForStream(
+            new NativeSearchQueryBuilder()
+                .withQuery(query)
+                .withSourceFilter(new FetchSourceFilter(ID_FIELDS, null))
+                .withPageable(PageRequest.of(0, SCROLL_SIZE))
+                .build(),
+            FicheSuiviOuvrage.class
+        );
+        return StreamUtils.createStreamFromIterator(hits).map(hit -> hit.getContent().getId());
+    }
+
+    @Override
+    public Page<FicheSuiviOuvrage> searchPoints(QueryBuilder query, SortBuilder<?> sort, Pageable pageable) {
+        NativeSearchQueryBuilder searchQuery = new NativeSearchQueryBuilder()
+            .withQuery(query)
+            .withSourceFilter(new FetchSourceFilter(POINT_FIELDS, null))
+            .withPageable(pageable);
+        if (sort != null) {
+            searchQuery.withSort(sort);
+        }
+        SearchHits<FicheSuiviOuvrage> hits = elasticsearchOperations.search(searchQuery.build(), FicheSuiviOuvrage.class);
+        return new PageImpl<>(
+            hits.getSearchHits().stream().map(SearchHit::getContent).collect(Collectors.toList()),
+            pageable,
+            hits.getTotalHits()
+        );
+    }
+
+    @Override
+    public SearchHits<FicheSuiviOuvrage> searchWithAggregations(
+        QueryBuilder query,
+        Collection<? extends AbstractAggregationBuilder<?>> aggregations,
+        Pageable pageable
+    ) {
+        NativeSearchQueryBuilder searchQuery = new NativeSearchQueryBuilder().withQuery(query).withPageable(pageable);
+        aggregations.forEach(searchQuery::addAggregation);
+        return elasticsearchOperations.search(searchQuery.build(), FicheSuiviOuvrage.class);
+    }
+
+    @Override
+    public Aggregations aggregate(QueryBuilder query, AbstractAggregationBuilder<?> aggregation) {
+        // The smallest page, as a search cannot be limited to its aggregations here
+        NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
+            .withQuery(query)
+            .addAggregation(aggregation)
+            .withSourceFilter(new FetchSourceFilter(ID_FIELDS, null))
+            .withPageable(PageRequest.of(0, 1))
+            .build();
+        return elasticsearchOperations.search(searchQuery, FicheSuiviOuvrage.class).getAggregations();
+    }
+}
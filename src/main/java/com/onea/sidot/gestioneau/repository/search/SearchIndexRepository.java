@@ -0,0 +1,169 @@
+package com.onea.sidot.gestioneau.repository.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.ResourceUtil;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+/**
+ * Repository managing the Elasticsearch indices themselves, for the reindex job.
+ * <p>
+ * The search repositories read and write through the index name of the {@code @Document}, which this repository
+ * turns into an alias of a versioned index, so that an index can be rebuilt aside and swapped in at once.
+ */
+@Repository
+public class SearchIndexRepository {
+
+    private static final String REFRESH_INTERVAL = "refresh_interval";
+
+    private static final String NUMBER_OF_REPLICAS = "number_of_replicas";
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexRepository.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final RestHighLevelClient client;
+
+    public SearchIndexRepository(ElasticsearchOperations elasticsearchOperations, RestHighLevelClient client) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.client = client;
+    }
+
+    /**
+     * @return the index name of the entity, which the search repositories use and which is swapped to the rebuilt
+     * indices.
+     */
+    public String getAlias(Class<?> entityClass) {
+        return elasticsearchOperations.getIndexCoordinatesFor(entityClass).getIndexName();
+    }
+
+    /**
+     * Create an index with the settings and the mapping of the entity, set up for bulk loading: no refresh and no
+     * replica until {@link #finishBulkLoad} is called.
+     */
+    public void createIndex(String indexName, Class<?> entityClass) {
+        log.debug("Creating Elasticsearch index {} for {}", indexName, entityClass.getSimpleName());
+        IndexOperations indexOperations = elasticsearchOperations.indexOps(IndexCoordinates.of(indexName));
+        Document settings = getSettings(entityClass);
+        settings.put(REFRESH_INTERVAL, "-1");
+        settings.put(NUMBER_OF_REPLICAS, 0);
+        indexOperations.create(settings);
+        indexOperations.putMapping(indexOperations.createMapping(entityClass));
+    }
+
+    /**
+     * Index the entities with one bulk request.
+     */
+    public void bulkIndex(String indexName, List<?> entities) {
+        elasticsearchOperations.save(entities, IndexCoordinates.of(indexName));
+    }
+
+    /**
+     * Delete the documents of the given ids with one bulk request; the ids without a document are ignored.
+     */
+    public void delete(String indexName, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BulkRequest request = new BulkRequest();
+        ids.forEach(id -> request.add(new DeleteRequest(indexName, String.valueOf(id))));
+        BulkResponse response;
+        try {
+            response = client.bulk(request, RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (response.hasFailures()) {
+            throw new IllegalStateException("Deleting documents from " + indexName + " failed: " + response.buildFailureMessage());
+        }
+    }
+
+    /**
+     * Restore the refresh interval and replicas of the entity settings on a bulk loaded index, and refresh it.
+     */
+    public void finishBulkLoad(String indexName, Class<?> entityClass) {
+        Document settings = getSettings(entityClass);
+        Settings.Builder restoredSettings = Settings.builder();
+        for (String key : List.of(REFRESH_INTERVAL, NUMBER_OF_REPLICAS)) {
+            if (settings.containsKey(key)) {
+                restoredSettings.put(key, String.valueOf(settings.get(key)));
+            } else {
+                restoredSettings.putNull(key);
+            }
+        }
+        try {
+            client.indices().putSettings(new UpdateSettingsRequest(indexName).settings(restoredSettings), RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        elasticsearchOperations.indexOps(IndexCoordinates.of(indexName)).refresh();
+    }
+
+    /**
+     * Atomically point the alias to the index, and delete the indices it pointed to.
+     * <p>
+     * An index created before the alias existed, under the alias name, is deleted in the same request.
+     */
+    public void swapAlias(String alias, String indexName) {
+        try {
+            Set<String> previousIndices = client
+                .indices()
+                .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT)
+                .getAliases()
+                .keySet();
+            IndicesAliasesRequest request = new IndicesAliasesRequest();
+            if (previousIndices.isEmpty() && client.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+                request.addAliasAction(AliasActions.removeIndex().index(alias));
+            }
+            previousIndices
+                .stream()
+                .filter(previousIndex -> !previousIndex.equals(indexName))
+                .forEach(previousIndex -> request.addAliasAction(AliasActions.removeIndex().index(previousIndex)));
+            request.addAliasAction(AliasActions.add().index(indexName).alias(alias));
+            log.debug("Swapping Elasticsearch alias {} from {} to {}", alias, previousIndices, indexName);
+            client.indices().updateAliases(request, RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteIndex(String indexName) {
+        log.debug("Deleting Elasticsearch index {}", indexName);
+        elasticsearchOperations.indexOps(IndexCoordinates.of(indexName)).delete();
+    }
+
+    /**
+     * @return the settings of the {@link Setting#settingPath()} of the entity, the same ones the search repositories
+     * create their index with.
+     */
+    private static Document getSettings(Class<?> entityClass) {
+        Setting setting = AnnotatedElementUtils.findMergedAnnotation(entityClass, Setting.class);
+        if (setting == null || !StringUtils.hasText(setting.settingPath())) {
+            return Document.create();
+        }
+        return Document.parse(ResourceUtil.readFileFromClasspath(setting.settingPath()));
+    }
+}
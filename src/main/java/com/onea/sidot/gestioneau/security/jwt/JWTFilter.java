@@ -1,5 +1,6 @@
 package com.onea.sidot.gestioneau.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -14,6 +15,8 @@ import org.springframework.web.filter.GenericFilterBean;
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
  * found.
+ * <p>
+ * The tokens are verified once, and their claims then read from the {@link VerifiedTokenCache} until they expire.
  */
 public class JWTFilter extends GenericFilterBean {
 
@@ -21,8 +24,20 @@ public class JWTFilter extends GenericFilterBean {
 
     private final TokenProvider tokenProvider;
 
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Build a filter verifying the token of every request.
+     *
+     * @param tokenProvider the provider verifying the tokens.
+     */
     public JWTFilter(TokenProvider tokenProvider) {
+        this(tokenProvider, new VerifiedTokenCache(0));
+    }
+
+    public JWTFilter(TokenProvider tokenProvider, VerifiedTokenCache verifiedTokenCache) {
         this.tokenProvider = tokenProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -30,13 +45,29 @@ public class JWTFilter extends GenericFilterBean {
         throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (StringUtils.hasText(jwt)) {
+            Authentication authentication = getAuthentication(jwt);
+            if (authentication != null) {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
+    private Authentication getAuthentication(String jwt) {
+        VerifiedClaims verifiedClaims = verifiedTokenCache.get(jwt);
+        if (verifiedClaims == null) {
+            Claims claims = this.tokenProvider.getValidClaims(jwt);
+            if (claims == null) {
+                return null;
+            }
+            verifiedClaims = this.tokenProvider.getVerifiedClaims(claims);
+            verifiedTokenCache.put(jwt, verifiedClaims);
+        }
+        // A new authentication for each request, as it is mutable and holds the token of the request
+        return this.tokenProvider.getAuthentication(jwt, verifiedClaims);
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -74,27 +74,55 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return getAuthentication(token, getVerifiedClaims(jwtParser.parseClaimsJws(token).getBody()));
+    }
 
+    /**
+     * Read the subject and authorities of a token from its claims, already verified.
+     *
+     * @param claims the claims of the token, as returned by {@link #getValidClaims(String)}.
+     * @return the verified claims, which do not hold the token.
+     */
+    public VerifiedClaims getVerifiedClaims(Claims claims) {
         Collection<? extends GrantedAuthority> authorities = Arrays
             .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
             .filter(auth -> !auth.trim().isEmpty())
             .map(SimpleGrantedAuthority::new)
             .collect(Collectors.toList());
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        return new VerifiedClaims(claims.getSubject(), authorities, claims.getExpiration());
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Build a new authentication of a request from the claims of its token.
+     *
+     * @param token the token of the request, kept as the credentials of this authentication only.
+     * @param verifiedClaims the claims of the token, as returned by {@link #getVerifiedClaims(Claims)}.
+     * @return the authentication.
+     */
+    public Authentication getAuthentication(String token, VerifiedClaims verifiedClaims) {
+        User principal = new User(verifiedClaims.getSubject(), "", verifiedClaims.getAuthorities());
+
+        return new UsernamePasswordAuthenticationToken(principal, token, verifiedClaims.getAuthorities());
     }
 
     public boolean validateToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    /**
+     * Verify a token and read its claims.
+     *
+     * @param authToken the token.
+     * @return the claims of the token, or {@code null} if it is invalid or expired.
+     */
+    public Claims getValidClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,40 @@
+package com.onea.sidot.gestioneau.security.jwt;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Claims of a verified token which an authentication is built from: its subject and authorities, without the token
+ * itself. Immutable, to be shared by the requests replaying the token.
+ */
+public final class VerifiedClaims {
+
+    private final String subject;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final Date expiration;
+
+    public VerifiedClaims(String subject, Collection<? extends GrantedAuthority> authorities, Date expiration) {
+        this.subject = subject;
+        this.authorities = List.copyOf(authorities);
+        this.expiration = expiration == null ? null : new Date(expiration.getTime());
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return the expiration of the token, or {@code null} if it does not expire.
+     */
+    public Date getExpiration() {
+        return expiration == null ? null : new Date(expiration.getTime());
+    }
+}
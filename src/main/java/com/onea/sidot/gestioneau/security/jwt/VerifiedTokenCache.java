@@ -0,0 +1,81 @@
+package com.onea.sidot.gestioneau.security.jwt;
+
+import com.onea.sidot.gestioneau.config.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Cache of the tokens verified by this member, so that the signature of a token replayed by the gateway is verified,
+ * and its claims read, once rather than on every request.
+ * <p>
+ * The {@link VerifiedClaims} are keyed by the SHA-256 hash of their token, which is not kept itself, and kept until the
+ * token expires, which ends its validity anyway: the tokens without expiration are not cached. The cache is an
+ * {@link ExpiringCache}, whose meters are the ones of the {@code jwt} cache.
+ */
+public class VerifiedTokenCache implements MeterBinder {
+
+    static final String CACHE_NAME = "jwt";
+
+    private final int maxSize;
+
+    private final ExpiringCache<String, VerifiedClaims> entries;
+
+    /**
+     * @param maxSize upper bound for the number of tokens kept, {@code 0} for no cache.
+     */
+    public VerifiedTokenCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(int maxSize, Clock clock) {
+        this.maxSize = maxSize;
+        this.entries = new ExpiringCache<>(Math.max(maxSize, 0), clock);
+    }
+
+    /**
+     * Get the claims of a token verified before.
+     *
+     * @param token the token.
+     * @return the claims, or {@code null} if the token was not verified or has expired since.
+     */
+    public VerifiedClaims get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        return entries.get(hash(token));
+    }
+
+    /**
+     * Keep the claims of a verified token, until its expiration.
+     *
+     * @param token the token.
+     * @param verifiedClaims the claims read from the token.
+     */
+    public void put(String token, VerifiedClaims verifiedClaims) {
+        Date expiration = verifiedClaims.getExpiration();
+        if (maxSize <= 0 || expiration == null) {
+            return;
+        }
+        entries.put(hash(token), verifiedClaims, expiration.getTime());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entries.bindTo(registry, CACHE_NAME);
+    }
+}
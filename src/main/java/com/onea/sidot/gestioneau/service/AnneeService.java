@@ -2,6 +2,7 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.Annee;
 import com.onea.sidot.gestioneau.repository.AnneeRepository;
 import com.onea.sidot.gestioneau.repository.search.AnneeSearchRepository;
@@ -14,8 +15,12 @@ import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +31,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class AnneeService {
 
+    public static final String ANNEES_CACHE = Annee.class.getName() + ".all";
+
+    public static final String ANNEES_BY_LIBELLE_CACHE = Annee.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(AnneeService.class);
 
     private final AnneeRepository anneeRepository;
@@ -34,10 +43,22 @@ public class AnneeService {
 
     private final AnneeSearchRepository anneeSearchRepository;
 
-    public AnneeService(AnneeRepository anneeRepository, AnneeMapper anneeMapper, AnneeSearchRepository anneeSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
+    public AnneeService(
+        AnneeRepository anneeRepository,
+        AnneeMapper anneeMapper,
+        AnneeSearchRepository anneeSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
+    ) {
         this.anneeRepository = anneeRepository;
         this.anneeMapper = anneeMapper;
         this.anneeSearchRepository = anneeSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +67,13 @@ public class AnneeService {
      * @param anneeDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { ANNEES_CACHE, ANNEES_BY_LIBELLE_CACHE }, allEntries = true)
     public AnneeDTO save(AnneeDTO anneeDTO) {
         log.debug("Request to save Annee : {}", anneeDTO);
         Annee annee = anneeMapper.toEntity(anneeDTO);
-        annee = anneeRepository.save(annee);
+        annee = anneeRepository.saveAndFlush(annee, anneeDTO.getVersion());
         AnneeDTO result = anneeMapper.toDto(annee);
-        anneeSearchRepository.save(annee);
+        searchOutboxService.enqueue(Annee.class, annee.getId());
         return result;
     }
 
@@ -61,6 +83,7 @@ public class AnneeService {
      * @param anneeDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { ANNEES_CACHE, ANNEES_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<AnneeDTO> partialUpdate(AnneeDTO anneeDTO) {
         log.debug("Request to partially update Annee : {}", anneeDTO);
 
@@ -72,10 +95,10 @@ public class AnneeService {
                     return existingAnnee;
                 }
             )
-            .map(anneeRepository::save)
+            .map(existingAnnee -> anneeRepository.saveAndFlush(existingAnnee, anneeDTO.getVersion()))
             .map(
                 savedAnnee -> {
-                    anneeSearchRepository.save(savedAnnee);
+                    searchOutboxService.enqueue(Annee.class, savedAnnee.getId());
 
                     return savedAnnee;
                 }
@@ -95,6 +118,44 @@ public class AnneeService {
         return anneeRepository.findAll(pageable).map(anneeMapper::toDto);
     }
 
+    /**
+     * Get all the annees, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ANNEES_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<AnneeDTO> findAll() {
+        log.debug("Request to get all Annees");
+        return anneeMapper.toDto(anneeRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the annees of a libelle, cached until one of the annees is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ANNEES_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<AnneeDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the Annees of libelle {}", libelle);
+        return anneeMapper.toDto(anneeRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the annees following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<AnneeDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Annees after {}", after);
+        return anneeRepository.findAllAfter(after, pageable).map(anneeMapper::toDto);
+    }
+
     /**
      *  Get all the annees where Prevision is {@code null}.
      *  @return the list of entities.
@@ -126,10 +187,12 @@ public class AnneeService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { ANNEES_CACHE, ANNEES_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Annee : {}", id);
         anneeRepository.deleteById(id);
-        anneeSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Annee.class, id);
+        syncService.recordDeletion(Annee.class, id);
     }
 
     /**
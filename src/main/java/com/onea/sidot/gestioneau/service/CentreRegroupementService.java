@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +31,18 @@ public class CentreRegroupementService {
 
     private final CentreRegroupementSearchRepository centreRegroupementSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
     public CentreRegroupementService(
         CentreRegroupementRepository centreRegroupementRepository,
         CentreRegroupementMapper centreRegroupementMapper,
-        CentreRegroupementSearchRepository centreRegroupementSearchRepository
+        CentreRegroupementSearchRepository centreRegroupementSearchRepository,
+        SearchOutboxService searchOutboxService
     ) {
         this.centreRegroupementRepository = centreRegroupementRepository;
         this.centreRegroupementMapper = centreRegroupementMapper;
         this.centreRegroupementSearchRepository = centreRegroupementSearchRepository;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +54,9 @@ public class CentreRegroupementService {
     public CentreRegroupementDTO save(CentreRegroupementDTO centreRegroupementDTO) {
         log.debug("Request to save CentreRegroupement : {}", centreRegroupementDTO);
         CentreRegroupement centreRegroupement = centreRegroupementMapper.toEntity(centreRegroupementDTO);
-        centreRegroupement = centreRegroupementRepository.save(centreRegroupement);
+        centreRegroupement = centreRegroupementRepository.saveAndFlush(centreRegroupement, centreRegroupementDTO.getVersion());
         CentreRegroupementDTO result = centreRegroupementMapper.toDto(centreRegroupement);
-        centreRegroupementSearchRepository.save(centreRegroupement);
+        searchOutboxService.enqueue(CentreRegroupement.class, centreRegroupement.getId());
         return result;
     }
 
@@ -72,10 +77,13 @@ public class CentreRegroupementService {
                     return existingCentreRegroupement;
                 }
             )
-            .map(centreRegroupementRepository::save)
+            .map(
+                existingCentreRegroupement ->
+                    centreRegroupementRepository.saveAndFlush(existingCentreRegroupement, centreRegroupementDTO.getVersion())
+            )
             .map(
                 savedCentreRegroupement -> {
-                    centreRegroupementSearchRepository.save(savedCentreRegroupement);
+                    searchOutboxService.enqueue(CentreRegroupement.class, savedCentreRegroupement.getId());
 
                     return savedCentreRegroupement;
                 }
@@ -95,6 +103,19 @@ public class CentreRegroupementService {
         return centreRegroupementRepository.findAll(pageable).map(centreRegroupementMapper::toDto);
     }
 
+    /**
+     * Get the centreRegroupements following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CentreRegroupementDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the CentreRegroupements after {}", after);
+        return centreRegroupementRepository.findAllAfter(after, pageable).map(centreRegroupementMapper::toDto);
+    }
+
     /**
      * Get one centreRegroupement by id.
      *
@@ -115,7 +136,7 @@ public class CentreRegroupementService {
     public void delete(Long id) {
         log.debug("Request to delete CentreRegroupement : {}", id);
         centreRegroupementRepository.deleteById(id);
-        centreRegroupementSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(CentreRegroupement.class, id);
     }
 
     /**
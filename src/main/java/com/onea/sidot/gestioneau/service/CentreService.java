@@ -16,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,10 +35,18 @@ public class CentreService {
 
     private final CentreSearchRepository centreSearchRepository;
 
-    public CentreService(CentreRepository centreRepository, CentreMapper centreMapper, CentreSearchRepository centreSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    public CentreService(
+        CentreRepository centreRepository,
+        CentreMapper centreMapper,
+        CentreSearchRepository centreSearchRepository,
+        SearchOutboxService searchOutboxService
+    ) {
         this.centreRepository = centreRepository;
         this.centreMapper = centreMapper;
         this.centreSearchRepository = centreSearchRepository;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +58,9 @@ public class CentreService {
     public CentreDTO save(CentreDTO centreDTO) {
         log.debug("Request to save Centre : {}", centreDTO);
         Centre centre = centreMapper.toEntity(centreDTO);
-        centre = centreRepository.save(centre);
+        centre = centreRepository.saveAndFlush(centre, centreDTO.getVersion());
         CentreDTO result = centreMapper.toDto(centre);
-        centreSearchRepository.save(centre);
+        searchOutboxService.enqueue(Centre.class, centre.getId());
         return result;
     }
 
@@ -72,10 +81,10 @@ public class CentreService {
                     return existingCentre;
                 }
             )
-            .map(centreRepository::save)
+            .map(existingCentre -> centreRepository.saveAndFlush(existingCentre, centreDTO.getVersion()))
             .map(
                 savedCentre -> {
-                    centreSearchRepository.save(savedCentre);
+                    searchOutboxService.enqueue(Centre.class, savedCentre.getId());
 
                     return savedCentre;
                 }
@@ -95,6 +104,19 @@ public class CentreService {
         return centreRepository.findAll(pageable).map(centreMapper::toDto);
     }
 
+    /**
+     * Get the centres following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CentreDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Centres after {}", after);
+        return centreRepository.findAllAfter(after, pageable).map(centreMapper::toDto);
+    }
+
     /**
      *  Get all the centres where Prevision is {@code null}.
      *  @return the list of entities.
@@ -129,7 +151,7 @@ public class CentreService {
     public void delete(Long id) {
         log.debug("Request to delete Centre : {}", id);
         centreRepository.deleteById(id);
-        centreSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Centre.class, id);
     }
 
     /**
@@ -6,12 +6,16 @@ import com.onea.sidot.gestioneau.domain.Commune;
 import com.onea.sidot.gestioneau.repository.CommuneRepository;
 import com.onea.sidot.gestioneau.repository.search.CommuneSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.CommuneDTO;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.CommuneMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,28 @@ public class CommuneService {
 
     private final CommuneMapper communeMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final CommuneSearchRepository communeSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
     public CommuneService(
         CommuneRepository communeRepository,
         CommuneMapper communeMapper,
-        CommuneSearchRepository communeSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        CommuneSearchRepository communeSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
     ) {
         this.communeRepository = communeRepository;
         this.communeMapper = communeMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.communeSearchRepository = communeSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +65,10 @@ public class CommuneService {
     public CommuneDTO save(CommuneDTO communeDTO) {
         log.debug("Request to save Commune : {}", communeDTO);
         Commune commune = communeMapper.toEntity(communeDTO);
-        commune = communeRepository.save(commune);
+        commune = communeRepository.saveAndFlush(commune, communeDTO.getVersion());
         CommuneDTO result = communeMapper.toDto(commune);
-        communeSearchRepository.save(commune);
+        searchOutboxService.enqueue(Commune.class, commune.getId());
+        locationTreeService.invalidate(LocationTree.Level.COMMUNE);
         return result;
     }
 
@@ -72,10 +89,11 @@ public class CommuneService {
                     return existingCommune;
                 }
             )
-            .map(communeRepository::save)
+            .map(existingCommune -> communeRepository.saveAndFlush(existingCommune, communeDTO.getVersion()))
             .map(
                 savedCommune -> {
-                    communeSearchRepository.save(savedCommune);
+                    searchOutboxService.enqueue(Commune.class, savedCommune.getId());
+                    locationTreeService.invalidate(LocationTree.Level.COMMUNE);
 
                     return savedCommune;
                 }
@@ -95,6 +113,31 @@ public class CommuneService {
         return communeRepository.findAll(pageable).map(communeMapper::toDto);
     }
 
+    /**
+     * Get the communes following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommuneDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Communes after {}", after);
+        return communeRepository.findAllAfter(after, pageable).map(communeMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the communes of a province, in libelle order.
+     *
+     * @param provinceId the id of the province.
+     * @return the list of communes.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllByProvince(Long provinceId) {
+        log.debug("Request to get the Communes of Province : {}", provinceId);
+        return idLibelleMapper.toDto(communeRepository.findAllByProvinceIdOrderByLibelle(provinceId));
+    }
+
     /**
      * Get one commune by id.
      *
@@ -115,7 +158,8 @@ public class CommuneService {
     public void delete(Long id) {
         log.debug("Request to delete Commune : {}", id);
         communeRepository.deleteById(id);
-        communeSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Commune.class, id);
+        locationTreeService.invalidate(LocationTree.Level.COMMUNE);
     }
 
     /**
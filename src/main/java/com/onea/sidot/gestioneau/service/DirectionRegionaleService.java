@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +31,18 @@ public class DirectionRegionaleService {
 
     private final DirectionRegionaleSearchRepository directionRegionaleSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
     public DirectionRegionaleService(
         DirectionRegionaleRepository directionRegionaleRepository,
         DirectionRegionaleMapper directionRegionaleMapper,
-        DirectionRegionaleSearchRepository directionRegionaleSearchRepository
+        DirectionRegionaleSearchRepository directionRegionaleSearchRepository,
+        SearchOutboxService searchOutboxService
     ) {
         this.directionRegionaleRepository = directionRegionaleRepository;
         this.directionRegionaleMapper = directionRegionaleMapper;
         this.directionRegionaleSearchRepository = directionRegionaleSearchRepository;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +54,9 @@ public class DirectionRegionaleService {
     public DirectionRegionaleDTO save(DirectionRegionaleDTO directionRegionaleDTO) {
         log.debug("Request to save DirectionRegionale : {}", directionRegionaleDTO);
         DirectionRegionale directionRegionale = directionRegionaleMapper.toEntity(directionRegionaleDTO);
-        directionRegionale = directionRegionaleRepository.save(directionRegionale);
+        directionRegionale = directionRegionaleRepository.saveAndFlush(directionRegionale, directionRegionaleDTO.getVersion());
         DirectionRegionaleDTO result = directionRegionaleMapper.toDto(directionRegionale);
-        directionRegionaleSearchRepository.save(directionRegionale);
+        searchOutboxService.enqueue(DirectionRegionale.class, directionRegionale.getId());
         return result;
     }
 
@@ -72,10 +77,13 @@ public class DirectionRegionaleService {
                     return existingDirectionRegionale;
                 }
             )
-            .map(directionRegionaleRepository::save)
+            .map(
+                existingDirectionRegionale ->
+                    directionRegionaleRepository.saveAndFlush(existingDirectionRegionale, directionRegionaleDTO.getVersion())
+            )
             .map(
                 savedDirectionRegionale -> {
-                    directionRegionaleSearchRepository.save(savedDirectionRegionale);
+                    searchOutboxService.enqueue(DirectionRegionale.class, savedDirectionRegionale.getId());
 
                     return savedDirectionRegionale;
                 }
@@ -95,6 +103,19 @@ public class DirectionRegionaleService {
         return directionRegionaleRepository.findAll(pageable).map(directionRegionaleMapper::toDto);
     }
 
+    /**
+     * Get the directionRegionales following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<DirectionRegionaleDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the DirectionRegionales after {}", after);
+        return directionRegionaleRepository.findAllAfter(after, pageable).map(directionRegionaleMapper::toDto);
+    }
+
     /**
      * Get one directionRegionale by id.
      *
@@ -115,7 +136,7 @@ public class DirectionRegionaleService {
     public void delete(Long id) {
         log.debug("Request to delete DirectionRegionale : {}", id);
         directionRegionaleRepository.deleteById(id);
-        directionRegionaleSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(DirectionRegionale.class, id);
     }
 
     /**
@@ -0,0 +1,260 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service tracking the versions of the entities, for the ETags of the REST resources.
+ * <p>
+ * Each versioned entity type has a change counter, incremented when a change of one of its entities commits, and the
+ * last committed version of the recently read or changed entities is kept in a bounded map. Both are Hazelcast maps
+ * shared by the members of the cluster, so that a conditional GET is answered without reading the database.
+ * <p>
+ * The tags also include the counters of the entity types the type references, as the DTOs embed the referenced
+ * entities, and the epoch of the counters, for the tags not to be reused when the cluster restarts from zero. The
+ * changes are seen by Hibernate listeners: the updates written in JPQL or SQL are not.
+ */
+@Service
+public class EntityVersionService {
+
+    public static final String TABLE_VERSIONS_MAP = "entity-table-versions";
+
+    public static final String ENTITY_VERSIONS_MAP = "entity-versions";
+
+    private static final String EPOCH_KEY = "";
+
+    private final Logger log = LoggerFactory.getLogger(EntityVersionService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final IMap<String, Long> tableVersions;
+
+    private final IMap<String, Long> entityVersions;
+
+    private final Map<String, Set<String>> referencedTypes = new HashMap<>();
+
+    public EntityVersionService(EntityManagerFactory entityManagerFactory, HazelcastInstance hazelcastInstance) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableVersions = hazelcastInstance.getMap(TABLE_VERSIONS_MAP);
+        this.entityVersions = hazelcastInstance.getMap(ENTITY_VERSIONS_MAP);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            Set<String> types = new HashSet<>();
+            entityType
+                .getSingularAttributes()
+                .stream()
+                .filter(Attribute::isAssociation)
+                .forEach(attribute -> types.add(attribute.getJavaType().getSimpleName()));
+            types.remove(entityType.getJavaType().getSimpleName());
+            referencedTypes.put(entityType.getJavaType().getSimpleName(), types);
+        }
+        tableVersions.putIfAbsent(EPOCH_KEY, System.currentTimeMillis());
+
+        VersionListener listener = new VersionListener();
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Get the tag of the lists of an entity type, which changes whenever an entity of the type, or of a type it
+     * references, changes.
+     * <p>
+     * Read it before the list, so that a change committed meanwhile is not hidden behind the tag.
+     *
+     * @param entityClass the class of the entities.
+     * @return the tag.
+     */
+    public String getTableTag(Class<?> entityClass) {
+        return getTableTag(entityClass.getSimpleName());
+    }
+
+    /**
+     * Get the tag of the lists of an entity type, see {@link #getTableTag(Class)}.
+     *
+     * @param type the simple name of the entity class.
+     * @return the tag.
+     */
+    public String getTableTag(String type) {
+        Map<String, Long> counters = getCounters(type);
+        return counters.getOrDefault(EPOCH_KEY, 0L) + "-" + (sum(counters, getReferencedTypes(type)) + counters.getOrDefault(type, 0L));
+    }
+
+    /**
+     * Get the tag of an entity.
+     * <p>
+     * Read it before the entity, so that a change committed meanwhile is not hidden behind the tag.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @return the tag, known without reading the entity if its version is in the map.
+     */
+    public EntityTag getEntityTag(Class<?> entityClass, Object id) {
+        String type = entityClass.getSimpleName();
+        String key = getKey(type, id);
+        Map<String, Long> counters = getCounters(type);
+        String references = counters.getOrDefault(EPOCH_KEY, 0L) + "-" + sum(counters, getReferencedTypes(type));
+        return new EntityTag(key, entityVersions.get(key), references);
+    }
+
+    private Map<String, Long> getCounters(String type) {
+        Set<String> keys = new HashSet<>(getReferencedTypes(type));
+        keys.add(type);
+        keys.add(EPOCH_KEY);
+        return tableVersions.getAll(keys);
+    }
+
+    private Set<String> getReferencedTypes(String type) {
+        return referencedTypes.getOrDefault(type, Set.of());
+    }
+
+    private static long sum(Map<String, Long> counters, Set<String> types) {
+        return types.stream().mapToLong(type -> counters.getOrDefault(type, 0L)).sum();
+    }
+
+    private static String getKey(String type, Object id) {
+        return type + ":" + id;
+    }
+
+    private void recordChange(EntityPersister persister, Object id, Object version) {
+        String type = persister.getMappedClass().getSimpleName();
+        try {
+            tableVersions.executeOnKey(type, new IncrementProcessor());
+            if (version == null) {
+                entityVersions.delete(getKey(type, id));
+            } else {
+                entityVersions.executeOnKey(getKey(type, id), new MaxVersionProcessor((Long) version));
+            }
+        } catch (RuntimeException e) {
+            // The change is committed already, its tags are stale until the entries expire
+            log.warn("Could not record the change of {} {}: {}", type, id, e.getMessage());
+        }
+    }
+
+    /**
+     * The tag of an entity, made of its version and of the counters of the types it references.
+     */
+    public class EntityTag {
+
+        private final String key;
+
+        private final Long version;
+
+        private final String references;
+
+        EntityTag(String key, Long version, String references) {
+            this.key = key;
+            this.version = version;
+            this.references = references;
+        }
+
+        /**
+         * @return the tag, or {@code null} if the version of the entity is not in the map.
+         */
+        public String getValue() {
+            return version == null ? null : version + "-" + references;
+        }
+
+        /**
+         * Get the tag for the version of the entity as read, and keep the version for the next requests.
+         *
+         * @param version the version of the entity.
+         * @return the tag.
+         */
+        public String withVersion(long version) {
+            entityVersions.executeOnKey(key, new MaxVersionProcessor(version));
+            return version + "-" + references;
+        }
+    }
+
+    private class VersionListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            recordChange(event.getPersister(), event.getId(), event.getPersister().getVersion(event.getEntity()));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            recordChange(event.getPersister(), event.getId(), event.getPersister().getVersion(event.getEntity()));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            recordChange(event.getPersister(), event.getId(), null);
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return persister.isVersioned();
+        }
+    }
+
+    static class IncrementProcessor implements EntryProcessor<String, Long, Long> {
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            long value = entry.getValue() == null ? 1L : entry.getValue() + 1L;
+            entry.setValue(value);
+            return value;
+        }
+    }
+
+    /**
+     * Keeps the greatest version, as a reader may record the version it read after a newer one was committed.
+     */
+    static class MaxVersionProcessor implements EntryProcessor<String, Long, Long> {
+
+        private final long version;
+
+        MaxVersionProcessor(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            if (entry.getValue() == null || entry.getValue() < version) {
+                entry.setValue(version);
+            }
+            return entry.getValue();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.ExtendedMapEntry;
+import com.hazelcast.map.IMap;
+import com.hazelcast.multimap.MultiMap;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageClusterDTO;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.geogrid.GeoGrid;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.GeoCentroid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service clustering the {@link FicheSuiviOuvrage} points for the map, from the {@code geotile_grid} aggregation of
+ * the search index.
+ * <p>
+ * The clusters are computed and cached per map tile ({@code zoom/x/y}, as in the web map tile URLs), so that panning
+ * only computes the tiles coming into view. The tiles of a sheet are evicted, at every zoom level, once the sheet is
+ * indexed: the ones of its new location and, recorded when it was changed, the ones of its previous location.
+ * <p>
+ * Each eviction moves the generation of the tile, which is kept in its place; clusters computed from a generation
+ * are only cached if it is still the one of the tile, so that clusters read before an eviction are not cached after
+ * it.
+ */
+@Service
+public class FicheSuiviOuvrageClusterService {
+
+    public static final int MAX_ZOOM = 20;
+
+    public static final String CLUSTERS_MAP = "fiche-suivi-ouvrage-clusters";
+
+    private static final String PREVIOUS_TILES_MAP = "fiche-suivi-ouvrage-clusters-previous-tiles";
+
+    private static final String ENTITY_TYPE = FicheSuiviOuvrage.class.getSimpleName();
+
+    private static final String CELLS = "cells";
+
+    private static final String CENTROID = "centroid";
+
+    private static final String NATUREOUVRAGES = "natureouvrages";
+
+    // Upper bound for the natures d'ouvrage counted in a cluster, the most frequent ones first
+    private static final int MAX_NATUREOUVRAGES = 20;
+
+    /**
+     * The {@code search.max_buckets} of Elasticsearch, 65,535 by default, past which the whole search fails.
+     */
+    static final int MAX_BUCKETS = 65_535;
+
+    /**
+     * Upper bound for the cells of an aggregation: each cell and each of its nature d'ouvrage count against
+     * {@link #MAX_BUCKETS}.
+     */
+    static final int MAX_CELLS = MAX_BUCKETS / (1 + MAX_NATUREOUVRAGES);
+
+    private static final double MAX_LATITUDE = 85.0511287798066;
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageClusterService.class);
+
+    private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
+
+    private final IMap<String, TileClusters> clusters;
+
+    private final MultiMap<Long, String> previousTiles;
+
+    private final ApplicationProperties.MapClusters properties;
+
+    public FicheSuiviOuvrageClusterService(
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.clusters = hazelcastInstance.getMap(CLUSTERS_MAP);
+        this.previousTiles = hazelcastInstance.getMultiMap(PREVIOUS_TILES_MAP);
+        this.properties = applicationProperties.getMapClusters();
+        int cellPrecision = properties.getCellPrecision();
+        if (cellPrecision < 0 || properties.getMaxTiles() * Math.pow(4, cellPrecision) > MAX_CELLS) {
+            throw new IllegalStateException(
+                "The map clusters cell-precision " + cellPrecision + " splits max-tiles " + properties.getMaxTiles() +
+                " tiles in more than " + MAX_CELLS + " cells: lower one of them"
+            );
+        }
+    }
+
+    /**
+     * @return the maximum number of map tiles of a request.
+     */
+    public int getMaxTiles() {
+        return properties.getMaxTiles();
+    }
+
+    /**
+     * @return the number of map tiles covering the bounding box at the zoom level.
+     */
+    public static long getTileCount(int zoom, double top, double left, double bottom, double right) {
+        long width = getTileX(right, zoom) - getTileX(left, zoom) + 1L;
+        long height = getTileY(bottom, zoom) - getTileY(top, zoom) + 1L;
+        return width * height;
+    }
+
+    /**
+     * Get the clusters of the map tiles covering a bounding box.
+     *
+     * @param zoom the zoom level of the map, from 0 to {@link #MAX_ZOOM}.
+     * @param top the latitude of the top edge of the box.
+     * @param left the longitude of the left edge of the box.
+     * @param bottom the latitude of the bottom edge of the box.
+     * @param right the longitude of the right edge of the box.
+     * @return the clusters of the tiles.
+     */
+    public List<FicheSuiviOuvrageClusterDTO> findClusters(int zoom, double top, double left, double bottom, double right) {
+        log.debug("Request to get the FicheSuiviOuvrage clusters of zoom {} within [{}, {}, {}, {}]", zoom, top, left, bottom, right);
+        int minX = getTileX(left, zoom);
+        int maxX = getTileX(right, zoom);
+        int minY = getTileY(top, zoom);
+        int maxY = getTileY(bottom, zoom);
+        Set<String> tiles = new LinkedHashSet<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                tiles.add(getTile(zoom, x, y));
+            }
+        }
+
+        Map<String, TileClusters> cachedClusters = clusters.getAll(tiles);
+        Map<String, ArrayList<FicheSuiviOuvrageClusterDTO>> tileClusters = new HashMap<>();
+        // The generation of each missing tile, 0 if it was never evicted
+        Map<String, Long> missingTiles = new LinkedHashMap<>();
+        for (String tile : tiles) {
+            TileClusters cached = cachedClusters.get(tile);
+            if (cached != null && cached.cells != null) {
+                tileClusters.put(tile, cached.cells);
+            } else {
+                missingTiles.put(tile, cached == null ? 0L : cached.generation);
+            }
+        }
+        if (!missingTiles.isEmpty()) {
+            Map<String, ArrayList<FicheSuiviOuvrageClusterDTO>> computedClusters = computeClusters(zoom, missingTiles.keySet());
+            computedClusters.forEach(
+                (tile, cells) ->
+                    clusters.executeOnKey(tile, new PutProcessor(missingTiles.get(tile), cells, properties.getTimeToLiveSeconds()))
+            );
+            tileClusters.putAll(computedClusters);
+        }
+
+        List<FicheSuiviOuvrageClusterDTO> result = new ArrayList<>();
+        tiles.forEach(tile -> result.addAll(tileClusters.get(tile)));
+        return result;
+    }
+
+    /**
+     * Count the cells of the tiles with one aggregation on the smallest box covering them all.
+     */
+    private Map<String, ArrayList<FicheSuiviOuvrageClusterDTO>> computeClusters(int zoom, Set<String> tiles) {
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        Map<String, ArrayList<FicheSuiviOuvrageClusterDTO>> result = new HashMap<>();
+        for (String tile : tiles) {
+            String[] coordinates = tile.split("/");
+            int x = Integer.parseInt(coordinates[1]);
+            int y = Integer.parseInt(coordinates[2]);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            result.put(tile, new ArrayList<>());
+        }
+
+        int precision = Math.min(zoom + properties.getCellPrecision(), 29);
+        int cellsPerTile = 1 << (precision - zoom);
+        Aggregations aggregations = ficheSuiviOuvrageSearchRepository.aggregate(
+            boolQuery()
+                .filter(
+                    geoBoundingBoxQuery("location")
+                        .setCorners(
+                            getTileLatitude(minY, zoom),
+                            getTileLongitude(minX, zoom),
+                            getTileLatitude(maxY + 1, zoom),
+                            getTileLongitude(maxX + 1, zoom)
+                        )
+                ),
+            AggregationBuilders
+                .geotileGrid(CELLS)
+                .field("location")
+                .precision(precision)
+                .size((int) Math.min((long) (maxX - minX + 1) * (maxY - minY + 1) * cellsPerTile * cellsPerTile, MAX_CELLS))
+                .subAggregation(AggregationBuilders.geoCentroid(CENTROID).field("location"))
+                .subAggregation(AggregationBuilders.terms(NATUREOUVRAGES).field("natureouvrage.id").size(MAX_NATUREOUVRAGES))
+        );
+        if (aggregations == null) {
+            return result;
+        }
+
+        GeoGrid cells = aggregations.get(CELLS);
+        for (GeoGrid.Bucket cell : cells.getBuckets()) {
+            String[] coordinates = cell.getKeyAsString().split("/");
+            String tile = getTile(zoom, Integer.parseInt(coordinates[1]) / cellsPerTile, Integer.parseInt(coordinates[2]) / cellsPerTile);
+            // The box may catch the edges of the tiles around, which are not complete
+            ArrayList<FicheSuiviOuvrageClusterDTO> tileCells = result.get(tile);
+            if (tileCells == null) {
+                continue;
+            }
+            FicheSuiviOuvrageClusterDTO cluster = new FicheSuiviOuvrageClusterDTO();
+            GeoCentroid centroid = cell.getAggregations().get(CENTROID);
+            cluster.setLatitude(centroid.centroid().getLat());
+            cluster.setLongitude(centroid.centroid().getLon());
+            cluster.setCount(cell.getDocCount());
+            Terms natureouvrages = cell.getAggregations().get(NATUREOUVRAGES);
+            for (Terms.Bucket natureouvrage : natureouvrages.getBuckets()) {
+                cluster.getNatureouvrages().put(natureouvrage.getKeyAsNumber().longValue(), natureouvrage.getDocCount());
+            }
+            tileCells.add(cluster);
+        }
+        return result;
+    }
+
+    /**
+     * Record the location of a sheet before it is changed or deleted, for its tiles to be evicted once it is indexed.
+     *
+     * @param ficheSuiviOuvrage the sheet, as read before the change.
+     */
+    public void recordPreviousLocation(FicheSuiviOuvrage ficheSuiviOuvrage) {
+        if (ficheSuiviOuvrage.getLatitude() == null || ficheSuiviOuvrage.getLongitude() == null) {
+            return;
+        }
+        getTiles(ficheSuiviOuvrage.getLatitude(), ficheSuiviOuvrage.getLongitude())
+            .forEach(tile -> previousTiles.put(ficheSuiviOuvrage.getId(), tile));
+    }
+
+    @EventListener
+    public void onSearchIndexed(SearchIndexedEvent event) {
+        if (!ENTITY_TYPE.equals(event.getEntityType())) {
+            return;
+        }
+        Set<String> tiles = new HashSet<>();
+        for (Object entity : event.getEntities()) {
+            FicheSuiviOuvrage ficheSuiviOuvrage = (FicheSuiviOuvrage) entity;
+            if (ficheSuiviOuvrage.getLatitude() != null && ficheSuiviOuvrage.getLongitude() != null) {
+                tiles.addAll(getTiles(ficheSuiviOuvrage.getLatitude(), ficheSuiviOuvrage.getLongitude()));
+            }
+            tiles.addAll(previousTiles.remove(ficheSuiviOuvrage.getId()));
+        }
+        event.getDeletedIds().forEach(id -> tiles.addAll(previousTiles.remove(id)));
+        log.debug("Evicting the clusters of {} map tiles", tiles.size());
+        if (!tiles.isEmpty()) {
+            clusters.executeOnKeys(tiles, new EvictProcessor(properties.getTimeToLiveSeconds()));
+        }
+    }
+
+    private static List<String> getTiles(double latitude, double longitude) {
+        List<String> tiles = new ArrayList<>(MAX_ZOOM + 1);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            tiles.add(getTile(zoom, getTileX(longitude, zoom), getTileY(latitude, zoom)));
+        }
+        return tiles;
+    }
+
+    private static String getTile(int zoom, int x, int y) {
+        return zoom + "/" + x + "/" + y;
+    }
+
+    static int getTileX(double longitude, int zoom) {
+        int tiles = 1 << zoom;
+        int x = (int) Math.floor((longitude + 180) / 360 * tiles);
+        return Math.max(0, Math.min(tiles - 1, x));
+    }
+
+    static int getTileY(double latitude, int zoom) {
+        int tiles = 1 << zoom;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * tiles);
+        return Math.max(0, Math.min(tiles - 1, y));
+    }
+
+    static double getTileLatitude(int y, int zoom) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI - 2 * Math.PI * y / (1 << zoom))));
+    }
+
+    static double getTileLongitude(int x, int zoom) {
+        return (double) x / (1 << zoom) * 360 - 180;
+    }
+
+    /**
+     * The clusters of a tile, or only its generation once it is evicted.
+     */
+    static final class TileClusters implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long generation;
+
+        private final ArrayList<FicheSuiviOuvrageClusterDTO> cells;
+
+        TileClusters(long generation, ArrayList<FicheSuiviOuvrageClusterDTO> cells) {
+            this.generation = generation;
+            this.cells = cells;
+        }
+    }
+
+    /**
+     * Caches the clusters of a tile, unless the tile was evicted since the generation they were computed from.
+     */
+    static class PutProcessor implements EntryProcessor<String, TileClusters, Boolean> {
+
+        private final long generation;
+
+        private final ArrayList<FicheSuiviOuvrageClusterDTO> cells;
+
+        private final long timeToLiveSeconds;
+
+        PutProcessor(long generation, ArrayList<FicheSuiviOuvrageClusterDTO> cells, long timeToLiveSeconds) {
+            this.generation = generation;
+            this.cells = cells;
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        @Override
+        public Boolean process(Map.Entry<String, TileClusters> entry) {
+            long currentGeneration = entry.getValue() == null ? 0L : entry.getValue().generation;
+            if (currentGeneration != generation) {
+                return false;
+            }
+            ExtendedMapEntry<String, TileClusters> tileEntry = (ExtendedMapEntry<String, TileClusters>) entry;
+            tileEntry.setValue(new TileClusters(generation, cells), timeToLiveSeconds, TimeUnit.SECONDS);
+            return true;
+        }
+    }
+
+    /**
+     * Drops the clusters of a tile and moves its generation.
+     */
+    static class EvictProcessor implements EntryProcessor<String, TileClusters, Long> {
+
+        private final long timeToLiveSeconds;
+
+        EvictProcessor(long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        @Override
+        public Long process(Map.Entry<String, TileClusters> entry) {
+            long generation = entry.getValue() == null ? 1L : entry.getValue().generation + 1L;
+            ExtendedMapEntry<String, TileClusters> tileEntry = (ExtendedMapEntry<String, TileClusters>) entry;
+            tileEntry.setValue(new TileClusters(generation, null), timeToLiveSeconds, TimeUnit.SECONDS);
+            return generation;
+        }
+    }
+}
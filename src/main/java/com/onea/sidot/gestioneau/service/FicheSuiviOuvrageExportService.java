@@ -0,0 +1,205 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.repository.FicheSuiviOuvrageRepository;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageSearchCriteriaDTO;
+import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting {@link FicheSuiviOuvrage}s as CSV or newline-delimited JSON.
+ * <p>
+ * Rows are streamed from the database (or scrolled from Elasticsearch when a query or criteria are given) and written
+ * one at a time, and the persistence context is cleared as it goes, so heap use does not depend on the number of rows.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FicheSuiviOuvrageExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON,
+    }
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    /**
+     * The columns of the CSV export, read from the entity: the references are written as their libellé, and the
+     * prévision, which has none, as the libellés of its centre and year.
+     */
+    private static final Map<String, Function<FicheSuiviOuvrage, Object>> CSV_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CSV_COLUMNS.put("id", FicheSuiviOuvrage::getId);
+        CSV_COLUMNS.put("prjAppuis", FicheSuiviOuvrage::getPrjAppuis);
+        CSV_COLUMNS.put("nomBenef", FicheSuiviOuvrage::getNomBenef);
+        CSV_COLUMNS.put("prenomBenef", FicheSuiviOuvrage::getPrenomBenef);
+        CSV_COLUMNS.put("professionBenef", FicheSuiviOuvrage::getProfessionBenef);
+        CSV_COLUMNS.put("nbUsagers", FicheSuiviOuvrage::getNbUsagers);
+        CSV_COLUMNS.put("contacts", FicheSuiviOuvrage::getContacts);
+        CSV_COLUMNS.put("longitude", FicheSuiviOuvrage::getLongitude);
+        CSV_COLUMNS.put("latitude", FicheSuiviOuvrage::getLatitude);
+        CSV_COLUMNS.put("dateRemiseDevis", FicheSuiviOuvrage::getDateRemiseDevis);
+        CSV_COLUMNS.put("dateDebutTravaux", FicheSuiviOuvrage::getDateDebutTravaux);
+        CSV_COLUMNS.put("dateFinTravaux", FicheSuiviOuvrage::getDateFinTravaux);
+        CSV_COLUMNS.put("rue", FicheSuiviOuvrage::getRue);
+        CSV_COLUMNS.put("porte", FicheSuiviOuvrage::getPorte);
+        CSV_COLUMNS.put("coutMenage", FicheSuiviOuvrage::getCoutMenage);
+        CSV_COLUMNS.put("subvOnea", FicheSuiviOuvrage::getSubvOnea);
+        CSV_COLUMNS.put("subvProjet", FicheSuiviOuvrage::getSubvProjet);
+        CSV_COLUMNS.put("autreSubv", FicheSuiviOuvrage::getAutreSubv);
+        CSV_COLUMNS.put("toles", FicheSuiviOuvrage::getToles);
+        CSV_COLUMNS.put("animateur", FicheSuiviOuvrage::getAnimateur);
+        CSV_COLUMNS.put("superviseur", FicheSuiviOuvrage::getSuperviseur);
+        CSV_COLUMNS.put("controleur", FicheSuiviOuvrage::getControleur);
+        CSV_COLUMNS.put("parcelle", f -> f.getParcelle() == null ? null : f.getParcelle().getLibelle());
+        CSV_COLUMNS.put(
+            "centre",
+            f -> f.getPrevision() == null || f.getPrevision().getCentre() == null ? null : f.getPrevision().getCentre().getLibelle()
+        );
+        CSV_COLUMNS.put(
+            "annee",
+            f -> f.getPrevision() == null || f.getPrevision().getRefannee() == null ? null : f.getPrevision().getRefannee().getLibelle()
+        );
+        CSV_COLUMNS.put("natureouvrage", f -> f.getNatureouvrage() == null ? null : f.getNatureouvrage().getLibelle());
+        CSV_COLUMNS.put("typehabitation", f -> f.getTypehabitation() == null ? null : f.getTypehabitation().getLibelle());
+        CSV_COLUMNS.put("sourceapprovep", f -> f.getSourceapprovep() == null ? null : f.getSourceapprovep().getLibelle());
+        CSV_COLUMNS.put(
+            "modeevacuationeauusee",
+            f -> f.getModeevacuationeauusee() == null ? null : f.getModeevacuationeauusee().getLibelle()
+        );
+        CSV_COLUMNS.put("modeevacexcreta", f -> f.getModeevacexcreta() == null ? null : f.getModeevacexcreta().getLibelle());
+        CSV_COLUMNS.put("macon", f -> f.getMacon() == null ? null : f.getMacon().getLibelle());
+        CSV_COLUMNS.put("prefabricant", f -> f.getPrefabricant() == null ? null : f.getPrefabricant().getLibelle());
+    }
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageExportService.class);
+
+    private final FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
+
+    private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
+
+    private final FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public FicheSuiviOuvrageExportService(
+        FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
+        ObjectMapper objectMapper,
+        EntityManager entityManager
+    ) {
+        this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
+        this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Export the ficheSuiviOuvrages corresponding to the query.
+     *
+     * @param format the output format.
+     * @param query the query of the search, or {@code null} to export every ficheSuiviOuvrage.
+     * @param outputStream the stream to write to, it is flushed but not closed.
+     * @return the number of exported rows.
+     * @throws IOException if the output cannot be written.
+     */
+    public long export(Format format, String query, OutputStream outputStream) throws IOException {
+        log.debug("Request to export FicheSuiviOuvrages as {} for query {}", format, query);
+        if (query == null || query.isBlank()) {
+            return export(format, ficheSuiviOuvrageRepository.streamAll().peek(entityManager::detach), outputStream);
+        }
+        return export(format, ficheSuiviOuvrageSearchRepository.searchForStream(queryStringQuery(query)), outputStream);
+    }
+
+    /**
+     * Export the ficheSuiviOuvrages matching the criteria.
+     *
+     * @param format the output format.
+     * @param criteria the criteria of the search.
+     * @param outputStream the stream to write to, it is flushed but not closed.
+     * @return the number of exported rows.
+     * @throws IOException if the output cannot be written.
+     */
+    public long export(Format format, FicheSuiviOuvrageSearchCriteriaDTO criteria, OutputStream outputStream) throws IOException {
+        log.debug("Request to export FicheSuiviOuvrages as {} for criteria {}", format, criteria);
+        return export(format, ficheSuiviOuvrageSearchRepository.searchForStream(FicheSuiviOuvrageService.toQuery(criteria)), outputStream);
+    }
+
+    private long export(Format format, Stream<FicheSuiviOuvrage> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(FicheSuiviOuvrageDTO.class);
+        if (format == Format.CSV) {
+            writeCsvRow(writer, CSV_COLUMNS.keySet());
+        }
+        long count = 0;
+        try (Stream<FicheSuiviOuvrage> ficheSuiviOuvrages = rows) {
+            Iterator<FicheSuiviOuvrage> iterator = ficheSuiviOuvrages.iterator();
+            while (iterator.hasNext()) {
+                FicheSuiviOuvrage ficheSuiviOuvrage = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, () -> CSV_COLUMNS.values().stream().map(column -> column.apply(ficheSuiviOuvrage)).iterator());
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage)));
+                    writer.write('\n');
+                }
+                if (++count % CLEAR_INTERVAL == 0) {
+                    // Release the rows (and the references they loaded) already written
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.debug("Exported {} FicheSuiviOuvrages", count);
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(value));
+            first = false;
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
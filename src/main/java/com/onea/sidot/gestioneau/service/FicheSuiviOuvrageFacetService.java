@@ -0,0 +1,206 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.config.GenerationalCacheManager;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrageSearchFields;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.FacetCountDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageFacetedSearchDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageSearchCriteriaDTO;
+import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Service searching the {@link FicheSuiviOuvrage} with the counts of a set of facets, as the nature d'ouvrage or the
+ * year, over all the results: the page and the {@code terms} aggregations of the facets are read with one request.
+ * <p>
+ * The facet sets are configured in {@code application.search-facets.sets}; each facet is a field of the
+ * {@link FicheSuiviOuvrageSearchFields}, counted by id with its libellé. The counts are cached per facet set and
+ * filters, so that paging through the results or coming back to a filter combination only reads the page.
+ * <p>
+ * The cached counts are keyed by a generation, moved once a sheet is indexed: a search which read the generation
+ * before puts its counts under a key the next searches do not use anymore, and the counts of the previous generations
+ * are left to the expiry and size bound of the {@link #FACET_COUNTS_MAP} map. The generation is kept in the map of the
+ * {@link GenerationalCacheManager}.
+ */
+@Service
+public class FicheSuiviOuvrageFacetService {
+
+    public static final String FACET_COUNTS_MAP = "fiche-suivi-ouvrage-facet-counts";
+
+    private static final String ENTITY_TYPE = FicheSuiviOuvrage.class.getSimpleName();
+
+    private static final String LIBELLE = "libelle";
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageFacetService.class);
+
+    private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
+
+    private final FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    private final IMap<String, LinkedHashMap<String, ArrayList<FacetCountDTO>>> facetCounts;
+
+    private final IMap<String, Long> generations;
+
+    private final ApplicationProperties.SearchFacets properties;
+
+    public FicheSuiviOuvrageFacetService(
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
+        this.facetCounts = hazelcastInstance.getMap(FACET_COUNTS_MAP);
+        this.generations = hazelcastInstance.getMap(GenerationalCacheManager.CACHE_GENERATIONS_MAP);
+        this.properties = applicationProperties.getSearchFacets();
+        for (Map.Entry<String, List<String>> facetSet : properties.getSets().entrySet()) {
+            for (String facet : facetSet.getValue()) {
+                if (ReflectionUtils.findField(FicheSuiviOuvrageSearchFields.class, facet) == null) {
+                    throw new IllegalStateException("Unknown facet " + facet + " in the facet set " + facetSet.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether a facet set of this name is configured.
+     */
+    public boolean isFacetSet(String facetSet) {
+        return properties.getSets().containsKey(facetSet);
+    }
+
+    /**
+     * Search for the ficheSuiviOuvrages corresponding to the query, with the counts of the facets.
+     *
+     * @param query the query of the search.
+     * @param facetSet the name of the facet set.
+     * @param pageable the pagination information.
+     * @return the page of entities and the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public FicheSuiviOuvrageFacetedSearchDTO search(String query, String facetSet, Pageable pageable) {
+        log.debug("Request to search for a page of FicheSuiviOuvrages with the {} facets for query {}", facetSet, query);
+        return search(queryStringQuery(query), facetSet, pageable);
+    }
+
+    /**
+     * Search for the ficheSuiviOuvrages matching the criteria, with the counts of the facets.
+     *
+     * @param criteria the criteria of the search.
+     * @param facetSet the name of the facet set.
+     * @param pageable the pagination information.
+     * @return the page of entities and the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public FicheSuiviOuvrageFacetedSearchDTO search(FicheSuiviOuvrageSearchCriteriaDTO criteria, String facetSet, Pageable pageable) {
+        log.debug("Request to search for a page of FicheSuiviOuvrages with the {} facets for criteria {}", facetSet, criteria);
+        return search(FicheSuiviOuvrageService.toQuery(criteria), facetSet, pageable);
+    }
+
+    private FicheSuiviOuvrageFacetedSearchDTO search(QueryBuilder query, String facetSet, Pageable pageable) {
+        List<String> facets = properties.getSets().get(facetSet);
+        if (facets == null) {
+            throw new IllegalArgumentException("Unknown facet set " + facetSet);
+        }
+        // The generation is read first, and the query is rendered the same way for the same filters, whatever the page
+        String key = generations.getOrDefault(FACET_COUNTS_MAP, 0L) + ":" + facetSet + ':' + hash(query.toString());
+        LinkedHashMap<String, ArrayList<FacetCountDTO>> counts = facetCounts.get(key);
+        List<TermsAggregationBuilder> aggregations = counts == null
+            ? facets.stream().map(this::toAggregation).collect(Collectors.toList())
+            : List.of();
+
+        SearchHits<FicheSuiviOuvrage> hits = ficheSuiviOuvrageSearchRepository.searchWithAggregations(query, aggregations, pageable);
+        if (counts == null && hits.getAggregations() != null) {
+            counts = toCounts(facets, hits.getAggregations());
+            facetCounts.set(key, counts);
+        }
+
+        FicheSuiviOuvrageFacetedSearchDTO result = new FicheSuiviOuvrageFacetedSearchDTO();
+        result.setContent(
+            hits.getSearchHits().stream().map(SearchHit::getContent).map(ficheSuiviOuvrageMapper::toDto).collect(Collectors.toList())
+        );
+        result.setTotalElements(hits.getTotalHits());
+        if (counts != null) {
+            result.setFacets(new LinkedHashMap<>(counts));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onSearchIndexed(SearchIndexedEvent event) {
+        if (!ENTITY_TYPE.equals(event.getEntityType())) {
+            return;
+        }
+        log.debug("Moving the generation of the facet counts");
+        generations.executeOnKey(FACET_COUNTS_MAP, new GenerationalCacheManager.IncrementProcessor());
+    }
+
+    private TermsAggregationBuilder toAggregation(String facet) {
+        String field = FicheSuiviOuvrageReprojectionService.SEARCH_FIELDS + facet;
+        return AggregationBuilders
+            .terms(facet)
+            .field(field + ".id")
+            .size(properties.getSize())
+            .subAggregation(AggregationBuilders.terms(LIBELLE).field(field + ".libelle.keyword").size(1));
+    }
+
+    private static LinkedHashMap<String, ArrayList<FacetCountDTO>> toCounts(List<String> facets, Aggregations aggregations) {
+        LinkedHashMap<String, ArrayList<FacetCountDTO>> counts = new LinkedHashMap<>();
+        for (String facet : facets) {
+            ArrayList<FacetCountDTO> facetCounts = new ArrayList<>();
+            Terms terms = aggregations.get(facet);
+            if (terms != null) {
+                for (Terms.Bucket bucket : terms.getBuckets()) {
+                    FacetCountDTO facetCount = new FacetCountDTO();
+                    facetCount.setId(bucket.getKeyAsNumber().longValue());
+                    facetCount.setCount(bucket.getDocCount());
+                    Terms libelles = bucket.getAggregations() == null ? null : bucket.getAggregations().get(LIBELLE);
+                    if (libelles != null && !libelles.getBuckets().isEmpty()) {
+                        facetCount.setLibelle(libelles.getBuckets().get(0).getKeyAsString());
+                    }
+                    facetCounts.add(facetCount);
+                }
+            }
+            counts.put(facet, facetCounts);
+        }
+        return counts;
+    }
+
+    private static String hash(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.service.dto.BulkImportResultDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for bulk importing {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage}s.
+ * <p>
+ * The body is read one row at a time, either as a JSON array or as newline-delimited JSON, and valid rows are
+ * handed to {@link FicheSuiviOuvrageService#saveAll(List)} in chunks, so that each chunk is committed in its own
+ * transaction. A failing chunk is reported row by row and does not abort the rest of the import.
+ */
+@Service
+public class FicheSuiviOuvrageImportService {
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageImportService.class);
+
+    private final FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FicheSuiviOuvrageImportService(
+        FicheSuiviOuvrageService ficheSuiviOuvrageService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ficheSuiviOuvrageService = ficheSuiviOuvrageService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Import the ficheSuiviOuvrages read from the given stream.
+     *
+     * @param inputStream a JSON array or newline-delimited JSON stream of ficheSuiviOuvrages.
+     * @param chunkSize the number of rows per transaction, or {@code null} to use the configured default.
+     * @return the per-row import report.
+     * @throws IOException if the stream cannot be read.
+     */
+    public BulkImportResultDTO importFrom(InputStream inputStream, Integer chunkSize) throws IOException {
+        int size = resolveChunkSize(chunkSize);
+        log.debug("Request to bulk import FicheSuiviOuvrages with a chunk size of {}", size);
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        List<FicheSuiviOuvrageDTO> chunk = new ArrayList<>(size);
+        List<Integer> chunkIndexes = new ArrayList<>(size);
+        int index = 0;
+        try (MappingIterator<FicheSuiviOuvrageDTO> rows = objectMapper.readerFor(FicheSuiviOuvrageDTO.class).readValues(inputStream)) {
+            while (hasNextRow(rows, index, result)) {
+                FicheSuiviOuvrageDTO row;
+                try {
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    result.addInvalid(index++, List.of(e.getOriginalMessage()));
+                    continue;
+                }
+                List<String> errors = validate(row);
+                if (!errors.isEmpty()) {
+                    result.addInvalid(index++, errors);
+                    continue;
+                }
+                chunk.add(row);
+                chunkIndexes.add(index++);
+                if (chunk.size() == size) {
+                    saveChunk(chunk, chunkIndexes, result);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, chunkIndexes, result);
+        }
+        log.debug("Bulk import of FicheSuiviOuvrages finished: {}", result);
+        return result;
+    }
+
+    private boolean hasNextRow(MappingIterator<FicheSuiviOuvrageDTO> rows, int index, BulkImportResultDTO result) {
+        try {
+            return rows.hasNextValue();
+        } catch (IOException e) {
+            // Malformed JSON cannot be resynchronized: report it and keep what was read so far
+            String message = e instanceof JsonProcessingException ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+            result.addFailed(index, message);
+            return false;
+        }
+    }
+
+    private void saveChunk(List<FicheSuiviOuvrageDTO> chunk, List<Integer> chunkIndexes, BulkImportResultDTO result) {
+        try {
+            List<FicheSuiviOuvrageDTO> saved = ficheSuiviOuvrageService.saveAll(chunk);
+            for (int i = 0; i < saved.size(); i++) {
+                result.addCreated(chunkIndexes.get(i), saved.get(i).getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not save a chunk of {} FicheSuiviOuvrages: {}", chunk.size(), e.getMessage());
+            for (Integer chunkIndex : chunkIndexes) {
+                result.addFailed(chunkIndex, e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private List<String> validate(FicheSuiviOuvrageDTO row) {
+        List<String> errors = new ArrayList<>();
+        if (row == null) {
+            errors.add("row is null");
+            return errors;
+        }
+        if (row.getId() != null) {
+            errors.add("A new ficheSuiviOuvrage cannot already have an ID");
+        }
+        Set<ConstraintViolation<FicheSuiviOuvrageDTO>> violations = validator.validate(row);
+        errors.addAll(
+            violations.stream().map(violation -> violation.getPropertyPath() + ": " + violation.getMessage()).collect(Collectors.toList())
+        );
+        return errors;
+    }
+
+    private int resolveChunkSize(Integer chunkSize) {
+        ApplicationProperties.Bulk bulk = applicationProperties.getBulk();
+        if (chunkSize == null || chunkSize < 1) {
+            return bulk.getChunkSize();
+        }
+        return Math.min(chunkSize, bulk.getMaxChunkSize());
+    }
+}
@@ -0,0 +1,244 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+
+import com.onea.sidot.gestioneau.domain.Annee;
+import com.onea.sidot.gestioneau.domain.Centre;
+import com.onea.sidot.gestioneau.domain.CentreRegroupement;
+import com.onea.sidot.gestioneau.domain.Commune;
+import com.onea.sidot.gestioneau.domain.DirectionRegionale;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrageSearchFields;
+import com.onea.sidot.gestioneau.domain.Localite;
+import com.onea.sidot.gestioneau.domain.Lot;
+import com.onea.sidot.gestioneau.domain.Macon;
+import com.onea.sidot.gestioneau.domain.ModeEvacExcreta;
+import com.onea.sidot.gestioneau.domain.ModeEvacuationEauUsee;
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import com.onea.sidot.gestioneau.domain.Parcelle;
+import com.onea.sidot.gestioneau.domain.Prefabricant;
+import com.onea.sidot.gestioneau.domain.Prevision;
+import com.onea.sidot.gestioneau.domain.Province;
+import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.domain.Secteur;
+import com.onea.sidot.gestioneau.domain.Section;
+import com.onea.sidot.gestioneau.domain.SourceApprovEp;
+import com.onea.sidot.gestioneau.domain.TypeCommune;
+import com.onea.sidot.gestioneau.domain.TypeHabitation;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service keeping the {@link FicheSuiviOuvrageSearchFields} of the sheet documents up to date with the entities they
+ * were flattened from.
+ * <p>
+ * Once an entity of the location path, of the prévision or of the reference data is indexed, the sheet documents
+ * which hold another libellé or another parent for it are scrolled in the index, and queued in the search outbox by
+ * bounded batches as they come, in the same transaction: the {@link SearchOutboxIndexer} then indexes them again from
+ * the database. A failure rolls the batch of the entity back, so that it is retried with it.
+ * <p>
+ * The documents indexed before their search fields existed are not found: a full reindex of the sheets flattens them.
+ */
+@Service
+public class FicheSuiviOuvrageReprojectionService {
+
+    static final String SEARCH_FIELDS = "searchFields.";
+
+    private final Logger log = LoggerFactory.getLogger(FicheSuiviOuvrageReprojectionService.class);
+
+    private final Map<String, Level<?>> levels = new HashMap<>();
+
+    private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> queuedCounters = new HashMap<>();
+
+    public FicheSuiviOuvrageReprojectionService(
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        SearchOutboxService searchOutboxService,
+        MeterRegistry meterRegistry
+    ) {
+        this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.meterRegistry = meterRegistry;
+
+        register(
+            Level
+                .of(Parcelle.class, "parcelle", Parcelle::getId, Parcelle::getLibelle)
+                .parent("lot", entity -> id(entity.getLot(), Lot::getId))
+        );
+        register(
+            Level
+                .of(Lot.class, "lot", Lot::getId, Lot::getLibelle)
+                .parent("section", entity -> id(entity.getSection(), Section::getId))
+        );
+        register(
+            Level
+                .of(Section.class, "section", Section::getId, Section::getLibelle)
+                .parent("secteur", entity -> id(entity.getSecteur(), Secteur::getId))
+        );
+        register(
+            Level
+                .of(Secteur.class, "secteur", Secteur::getId, Secteur::getLibelle)
+                .parent("localite", entity -> id(entity.getLocalite(), Localite::getId))
+        );
+        register(
+            Level
+                .of(Localite.class, "localite", Localite::getId, Localite::getLibelle)
+                .parent("commune", entity -> id(entity.getCommune(), Commune::getId))
+        );
+        register(
+            Level
+                .of(Commune.class, "commune", Commune::getId, Commune::getLibelle)
+                .parent("province", entity -> id(entity.getProvince(), Province::getId))
+                .parent("typecommune", entity -> id(entity.getTypecommune(), TypeCommune::getId))
+        );
+        register(
+            Level
+                .of(Province.class, "province", Province::getId, Province::getLibelle)
+                .parent("region", entity -> id(entity.getRegion(), Region::getId))
+        );
+        register(Level.of(Region.class, "region", Region::getId, Region::getLibelle));
+        register(Level.of(TypeCommune.class, "typecommune", TypeCommune::getId, TypeCommune::getLibelle));
+        register(
+            Level
+                .of(Prevision.class, "prevision", Prevision::getId, null)
+                .parent("centre", entity -> id(entity.getCentre(), Centre::getId))
+                .parent("annee", entity -> id(entity.getRefannee(), Annee::getId))
+        );
+        register(
+            Level
+                .of(Centre.class, "centre", Centre::getId, Centre::getLibelle)
+                .parent("centreregroupement", entity -> id(entity.getCentreregroupement(), CentreRegroupement::getId))
+        );
+        register(
+            Level
+                .of(CentreRegroupement.class, "centreregroupement", CentreRegroupement::getId, CentreRegroupement::getLibelle)
+                .parent("directionregionale", entity -> id(entity.getDirectionregionale(), DirectionRegionale::getId))
+        );
+        register(Level.of(DirectionRegionale.class, "directionregionale", DirectionRegionale::getId, DirectionRegionale::getLibelle));
+        register(Level.of(Annee.class, "annee", Annee::getId, Annee::getLibelle));
+        register(Level.of(NatureOuvrage.class, "natureouvrage", NatureOuvrage::getId, NatureOuvrage::getLibelle));
+        register(Level.of(TypeHabitation.class, "typehabitation", TypeHabitation::getId, TypeHabitation::getLibelle));
+        register(Level.of(SourceApprovEp.class, "sourceapprovep", SourceApprovEp::getId, SourceApprovEp::getLibelle));
+        register(
+            Level.of(ModeEvacuationEauUsee.class, "modeevacuationeauusee", ModeEvacuationEauUsee::getId, ModeEvacuationEauUsee::getLibelle)
+        );
+        register(Level.of(ModeEvacExcreta.class, "modeevacexcreta", ModeEvacExcreta::getId, ModeEvacExcreta::getLibelle));
+        register(Level.of(Macon.class, "macon", Macon::getId, Macon::getLibelle));
+        register(Level.of(Prefabricant.class, "prefabricant", Prefabricant::getId, Prefabricant::getLibelle));
+    }
+
+    @EventListener
+    public void onSearchIndexed(SearchIndexedEvent event) {
+        Level<?> level = levels.get(event.getEntityType());
+        if (level == null) {
+            return;
+        }
+        long enqueued = 0;
+        for (Object entity : event.getEntities()) {
+            try (Stream<Long> staleIds = ficheSuiviOuvrageSearchRepository.searchIdsForStream(level.toStaleQuery(entity))) {
+                enqueued += searchOutboxService.enqueueAll(FicheSuiviOuvrage.class, staleIds);
+            }
+        }
+        if (enqueued > 0) {
+            log.debug("Queued {} FicheSuiviOuvrages for reindexing after {} {} changed", enqueued, event.getEntities().size(), level.field);
+            queuedCounters.get(event.getEntityType()).increment(enqueued);
+        }
+    }
+
+    private void register(Level<?> level) {
+        String entityType = level.entityClass.getSimpleName();
+        levels.put(entityType, level);
+        queuedCounters.put(
+            entityType,
+            Counter
+                .builder("search.reprojection.queued")
+                .description("Number of sheets queued for indexing again after an entity flattened in their document changed")
+                .tag("entity", entityType)
+                .register(meterRegistry)
+        );
+    }
+
+    private static <T> Long id(T entity, Function<T, Long> getId) {
+        return entity == null ? null : getId.apply(entity);
+    }
+
+    /**
+     * An entity flattened in the search fields, with how to read the values a document holds for it.
+     */
+    static final class Level<T> {
+
+        private final Class<T> entityClass;
+
+        private final String field;
+
+        private final Function<T, Long> getId;
+
+        private final Function<T, String> getLibelle;
+
+        private final Map<String, Function<T, Long>> parents = new LinkedHashMap<>();
+
+        private Level(Class<T> entityClass, String field, Function<T, Long> getId, Function<T, String> getLibelle) {
+            this.entityClass = entityClass;
+            this.field = field;
+            this.getId = getId;
+            this.getLibelle = getLibelle;
+        }
+
+        /**
+         * @param getLibelle how to read the libellé, or {@code null} if the entity has none.
+         */
+        static <T> Level<T> of(Class<T> entityClass, String field, Function<T, Long> getId, Function<T, String> getLibelle) {
+            return new Level<>(entityClass, field, getId, getLibelle);
+        }
+
+        /**
+         * Add an entity flattened next to this one, which a document must hold the id of.
+         */
+        Level<T> parent(String parentField, Function<T, Long> getParentId) {
+            parents.put(parentField, getParentId);
+            return this;
+        }
+
+        /**
+         * @return the query of the documents which hold this entity with another libellé or other parents.
+         */
+        QueryBuilder toStaleQuery(Object entity) {
+            T typedEntity = entityClass.cast(entity);
+            BoolQueryBuilder current = boolQuery();
+            if (getLibelle != null) {
+                addExpected(current, SEARCH_FIELDS + field + ".libelle.keyword", getLibelle.apply(typedEntity));
+            }
+            parents.forEach(
+                (parentField, getParentId) -> addExpected(current, SEARCH_FIELDS + parentField + ".id", getParentId.apply(typedEntity))
+            );
+            return boolQuery().filter(termQuery(SEARCH_FIELDS + field + ".id", getId.apply(typedEntity))).mustNot(current);
+        }
+
+        private static void addExpected(BoolQueryBuilder query, String field, Object value) {
+            if (value == null) {
+                query.mustNot(existsQuery(field));
+            } else {
+                query.filter(termQuery(field, value));
+            }
+        }
+    }
+}
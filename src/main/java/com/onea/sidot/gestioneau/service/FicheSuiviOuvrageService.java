@@ -3,15 +3,28 @@ package com.onea.sidot.gestioneau.service;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.RealisationRollupId;
 import com.onea.sidot.gestioneau.repository.FicheSuiviOuvrageRepository;
 import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvragePointDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageSearchCriteriaDTO;
 import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +43,30 @@ public class FicheSuiviOuvrageService {
 
     private final FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final RealisationAnalyticsService realisationAnalyticsService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final SyncService syncService;
+
     public FicheSuiviOuvrageService(
         FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
         FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper,
-        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository
+        FicheSuiviOuvrageSearchRepository ficheSuiviOuvrageSearchRepository,
+        SearchOutboxService searchOutboxService,
+        RealisationAnalyticsService realisationAnalyticsService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        SyncService syncService
     ) {
         this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
         this.ficheSuiviOuvrageMapper = ficheSuiviOuvrageMapper;
         this.ficheSuiviOuvrageSearchRepository = ficheSuiviOuvrageSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.realisationAnalyticsService = realisationAnalyticsService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.syncService = syncService;
     }
 
     /**
@@ -48,13 +77,42 @@ public class FicheSuiviOuvrageService {
      */
     public FicheSuiviOuvrageDTO save(FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO) {
         log.debug("Request to save FicheSuiviOuvrage : {}", ficheSuiviOuvrageDTO);
+        FicheSuiviOuvrage previousFicheSuiviOuvrage = ficheSuiviOuvrageDTO.getId() == null
+            ? null
+            : ficheSuiviOuvrageRepository.findById(ficheSuiviOuvrageDTO.getId()).orElse(null);
+        RealisationRollupId previousRollupId = null;
+        if (previousFicheSuiviOuvrage != null) {
+            previousRollupId = RealisationRollupId.of(previousFicheSuiviOuvrage);
+            ficheSuiviOuvrageClusterService.recordPreviousLocation(previousFicheSuiviOuvrage);
+        }
         FicheSuiviOuvrage ficheSuiviOuvrage = ficheSuiviOuvrageMapper.toEntity(ficheSuiviOuvrageDTO);
-        ficheSuiviOuvrage = ficheSuiviOuvrageRepository.save(ficheSuiviOuvrage);
+        ficheSuiviOuvrage = ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage, ficheSuiviOuvrageDTO.getVersion());
+        realisationAnalyticsService.update(previousRollupId, RealisationRollupId.of(ficheSuiviOuvrage));
         FicheSuiviOuvrageDTO result = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
-        ficheSuiviOuvrageSearchRepository.save(ficheSuiviOuvrage);
+        searchOutboxService.enqueue(FicheSuiviOuvrage.class, ficheSuiviOuvrage.getId());
         return result;
     }
 
+    /**
+     * Save a chunk of new ficheSuiviOuvrages in a single transaction.
+     * <p>
+     * Inserts go through JDBC batching ({@code hibernate.jdbc.batch_size}), and the chunk is indexed by the search
+     * outbox indexer with one Elasticsearch bulk request.
+     *
+     * @param ficheSuiviOuvrageDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public List<FicheSuiviOuvrageDTO> saveAll(List<FicheSuiviOuvrageDTO> ficheSuiviOuvrageDTOs) {
+        log.debug("Request to save a chunk of {} FicheSuiviOuvrages", ficheSuiviOuvrageDTOs.size());
+        List<FicheSuiviOuvrage> ficheSuiviOuvrages = ficheSuiviOuvrageRepository.saveAll(
+            ficheSuiviOuvrageMapper.toEntity(ficheSuiviOuvrageDTOs)
+        );
+        ficheSuiviOuvrageRepository.flush();
+        realisationAnalyticsService.add(ficheSuiviOuvrages);
+        ficheSuiviOuvrages.forEach(ficheSuiviOuvrage -> searchOutboxService.enqueue(FicheSuiviOuvrage.class, ficheSuiviOuvrage.getId()));
+        return ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrages);
+    }
+
     /**
      * Partially update a ficheSuiviOuvrage.
      *
@@ -68,14 +126,20 @@ public class FicheSuiviOuvrageService {
             .findById(ficheSuiviOuvrageDTO.getId())
             .map(
                 existingFicheSuiviOuvrage -> {
+                    RealisationRollupId previousRollupId = RealisationRollupId.of(existingFicheSuiviOuvrage);
+                    ficheSuiviOuvrageClusterService.recordPreviousLocation(existingFicheSuiviOuvrage);
                     ficheSuiviOuvrageMapper.partialUpdate(existingFicheSuiviOuvrage, ficheSuiviOuvrageDTO);
+                    realisationAnalyticsService.update(previousRollupId, RealisationRollupId.of(existingFicheSuiviOuvrage));
                     return existingFicheSuiviOuvrage;
                 }
             )
-            .map(ficheSuiviOuvrageRepository::save)
+            .map(
+                existingFicheSuiviOuvrage ->
+                    ficheSuiviOuvrageRepository.saveAndFlush(existingFicheSuiviOuvrage, ficheSuiviOuvrageDTO.getVersion())
+            )
             .map(
                 savedFicheSuiviOuvrage -> {
-                    ficheSuiviOuvrageSearchRepository.save(savedFicheSuiviOuvrage);
+                    searchOutboxService.enqueue(FicheSuiviOuvrage.class, savedFicheSuiviOuvrage.getId());
 
                     return savedFicheSuiviOuvrage;
                 }
@@ -95,6 +159,19 @@ public class FicheSuiviOuvrageService {
         return ficheSuiviOuvrageRepository.findAll(pageable).map(ficheSuiviOuvrageMapper::toDto);
     }
 
+    /**
+     * Get the ficheSuiviOuvrages following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<FicheSuiviOuvrageDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the FicheSuiviOuvrages after {}", after);
+        return ficheSuiviOuvrageRepository.findAllAfter(after, pageable).map(ficheSuiviOuvrageMapper::toDto);
+    }
+
     /**
      * Get one ficheSuiviOuvrage by id.
      *
@@ -114,8 +191,17 @@ public class FicheSuiviOuvrageService {
      */
     public void delete(Long id) {
         log.debug("Request to delete FicheSuiviOuvrage : {}", id);
+        ficheSuiviOuvrageRepository
+            .findById(id)
+            .ifPresent(
+                previousFicheSuiviOuvrage -> {
+                    realisationAnalyticsService.update(RealisationRollupId.of(previousFicheSuiviOuvrage), null);
+                    ficheSuiviOuvrageClusterService.recordPreviousLocation(previousFicheSuiviOuvrage);
+                }
+            );
         ficheSuiviOuvrageRepository.deleteById(id);
-        ficheSuiviOuvrageSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(FicheSuiviOuvrage.class, id);
+        syncService.recordDeletion(FicheSuiviOuvrage.class, id);
     }
 
     /**
@@ -130,4 +216,113 @@ public class FicheSuiviOuvrageService {
         log.debug("Request to search for a page of FicheSuiviOuvrages for query {}", query);
         return ficheSuiviOuvrageSearchRepository.search(queryStringQuery(query), pageable).map(ficheSuiviOuvrageMapper::toDto);
     }
+
+    /**
+     * Search for the ficheSuiviOuvrages matching the criteria.
+     *
+     * @param criteria the criteria of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<FicheSuiviOuvrageDTO> search(FicheSuiviOuvrageSearchCriteriaDTO criteria, Pageable pageable) {
+        log.debug("Request to search for a page of FicheSuiviOuvrages for criteria {}", criteria);
+        return ficheSuiviOuvrageSearchRepository.search(toQuery(criteria), pageable).map(ficheSuiviOuvrageMapper::toDto);
+    }
+
+    /**
+     * Get the points of the ficheSuiviOuvrages inside a bounding box.
+     *
+     * @param top the latitude of the top edge of the box.
+     * @param left the longitude of the left edge of the box.
+     * @param bottom the latitude of the bottom edge of the box.
+     * @param right the longitude of the right edge of the box.
+     * @param pageable the pagination information.
+     * @return the page of points.
+     */
+    @Transactional(readOnly = true)
+    public Page<FicheSuiviOuvragePointDTO> findPointsWithin(double top, double left, double bottom, double right, Pageable pageable) {
+        log.debug("Request to get the FicheSuiviOuvrage points within [{}, {}, {}, {}]", top, left, bottom, right);
+        return ficheSuiviOuvrageSearchRepository
+            .searchPoints(boolQuery().filter(geoBoundingBoxQuery("location").setCorners(top, left, bottom, right)), null, pageable)
+            .map(ficheSuiviOuvrageMapper::toPointDto);
+    }
+
+    /**
+     * Get the points of the ficheSuiviOuvrages around a location, the nearest first.
+     *
+     * @param latitude the latitude of the location.
+     * @param longitude the longitude of the location.
+     * @param radius the distance from the location, in meters.
+     * @param pageable the pagination information.
+     * @return the page of points.
+     */
+    @Transactional(readOnly = true)
+    public Page<FicheSuiviOuvragePointDTO> findPointsNear(double latitude, double longitude, double radius, Pageable pageable) {
+        log.debug("Request to get the FicheSuiviOuvrage points within {}m of [{}, {}]", radius, latitude, longitude);
+        return ficheSuiviOuvrageSearchRepository
+            .searchPoints(
+                boolQuery().filter(geoDistanceQuery("location").point(latitude, longitude).distance(radius, DistanceUnit.METERS)),
+                SortBuilders.geoDistanceSort("location", latitude, longitude),
+                pageable
+            )
+            .map(ficheSuiviOuvrageMapper::toPointDto);
+    }
+
+    /**
+     * Compile the criteria to a bool query.
+     * <p>
+     * Only the full-text criterion is scored; all the other ones are filters, which Elasticsearch does not score and
+     * caches per segment, so that they stay cheap when the same dashboard filters are run again.
+     */
+    static BoolQueryBuilder toQuery(FicheSuiviOuvrageSearchCriteriaDTO criteria) {
+        BoolQueryBuilder query = boolQuery();
+        if (criteria.getBeneficiaire() != null && !criteria.getBeneficiaire().isBlank()) {
+            query.must(
+                multiMatchQuery(criteria.getBeneficiaire(), "nomBenef", "prenomBenef")
+                    .type(MultiMatchQueryBuilder.Type.CROSS_FIELDS)
+                    .operator(Operator.AND)
+            );
+        }
+        addRangeFilter(query, "dateDebutTravaux", criteria.getDateDebutTravaux());
+        addRangeFilter(query, "dateFinTravaux", criteria.getDateFinTravaux());
+        addTermsFilter(query, "natureouvrage.id", criteria.getNatureouvrageIds());
+        addTermsFilter(query, "macon.id", criteria.getMaconIds());
+        addTermsFilter(query, "prefabricant.id", criteria.getPrefabricantIds());
+        addTermsFilter(query, "prevision.centre.id", criteria.getCentreIds());
+        addTermsFilter(query, "prevision.refannee.id", criteria.getAnneeIds());
+        addTermsFilter(query, "searchFields.region.id", criteria.getRegionIds());
+        addTermsFilter(query, "searchFields.province.id", criteria.getProvinceIds());
+        addTermsFilter(query, "searchFields.commune.id", criteria.getCommuneIds());
+        addTermsFilter(query, "searchFields.localite.id", criteria.getLocaliteIds());
+        FicheSuiviOuvrageSearchCriteriaDTO.BoundingBox boundingBox = criteria.getBoundingBox();
+        if (boundingBox != null) {
+            query.filter(
+                geoBoundingBoxQuery("location")
+                    .setCorners(boundingBox.getTop(), boundingBox.getLeft(), boundingBox.getBottom(), boundingBox.getRight())
+            );
+        }
+        return query;
+    }
+
+    private static void addRangeFilter(BoolQueryBuilder query, String field, FicheSuiviOuvrageSearchCriteriaDTO.InstantRange range) {
+        if (range == null || (range.getFrom() == null && range.getTo() == null)) {
+            return;
+        }
+        RangeQueryBuilder rangeQuery = rangeQuery(field);
+        if (range.getFrom() != null) {
+            rangeQuery.gte(range.getFrom().toString());
+        }
+        if (range.getTo() != null) {
+            rangeQuery.lte(range.getTo().toString());
+        }
+        query.filter(rangeQuery);
+    }
+
+    private static void addTermsFilter(BoolQueryBuilder query, String field, Set<Long> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            // In order, so that the same filters render the same query, as the facet counts are cached by query
+            query.filter(termsQuery(field, new TreeSet<>(ids)));
+        }
+    }
 }
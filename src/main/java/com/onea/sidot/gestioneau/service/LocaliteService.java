@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Localite;
 import com.onea.sidot.gestioneau.repository.LocaliteRepository;
 import com.onea.sidot.gestioneau.repository.search.LocaliteSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.LocaliteDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.LocaliteMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,28 @@ public class LocaliteService {
 
     private final LocaliteMapper localiteMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final LocaliteSearchRepository localiteSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
     public LocaliteService(
         LocaliteRepository localiteRepository,
         LocaliteMapper localiteMapper,
-        LocaliteSearchRepository localiteSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        LocaliteSearchRepository localiteSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
     ) {
         this.localiteRepository = localiteRepository;
         this.localiteMapper = localiteMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.localiteSearchRepository = localiteSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +65,10 @@ public class LocaliteService {
     public LocaliteDTO save(LocaliteDTO localiteDTO) {
         log.debug("Request to save Localite : {}", localiteDTO);
         Localite localite = localiteMapper.toEntity(localiteDTO);
-        localite = localiteRepository.save(localite);
+        localite = localiteRepository.saveAndFlush(localite, localiteDTO.getVersion());
         LocaliteDTO result = localiteMapper.toDto(localite);
-        localiteSearchRepository.save(localite);
+        searchOutboxService.enqueue(Localite.class, localite.getId());
+        locationTreeService.invalidate(LocationTree.Level.LOCALITE);
         return result;
     }
 
@@ -72,10 +89,11 @@ public class LocaliteService {
                     return existingLocalite;
                 }
             )
-            .map(localiteRepository::save)
+            .map(existingLocalite -> localiteRepository.saveAndFlush(existingLocalite, localiteDTO.getVersion()))
             .map(
                 savedLocalite -> {
-                    localiteSearchRepository.save(savedLocalite);
+                    searchOutboxService.enqueue(Localite.class, savedLocalite.getId());
+                    locationTreeService.invalidate(LocationTree.Level.LOCALITE);
 
                     return savedLocalite;
                 }
@@ -95,6 +113,31 @@ public class LocaliteService {
         return localiteRepository.findAll(pageable).map(localiteMapper::toDto);
     }
 
+    /**
+     * Get the localites following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<LocaliteDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Localites after {}", after);
+        return localiteRepository.findAllAfter(after, pageable).map(localiteMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the localites of a commune, in libelle order.
+     *
+     * @param communeId the id of the commune.
+     * @return the list of localites.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllByCommune(Long communeId) {
+        log.debug("Request to get the Localites of Commune : {}", communeId);
+        return idLibelleMapper.toDto(localiteRepository.findAllByCommuneIdOrderByLibelle(communeId));
+    }
+
     /**
      * Get one localite by id.
      *
@@ -115,7 +158,8 @@ public class LocaliteService {
     public void delete(Long id) {
         log.debug("Request to delete Localite : {}", id);
         localiteRepository.deleteById(id);
-        localiteSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Localite.class, id);
+        locationTreeService.invalidate(LocationTree.Level.LOCALITE);
     }
 
     /**
@@ -0,0 +1,228 @@
+package com.onea.sidot.gestioneau.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable snapshot of the location hierarchy, from the {@link Level#REGION regions} down to the {@link Level#PARCELLE parcelles}.
+ * <p>
+ * Each level is stored as parallel arrays (ids, libelles, parent positions) sorted by parent then libelle, so that
+ * the children of a node are a contiguous range of the next level: looking them up is an array access, and the
+ * whole tree only holds one object per node, its libelle.
+ */
+public final class LocationTree {
+
+    /**
+     * The levels of the hierarchy, from the root down.
+     */
+    public enum Level {
+        REGION("Region", null),
+        PROVINCE("Province", "region"),
+        COMMUNE("Commune", "province"),
+        LOCALITE("Localite", "commune"),
+        SECTEUR("Secteur", "localite"),
+        SECTION("Section", "secteur"),
+        LOT("Lot", "section"),
+        PARCELLE("Parcelle", "lot");
+
+        private final String entityName;
+
+        private final String parentAttribute;
+
+        Level(String entityName, String parentAttribute) {
+            this.entityName = entityName;
+            this.parentAttribute = parentAttribute;
+        }
+
+        public String getEntityName() {
+            return entityName;
+        }
+
+        /**
+         * @return the name of the many-to-one attribute pointing to the parent level, {@code null} for the root level.
+         */
+        public String getParentAttribute() {
+            return parentAttribute;
+        }
+
+        public Level child() {
+            return this == PARCELLE ? null : values()[ordinal() + 1];
+        }
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final long[][] ids;
+
+    private final String[][] libelles;
+
+    private final int[][] parents;
+
+    // For each level but the last: the children of node i are at [firstChildren[i], firstChildren[i + 1]) in the next level
+    private final int[][] firstChildren;
+
+    private final LongIntMap[] positions;
+
+    private LocationTree(long[][] ids, String[][] libelles, int[][] parents, int[][] firstChildren, LongIntMap[] positions) {
+        this.ids = ids;
+        this.libelles = libelles;
+        this.parents = parents;
+        this.firstChildren = firstChildren;
+        this.positions = positions;
+    }
+
+    /**
+     * Build a tree from the rows of each level.
+     *
+     * @param rows for each level, the {@code [Long id, String libelle, Long parentId]} rows, {@code parentId} being
+     *             {@code null} when the node has no parent, and ignored for the root level.
+     * @return the tree.
+     */
+    public static LocationTree build(Map<Level, List<Object[]>> rows) {
+        long[][] ids = new long[LEVELS.length][];
+        String[][] libelles = new String[LEVELS.length][];
+        int[][] parents = new int[LEVELS.length][];
+        int[][] firstChildren = new int[LEVELS.length][];
+        LongIntMap[] positions = new LongIntMap[LEVELS.length];
+        for (Level level : LEVELS) {
+            int l = level.ordinal();
+            List<Object[]> levelRows = rows.getOrDefault(level, List.of());
+            int size = levelRows.size();
+            int[] rowParents = new int[size];
+            for (int i = 0; i < size; i++) {
+                Object parentId = l == 0 ? null : levelRows.get(i)[2];
+                rowParents[i] = parentId == null ? -1 : positions[l - 1].get((Long) parentId);
+            }
+            // Orphans first, then grouped by parent, then by libelle
+            Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+            Arrays.sort(
+                order,
+                Comparator
+                    .<Integer>comparingInt(i -> rowParents[i])
+                    .thenComparing(i -> (String) levelRows.get(i)[1], Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            );
+            ids[l] = new long[size];
+            libelles[l] = new String[size];
+            parents[l] = new int[size];
+            positions[l] = new LongIntMap(size);
+            for (int i = 0; i < size; i++) {
+                Object[] row = levelRows.get(order[i]);
+                ids[l][i] = (Long) row[0];
+                libelles[l][i] = (String) row[1];
+                parents[l][i] = rowParents[order[i]];
+                positions[l].put(ids[l][i], i);
+            }
+            if (l > 0) {
+                firstChildren[l - 1] = firstChildren(parents[l], ids[l - 1].length);
+            }
+        }
+        return new LocationTree(ids, libelles, parents, firstChildren, positions);
+    }
+
+    private static int[] firstChildren(int[] childParents, int parentCount) {
+        int[] firstChildren = new int[parentCount + 1];
+        for (int parent : childParents) {
+            if (parent >= 0) {
+                firstChildren[parent + 1]++;
+            }
+        }
+        int orphans = childParents.length - IntStream.of(firstChildren).sum();
+        firstChildren[0] = orphans;
+        for (int i = 1; i <= parentCount; i++) {
+            firstChildren[i] += firstChildren[i - 1];
+        }
+        return firstChildren;
+    }
+
+    /**
+     * @return the number of nodes of the level.
+     */
+    public int size(Level level) {
+        return ids[level.ordinal()].length;
+    }
+
+    /**
+     * @return the position of the node in its level, or {@code -1} if there is no such node.
+     */
+    public int positionOf(Level level, long id) {
+        return positions[level.ordinal()].get(id);
+    }
+
+    public long getId(Level level, int position) {
+        return ids[level.ordinal()][position];
+    }
+
+    public String getLibelle(Level level, int position) {
+        return libelles[level.ordinal()][position];
+    }
+
+    /**
+     * @return the position of the parent node in the parent level, or {@code -1} if the node has no parent.
+     */
+    public int getParent(Level level, int position) {
+        return parents[level.ordinal()][position];
+    }
+
+    /**
+     * @return the position of the first child in the child level; the children are the {@link #getChildCount} next nodes.
+     */
+    public int getFirstChild(Level level, int position) {
+        return level == Level.PARCELLE ? 0 : firstChildren[level.ordinal()][position];
+    }
+
+    public int getChildCount(Level level, int position) {
+        if (level == Level.PARCELLE) {
+            return 0;
+        }
+        int[] levelFirstChildren = firstChildren[level.ordinal()];
+        return levelFirstChildren[position + 1] - levelFirstChildren[position];
+    }
+
+    /**
+     * Open addressing hash map from {@code long} ids to {@code int} positions, without boxing.
+     */
+    private static final class LongIntMap {
+
+        private final long[] keys;
+
+        private final int[] values;
+
+        private final int mask;
+
+        LongIntMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+            mask = capacity - 1;
+        }
+
+        void put(long key, int value) {
+            int slot = slot(key);
+            while (values[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        int get(long key) {
+            int slot = slot(key);
+            while (values[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
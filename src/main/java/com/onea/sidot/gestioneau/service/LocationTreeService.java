@@ -0,0 +1,217 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.service.LocationTree.Level;
+import com.onea.sidot.gestioneau.service.dto.LocationNodeDTO;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service serving the location hierarchy from an in-memory {@link LocationTree}.
+ * <p>
+ * The tree is loaded on first use and dropped whenever a node changes, on every member of the Hazelcast cluster,
+ * through the {@link #INVALIDATION_TOPIC} topic; the next read loads it again.
+ * <p>
+ * The depth of the nodes returned is bounded by {@code application.location-tree.max-depth}, and the parcelles, the
+ * bulk of the tree, are only returned under a lot requested on its own: a client walks down the tree node by node.
+ */
+@Service
+public class LocationTreeService {
+
+    public static final String INVALIDATION_TOPIC = "location-tree-invalidation";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(LocationTreeService.class);
+
+    private final EntityManager entityManager;
+
+    private final ITopic<String> invalidationTopic;
+
+    private final int maxDepth;
+
+    // A lock rather than a monitor, as it is held while the tree loads from the database
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final AtomicReference<TreeState> state = new AtomicReference<>(new TreeState(0, null));
+
+    public LocationTreeService(
+        EntityManager entityManager,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.maxDepth = applicationProperties.getLocationTree().getMaxDepth();
+        this.invalidationTopic = hazelcastInstance.getTopic(INVALIDATION_TOPIC);
+        this.invalidationTopic.addMessageListener(
+                message -> {
+                    log.debug("Location tree invalidated by a change of {} on another member", message.getMessageObject());
+                    clear();
+                }
+            );
+    }
+
+    /**
+     * Get the regions, the roots of the location tree.
+     *
+     * @param depth the number of levels of descendants to include under each region, bounded by the max depth.
+     * @return the list of regions.
+     */
+    @Transactional(readOnly = true)
+    public List<LocationNodeDTO> findRoots(int depth) {
+        log.debug("Request to get the location tree roots with a depth of {}", depth);
+        LocationTree currentTree = getTree();
+        List<LocationNodeDTO> roots = new ArrayList<>(currentTree.size(Level.REGION));
+        for (int position = 0; position < currentTree.size(Level.REGION); position++) {
+            roots.add(toDto(currentTree, Level.REGION, position, boundDepth(depth), false));
+        }
+        return roots;
+    }
+
+    /**
+     * Get the subtree rooted at the given node.
+     *
+     * @param level the level of the node.
+     * @param id the id of the node.
+     * @param depth the number of levels of descendants to include under the node, bounded by the max depth; the
+     * parcelles are only included under a lot.
+     * @return the node, if it exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocationNodeDTO> findSubtree(Level level, Long id, int depth) {
+        log.debug("Request to get the location subtree of {} {} with a depth of {}", level, id, depth);
+        LocationTree currentTree = getTree();
+        int position = currentTree.positionOf(level, id);
+        if (position < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toDto(currentTree, level, position, boundDepth(depth), level == Level.LOT));
+    }
+
+    /**
+     * Drop the location tree after a node of the given level changed.
+     * <p>
+     * Inside a transaction, the tree is dropped again once it completes, so that a tree loaded meanwhile from the
+     * previous state is not kept, and the other members are notified only if it commits.
+     *
+     * @param level the level of the changed node.
+     */
+    public void invalidate(Level level) {
+        clear();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidationTopic.publish(level.name());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                    if (status == STATUS_COMMITTED) {
+                        invalidationTopic.publish(level.name());
+                    }
+                }
+            }
+        );
+    }
+
+    private LocationTree getTree() {
+        LocationTree tree = state.get().tree;
+        if (tree != null) {
+            return tree;
+        }
+        // A single load at a time, the other readers wait for its result
+        loadLock.lock();
+        try {
+            TreeState current = state.get();
+            if (current.tree != null) {
+                return current.tree;
+            }
+            LocationTree newTree = load();
+            // Do not keep a tree invalidated while it was loading
+            state.compareAndSet(current, new TreeState(current.generation, newTree));
+            return newTree;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void clear() {
+        state.updateAndGet(current -> new TreeState(current.generation + 1, null));
+    }
+
+    private LocationTree load() {
+        long start = System.currentTimeMillis();
+        Map<Level, List<Object[]>> rows = new EnumMap<>(Level.class);
+        for (Level level : Level.values()) {
+            String jpql = "select node.id, node.libelle from " + level.getEntityName() + " node";
+            if (level.getParentAttribute() != null) {
+                jpql =
+                    "select node.id, node.libelle, parent.id from " +
+                    level.getEntityName() +
+                    " node left join node." +
+                    level.getParentAttribute() +
+                    " parent";
+            }
+            rows.put(
+                level,
+                entityManager.createQuery(jpql, Object[].class).setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE).getResultList()
+            );
+        }
+        LocationTree loadedTree = LocationTree.build(rows);
+        log.debug("Location tree loaded in {} ms, with {} parcelles", System.currentTimeMillis() - start, loadedTree.size(Level.PARCELLE));
+        return loadedTree;
+    }
+
+    private int boundDepth(int depth) {
+        return Math.max(0, Math.min(depth, maxDepth));
+    }
+
+    private LocationNodeDTO toDto(LocationTree currentTree, Level level, int position, int depth, boolean withParcelles) {
+        LocationNodeDTO locationNodeDTO = new LocationNodeDTO();
+        locationNodeDTO.setId(currentTree.getId(level, position));
+        locationNodeDTO.setLevel(level);
+        locationNodeDTO.setLibelle(currentTree.getLibelle(level, position));
+        int childCount = currentTree.getChildCount(level, position);
+        locationNodeDTO.setChildCount(childCount);
+        if (depth > 0 && level.child() != null && (withParcelles || level.child() != Level.PARCELLE)) {
+            int firstChild = currentTree.getFirstChild(level, position);
+            List<LocationNodeDTO> children = new ArrayList<>(childCount);
+            for (int child = firstChild; child < firstChild + childCount; child++) {
+                children.add(toDto(currentTree, level.child(), child, depth - 1, withParcelles));
+            }
+            locationNodeDTO.setChildren(children);
+        }
+        return locationNodeDTO;
+    }
+
+    /**
+     * The tree, if loaded, and the number of times it was dropped, for a load not to keep a tree dropped meanwhile.
+     */
+    private static final class TreeState {
+
+        private final long generation;
+
+        private final LocationTree tree;
+
+        TreeState(long generation, LocationTree tree) {
+            this.generation = generation;
+            this.tree = tree;
+        }
+    }
+}
@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Lot;
 import com.onea.sidot.gestioneau.repository.LotRepository;
 import com.onea.sidot.gestioneau.repository.search.LotSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.LotDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.LotMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,12 +32,32 @@ public class LotService {
 
     private final LotMapper lotMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final LotSearchRepository lotSearchRepository;
 
-    public LotService(LotRepository lotRepository, LotMapper lotMapper, LotSearchRepository lotSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
+    private final SyncService syncService;
+
+    public LotService(
+        LotRepository lotRepository,
+        LotMapper lotMapper,
+        IdLibelleMapper idLibelleMapper,
+        LotSearchRepository lotSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
+    ) {
         this.lotRepository = lotRepository;
         this.lotMapper = lotMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.lotSearchRepository = lotSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -45,9 +69,10 @@ public class LotService {
     public LotDTO save(LotDTO lotDTO) {
         log.debug("Request to save Lot : {}", lotDTO);
         Lot lot = lotMapper.toEntity(lotDTO);
-        lot = lotRepository.save(lot);
+        lot = lotRepository.saveAndFlush(lot, lotDTO.getVersion());
         LotDTO result = lotMapper.toDto(lot);
-        lotSearchRepository.save(lot);
+        searchOutboxService.enqueue(Lot.class, lot.getId());
+        locationTreeService.invalidate(LocationTree.Level.LOT);
         return result;
     }
 
@@ -68,10 +93,11 @@ public class LotService {
                     return existingLot;
                 }
             )
-            .map(lotRepository::save)
+            .map(existingLot -> lotRepository.saveAndFlush(existingLot, lotDTO.getVersion()))
             .map(
                 savedLot -> {
-                    lotSearchRepository.save(savedLot);
+                    searchOutboxService.enqueue(Lot.class, savedLot.getId());
+                    locationTreeService.invalidate(LocationTree.Level.LOT);
 
                     return savedLot;
                 }
@@ -91,6 +117,31 @@ public class LotService {
         return lotRepository.findAll(pageable).map(lotMapper::toDto);
     }
 
+    /**
+     * Get the lots following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<LotDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Lots after {}", after);
+        return lotRepository.findAllAfter(after, pageable).map(lotMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the lots of a section, in libelle order.
+     *
+     * @param sectionId the id of the section.
+     * @return the list of lots.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllBySection(Long sectionId) {
+        log.debug("Request to get the Lots of Section : {}", sectionId);
+        return idLibelleMapper.toDto(lotRepository.findAllBySectionIdOrderByLibelle(sectionId));
+    }
+
     /**
      * Get one lot by id.
      *
@@ -111,7 +162,9 @@ public class LotService {
     public void delete(Long id) {
         log.debug("Request to delete Lot : {}", id);
         lotRepository.deleteById(id);
-        lotSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Lot.class, id);
+        syncService.recordDeletion(Lot.class, id);
+        locationTreeService.invalidate(LocationTree.Level.LOT);
     }
 
     /**
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.Macon;
 import com.onea.sidot.gestioneau.repository.MaconRepository;
 import com.onea.sidot.gestioneau.repository.search.MaconSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.MaconDTO;
 import com.onea.sidot.gestioneau.service.mapper.MaconMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class MaconService {
 
+    public static final String MACONS_CACHE = Macon.class.getName() + ".all";
+
+    public static final String MACONS_BY_LIBELLE_CACHE = Macon.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(MaconService.class);
 
     private final MaconRepository maconRepository;
@@ -30,10 +40,22 @@ public class MaconService {
 
     private final MaconSearchRepository maconSearchRepository;
 
-    public MaconService(MaconRepository maconRepository, MaconMapper maconMapper, MaconSearchRepository maconSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
+    public MaconService(
+        MaconRepository maconRepository,
+        MaconMapper maconMapper,
+        MaconSearchRepository maconSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
+    ) {
         this.maconRepository = maconRepository;
         this.maconMapper = maconMapper;
         this.maconSearchRepository = maconSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -42,12 +64,13 @@ public class MaconService {
      * @param maconDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MACONS_CACHE, MACONS_BY_LIBELLE_CACHE }, allEntries = true)
     public MaconDTO save(MaconDTO maconDTO) {
         log.debug("Request to save Macon : {}", maconDTO);
         Macon macon = maconMapper.toEntity(maconDTO);
-        macon = maconRepository.save(macon);
+        macon = maconRepository.saveAndFlush(macon, maconDTO.getVersion());
         MaconDTO result = maconMapper.toDto(macon);
-        maconSearchRepository.save(macon);
+        searchOutboxService.enqueue(Macon.class, macon.getId());
         return result;
     }
 
@@ -57,6 +80,7 @@ public class MaconService {
      * @param maconDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MACONS_CACHE, MACONS_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<MaconDTO> partialUpdate(MaconDTO maconDTO) {
         log.debug("Request to partially update Macon : {}", maconDTO);
 
@@ -68,10 +92,10 @@ public class MaconService {
                     return existingMacon;
                 }
             )
-            .map(maconRepository::save)
+            .map(existingMacon -> maconRepository.saveAndFlush(existingMacon, maconDTO.getVersion()))
             .map(
                 savedMacon -> {
-                    maconSearchRepository.save(savedMacon);
+                    searchOutboxService.enqueue(Macon.class, savedMacon.getId());
 
                     return savedMacon;
                 }
@@ -91,6 +115,44 @@ public class MaconService {
         return maconRepository.findAll(pageable).map(maconMapper::toDto);
     }
 
+    /**
+     * Get all the macons, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MACONS_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<MaconDTO> findAll() {
+        log.debug("Request to get all Macons");
+        return maconMapper.toDto(maconRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the macons of a libelle, cached until one of the macons is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MACONS_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<MaconDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the Macons of libelle {}", libelle);
+        return maconMapper.toDto(maconRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the macons following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<MaconDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Macons after {}", after);
+        return maconRepository.findAllAfter(after, pageable).map(maconMapper::toDto);
+    }
+
     /**
      * Get one macon by id.
      *
@@ -108,10 +170,12 @@ public class MaconService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { MACONS_CACHE, MACONS_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Macon : {}", id);
         maconRepository.deleteById(id);
-        maconSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Macon.class, id);
+        syncService.recordDeletion(Macon.class, id);
     }
 
     /**
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.ModeEvacExcreta;
 import com.onea.sidot.gestioneau.repository.ModeEvacExcretaRepository;
 import com.onea.sidot.gestioneau.repository.search.ModeEvacExcretaSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacExcretaDTO;
 import com.onea.sidot.gestioneau.service.mapper.ModeEvacExcretaMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ModeEvacExcretaService {
 
+    public static final String MODE_EVAC_EXCRETAS_CACHE = ModeEvacExcreta.class.getName() + ".all";
+
+    public static final String MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE = ModeEvacExcreta.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(ModeEvacExcretaService.class);
 
     private final ModeEvacExcretaRepository modeEvacExcretaRepository;
@@ -30,14 +40,22 @@ public class ModeEvacExcretaService {
 
     private final ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public ModeEvacExcretaService(
         ModeEvacExcretaRepository modeEvacExcretaRepository,
         ModeEvacExcretaMapper modeEvacExcretaMapper,
-        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository
+        ModeEvacExcretaSearchRepository modeEvacExcretaSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.modeEvacExcretaRepository = modeEvacExcretaRepository;
         this.modeEvacExcretaMapper = modeEvacExcretaMapper;
         this.modeEvacExcretaSearchRepository = modeEvacExcretaSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class ModeEvacExcretaService {
      * @param modeEvacExcretaDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVAC_EXCRETAS_CACHE, MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE }, allEntries = true)
     public ModeEvacExcretaDTO save(ModeEvacExcretaDTO modeEvacExcretaDTO) {
         log.debug("Request to save ModeEvacExcreta : {}", modeEvacExcretaDTO);
         ModeEvacExcreta modeEvacExcreta = modeEvacExcretaMapper.toEntity(modeEvacExcretaDTO);
-        modeEvacExcreta = modeEvacExcretaRepository.save(modeEvacExcreta);
+        modeEvacExcreta = modeEvacExcretaRepository.saveAndFlush(modeEvacExcreta, modeEvacExcretaDTO.getVersion());
         ModeEvacExcretaDTO result = modeEvacExcretaMapper.toDto(modeEvacExcreta);
-        modeEvacExcretaSearchRepository.save(modeEvacExcreta);
+        searchOutboxService.enqueue(ModeEvacExcreta.class, modeEvacExcreta.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class ModeEvacExcretaService {
      * @param modeEvacExcretaDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVAC_EXCRETAS_CACHE, MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<ModeEvacExcretaDTO> partialUpdate(ModeEvacExcretaDTO modeEvacExcretaDTO) {
         log.debug("Request to partially update ModeEvacExcreta : {}", modeEvacExcretaDTO);
 
@@ -72,10 +92,13 @@ public class ModeEvacExcretaService {
                     return existingModeEvacExcreta;
                 }
             )
-            .map(modeEvacExcretaRepository::save)
+            .map(
+                existingModeEvacExcreta ->
+                    modeEvacExcretaRepository.saveAndFlush(existingModeEvacExcreta, modeEvacExcretaDTO.getVersion())
+            )
             .map(
                 savedModeEvacExcreta -> {
-                    modeEvacExcretaSearchRepository.save(savedModeEvacExcreta);
+                    searchOutboxService.enqueue(ModeEvacExcreta.class, savedModeEvacExcreta.getId());
 
                     return savedModeEvacExcreta;
                 }
@@ -95,6 +118,44 @@ public class ModeEvacExcretaService {
         return modeEvacExcretaRepository.findAll(pageable).map(modeEvacExcretaMapper::toDto);
     }
 
+    /**
+     * Get all the modeEvacExcretas, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MODE_EVAC_EXCRETAS_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<ModeEvacExcretaDTO> findAll() {
+        log.debug("Request to get all ModeEvacExcretas");
+        return modeEvacExcretaMapper.toDto(modeEvacExcretaRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the modeEvacExcretas of a libelle, cached until one of the modeEvacExcretas is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<ModeEvacExcretaDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the ModeEvacExcretas of libelle {}", libelle);
+        return modeEvacExcretaMapper.toDto(modeEvacExcretaRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the modeEvacExcretas following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ModeEvacExcretaDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the ModeEvacExcretas after {}", after);
+        return modeEvacExcretaRepository.findAllAfter(after, pageable).map(modeEvacExcretaMapper::toDto);
+    }
+
     /**
      * Get one modeEvacExcreta by id.
      *
@@ -112,10 +173,12 @@ public class ModeEvacExcretaService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVAC_EXCRETAS_CACHE, MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete ModeEvacExcreta : {}", id);
         modeEvacExcretaRepository.deleteById(id);
-        modeEvacExcretaSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(ModeEvacExcreta.class, id);
+        syncService.recordDeletion(ModeEvacExcreta.class, id);
     }
 
     /**
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.ModeEvacuationEauUsee;
 import com.onea.sidot.gestioneau.repository.ModeEvacuationEauUseeRepository;
 import com.onea.sidot.gestioneau.repository.search.ModeEvacuationEauUseeSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacuationEauUseeDTO;
 import com.onea.sidot.gestioneau.service.mapper.ModeEvacuationEauUseeMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ModeEvacuationEauUseeService {
 
+    public static final String MODE_EVACUATION_EAU_USEES_CACHE = ModeEvacuationEauUsee.class.getName() + ".all";
+
+    public static final String MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE = ModeEvacuationEauUsee.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(ModeEvacuationEauUseeService.class);
 
     private final ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository;
@@ -30,14 +40,22 @@ public class ModeEvacuationEauUseeService {
 
     private final ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public ModeEvacuationEauUseeService(
         ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
         ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper,
-        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository
+        ModeEvacuationEauUseeSearchRepository modeEvacuationEauUseeSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
         this.modeEvacuationEauUseeMapper = modeEvacuationEauUseeMapper;
         this.modeEvacuationEauUseeSearchRepository = modeEvacuationEauUseeSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class ModeEvacuationEauUseeService {
      * @param modeEvacuationEauUseeDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVACUATION_EAU_USEES_CACHE, MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE }, allEntries = true)
     public ModeEvacuationEauUseeDTO save(ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO) {
         log.debug("Request to save ModeEvacuationEauUsee : {}", modeEvacuationEauUseeDTO);
         ModeEvacuationEauUsee modeEvacuationEauUsee = modeEvacuationEauUseeMapper.toEntity(modeEvacuationEauUseeDTO);
-        modeEvacuationEauUsee = modeEvacuationEauUseeRepository.save(modeEvacuationEauUsee);
+        modeEvacuationEauUsee = modeEvacuationEauUseeRepository.saveAndFlush(modeEvacuationEauUsee, modeEvacuationEauUseeDTO.getVersion());
         ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUsee);
-        modeEvacuationEauUseeSearchRepository.save(modeEvacuationEauUsee);
+        searchOutboxService.enqueue(ModeEvacuationEauUsee.class, modeEvacuationEauUsee.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class ModeEvacuationEauUseeService {
      * @param modeEvacuationEauUseeDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVACUATION_EAU_USEES_CACHE, MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<ModeEvacuationEauUseeDTO> partialUpdate(ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO) {
         log.debug("Request to partially update ModeEvacuationEauUsee : {}", modeEvacuationEauUseeDTO);
 
@@ -72,10 +92,13 @@ public class ModeEvacuationEauUseeService {
                     return existingModeEvacuationEauUsee;
                 }
             )
-            .map(modeEvacuationEauUseeRepository::save)
+            .map(
+                existingModeEvacuationEauUsee ->
+                    modeEvacuationEauUseeRepository.saveAndFlush(existingModeEvacuationEauUsee, modeEvacuationEauUseeDTO.getVersion())
+            )
             .map(
                 savedModeEvacuationEauUsee -> {
-                    modeEvacuationEauUseeSearchRepository.save(savedModeEvacuationEauUsee);
+                    searchOutboxService.enqueue(ModeEvacuationEauUsee.class, savedModeEvacuationEauUsee.getId());
 
                     return savedModeEvacuationEauUsee;
                 }
@@ -95,6 +118,44 @@ public class ModeEvacuationEauUseeService {
         return modeEvacuationEauUseeRepository.findAll(pageable).map(modeEvacuationEauUseeMapper::toDto);
     }
 
+    /**
+     * Get all the modeEvacuationEauUsees, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MODE_EVACUATION_EAU_USEES_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<ModeEvacuationEauUseeDTO> findAll() {
+        log.debug("Request to get all ModeEvacuationEauUsees");
+        return modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUseeRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the modeEvacuationEauUsees of a libelle, cached until one of the modeEvacuationEauUsees is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<ModeEvacuationEauUseeDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the ModeEvacuationEauUsees of libelle {}", libelle);
+        return modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUseeRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the modeEvacuationEauUsees following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ModeEvacuationEauUseeDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the ModeEvacuationEauUsees after {}", after);
+        return modeEvacuationEauUseeRepository.findAllAfter(after, pageable).map(modeEvacuationEauUseeMapper::toDto);
+    }
+
     /**
      * Get one modeEvacuationEauUsee by id.
      *
@@ -112,10 +173,12 @@ public class ModeEvacuationEauUseeService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { MODE_EVACUATION_EAU_USEES_CACHE, MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete ModeEvacuationEauUsee : {}", id);
         modeEvacuationEauUseeRepository.deleteById(id);
-        modeEvacuationEauUseeSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(ModeEvacuationEauUsee.class, id);
+        syncService.recordDeletion(ModeEvacuationEauUsee.class, id);
     }
 
     /**
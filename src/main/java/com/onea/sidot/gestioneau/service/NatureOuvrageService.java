@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.NatureOuvrage;
 import com.onea.sidot.gestioneau.repository.NatureOuvrageRepository;
 import com.onea.sidot.gestioneau.repository.search.NatureOuvrageSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.NatureOuvrageDTO;
 import com.onea.sidot.gestioneau.service.mapper.NatureOuvrageMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class NatureOuvrageService {
 
+    public static final String NATURE_OUVRAGES_CACHE = NatureOuvrage.class.getName() + ".all";
+
+    public static final String NATURE_OUVRAGES_BY_LIBELLE_CACHE = NatureOuvrage.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(NatureOuvrageService.class);
 
     private final NatureOuvrageRepository natureOuvrageRepository;
@@ -30,14 +40,22 @@ public class NatureOuvrageService {
 
     private final NatureOuvrageSearchRepository natureOuvrageSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public NatureOuvrageService(
         NatureOuvrageRepository natureOuvrageRepository,
         NatureOuvrageMapper natureOuvrageMapper,
-        NatureOuvrageSearchRepository natureOuvrageSearchRepository
+        NatureOuvrageSearchRepository natureOuvrageSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.natureOuvrageRepository = natureOuvrageRepository;
         this.natureOuvrageMapper = natureOuvrageMapper;
         this.natureOuvrageSearchRepository = natureOuvrageSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class NatureOuvrageService {
      * @param natureOuvrageDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { NATURE_OUVRAGES_CACHE, NATURE_OUVRAGES_BY_LIBELLE_CACHE }, allEntries = true)
     public NatureOuvrageDTO save(NatureOuvrageDTO natureOuvrageDTO) {
         log.debug("Request to save NatureOuvrage : {}", natureOuvrageDTO);
         NatureOuvrage natureOuvrage = natureOuvrageMapper.toEntity(natureOuvrageDTO);
-        natureOuvrage = natureOuvrageRepository.save(natureOuvrage);
+        natureOuvrage = natureOuvrageRepository.saveAndFlush(natureOuvrage, natureOuvrageDTO.getVersion());
         NatureOuvrageDTO result = natureOuvrageMapper.toDto(natureOuvrage);
-        natureOuvrageSearchRepository.save(natureOuvrage);
+        searchOutboxService.enqueue(NatureOuvrage.class, natureOuvrage.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class NatureOuvrageService {
      * @param natureOuvrageDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { NATURE_OUVRAGES_CACHE, NATURE_OUVRAGES_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<NatureOuvrageDTO> partialUpdate(NatureOuvrageDTO natureOuvrageDTO) {
         log.debug("Request to partially update NatureOuvrage : {}", natureOuvrageDTO);
 
@@ -72,10 +92,10 @@ public class NatureOuvrageService {
                     return existingNatureOuvrage;
                 }
             )
-            .map(natureOuvrageRepository::save)
+            .map(existingNatureOuvrage -> natureOuvrageRepository.saveAndFlush(existingNatureOuvrage, natureOuvrageDTO.getVersion()))
             .map(
                 savedNatureOuvrage -> {
-                    natureOuvrageSearchRepository.save(savedNatureOuvrage);
+                    searchOutboxService.enqueue(NatureOuvrage.class, savedNatureOuvrage.getId());
 
                     return savedNatureOuvrage;
                 }
@@ -95,6 +115,44 @@ public class NatureOuvrageService {
         return natureOuvrageRepository.findAll(pageable).map(natureOuvrageMapper::toDto);
     }
 
+    /**
+     * Get all the natureOuvrages, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = NATURE_OUVRAGES_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<NatureOuvrageDTO> findAll() {
+        log.debug("Request to get all NatureOuvrages");
+        return natureOuvrageMapper.toDto(natureOuvrageRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the natureOuvrages of a libelle, cached until one of the natureOuvrages is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = NATURE_OUVRAGES_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<NatureOuvrageDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the NatureOuvrages of libelle {}", libelle);
+        return natureOuvrageMapper.toDto(natureOuvrageRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the natureOuvrages following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NatureOuvrageDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the NatureOuvrages after {}", after);
+        return natureOuvrageRepository.findAllAfter(after, pageable).map(natureOuvrageMapper::toDto);
+    }
+
     /**
      * Get one natureOuvrage by id.
      *
@@ -112,10 +170,12 @@ public class NatureOuvrageService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { NATURE_OUVRAGES_CACHE, NATURE_OUVRAGES_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete NatureOuvrage : {}", id);
         natureOuvrageRepository.deleteById(id);
-        natureOuvrageSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(NatureOuvrage.class, id);
+        syncService.recordDeletion(NatureOuvrage.class, id);
     }
 
     /**
@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Parcelle;
 import com.onea.sidot.gestioneau.repository.ParcelleRepository;
 import com.onea.sidot.gestioneau.repository.search.ParcelleSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.ParcelleDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.ParcelleMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,32 @@ public class ParcelleService {
 
     private final ParcelleMapper parcelleMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final ParcelleSearchRepository parcelleSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
+    private final SyncService syncService;
+
     public ParcelleService(
         ParcelleRepository parcelleRepository,
         ParcelleMapper parcelleMapper,
-        ParcelleSearchRepository parcelleSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        ParcelleSearchRepository parcelleSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.parcelleRepository = parcelleRepository;
         this.parcelleMapper = parcelleMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.parcelleSearchRepository = parcelleSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -49,9 +69,10 @@ public class ParcelleService {
     public ParcelleDTO save(ParcelleDTO parcelleDTO) {
         log.debug("Request to save Parcelle : {}", parcelleDTO);
         Parcelle parcelle = parcelleMapper.toEntity(parcelleDTO);
-        parcelle = parcelleRepository.save(parcelle);
+        parcelle = parcelleRepository.saveAndFlush(parcelle, parcelleDTO.getVersion());
         ParcelleDTO result = parcelleMapper.toDto(parcelle);
-        parcelleSearchRepository.save(parcelle);
+        searchOutboxService.enqueue(Parcelle.class, parcelle.getId());
+        locationTreeService.invalidate(LocationTree.Level.PARCELLE);
         return result;
     }
 
@@ -72,10 +93,11 @@ public class ParcelleService {
                     return existingParcelle;
                 }
             )
-            .map(parcelleRepository::save)
+            .map(existingParcelle -> parcelleRepository.saveAndFlush(existingParcelle, parcelleDTO.getVersion()))
             .map(
                 savedParcelle -> {
-                    parcelleSearchRepository.save(savedParcelle);
+                    searchOutboxService.enqueue(Parcelle.class, savedParcelle.getId());
+                    locationTreeService.invalidate(LocationTree.Level.PARCELLE);
 
                     return savedParcelle;
                 }
@@ -95,6 +117,31 @@ public class ParcelleService {
         return parcelleRepository.findAll(pageable).map(parcelleMapper::toDto);
     }
 
+    /**
+     * Get the parcelles following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ParcelleDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Parcelles after {}", after);
+        return parcelleRepository.findAllAfter(after, pageable).map(parcelleMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the parcelles of a lot, in libelle order.
+     *
+     * @param lotId the id of the lot.
+     * @return the list of parcelles.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllByLot(Long lotId) {
+        log.debug("Request to get the Parcelles of Lot : {}", lotId);
+        return idLibelleMapper.toDto(parcelleRepository.findAllByLotIdOrderByLibelle(lotId));
+    }
+
     /**
      * Get one parcelle by id.
      *
@@ -115,7 +162,9 @@ public class ParcelleService {
     public void delete(Long id) {
         log.debug("Request to delete Parcelle : {}", id);
         parcelleRepository.deleteById(id);
-        parcelleSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Parcelle.class, id);
+        syncService.recordDeletion(Parcelle.class, id);
+        locationTreeService.invalidate(LocationTree.Level.PARCELLE);
     }
 
     /**
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.Prefabricant;
 import com.onea.sidot.gestioneau.repository.PrefabricantRepository;
 import com.onea.sidot.gestioneau.repository.search.PrefabricantSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.PrefabricantDTO;
 import com.onea.sidot.gestioneau.service.mapper.PrefabricantMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class PrefabricantService {
 
+    public static final String PREFABRICANTS_CACHE = Prefabricant.class.getName() + ".all";
+
+    public static final String PREFABRICANTS_BY_LIBELLE_CACHE = Prefabricant.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(PrefabricantService.class);
 
     private final PrefabricantRepository prefabricantRepository;
@@ -30,14 +40,22 @@ public class PrefabricantService {
 
     private final PrefabricantSearchRepository prefabricantSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public PrefabricantService(
         PrefabricantRepository prefabricantRepository,
         PrefabricantMapper prefabricantMapper,
-        PrefabricantSearchRepository prefabricantSearchRepository
+        PrefabricantSearchRepository prefabricantSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.prefabricantRepository = prefabricantRepository;
         this.prefabricantMapper = prefabricantMapper;
         this.prefabricantSearchRepository = prefabricantSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class PrefabricantService {
      * @param prefabricantDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { PREFABRICANTS_CACHE, PREFABRICANTS_BY_LIBELLE_CACHE }, allEntries = true)
     public PrefabricantDTO save(PrefabricantDTO prefabricantDTO) {
         log.debug("Request to save Prefabricant : {}", prefabricantDTO);
         Prefabricant prefabricant = prefabricantMapper.toEntity(prefabricantDTO);
-        prefabricant = prefabricantRepository.save(prefabricant);
+        prefabricant = prefabricantRepository.saveAndFlush(prefabricant, prefabricantDTO.getVersion());
         PrefabricantDTO result = prefabricantMapper.toDto(prefabricant);
-        prefabricantSearchRepository.save(prefabricant);
+        searchOutboxService.enqueue(Prefabricant.class, prefabricant.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class PrefabricantService {
      * @param prefabricantDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { PREFABRICANTS_CACHE, PREFABRICANTS_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<PrefabricantDTO> partialUpdate(PrefabricantDTO prefabricantDTO) {
         log.debug("Request to partially update Prefabricant : {}", prefabricantDTO);
 
@@ -72,10 +92,10 @@ public class PrefabricantService {
                     return existingPrefabricant;
                 }
             )
-            .map(prefabricantRepository::save)
+            .map(existingPrefabricant -> prefabricantRepository.saveAndFlush(existingPrefabricant, prefabricantDTO.getVersion()))
             .map(
                 savedPrefabricant -> {
-                    prefabricantSearchRepository.save(savedPrefabricant);
+                    searchOutboxService.enqueue(Prefabricant.class, savedPrefabricant.getId());
 
                     return savedPrefabricant;
                 }
@@ -95,6 +115,44 @@ public class PrefabricantService {
         return prefabricantRepository.findAll(pageable).map(prefabricantMapper::toDto);
     }
 
+    /**
+     * Get all the prefabricants, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PREFABRICANTS_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<PrefabricantDTO> findAll() {
+        log.debug("Request to get all Prefabricants");
+        return prefabricantMapper.toDto(prefabricantRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the prefabricants of a libelle, cached until one of the prefabricants is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PREFABRICANTS_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<PrefabricantDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the Prefabricants of libelle {}", libelle);
+        return prefabricantMapper.toDto(prefabricantRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the prefabricants following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PrefabricantDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Prefabricants after {}", after);
+        return prefabricantRepository.findAllAfter(after, pageable).map(prefabricantMapper::toDto);
+    }
+
     /**
      * Get one prefabricant by id.
      *
@@ -112,10 +170,12 @@ public class PrefabricantService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { PREFABRICANTS_CACHE, PREFABRICANTS_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Prefabricant : {}", id);
         prefabricantRepository.deleteById(id);
-        prefabricantSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Prefabricant.class, id);
+        syncService.recordDeletion(Prefabricant.class, id);
     }
 
     /**
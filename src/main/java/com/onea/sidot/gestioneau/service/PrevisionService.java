@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +31,18 @@ public class PrevisionService {
 
     private final PrevisionSearchRepository previsionSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
     public PrevisionService(
         PrevisionRepository previsionRepository,
         PrevisionMapper previsionMapper,
-        PrevisionSearchRepository previsionSearchRepository
+        PrevisionSearchRepository previsionSearchRepository,
+        SearchOutboxService searchOutboxService
     ) {
         this.previsionRepository = previsionRepository;
         this.previsionMapper = previsionMapper;
         this.previsionSearchRepository = previsionSearchRepository;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +54,9 @@ public class PrevisionService {
     public PrevisionDTO save(PrevisionDTO previsionDTO) {
         log.debug("Request to save Prevision : {}", previsionDTO);
         Prevision prevision = previsionMapper.toEntity(previsionDTO);
-        prevision = previsionRepository.save(prevision);
+        prevision = previsionRepository.saveAndFlush(prevision, previsionDTO.getVersion());
         PrevisionDTO result = previsionMapper.toDto(prevision);
-        previsionSearchRepository.save(prevision);
+        searchOutboxService.enqueue(Prevision.class, prevision.getId());
         return result;
     }
 
@@ -72,10 +77,10 @@ public class PrevisionService {
                     return existingPrevision;
                 }
             )
-            .map(previsionRepository::save)
+            .map(existingPrevision -> previsionRepository.saveAndFlush(existingPrevision, previsionDTO.getVersion()))
             .map(
                 savedPrevision -> {
-                    previsionSearchRepository.save(savedPrevision);
+                    searchOutboxService.enqueue(Prevision.class, savedPrevision.getId());
 
                     return savedPrevision;
                 }
@@ -95,6 +100,19 @@ public class PrevisionService {
         return previsionRepository.findAll(pageable).map(previsionMapper::toDto);
     }
 
+    /**
+     * Get the previsions following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PrevisionDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Previsions after {}", after);
+        return previsionRepository.findAllAfter(after, pageable).map(previsionMapper::toDto);
+    }
+
     /**
      * Get one prevision by id.
      *
@@ -115,7 +133,7 @@ public class PrevisionService {
     public void delete(Long id) {
         log.debug("Request to delete Prevision : {}", id);
         previsionRepository.deleteById(id);
-        previsionSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Prevision.class, id);
     }
 
     /**
@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Province;
 import com.onea.sidot.gestioneau.repository.ProvinceRepository;
 import com.onea.sidot.gestioneau.repository.search.ProvinceSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.ProvinceDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.ProvinceMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,28 @@ public class ProvinceService {
 
     private final ProvinceMapper provinceMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final ProvinceSearchRepository provinceSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
     public ProvinceService(
         ProvinceRepository provinceRepository,
         ProvinceMapper provinceMapper,
-        ProvinceSearchRepository provinceSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        ProvinceSearchRepository provinceSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
     ) {
         this.provinceRepository = provinceRepository;
         this.provinceMapper = provinceMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.provinceSearchRepository = provinceSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +65,10 @@ public class ProvinceService {
     public ProvinceDTO save(ProvinceDTO provinceDTO) {
         log.debug("Request to save Province : {}", provinceDTO);
         Province province = provinceMapper.toEntity(provinceDTO);
-        province = provinceRepository.save(province);
+        province = provinceRepository.saveAndFlush(province, provinceDTO.getVersion());
         ProvinceDTO result = provinceMapper.toDto(province);
-        provinceSearchRepository.save(province);
+        searchOutboxService.enqueue(Province.class, province.getId());
+        locationTreeService.invalidate(LocationTree.Level.PROVINCE);
         return result;
     }
 
@@ -72,10 +89,11 @@ public class ProvinceService {
                     return existingProvince;
                 }
             )
-            .map(provinceRepository::save)
+            .map(existingProvince -> provinceRepository.saveAndFlush(existingProvince, provinceDTO.getVersion()))
             .map(
                 savedProvince -> {
-                    provinceSearchRepository.save(savedProvince);
+                    searchOutboxService.enqueue(Province.class, savedProvince.getId());
+                    locationTreeService.invalidate(LocationTree.Level.PROVINCE);
 
                     return savedProvince;
                 }
@@ -95,6 +113,31 @@ public class ProvinceService {
         return provinceRepository.findAll(pageable).map(provinceMapper::toDto);
     }
 
+    /**
+     * Get the provinces following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProvinceDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Provinces after {}", after);
+        return provinceRepository.findAllAfter(after, pageable).map(provinceMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the provinces of a region, in libelle order.
+     *
+     * @param regionId the id of the region.
+     * @return the list of provinces.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllByRegion(Long regionId) {
+        log.debug("Request to get the Provinces of Region : {}", regionId);
+        return idLibelleMapper.toDto(provinceRepository.findAllByRegionIdOrderByLibelle(regionId));
+    }
+
     /**
      * Get one province by id.
      *
@@ -115,7 +158,8 @@ public class ProvinceService {
     public void delete(Long id) {
         log.debug("Request to delete Province : {}", id);
         provinceRepository.deleteById(id);
-        provinceSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Province.class, id);
+        locationTreeService.invalidate(LocationTree.Level.PROVINCE);
     }
 
     /**
@@ -0,0 +1,238 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.RealisationRollup;
+import com.onea.sidot.gestioneau.domain.RealisationRollupId;
+import com.onea.sidot.gestioneau.repository.PrevisionRepository;
+import com.onea.sidot.gestioneau.repository.RealisationRollupRepository;
+import com.onea.sidot.gestioneau.service.dto.CompletionRateDTO;
+import com.onea.sidot.gestioneau.service.dto.CompletionRateDTO.Realisation;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service comparing the works planned by the previsions to the realised {@link FicheSuiviOuvrage}.
+ * <p>
+ * The sheets are counted per prevision and nature d'ouvrage in {@link RealisationRollup}, updated by
+ * {@link FicheSuiviOuvrageService} in the transaction writing them; the completion rates then only sum the rollups
+ * and the previsions in the database, whatever the number of sheets.
+ */
+@Service
+@Transactional
+public class RealisationAnalyticsService {
+
+    private static final Comparator<RealisationRollupId> ROLLUP_ID_ORDER = Comparator
+        .comparing(RealisationRollupId::getPrevisionId)
+        .thenComparing(RealisationRollupId::getNatureouvrageId);
+
+    private static final Comparator<IdLibelleDTO> LIBELLE_ORDER = Comparator.nullsLast(
+        Comparator.comparing(IdLibelleDTO::getLibelle, Comparator.nullsLast(Comparator.naturalOrder()))
+    );
+
+    private static final Comparator<Realisation> REALISATION_ORDER = Comparator.comparing(Realisation::getNatureouvrage, LIBELLE_ORDER);
+
+    private static final Comparator<CompletionRateDTO> COMPLETION_RATE_ORDER = Comparator
+        .comparing(CompletionRateDTO::getAnnee, LIBELLE_ORDER)
+        .thenComparing(CompletionRateDTO::getLocation, LIBELLE_ORDER);
+
+    private static final String PREVISION_JOINS =
+        "Prevision prevision left join prevision.refannee annee left join prevision.centre centre " +
+        "left join centre.centreregroupement centreRegroupement left join centreRegroupement.directionregionale directionRegionale";
+
+    private final Logger log = LoggerFactory.getLogger(RealisationAnalyticsService.class);
+
+    private final RealisationRollupRepository realisationRollupRepository;
+
+    private final PrevisionRepository previsionRepository;
+
+    private final EntityManager entityManager;
+
+    public RealisationAnalyticsService(
+        RealisationRollupRepository realisationRollupRepository,
+        PrevisionRepository previsionRepository,
+        EntityManager entityManager
+    ) {
+        this.realisationRollupRepository = realisationRollupRepository;
+        this.previsionRepository = previsionRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Count new sheets in the rollups.
+     *
+     * @param ficheSuiviOuvrages the saved sheets.
+     */
+    public void add(Collection<FicheSuiviOuvrage> ficheSuiviOuvrages) {
+        Map<RealisationRollupId, Long> deltas = new TreeMap<>(ROLLUP_ID_ORDER);
+        ficheSuiviOuvrages
+            .stream()
+            .map(RealisationRollupId::of)
+            .filter(Objects::nonNull)
+            .forEach(rollupId -> deltas.merge(rollupId, 1L, Long::sum));
+        apply(deltas);
+    }
+
+    /**
+     * Move a sheet from a rollup to another one.
+     *
+     * @param previousRollupId the rollup of the sheet before the change, or {@code null} if it was not counted.
+     * @param rollupId the rollup of the sheet after the change, or {@code null} if it is not counted anymore.
+     */
+    public void update(RealisationRollupId previousRollupId, RealisationRollupId rollupId) {
+        if (Objects.equals(previousRollupId, rollupId)) {
+            return;
+        }
+        Map<RealisationRollupId, Long> deltas = new TreeMap<>(ROLLUP_ID_ORDER);
+        if (previousRollupId != null) {
+            deltas.put(previousRollupId, -1L);
+        }
+        if (rollupId != null) {
+            deltas.put(rollupId, 1L);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * The rollups are incremented in place, by one atomic update each, in id order so that two transactions counting
+     * sheets of the same rollups wait for each other instead of deadlocking. Only a rollup which does not exist yet
+     * locks its prevision, and is looked for again, so that it is inserted once.
+     */
+    private void apply(Map<RealisationRollupId, Long> deltas) {
+        deltas.forEach(
+            (rollupId, delta) -> {
+                int updated = realisationRollupRepository.increment(rollupId.getPrevisionId(), rollupId.getNatureouvrageId(), delta);
+                if (updated == 0 && delta > 0) {
+                    previsionRepository.findByIdForUpdate(rollupId.getPrevisionId());
+                    updated = realisationRollupRepository.increment(rollupId.getPrevisionId(), rollupId.getNatureouvrageId(), delta);
+                    if (updated == 0) {
+                        realisationRollupRepository.insert(rollupId.getPrevisionId(), rollupId.getNatureouvrageId(), delta);
+                    }
+                } else if (delta < 0) {
+                    realisationRollupRepository.deleteIfEmpty(rollupId.getPrevisionId(), rollupId.getNatureouvrageId());
+                }
+            }
+        );
+    }
+
+    /**
+     * Count all the sheets again, in case they were written without this service.
+     */
+    public void rebuild() {
+        log.debug("Request to rebuild the realisation rollups");
+        previsionRepository.findAllForUpdate();
+        realisationRollupRepository.deleteAllInBatch();
+        realisationRollupRepository.insertCountedFicheSuiviOuvrages();
+    }
+
+    /**
+     * Get the completion rates of the previsions, grouped by year and location.
+     *
+     * @param level the location level to group the previsions by.
+     * @param anneeId the id of the year to restrict the previsions to, or {@code null} for all of them.
+     * @return the completion rates, in year then location libelle order.
+     */
+    @Transactional(readOnly = true)
+    public List<CompletionRateDTO> findCompletionRates(CompletionRateDTO.Level level, Long anneeId) {
+        log.debug("Request to get the completion rates by {} of the year {}", level, anneeId);
+        String location = getLocationAlias(level);
+        String groups = "annee.id, annee.libelle" + (location == null ? "" : ", " + location + ".id, " + location + ".libelle");
+        String columns =
+            "annee.id as anneeId, annee.libelle as anneeLibelle" +
+            (location == null ? "" : ", " + location + ".id as locationId, " + location + ".libelle as locationLibelle");
+
+        Map<List<Long>, CompletionRateDTO> completionRates = new HashMap<>();
+        String plannedJpql =
+            "select " +
+            columns +
+            ", sum(prevision.nbLatrine) as nbLatrine, sum(prevision.nbPuisard) as nbPuisard, " +
+            "sum(prevision.nbPublic) as nbPublic, sum(prevision.nbScolaire) as nbScolaire from " +
+            PREVISION_JOINS +
+            (anneeId == null ? "" : " where annee.id = :anneeId") +
+            " group by " +
+            groups;
+        for (Tuple planned : getResultList(plannedJpql, anneeId)) {
+            CompletionRateDTO completionRate = getCompletionRate(completionRates, planned, location);
+            completionRate.setNbLatrinePrevu(getSum(planned, "nbLatrine"));
+            completionRate.setNbPuisardPrevu(getSum(planned, "nbPuisard"));
+            completionRate.setNbPublicPrevu(getSum(planned, "nbPublic"));
+            completionRate.setNbScolairePrevu(getSum(planned, "nbScolaire"));
+        }
+        String realisedJpql =
+            "select " +
+            columns +
+            ", natureouvrage.id as natureouvrageId, natureouvrage.libelle as natureouvrageLibelle, " +
+            "sum(rollup.nbRealise) as nbRealise from RealisationRollup rollup, NatureOuvrage natureouvrage, " +
+            PREVISION_JOINS +
+            " where natureouvrage.id = rollup.id.natureouvrageId and prevision.id = rollup.id.previsionId" +
+            (anneeId == null ? "" : " and annee.id = :anneeId") +
+            " group by " +
+            groups +
+            ", natureouvrage.id, natureouvrage.libelle";
+        for (Tuple realised : getResultList(realisedJpql, anneeId)) {
+            IdLibelleDTO natureouvrage = new IdLibelleDTO(
+                realised.get("natureouvrageId", Long.class),
+                realised.get("natureouvrageLibelle", String.class)
+            );
+            getCompletionRate(completionRates, realised, location)
+                .getRealisations()
+                .add(new Realisation(natureouvrage, getSum(realised, "nbRealise")));
+        }
+
+        List<CompletionRateDTO> result = new ArrayList<>(completionRates.values());
+        result.forEach(completionRate -> completionRate.getRealisations().sort(REALISATION_ORDER));
+        result.sort(COMPLETION_RATE_ORDER);
+        return result;
+    }
+
+    private List<Tuple> getResultList(String jpql, Long anneeId) {
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (anneeId != null) {
+            query.setParameter("anneeId", anneeId);
+        }
+        return query.getResultList();
+    }
+
+    private static CompletionRateDTO getCompletionRate(Map<List<Long>, CompletionRateDTO> completionRates, Tuple tuple, String location) {
+        IdLibelleDTO annee = getIdLibelle(tuple, "annee");
+        IdLibelleDTO locationIdLibelle = location == null ? null : getIdLibelle(tuple, "location");
+        return completionRates.computeIfAbsent(
+            Arrays.asList(annee == null ? null : annee.getId(), locationIdLibelle == null ? null : locationIdLibelle.getId()),
+            key -> new CompletionRateDTO(annee, locationIdLibelle)
+        );
+    }
+
+    /**
+     * @return the alias of the location in {@link #PREVISION_JOINS}, or {@code null} at the
+     * {@link CompletionRateDTO.Level#ANNEE} level.
+     */
+    private static String getLocationAlias(CompletionRateDTO.Level level) {
+        switch (level) {
+            case CENTRE:
+                return "centre";
+            case CENTRE_REGROUPEMENT:
+                return "centreRegroupement";
+            case DIRECTION_REGIONALE:
+                return "directionRegionale";
+            default:
+                return null;
+        }
+    }
+
+    private static IdLibelleDTO getIdLibelle(Tuple tuple, String alias) {
+        Long id = tuple.get(alias + "Id", Long.class);
+        return id == null ? null : new IdLibelleDTO(id, tuple.get(alias + "Libelle", String.class));
+    }
+
+    private static long getSum(Tuple tuple, String alias) {
+        Long sum = tuple.get(alias, Long.class);
+        return sum == null ? 0 : sum;
+    }
+}
@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +31,22 @@ public class RegionService {
 
     private final RegionSearchRepository regionSearchRepository;
 
-    public RegionService(RegionRepository regionRepository, RegionMapper regionMapper, RegionSearchRepository regionSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
+    public RegionService(
+        RegionRepository regionRepository,
+        RegionMapper regionMapper,
+        RegionSearchRepository regionSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
+    ) {
         this.regionRepository = regionRepository;
         this.regionMapper = regionMapper;
         this.regionSearchRepository = regionSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -45,9 +58,10 @@ public class RegionService {
     public RegionDTO save(RegionDTO regionDTO) {
         log.debug("Request to save Region : {}", regionDTO);
         Region region = regionMapper.toEntity(regionDTO);
-        region = regionRepository.save(region);
+        region = regionRepository.saveAndFlush(region, regionDTO.getVersion());
         RegionDTO result = regionMapper.toDto(region);
-        regionSearchRepository.save(region);
+        searchOutboxService.enqueue(Region.class, region.getId());
+        locationTreeService.invalidate(LocationTree.Level.REGION);
         return result;
     }
 
@@ -68,10 +82,11 @@ public class RegionService {
                     return existingRegion;
                 }
             )
-            .map(regionRepository::save)
+            .map(existingRegion -> regionRepository.saveAndFlush(existingRegion, regionDTO.getVersion()))
             .map(
                 savedRegion -> {
-                    regionSearchRepository.save(savedRegion);
+                    searchOutboxService.enqueue(Region.class, savedRegion.getId());
+                    locationTreeService.invalidate(LocationTree.Level.REGION);
 
                     return savedRegion;
                 }
@@ -91,6 +106,19 @@ public class RegionService {
         return regionRepository.findAll(pageable).map(regionMapper::toDto);
     }
 
+    /**
+     * Get the regions following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<RegionDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Regions after {}", after);
+        return regionRepository.findAllAfter(after, pageable).map(regionMapper::toDto);
+    }
+
     /**
      * Get one region by id.
      *
@@ -111,7 +139,8 @@ public class RegionService {
     public void delete(Long id) {
         log.debug("Request to delete Region : {}", id);
         regionRepository.deleteById(id);
-        regionSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Region.class, id);
+        locationTreeService.invalidate(LocationTree.Level.REGION);
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.onea.sidot.gestioneau.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by the {@link SearchOutboxIndexer} once entities are indexed in, or removed from, Elasticsearch, for the
+ * caches of search results to evict what changed.
+ */
+public class SearchIndexedEvent {
+
+    private final String entityType;
+
+    private final List<Object> entities;
+
+    private final Collection<Long> deletedIds;
+
+    public SearchIndexedEvent(String entityType, List<Object> entities, Collection<Long> deletedIds) {
+        this.entityType = entityType;
+        this.entities = entities;
+        this.deletedIds = deletedIds;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the entities indexed, as read from the database.
+     */
+    public List<Object> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the ids of the entities removed from the index.
+     */
+    public Collection<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
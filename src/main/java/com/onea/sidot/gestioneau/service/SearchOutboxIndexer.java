@@ -0,0 +1,280 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
+import com.onea.sidot.gestioneau.repository.search.SearchIndexRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Background indexer draining the search outbox into Elasticsearch.
+ * <p>
+ * A drain is started on the {@code taskExecutor} after each transaction which queued entries, and by a periodic poll
+ * which picks up the retries and the entries queued by the other instances. Each batch locks its entries with
+ * {@code skip locked}, so instances do not index the same entries, and sends one bulk request per entity type. A
+ * failed batch is retried later with an exponential backoff. The deleted entities are removed from the index with one
+ * bulk request per entity type as well.
+ * <p>
+ * The search repository of an entity type is found by the bean name convention, {@code regionSearchRepository}
+ * for {@code Region}.
+ */
+@Service
+public class SearchOutboxIndexer {
+
+    private static final String SEARCH_REPOSITORY_SUFFIX = "SearchRepository";
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutboxIndexer.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final Map<String, ElasticsearchRepository<Object, Long>> searchRepositories = new HashMap<>();
+
+    private final Map<String, Class<?>> entityClasses = new HashMap<>();
+
+    private final SearchIndexRepository searchIndexRepository;
+
+    private final SearchReindexService searchReindexService;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ApplicationProperties.SearchOutbox properties;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final AtomicReference<Instant> oldestCreatedDate = new AtomicReference<>();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter indexedCounter;
+
+    private final Counter failedCounter;
+
+    @SuppressWarnings("unchecked")
+    public SearchOutboxIndexer(
+        SearchOutboxRepository searchOutboxRepository,
+        Map<String, ElasticsearchRepository<?, ?>> searchRepositories,
+        SearchIndexRepository searchIndexRepository,
+        SearchReindexService searchReindexService,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        Map<String, Class<?>> classesByName = entityManager
+            .getMetamodel()
+            .getEntities()
+            .stream()
+            .collect(Collectors.toMap(EntityType::getName, EntityType::getJavaType));
+        searchRepositories.forEach(
+            (beanName, searchRepository) -> {
+                String entityType = getEntityType(beanName);
+                if (entityType != null) {
+                    this.searchRepositories.put(entityType, (ElasticsearchRepository<Object, Long>) searchRepository);
+                    this.entityClasses.put(entityType, classesByName.get(entityType));
+                }
+            }
+        );
+        this.searchIndexRepository = searchIndexRepository;
+        this.searchReindexService = searchReindexService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.properties = applicationProperties.getSearchOutbox();
+        Gauge
+            .builder("search.outbox.lag", this, SearchOutboxIndexer::getLagSeconds)
+            .description("Age of the oldest entry waiting to be indexed in Elasticsearch")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge
+            .builder("search.outbox.pending", pending, AtomicLong::get)
+            .description("Number of entries waiting to be indexed in Elasticsearch")
+            .register(meterRegistry);
+        this.indexedCounter =
+            Counter
+                .builder("search.outbox.indexed")
+                .description("Number of search outbox entries indexed in Elasticsearch")
+                .register(meterRegistry);
+        this.failedCounter =
+            Counter
+                .builder("search.outbox.failures")
+                .description("Number of search outbox entries whose indexing failed and was rescheduled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refresh the lag metrics and drain the entries which are due, including the retries.
+     */
+    @Scheduled(fixedDelayString = "${application.search-outbox.poll-interval-ms:1000}")
+    public void poll() {
+        oldestCreatedDate.set(searchOutboxRepository.findOldestCreatedDate());
+        pending.set(searchOutboxRepository.count());
+        drainAsync();
+    }
+
+    /**
+     * Drain the outbox on the {@code taskExecutor}; does nothing more if a drain is already running, but makes it go
+     * on with the entries queued meanwhile.
+     */
+    public void drainAsync() {
+        try {
+            taskExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            log.debug("Search outbox drain rejected, it will be retried by the next poll");
+        }
+    }
+
+    void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            drainRequested.set(true);
+            return;
+        }
+        try {
+            do {
+                drainRequested.set(false);
+                while (drainBatch() == properties.getBatchSize()) {
+                    // A full batch, there may be more entries due
+                }
+            } while (drainRequested.get());
+        } catch (RuntimeException e) {
+            log.warn("Could not drain the search outbox: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Index one batch of due entries, in a transaction.
+     *
+     * @return the number of entries processed, indexed or rescheduled.
+     */
+    int drainBatch() {
+        Integer drained = transactionTemplate.execute(
+            status -> {
+                Instant now = Instant.now();
+                List<SearchOutboxEntry> entries = searchOutboxRepository.findDueForUpdate(
+                    now,
+                    PageRequest.of(0, properties.getBatchSize())
+                );
+                entries
+                    .stream()
+                    .collect(Collectors.groupingBy(SearchOutboxEntry::getEntityType, LinkedHashMap::new, Collectors.toList()))
+                    .forEach((entityType, typeEntries) -> index(entityType, typeEntries, now));
+                return entries.size();
+            }
+        );
+        return drained == null ? 0 : drained;
+    }
+
+    private void index(String entityType, List<SearchOutboxEntry> entries, Instant now) {
+        ElasticsearchRepository<Object, Long> searchRepository = searchRepositories.get(entityType);
+        if (searchRepository == null) {
+            log.warn("No search repository for {}, dropping {} search outbox entries", entityType, entries.size());
+            searchOutboxRepository.deleteInBatch(entries);
+            return;
+        }
+        Set<Long> ids = entries.stream().map(SearchOutboxEntry::getEntityId).collect(Collectors.toCollection(LinkedHashSet::new));
+        try {
+            searchReindexService.recordIndexed(entityType, ids);
+            TypedQuery<Object> query = entityManager
+                .createQuery("select entity from " + entityType + " entity where entity.id in :ids", Object.class)
+                .setParameter("ids", ids);
+            if (entityClasses.get(entityType) == FicheSuiviOuvrage.class) {
+                // The search fields of the sheets flatten their references, loaded with them rather than one by one
+                query.setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH));
+            }
+            List<Object> entities = query.getResultList();
+            if (!entities.isEmpty()) {
+                searchRepository.saveAll(entities);
+            }
+            // The entities which are not in the database anymore were deleted, with one bulk request
+            PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+            entities.forEach(entity -> ids.remove((Long) persistenceUnitUtil.getIdentifier(entity)));
+            if (!ids.isEmpty()) {
+                searchIndexRepository.delete(searchIndexRepository.getAlias(entityClasses.get(entityType)), ids);
+            }
+            searchOutboxRepository.deleteInBatch(entries);
+            indexedCounter.increment(entries.size());
+            applicationEventPublisher.publishEvent(new SearchIndexedEvent(entityType, entities, ids));
+        } catch (RuntimeException e) {
+            log.warn("Could not index {} {} entities, they will be retried: {}", entries.size(), entityType, e.getMessage());
+            failedCounter.increment(entries.size());
+            for (SearchOutboxEntry entry : entries) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptDate(now.plusMillis(getBackoffMs(entry.getAttempts())));
+                entry.setLastError(abbreviate(e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * @return the entity type indexed by the search repository bean, or {@code null} if the name does not follow
+     * the convention.
+     */
+    static String getEntityType(String searchRepositoryBeanName) {
+        if (!searchRepositoryBeanName.endsWith(SEARCH_REPOSITORY_SUFFIX)) {
+            return null;
+        }
+        return StringUtils.capitalize(StringUtils.delete(searchRepositoryBeanName, SEARCH_REPOSITORY_SUFFIX));
+    }
+
+    private long getBackoffMs(int attempts) {
+        long backoff = properties.getInitialBackoffMs() << Math.min(attempts - 1, 30);
+        return backoff < 0 ? properties.getMaxBackoffMs() : Math.min(backoff, properties.getMaxBackoffMs());
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null || message.length() <= SearchOutboxEntry.LAST_ERROR_MAX_LENGTH) {
+            return message;
+        }
+        return message.substring(0, SearchOutboxEntry.LAST_ERROR_MAX_LENGTH);
+    }
+
+    private double getLagSeconds() {
+        Instant oldest = oldestCreatedDate.get();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service queuing the changed entities for indexing in Elasticsearch.
+ * <p>
+ * The entries are written in the transaction of the change, so that the index cannot miss a committed change nor
+ * see a rolled back one, and the write does not wait for Elasticsearch: {@link SearchOutboxIndexer} drains them
+ * once the transaction commits.
+ */
+@Service
+@Transactional
+public class SearchOutboxService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutboxService.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final SearchOutboxIndexer searchOutboxIndexer;
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    public SearchOutboxService(
+        SearchOutboxRepository searchOutboxRepository,
+        SearchOutboxIndexer searchOutboxIndexer,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        this.searchOutboxIndexer = searchOutboxIndexer;
+        this.entityManager = entityManager;
+        this.batchSize = applicationProperties.getSearchOutbox().getBatchSize();
+    }
+
+    /**
+     * Queue an entity for indexing.
+     * <p>
+     * The entity is indexed as it is in the database when the entry is drained, or removed from the index if it no
+     * longer exists, so saves and deletes are queued the same way.
+     *
+     * @param entityType the class of the entity.
+     * @param id the id of the entity.
+     */
+    public void enqueue(Class<?> entityType, Long id) {
+        log.debug("Request to queue {} {} for indexing", entityType.getSimpleName(), id);
+        searchOutboxRepository.save(new SearchOutboxEntry(entityType.getSimpleName(), id, Instant.now()));
+        drainAfterCommit();
+    }
+
+    /**
+     * Queue entities of one type for indexing, as {@link #enqueue(Class, Long)} does for each of them.
+     * <p>
+     * The ids are read as they come, and their entries written by batches of the outbox batch size, each with batched
+     * inserts and then detached from the persistence context: the queues of many entities take a bounded memory.
+     *
+     * @param entityType the class of the entity.
+     * @param ids the ids of the entities.
+     * @return the number of entities queued.
+     */
+    public long enqueueAll(Class<?> entityType, Stream<Long> ids) {
+        long enqueued = 0;
+        List<SearchOutboxEntry> batch = new ArrayList<>(batchSize);
+        Iterator<Long> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            batch.add(new SearchOutboxEntry(entityType.getSimpleName(), iterator.next(), Instant.now()));
+            if (batch.size() == batchSize || !iterator.hasNext()) {
+                searchOutboxRepository.saveAll(batch);
+                searchOutboxRepository.flush();
+                batch.forEach(entityManager::detach);
+                enqueued += batch.size();
+                batch.clear();
+            }
+        }
+        if (enqueued > 0) {
+            log.debug("Queued {} {}s for indexing", enqueued, entityType.getSimpleName());
+            drainAfterCommit();
+        }
+        return enqueued;
+    }
+
+    private void drainAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !TransactionSynchronizationManager.hasResource(this)) {
+            // Drain once per transaction, however many entities it changed
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        searchOutboxIndexer.drainAsync();
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(SearchOutboxService.this);
+                    }
+                }
+            );
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.hazelcast.collection.ISet;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.domain.AbstractAuditingEntity;
+import com.onea.sidot.gestioneau.repository.search.SearchIndexRepository;
+import com.onea.sidot.gestioneau.service.dto.ReindexJobDTO;
+import com.onea.sidot.gestioneau.service.dto.ReindexJobDTO.Mode;
+import com.onea.sidot.gestioneau.service.dto.ReindexJobDTO.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service rebuilding the Elasticsearch indices from the database.
+ * <p>
+ * In {@link Mode#FULL} mode, the rows of each entity are read in id order, by batches, and bulk indexed into a new
+ * versioned index; once complete, the alias used by the search repositories is swapped to it atomically. The
+ * entities indexed by the {@link SearchOutboxIndexer} meanwhile are recorded, and indexed again just before and
+ * just after the swap, so that the rebuilt index does not miss the changes made while it was built.
+ * <p>
+ * In {@link Mode#INCREMENTAL} mode, the rows modified since a date are indexed again in place. Only the entities
+ * extending {@link AbstractAuditingEntity} carry a modification date: the other ones are indexed again entirely.
+ * <p>
+ * One job runs at a time on an instance, and an entity cannot be rebuilt by two instances at once.
+ */
+@Service
+public class SearchReindexService {
+
+    static final String REINDEXING_MAP = "search-reindex-running";
+
+    private static final String CHANGED_IDS_SET_PREFIX = "search-reindex-changed-";
+
+    // Renewed after each batch, so that the entity is released if the instance rebuilding it goes down
+    private static final long REINDEXING_LEASE_MINUTES = 10;
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final SearchIndexRepository searchIndexRepository;
+
+    private final Map<String, Class<?>> entityClasses = new TreeMap<>();
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final IMap<String, String> reindexing;
+
+    private final ApplicationProperties.SearchReindex properties;
+
+    private final Map<String, Timer> bulkTimers = new HashMap<>();
+
+    private final Map<String, Counter> indexedCounters = new HashMap<>();
+
+    private final AtomicReference<Job> currentJob = new AtomicReference<>();
+
+    public SearchReindexService(
+        SearchIndexRepository searchIndexRepository,
+        Map<String, ElasticsearchRepository<?, ?>> searchRepositories,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchIndexRepository = searchIndexRepository;
+        Map<String, Class<?>> classesByName = entityManager
+            .getMetamodel()
+            .getEntities()
+            .stream()
+            .collect(Collectors.toMap(EntityType::getName, EntityType::getJavaType));
+        searchRepositories
+            .keySet()
+            .stream()
+            .map(SearchOutboxIndexer::getEntityType)
+            .filter(classesByName::containsKey)
+            .forEach(entityType -> entityClasses.put(entityType, classesByName.get(entityType)));
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.hazelcastInstance = hazelcastInstance;
+        this.reindexing = hazelcastInstance.getMap(REINDEXING_MAP);
+        this.properties = applicationProperties.getSearchReindex();
+        for (String entityType : entityClasses.keySet()) {
+            bulkTimers.put(
+                entityType,
+                Timer
+                    .builder("search.reindex.bulk")
+                    .description("Duration of the Elasticsearch bulk requests of the reindex job")
+                    .tag("entity", entityType)
+                    .register(meterRegistry)
+            );
+            indexedCounters.put(
+                entityType,
+                Counter
+                    .builder("search.reindex.indexed")
+                    .description("Number of documents indexed by the reindex job")
+                    .tag("entity", entityType)
+                    .register(meterRegistry)
+            );
+        }
+    }
+
+    /**
+     * @return the entity types which can be reindexed, in alphabetical order.
+     */
+    public Set<String> getEntityTypes() {
+        return entityClasses.keySet();
+    }
+
+    /**
+     * Start a reindex job on the {@code taskExecutor}.
+     *
+     * @param entityType the entity type to reindex, or {@code null} for all of them.
+     * @param mode the mode of the job.
+     * @param since in {@link Mode#INCREMENTAL} mode, the date from which the modified rows are indexed again, or
+     *              {@code null} to index all the rows again.
+     * @return the new job, or empty if a job is already running on this instance.
+     */
+    public Optional<ReindexJobDTO> start(String entityType, Mode mode, Instant since) {
+        if (entityType != null && !entityClasses.containsKey(entityType)) {
+            throw new IllegalArgumentException("Unknown entity type " + entityType);
+        }
+        log.debug("Request to start a {} reindex of {} since {}", mode, entityType == null ? "all entities" : entityType, since);
+        Job job = new Job(mode, since, entityType == null ? new ArrayList<>(entityClasses.keySet()) : List.of(entityType));
+        Job previousJob = currentJob.get();
+        if ((previousJob != null && previousJob.isRunning()) || !currentJob.compareAndSet(previousJob, job)) {
+            return Optional.empty();
+        }
+        try {
+            taskExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.fail(e);
+        }
+        return Optional.of(job.toDto());
+    }
+
+    /**
+     * @return the running job of this instance, or the last one if none is running.
+     */
+    public Optional<ReindexJobDTO> getCurrentJob() {
+        return Optional.ofNullable(currentJob.get()).map(Job::toDto);
+    }
+
+    /**
+     * Record entities just indexed by the {@link SearchOutboxIndexer}, so that a rebuild of their index running
+     * meanwhile indexes them again.
+     *
+     * @param entityType the entity type.
+     * @param ids the ids of the entities, saved or deleted.
+     */
+    public void recordIndexed(String entityType, Collection<Long> ids) {
+        if (reindexing.containsKey(entityType)) {
+            getChangedIds(entityType).addAll(ids);
+        }
+    }
+
+    void run(Job job) {
+        job.start();
+        try {
+            for (Job.Progress progress : job.entities) {
+                if (job.mode == Mode.FULL) {
+                    rebuild(job, progress);
+                } else {
+                    update(job, progress);
+                }
+            }
+            job.complete();
+        } catch (RuntimeException e) {
+            log.error("Reindex job failed: {}", e.getMessage(), e);
+            job.fail(e);
+        }
+    }
+
+    private void rebuild(Job job, Job.Progress progress) {
+        Class<?> entityClass = entityClasses.get(progress.entityType);
+        String alias = searchIndexRepository.getAlias(entityClass);
+        String indexName = alias + "_" + job.startedDate.toEpochMilli();
+        if (reindexing.putIfAbsent(progress.entityType, indexName, REINDEXING_LEASE_MINUTES, TimeUnit.MINUTES) != null) {
+            throw new IllegalStateException(progress.entityType + " is already being reindexed by another instance");
+        }
+        ISet<Long> changedIds = getChangedIds(progress.entityType);
+        changedIds.clear();
+        boolean swapped = false;
+        try {
+            progress.start(indexName, count(entityClass, null));
+            searchIndexRepository.createIndex(indexName, entityClass);
+            index(progress, entityClass, null, indexName);
+            indexAgain(progress, entityClass, changedIds, indexName);
+            searchIndexRepository.finishBulkLoad(indexName, entityClass);
+            searchIndexRepository.swapAlias(alias, indexName);
+            swapped = true;
+            // The entities indexed in the previous index since the last pass
+            indexAgain(progress, entityClass, changedIds, alias);
+            progress.complete();
+            log.info("Rebuilt the {} index with {} documents in {}", alias, progress.indexed.get(), indexName);
+        } finally {
+            reindexing.remove(progress.entityType);
+            changedIds.destroy();
+            if (!swapped) {
+                deleteQuietly(indexName);
+            }
+        }
+    }
+
+    private void update(Job job, Job.Progress progress) {
+        Class<?> entityClass = entityClasses.get(progress.entityType);
+        Instant since = AbstractAuditingEntity.class.isAssignableFrom(entityClass) ? job.since : null;
+        String alias = searchIndexRepository.getAlias(entityClass);
+        progress.start(alias, count(entityClass, since));
+        index(progress, entityClass, since, alias);
+        progress.complete();
+        log.info("Indexed again {} documents in the {} index", progress.indexed.get(), alias);
+    }
+
+    private long count(Class<?> entityClass, Instant since) {
+        String jpql =
+            "select count(entity) from " + fromClause(entityClass) + (since == null ? "" : " where entity.lastModifiedDate >= :since");
+        return transactionTemplate.execute(
+            status -> {
+                TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+                if (since != null) {
+                    query.setParameter("since", since);
+                }
+                return query.getSingleResult();
+            }
+        );
+    }
+
+    /**
+     * Index the rows in id order, one batch per read-only transaction so that the persistence context stays small;
+     * the batch is indexed inside the transaction, as its lazy associations are read while it is converted.
+     */
+    private void index(Job.Progress progress, Class<?> entityClass, Instant since, String indexName) {
+        String jpql =
+            "select entity from " +
+            fromClause(entityClass) +
+            " where entity.id > :after" +
+            (since == null ? "" : " and entity.lastModifiedDate >= :since") +
+            " order by entity.id";
+        int batchSize = properties.getBatchSize();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        AtomicLong after = new AtomicLong(Long.MIN_VALUE);
+        int size;
+        do {
+            size =
+                transactionTemplate.execute(
+                    status -> {
+                        TypedQuery<?> query = entityManager
+                            .createQuery(jpql, entityClass)
+                            .setParameter("after", after.get())
+                            .setMaxResults(batchSize);
+                        if (since != null) {
+                            query.setParameter("since", since);
+                        }
+                        List<?> entities = query.getResultList();
+                        if (!entities.isEmpty()) {
+                            bulkIndex(progress, indexName, entities);
+                            after.set((Long) persistenceUnitUtil.getIdentifier(entities.get(entities.size() - 1)));
+                        }
+                        return entities.size();
+                    }
+                );
+            if (progress.leased) {
+                reindexing.set(progress.entityType, indexName, REINDEXING_LEASE_MINUTES, TimeUnit.MINUTES);
+            }
+        } while (size == batchSize);
+    }
+
+    private void indexAgain(Job.Progress progress, Class<?> entityClass, ISet<Long> changedIds, String indexName) {
+        List<Long> ids = new ArrayList<>(changedIds);
+        changedIds.removeAll(ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.debug("Indexing again {} {} entities changed during the reindex", ids.size(), progress.entityType);
+        String jpql = "select entity from " + fromClause(entityClass) + " where entity.id in :ids";
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        int batchSize = properties.getBatchSize();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            Set<Long> batchIds = new HashSet<>(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    List<?> entities = entityManager.createQuery(jpql, entityClass).setParameter("ids", batchIds).getResultList();
+                    if (!entities.isEmpty()) {
+                        bulkIndex(progress, indexName, entities);
+                    }
+                    // The entities which are not in the database anymore were deleted
+                    entities.forEach(entity -> batchIds.remove((Long) persistenceUnitUtil.getIdentifier(entity)));
+                    if (!batchIds.isEmpty()) {
+                        searchIndexRepository.delete(indexName, batchIds);
+                    }
+                }
+            );
+        }
+    }
+
+    private void bulkIndex(Job.Progress progress, String indexName, List<?> entities) {
+        bulkTimers.get(progress.entityType).record(() -> searchIndexRepository.bulkIndex(indexName, entities));
+        indexedCounters.get(progress.entityType).increment(entities.size());
+        progress.indexed.addAndGet(entities.size());
+    }
+
+    private void deleteQuietly(String indexName) {
+        try {
+            searchIndexRepository.deleteIndex(indexName);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the incomplete index {}: {}", indexName, e.getMessage());
+        }
+    }
+
+    private ISet<Long> getChangedIds(String entityType) {
+        return hazelcastInstance.getSet(CHANGED_IDS_SET_PREFIX + entityType);
+    }
+
+    private static String fromClause(Class<?> entityClass) {
+        return entityClass.getSimpleName() + " entity";
+    }
+
+    /**
+     * The mutable state of a job, read concurrently by the progress endpoint.
+     */
+    static final class Job {
+
+        private final Mode mode;
+
+        private final Instant since;
+
+        private final List<Progress> entities;
+
+        private volatile Status status = Status.PENDING;
+
+        private volatile Instant startedDate;
+
+        private volatile Instant finishedDate;
+
+        private volatile String error;
+
+        Job(Mode mode, Instant since, List<String> entityTypes) {
+            this.mode = mode;
+            this.since = since;
+            this.entities =
+                entityTypes.stream().map(entityType -> new Progress(entityType, mode == Mode.FULL)).collect(Collectors.toList());
+        }
+
+        boolean isRunning() {
+            return status == Status.PENDING || status == Status.RUNNING;
+        }
+
+        void start() {
+            startedDate = Instant.now();
+            status = Status.RUNNING;
+        }
+
+        void complete() {
+            finishedDate = Instant.now();
+            status = Status.COMPLETED;
+        }
+
+        void fail(Exception e) {
+            error = e.getMessage();
+            finishedDate = Instant.now();
+            entities.stream().filter(progress -> progress.status == Status.RUNNING).forEach(progress -> progress.status = Status.FAILED);
+            status = Status.FAILED;
+        }
+
+        ReindexJobDTO toDto() {
+            ReindexJobDTO reindexJobDTO = new ReindexJobDTO();
+            reindexJobDTO.setMode(mode);
+            reindexJobDTO.setSince(since);
+            reindexJobDTO.setStatus(status);
+            reindexJobDTO.setStartedDate(startedDate);
+            reindexJobDTO.setFinishedDate(finishedDate);
+            reindexJobDTO.setError(error);
+            reindexJobDTO.setEntities(entities.stream().map(Progress::toDto).collect(Collectors.toList()));
+            return reindexJobDTO;
+        }
+
+        static final class Progress {
+
+            private final String entityType;
+
+            // Whether the entity is held in the reindexing map while it is processed
+            private final boolean leased;
+
+            private final AtomicLong indexed = new AtomicLong();
+
+            private volatile Status status = Status.PENDING;
+
+            private volatile String indexName;
+
+            private volatile long total;
+
+            private volatile long startedNanos;
+
+            private volatile long finishedNanos;
+
+            Progress(String entityType, boolean leased) {
+                this.entityType = entityType;
+                this.leased = leased;
+            }
+
+            void start(String indexName, long total) {
+                this.indexName = indexName;
+                this.total = total;
+                this.startedNanos = System.nanoTime();
+                this.status = Status.RUNNING;
+            }
+
+            void complete() {
+                finishedNanos = System.nanoTime();
+                status = Status.COMPLETED;
+            }
+
+            ReindexJobDTO.Entity toDto() {
+                ReindexJobDTO.Entity entity = new ReindexJobDTO.Entity();
+                entity.setEntityType(entityType);
+                entity.setIndexName(indexName);
+                entity.setStatus(status);
+                entity.setTotal(total);
+                entity.setIndexed(indexed.get());
+                if (status != Status.PENDING) {
+                    long elapsedNanos = (status == Status.COMPLETED ? finishedNanos : System.nanoTime()) - startedNanos;
+                    entity.setDocumentsPerSecond(elapsedNanos <= 0 ? 0 : indexed.get() * 1e9 / elapsedNanos);
+                }
+                return entity;
+            }
+        }
+    }
+}
@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Secteur;
 import com.onea.sidot.gestioneau.repository.SecteurRepository;
 import com.onea.sidot.gestioneau.repository.search.SecteurSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.SecteurDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.SecteurMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,28 @@ public class SecteurService {
 
     private final SecteurMapper secteurMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final SecteurSearchRepository secteurSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
     public SecteurService(
         SecteurRepository secteurRepository,
         SecteurMapper secteurMapper,
-        SecteurSearchRepository secteurSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        SecteurSearchRepository secteurSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
     ) {
         this.secteurRepository = secteurRepository;
         this.secteurMapper = secteurMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.secteurSearchRepository = secteurSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +65,10 @@ public class SecteurService {
     public SecteurDTO save(SecteurDTO secteurDTO) {
         log.debug("Request to save Secteur : {}", secteurDTO);
         Secteur secteur = secteurMapper.toEntity(secteurDTO);
-        secteur = secteurRepository.save(secteur);
+        secteur = secteurRepository.saveAndFlush(secteur, secteurDTO.getVersion());
         SecteurDTO result = secteurMapper.toDto(secteur);
-        secteurSearchRepository.save(secteur);
+        searchOutboxService.enqueue(Secteur.class, secteur.getId());
+        locationTreeService.invalidate(LocationTree.Level.SECTEUR);
         return result;
     }
 
@@ -72,10 +89,11 @@ public class SecteurService {
                     return existingSecteur;
                 }
             )
-            .map(secteurRepository::save)
+            .map(existingSecteur -> secteurRepository.saveAndFlush(existingSecteur, secteurDTO.getVersion()))
             .map(
                 savedSecteur -> {
-                    secteurSearchRepository.save(savedSecteur);
+                    searchOutboxService.enqueue(Secteur.class, savedSecteur.getId());
+                    locationTreeService.invalidate(LocationTree.Level.SECTEUR);
 
                     return savedSecteur;
                 }
@@ -95,6 +113,31 @@ public class SecteurService {
         return secteurRepository.findAll(pageable).map(secteurMapper::toDto);
     }
 
+    /**
+     * Get the secteurs following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<SecteurDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Secteurs after {}", after);
+        return secteurRepository.findAllAfter(after, pageable).map(secteurMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the secteurs of a localite, in libelle order.
+     *
+     * @param localiteId the id of the localite.
+     * @return the list of secteurs.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllByLocalite(Long localiteId) {
+        log.debug("Request to get the Secteurs of Localite : {}", localiteId);
+        return idLibelleMapper.toDto(secteurRepository.findAllByLocaliteIdOrderByLibelle(localiteId));
+    }
+
     /**
      * Get one secteur by id.
      *
@@ -115,7 +158,8 @@ public class SecteurService {
     public void delete(Long id) {
         log.debug("Request to delete Secteur : {}", id);
         secteurRepository.deleteById(id);
-        secteurSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Secteur.class, id);
+        locationTreeService.invalidate(LocationTree.Level.SECTEUR);
     }
 
     /**
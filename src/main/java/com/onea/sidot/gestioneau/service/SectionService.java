@@ -5,13 +5,17 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.onea.sidot.gestioneau.domain.Section;
 import com.onea.sidot.gestioneau.repository.SectionRepository;
 import com.onea.sidot.gestioneau.repository.search.SectionSearchRepository;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.SectionDTO;
+import com.onea.sidot.gestioneau.service.mapper.IdLibelleMapper;
 import com.onea.sidot.gestioneau.service.mapper.SectionMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,16 +32,28 @@ public class SectionService {
 
     private final SectionMapper sectionMapper;
 
+    private final IdLibelleMapper idLibelleMapper;
+
     private final SectionSearchRepository sectionSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final LocationTreeService locationTreeService;
+
     public SectionService(
         SectionRepository sectionRepository,
         SectionMapper sectionMapper,
-        SectionSearchRepository sectionSearchRepository
+        IdLibelleMapper idLibelleMapper,
+        SectionSearchRepository sectionSearchRepository,
+        LocationTreeService locationTreeService,
+        SearchOutboxService searchOutboxService
     ) {
         this.sectionRepository = sectionRepository;
         this.sectionMapper = sectionMapper;
+        this.idLibelleMapper = idLibelleMapper;
         this.sectionSearchRepository = sectionSearchRepository;
+        this.locationTreeService = locationTreeService;
+        this.searchOutboxService = searchOutboxService;
     }
 
     /**
@@ -49,9 +65,10 @@ public class SectionService {
     public SectionDTO save(SectionDTO sectionDTO) {
         log.debug("Request to save Section : {}", sectionDTO);
         Section section = sectionMapper.toEntity(sectionDTO);
-        section = sectionRepository.save(section);
+        section = sectionRepository.saveAndFlush(section, sectionDTO.getVersion());
         SectionDTO result = sectionMapper.toDto(section);
-        sectionSearchRepository.save(section);
+        searchOutboxService.enqueue(Section.class, section.getId());
+        locationTreeService.invalidate(LocationTree.Level.SECTION);
         return result;
     }
 
@@ -72,10 +89,11 @@ public class SectionService {
                     return existingSection;
                 }
             )
-            .map(sectionRepository::save)
+            .map(existingSection -> sectionRepository.saveAndFlush(existingSection, sectionDTO.getVersion()))
             .map(
                 savedSection -> {
-                    sectionSearchRepository.save(savedSection);
+                    searchOutboxService.enqueue(Section.class, savedSection.getId());
+                    locationTreeService.invalidate(LocationTree.Level.SECTION);
 
                     return savedSection;
                 }
@@ -95,6 +113,31 @@ public class SectionService {
         return sectionRepository.findAll(pageable).map(sectionMapper::toDto);
     }
 
+    /**
+     * Get the sections following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<SectionDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the Sections after {}", after);
+        return sectionRepository.findAllAfter(after, pageable).map(sectionMapper::toDto);
+    }
+
+    /**
+     * Get the id and libelle of the sections of a secteur, in libelle order.
+     *
+     * @param secteurId the id of the secteur.
+     * @return the list of sections.
+     */
+    @Transactional(readOnly = true)
+    public List<IdLibelleDTO> findAllBySecteur(Long secteurId) {
+        log.debug("Request to get the Sections of Secteur : {}", secteurId);
+        return idLibelleMapper.toDto(sectionRepository.findAllBySecteurIdOrderByLibelle(secteurId));
+    }
+
     /**
      * Get one section by id.
      *
@@ -115,7 +158,8 @@ public class SectionService {
     public void delete(Long id) {
         log.debug("Request to delete Section : {}", id);
         sectionRepository.deleteById(id);
-        sectionSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Section.class, id);
+        locationTreeService.invalidate(LocationTree.Level.SECTION);
     }
 
     /**
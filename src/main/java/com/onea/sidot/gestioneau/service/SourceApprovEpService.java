@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.SourceApprovEp;
 import com.onea.sidot.gestioneau.repository.SourceApprovEpRepository;
 import com.onea.sidot.gestioneau.repository.search.SourceApprovEpSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.SourceApprovEpDTO;
 import com.onea.sidot.gestioneau.service.mapper.SourceApprovEpMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class SourceApprovEpService {
 
+    public static final String SOURCE_APPROV_EPS_CACHE = SourceApprovEp.class.getName() + ".all";
+
+    public static final String SOURCE_APPROV_EPS_BY_LIBELLE_CACHE = SourceApprovEp.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(SourceApprovEpService.class);
 
     private final SourceApprovEpRepository sourceApprovEpRepository;
@@ -30,14 +40,22 @@ public class SourceApprovEpService {
 
     private final SourceApprovEpSearchRepository sourceApprovEpSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public SourceApprovEpService(
         SourceApprovEpRepository sourceApprovEpRepository,
         SourceApprovEpMapper sourceApprovEpMapper,
-        SourceApprovEpSearchRepository sourceApprovEpSearchRepository
+        SourceApprovEpSearchRepository sourceApprovEpSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.sourceApprovEpRepository = sourceApprovEpRepository;
         this.sourceApprovEpMapper = sourceApprovEpMapper;
         this.sourceApprovEpSearchRepository = sourceApprovEpSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class SourceApprovEpService {
      * @param sourceApprovEpDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { SOURCE_APPROV_EPS_CACHE, SOURCE_APPROV_EPS_BY_LIBELLE_CACHE }, allEntries = true)
     public SourceApprovEpDTO save(SourceApprovEpDTO sourceApprovEpDTO) {
         log.debug("Request to save SourceApprovEp : {}", sourceApprovEpDTO);
         SourceApprovEp sourceApprovEp = sourceApprovEpMapper.toEntity(sourceApprovEpDTO);
-        sourceApprovEp = sourceApprovEpRepository.save(sourceApprovEp);
+        sourceApprovEp = sourceApprovEpRepository.saveAndFlush(sourceApprovEp, sourceApprovEpDTO.getVersion());
         SourceApprovEpDTO result = sourceApprovEpMapper.toDto(sourceApprovEp);
-        sourceApprovEpSearchRepository.save(sourceApprovEp);
+        searchOutboxService.enqueue(SourceApprovEp.class, sourceApprovEp.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class SourceApprovEpService {
      * @param sourceApprovEpDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { SOURCE_APPROV_EPS_CACHE, SOURCE_APPROV_EPS_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<SourceApprovEpDTO> partialUpdate(SourceApprovEpDTO sourceApprovEpDTO) {
         log.debug("Request to partially update SourceApprovEp : {}", sourceApprovEpDTO);
 
@@ -72,10 +92,10 @@ public class SourceApprovEpService {
                     return existingSourceApprovEp;
                 }
             )
-            .map(sourceApprovEpRepository::save)
+            .map(existingSourceApprovEp -> sourceApprovEpRepository.saveAndFlush(existingSourceApprovEp, sourceApprovEpDTO.getVersion()))
             .map(
                 savedSourceApprovEp -> {
-                    sourceApprovEpSearchRepository.save(savedSourceApprovEp);
+                    searchOutboxService.enqueue(SourceApprovEp.class, savedSourceApprovEp.getId());
 
                     return savedSourceApprovEp;
                 }
@@ -95,6 +115,44 @@ public class SourceApprovEpService {
         return sourceApprovEpRepository.findAll(pageable).map(sourceApprovEpMapper::toDto);
     }
 
+    /**
+     * Get all the sourceApprovEps, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = SOURCE_APPROV_EPS_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<SourceApprovEpDTO> findAll() {
+        log.debug("Request to get all SourceApprovEps");
+        return sourceApprovEpMapper.toDto(sourceApprovEpRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the sourceApprovEps of a libelle, cached until one of the sourceApprovEps is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = SOURCE_APPROV_EPS_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<SourceApprovEpDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the SourceApprovEps of libelle {}", libelle);
+        return sourceApprovEpMapper.toDto(sourceApprovEpRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the sourceApprovEps following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<SourceApprovEpDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the SourceApprovEps after {}", after);
+        return sourceApprovEpRepository.findAllAfter(after, pageable).map(sourceApprovEpMapper::toDto);
+    }
+
     /**
      * Get one sourceApprovEp by id.
      *
@@ -112,10 +170,12 @@ public class SourceApprovEpService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { SOURCE_APPROV_EPS_CACHE, SOURCE_APPROV_EPS_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete SourceApprovEp : {}", id);
         sourceApprovEpRepository.deleteById(id);
-        sourceApprovEpSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(SourceApprovEp.class, id);
+        syncService.recordDeletion(SourceApprovEp.class, id);
     }
 
     /**
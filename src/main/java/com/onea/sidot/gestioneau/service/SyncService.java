@@ -0,0 +1,296 @@
+package com.onea.sidot.gestioneau.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.domain.*;
+import com.onea.sidot.gestioneau.repository.SyncTombstoneRepository;
+import com.onea.sidot.gestioneau.service.mapper.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the delta sync of the field tablets, which keep a copy of the sheets, of their parcelles and lots, and
+ * of the reference data.
+ * <p>
+ * A sync sends, as newline-delimited JSON, the rows deleted and the rows created or modified since a token, and ends
+ * with the token of the next sync:
+ * <pre>
+ * {"op":"reset"}                                   only for a full sync, the copy is to be dropped first
+ * {"type":"Parcelle","op":"delete","id":1051}
+ * {"type":"NatureOuvrage","op":"upsert","data":{...}}
+ * {"op":"end","token":"..."}
+ * </pre>
+ * The deletions come first, from the sheets down to the reference data, then the rows from the reference data up to
+ * the sheets, so that a row comes after the rows it references. A client moves to the new token only once it read
+ * the {@code end} line, a stream cut short is simply synced again.
+ * <p>
+ * The rows are selected on their modification date, from a little before the token, as a transaction may commit
+ * after a sync which started later than its changes: the rows of the overlap are sent twice, and clients upsert.
+ * The deletions are recorded as {@link SyncTombstone}s by the services, and kept for
+ * {@link ApplicationProperties.Sync#getTombstoneRetentionDays()}: an older token gets a full sync. The changes made
+ * with JPQL or SQL updates do not change the modification date, and are not synced.
+ */
+@Service
+public class SyncService {
+
+    private final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    private final SyncTombstoneRepository syncTombstoneRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Sync properties;
+
+    private final List<SyncedType<?>> syncedTypes;
+
+    public SyncService(
+        SyncTombstoneRepository syncTombstoneRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        AnneeMapper anneeMapper,
+        TypeCommuneMapper typeCommuneMapper,
+        NatureOuvrageMapper natureOuvrageMapper,
+        TypeHabitationMapper typeHabitationMapper,
+        SourceApprovEpMapper sourceApprovEpMapper,
+        ModeEvacuationEauUseeMapper modeEvacuationEauUseeMapper,
+        ModeEvacExcretaMapper modeEvacExcretaMapper,
+        MaconMapper maconMapper,
+        PrefabricantMapper prefabricantMapper,
+        LotMapper lotMapper,
+        ParcelleMapper parcelleMapper,
+        FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper
+    ) {
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getSync();
+        this.syncedTypes =
+            List.of(
+                new SyncedType<>(Annee.class, anneeMapper::toDto, ""),
+                new SyncedType<>(TypeCommune.class, typeCommuneMapper::toDto, ""),
+                new SyncedType<>(NatureOuvrage.class, natureOuvrageMapper::toDto, ""),
+                new SyncedType<>(TypeHabitation.class, typeHabitationMapper::toDto, ""),
+                new SyncedType<>(SourceApprovEp.class, sourceApprovEpMapper::toDto, ""),
+                new SyncedType<>(ModeEvacuationEauUsee.class, modeEvacuationEauUseeMapper::toDto, ""),
+                new SyncedType<>(ModeEvacExcreta.class, modeEvacExcretaMapper::toDto, ""),
+                new SyncedType<>(Macon.class, maconMapper::toDto, ""),
+                new SyncedType<>(Prefabricant.class, prefabricantMapper::toDto, ""),
+                new SyncedType<>(Lot.class, lotMapper::toDto, " left join fetch entity.section"),
+                new SyncedType<>(Parcelle.class, parcelleMapper::toDto, " left join fetch entity.lot"),
+                new SyncedType<>(FicheSuiviOuvrage.class, ficheSuiviOuvrageMapper::toDto, "")
+            );
+    }
+
+    /**
+     * Record the deletion of an entity, in the transaction deleting it.
+     *
+     * @param entityType the class of the entity.
+     * @param id the id of the entity.
+     */
+    @Transactional
+    public void recordDeletion(Class<?> entityType, Long id) {
+        log.debug("Request to record the deletion of {} {} for the sync", entityType.getSimpleName(), id);
+        syncTombstoneRepository.save(new SyncTombstone(entityType.getSimpleName(), id, Instant.now()));
+    }
+
+    /**
+     * Read a sync token.
+     *
+     * @param token the token, as sent at the end of a sync.
+     * @return the date of the sync which sent the token.
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    public static Instant parseToken(String token) {
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(token.trim(), Character.MAX_RADIX));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token " + token, e);
+        }
+    }
+
+    /**
+     * Build a sync token.
+     *
+     * @param date the date the sync started.
+     * @return the token.
+     */
+    public static String getToken(Instant date) {
+        return Long.toString(date.toEpochMilli(), Character.MAX_RADIX);
+    }
+
+    /**
+     * Write the changes since a sync.
+     * <p>
+     * Not transactional: each batch is read in its own short transaction, and written once it is committed, so that no
+     * database connection is held while the client reads the stream.
+     *
+     * @param since the date of the previous sync, from its token, or {@code null} for a full sync.
+     * @param outputStream the stream to write to, it is flushed but not closed.
+     * @throws IOException if the output cannot be written.
+     */
+    public void sync(Instant since, OutputStream outputStream) throws IOException {
+        log.debug("Request to sync the changes since {}", since);
+        Instant now = Instant.now();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        Instant from = null;
+        if (since == null || since.isBefore(now.minus(properties.getTombstoneRetentionDays(), ChronoUnit.DAYS))) {
+            writer.write("{\"op\":\"reset\"}\n");
+        } else {
+            from = since.minusSeconds(properties.getOverlapSeconds());
+            for (int i = syncedTypes.size() - 1; i >= 0; i--) {
+                writeDeletions(writer, syncedTypes.get(i), from);
+            }
+        }
+        for (SyncedType<?> syncedType : syncedTypes) {
+            writeRows(writer, syncedType, from);
+        }
+        writer.write("{\"op\":\"end\",\"token\":\"" + getToken(now) + "\"}\n");
+        writer.flush();
+    }
+
+    private void writeDeletions(Writer writer, SyncedType<?> syncedType, Instant from) throws IOException {
+        PageRequest batch = PageRequest.of(0, properties.getBatchSize());
+        long after = Long.MIN_VALUE;
+        List<SyncTombstone> tombstones;
+        do {
+            long start = after;
+            tombstones = transactionTemplate.execute(status -> syncTombstoneRepository.findAllSince(syncedType.name, from, start, batch));
+            for (SyncTombstone tombstone : tombstones) {
+                writer.write("{\"type\":\"" + syncedType.name + "\",\"op\":\"delete\",\"id\":" + tombstone.getEntityId() + "}\n");
+                after = tombstone.getId();
+            }
+        } while (tombstones.size() == batch.getPageSize());
+    }
+
+    /**
+     * Write the rows in id order, one batch per query and per transaction, so that the memory used does not depend on
+     * the number of rows. The batch is mapped to its DTOs in the transaction, as they read the references.
+     */
+    private <E> void writeRows(Writer writer, SyncedType<E> syncedType, Instant from) throws IOException {
+        String jpql =
+            "select entity from " +
+            syncedType.name +
+            " entity" +
+            syncedType.fetchClause +
+            " where entity.id > :after" +
+            (from == null ? "" : " and entity.lastModifiedDate >= :since") +
+            " order by entity.id";
+        int batchSize = properties.getBatchSize();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        long after = Long.MIN_VALUE;
+        long count = 0;
+        Batch batch;
+        do {
+            long start = after;
+            batch =
+                transactionTemplate.execute(
+                    status -> {
+                        TypedQuery<E> query = entityManager
+                            .createQuery(jpql, syncedType.entityClass)
+                            .setParameter("after", start)
+                            .setMaxResults(batchSize);
+                        if (from != null) {
+                            query.setParameter("since", from);
+                        }
+                        if (syncedType.entityClass == FicheSuiviOuvrage.class) {
+                            query.setHint(
+                                "javax.persistence.fetchgraph",
+                                entityManager.getEntityGraph(FicheSuiviOuvrage.WITH_REFERENCES_GRAPH)
+                            );
+                        }
+                        List<E> entities = query.getResultList();
+                        List<Object> dtos = new ArrayList<>(entities.size());
+                        entities.forEach(entity -> dtos.add(syncedType.toDto.apply(entity)));
+                        Long last = entities.isEmpty() ? null : (Long) persistenceUnitUtil.getIdentifier(entities.get(entities.size() - 1));
+                        return new Batch(dtos, last);
+                    }
+                );
+            for (Object dto : batch.dtos) {
+                writer.write("{\"type\":\"" + syncedType.name + "\",\"op\":\"upsert\",\"data\":");
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write("}\n");
+            }
+            if (batch.lastId != null) {
+                after = batch.lastId;
+            }
+            count += batch.dtos.size();
+            writer.flush();
+        } while (batch.dtos.size() == batchSize);
+        log.debug("Synced {} {} rows", count, syncedType.name);
+    }
+
+    /**
+     * Delete the deletions older than the retention, once a day.
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    @Transactional
+    public void purgeTombstones() {
+        Instant before = Instant.now().minus(properties.getTombstoneRetentionDays(), ChronoUnit.DAYS);
+        int deleted = syncTombstoneRepository.deleteAllBefore(before);
+        log.debug("Purged {} sync tombstones older than {}", deleted, before);
+    }
+
+    /**
+     * An entity type sent to the tablets, with its DTO mapping and the references its DTO reads.
+     */
+    private static final class SyncedType<E> {
+
+        private final Class<E> entityClass;
+
+        private final String name;
+
+        private final Function<E, Object> toDto;
+
+        private final String fetchClause;
+
+        SyncedType(Class<E> entityClass, Function<E, Object> toDto, String fetchClause) {
+            this.entityClass = entityClass;
+            this.name = entityClass.getSimpleName();
+            this.toDto = toDto;
+            this.fetchClause = fetchClause;
+        }
+    }
+
+    /**
+     * A batch of rows, mapped to their DTOs, and the id of its last row.
+     */
+    private static final class Batch {
+
+        private final List<Object> dtos;
+
+        private final Long lastId;
+
+        Batch(List<Object> dtos, Long lastId) {
+            this.dtos = dtos;
+            this.lastId = lastId;
+        }
+    }
+}
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.TypeCommune;
 import com.onea.sidot.gestioneau.repository.TypeCommuneRepository;
 import com.onea.sidot.gestioneau.repository.search.TypeCommuneSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.TypeCommuneDTO;
 import com.onea.sidot.gestioneau.service.mapper.TypeCommuneMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class TypeCommuneService {
 
+    public static final String TYPE_COMMUNES_CACHE = TypeCommune.class.getName() + ".all";
+
+    public static final String TYPE_COMMUNES_BY_LIBELLE_CACHE = TypeCommune.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(TypeCommuneService.class);
 
     private final TypeCommuneRepository typeCommuneRepository;
@@ -30,14 +40,22 @@ public class TypeCommuneService {
 
     private final TypeCommuneSearchRepository typeCommuneSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public TypeCommuneService(
         TypeCommuneRepository typeCommuneRepository,
         TypeCommuneMapper typeCommuneMapper,
-        TypeCommuneSearchRepository typeCommuneSearchRepository
+        TypeCommuneSearchRepository typeCommuneSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.typeCommuneRepository = typeCommuneRepository;
         this.typeCommuneMapper = typeCommuneMapper;
         this.typeCommuneSearchRepository = typeCommuneSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class TypeCommuneService {
      * @param typeCommuneDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { TYPE_COMMUNES_CACHE, TYPE_COMMUNES_BY_LIBELLE_CACHE }, allEntries = true)
     public TypeCommuneDTO save(TypeCommuneDTO typeCommuneDTO) {
         log.debug("Request to save TypeCommune : {}", typeCommuneDTO);
         TypeCommune typeCommune = typeCommuneMapper.toEntity(typeCommuneDTO);
-        typeCommune = typeCommuneRepository.save(typeCommune);
+        typeCommune = typeCommuneRepository.saveAndFlush(typeCommune, typeCommuneDTO.getVersion());
         TypeCommuneDTO result = typeCommuneMapper.toDto(typeCommune);
-        typeCommuneSearchRepository.save(typeCommune);
+        searchOutboxService.enqueue(TypeCommune.class, typeCommune.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class TypeCommuneService {
      * @param typeCommuneDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { TYPE_COMMUNES_CACHE, TYPE_COMMUNES_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<TypeCommuneDTO> partialUpdate(TypeCommuneDTO typeCommuneDTO) {
         log.debug("Request to partially update TypeCommune : {}", typeCommuneDTO);
 
@@ -72,10 +92,10 @@ public class TypeCommuneService {
                     return existingTypeCommune;
                 }
             )
-            .map(typeCommuneRepository::save)
+            .map(existingTypeCommune -> typeCommuneRepository.saveAndFlush(existingTypeCommune, typeCommuneDTO.getVersion()))
             .map(
                 savedTypeCommune -> {
-                    typeCommuneSearchRepository.save(savedTypeCommune);
+                    searchOutboxService.enqueue(TypeCommune.class, savedTypeCommune.getId());
 
                     return savedTypeCommune;
                 }
@@ -95,6 +115,44 @@ public class TypeCommuneService {
         return typeCommuneRepository.findAll(pageable).map(typeCommuneMapper::toDto);
     }
 
+    /**
+     * Get all the typeCommunes, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TYPE_COMMUNES_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<TypeCommuneDTO> findAll() {
+        log.debug("Request to get all TypeCommunes");
+        return typeCommuneMapper.toDto(typeCommuneRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the typeCommunes of a libelle, cached until one of the typeCommunes is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TYPE_COMMUNES_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<TypeCommuneDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the TypeCommunes of libelle {}", libelle);
+        return typeCommuneMapper.toDto(typeCommuneRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the typeCommunes following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TypeCommuneDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the TypeCommunes after {}", after);
+        return typeCommuneRepository.findAllAfter(after, pageable).map(typeCommuneMapper::toDto);
+    }
+
     /**
      * Get one typeCommune by id.
      *
@@ -112,10 +170,12 @@ public class TypeCommuneService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { TYPE_COMMUNES_CACHE, TYPE_COMMUNES_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete TypeCommune : {}", id);
         typeCommuneRepository.deleteById(id);
-        typeCommuneSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(TypeCommune.class, id);
+        syncService.recordDeletion(TypeCommune.class, id);
     }
 
     /**
@@ -2,16 +2,22 @@ package com.onea.sidot.gestioneau.service;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.config.CacheGenerationKeyGenerator;
 import com.onea.sidot.gestioneau.domain.TypeHabitation;
 import com.onea.sidot.gestioneau.repository.TypeHabitationRepository;
 import com.onea.sidot.gestioneau.repository.search.TypeHabitationSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.TypeHabitationDTO;
 import com.onea.sidot.gestioneau.service.mapper.TypeHabitationMapper;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class TypeHabitationService {
 
+    public static final String TYPE_HABITATIONS_CACHE = TypeHabitation.class.getName() + ".all";
+
+    public static final String TYPE_HABITATIONS_BY_LIBELLE_CACHE = TypeHabitation.class.getName() + ".byLibelle";
+
     private final Logger log = LoggerFactory.getLogger(TypeHabitationService.class);
 
     private final TypeHabitationRepository typeHabitationRepository;
@@ -30,14 +40,22 @@ public class TypeHabitationService {
 
     private final TypeHabitationSearchRepository typeHabitationSearchRepository;
 
+    private final SearchOutboxService searchOutboxService;
+
+    private final SyncService syncService;
+
     public TypeHabitationService(
         TypeHabitationRepository typeHabitationRepository,
         TypeHabitationMapper typeHabitationMapper,
-        TypeHabitationSearchRepository typeHabitationSearchRepository
+        TypeHabitationSearchRepository typeHabitationSearchRepository,
+        SearchOutboxService searchOutboxService,
+        SyncService syncService
     ) {
         this.typeHabitationRepository = typeHabitationRepository;
         this.typeHabitationMapper = typeHabitationMapper;
         this.typeHabitationSearchRepository = typeHabitationSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.syncService = syncService;
     }
 
     /**
@@ -46,12 +64,13 @@ public class TypeHabitationService {
      * @param typeHabitationDTO the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { TYPE_HABITATIONS_CACHE, TYPE_HABITATIONS_BY_LIBELLE_CACHE }, allEntries = true)
     public TypeHabitationDTO save(TypeHabitationDTO typeHabitationDTO) {
         log.debug("Request to save TypeHabitation : {}", typeHabitationDTO);
         TypeHabitation typeHabitation = typeHabitationMapper.toEntity(typeHabitationDTO);
-        typeHabitation = typeHabitationRepository.save(typeHabitation);
+        typeHabitation = typeHabitationRepository.saveAndFlush(typeHabitation, typeHabitationDTO.getVersion());
         TypeHabitationDTO result = typeHabitationMapper.toDto(typeHabitation);
-        typeHabitationSearchRepository.save(typeHabitation);
+        searchOutboxService.enqueue(TypeHabitation.class, typeHabitation.getId());
         return result;
     }
 
@@ -61,6 +80,7 @@ public class TypeHabitationService {
      * @param typeHabitationDTO the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = { TYPE_HABITATIONS_CACHE, TYPE_HABITATIONS_BY_LIBELLE_CACHE }, allEntries = true)
     public Optional<TypeHabitationDTO> partialUpdate(TypeHabitationDTO typeHabitationDTO) {
         log.debug("Request to partially update TypeHabitation : {}", typeHabitationDTO);
 
@@ -72,10 +92,10 @@ public class TypeHabitationService {
                     return existingTypeHabitation;
                 }
             )
-            .map(typeHabitationRepository::save)
+            .map(existingTypeHabitation -> typeHabitationRepository.saveAndFlush(existingTypeHabitation, typeHabitationDTO.getVersion()))
             .map(
                 savedTypeHabitation -> {
-                    typeHabitationSearchRepository.save(savedTypeHabitation);
+                    searchOutboxService.enqueue(TypeHabitation.class, savedTypeHabitation.getId());
 
                     return savedTypeHabitation;
                 }
@@ -95,6 +115,44 @@ public class TypeHabitationService {
         return typeHabitationRepository.findAll(pageable).map(typeHabitationMapper::toDto);
     }
 
+    /**
+     * Get all the typeHabitations, cached until one of them is changed.
+     *
+     * @return the list of entities, ordered by libelle.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TYPE_HABITATIONS_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<TypeHabitationDTO> findAll() {
+        log.debug("Request to get all TypeHabitations");
+        return typeHabitationMapper.toDto(typeHabitationRepository.findAll(Sort.by("libelle", "id")));
+    }
+
+    /**
+     * Get the typeHabitations of a libelle, cached until one of the typeHabitations is changed.
+     *
+     * @param libelle the libelle of the entities.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TYPE_HABITATIONS_BY_LIBELLE_CACHE, keyGenerator = CacheGenerationKeyGenerator.NAME)
+    public List<TypeHabitationDTO> findAllByLibelle(String libelle) {
+        log.debug("Request to get the TypeHabitations of libelle {}", libelle);
+        return typeHabitationMapper.toDto(typeHabitationRepository.findAllByLibelleOrderById(libelle));
+    }
+
+    /**
+     * Get the typeHabitations following the given id, without counting them.
+     *
+     * @param after the id after which to start, or {@code null} to start from the first one.
+     * @param pageable the pagination information, only its size is used.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TypeHabitationDTO> findAllAfter(Long after, Pageable pageable) {
+        log.debug("Request to get the TypeHabitations after {}", after);
+        return typeHabitationRepository.findAllAfter(after, pageable).map(typeHabitationMapper::toDto);
+    }
+
     /**
      * Get one typeHabitation by id.
      *
@@ -112,10 +170,12 @@ public class TypeHabitationService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(cacheNames = { TYPE_HABITATIONS_CACHE, TYPE_HABITATIONS_BY_LIBELLE_CACHE }, allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete TypeHabitation : {}", id);
         typeHabitationRepository.deleteById(id);
-        typeHabitationSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(TypeHabitation.class, id);
+        syncService.recordDeletion(TypeHabitation.class, id);
     }
 
     /**
@@ -11,6 +11,8 @@ public class AnneeDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String libelle;
 
@@ -22,6 +24,18 @@ public class AnneeDTO implements Serializable {
         this.id = id;
     }
 
+    /**
+     * @return the version of the entity, which the updates are checked against: a full update needs it, or an
+     * {@code If-Match} header, and a partial update without either is applied to the current version unchecked.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getLibelle() {
         return libelle;
     }
@@ -0,0 +1,104 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-row report returned by the bulk import endpoints.
+ */
+public class BulkImportResultDTO implements Serializable {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED,
+    }
+
+    private int created;
+
+    private int invalid;
+
+    private int failed;
+
+    private final List<Row> rows = new ArrayList<>();
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getTotal() {
+        return rows.size();
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public void addCreated(int index, Long id) {
+        created++;
+        rows.add(new Row(index, Status.CREATED, id, null));
+    }
+
+    public void addInvalid(int index, List<String> errors) {
+        invalid++;
+        rows.add(new Row(index, Status.INVALID, null, errors));
+    }
+
+    public void addFailed(int index, String error) {
+        failed++;
+        rows.add(new Row(index, Status.FAILED, null, List.of(error)));
+    }
+
+    public static class Row implements Serializable {
+
+        private final int index;
+
+        private final Status status;
+
+        private final Long id;
+
+        private final List<String> errors;
+
+        Row(int index, Status status, Long id, List<String> errors) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.errors = errors;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportResultDTO{" +
+            "created=" + getCreated() +
+            ", invalid=" + getInvalid() +
+            ", failed=" + getFailed() +
+            "}";
+    }
+}
@@ -0,0 +1,175 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The works planned by the previsions of a year and a location, compared to the sheets realised per nature d'ouvrage.
+ */
+public class CompletionRateDTO implements Serializable {
+
+    /**
+     * The location level the previsions are grouped by, in addition to their year.
+     */
+    public enum Level {
+        CENTRE,
+        CENTRE_REGROUPEMENT,
+        DIRECTION_REGIONALE,
+        /**
+         * The previsions are grouped by year only.
+         */
+        ANNEE,
+    }
+
+    private IdLibelleDTO annee;
+
+    private IdLibelleDTO location;
+
+    private long nbLatrinePrevu;
+
+    private long nbPuisardPrevu;
+
+    private long nbPublicPrevu;
+
+    private long nbScolairePrevu;
+
+    private List<Realisation> realisations = new ArrayList<>();
+
+    public CompletionRateDTO() {}
+
+    public CompletionRateDTO(IdLibelleDTO annee, IdLibelleDTO location) {
+        this.annee = annee;
+        this.location = location;
+    }
+
+    public IdLibelleDTO getAnnee() {
+        return annee;
+    }
+
+    public void setAnnee(IdLibelleDTO annee) {
+        this.annee = annee;
+    }
+
+    /**
+     * @return the centre, centre de regroupement or direction regionale, depending on the {@link Level}; {@code null}
+     * at the {@link Level#ANNEE} level.
+     */
+    public IdLibelleDTO getLocation() {
+        return location;
+    }
+
+    public void setLocation(IdLibelleDTO location) {
+        this.location = location;
+    }
+
+    public long getNbLatrinePrevu() {
+        return nbLatrinePrevu;
+    }
+
+    public void setNbLatrinePrevu(long nbLatrinePrevu) {
+        this.nbLatrinePrevu = nbLatrinePrevu;
+    }
+
+    public long getNbPuisardPrevu() {
+        return nbPuisardPrevu;
+    }
+
+    public void setNbPuisardPrevu(long nbPuisardPrevu) {
+        this.nbPuisardPrevu = nbPuisardPrevu;
+    }
+
+    public long getNbPublicPrevu() {
+        return nbPublicPrevu;
+    }
+
+    public void setNbPublicPrevu(long nbPublicPrevu) {
+        this.nbPublicPrevu = nbPublicPrevu;
+    }
+
+    public long getNbScolairePrevu() {
+        return nbScolairePrevu;
+    }
+
+    public void setNbScolairePrevu(long nbScolairePrevu) {
+        this.nbScolairePrevu = nbScolairePrevu;
+    }
+
+    public long getNbPrevu() {
+        return nbLatrinePrevu + nbPuisardPrevu + nbPublicPrevu + nbScolairePrevu;
+    }
+
+    public List<Realisation> getRealisations() {
+        return realisations;
+    }
+
+    public void setRealisations(List<Realisation> realisations) {
+        this.realisations = realisations;
+    }
+
+    public long getNbRealise() {
+        return realisations.stream().mapToLong(Realisation::getNbRealise).sum();
+    }
+
+    /**
+     * @return the number of realised sheets over the number of planned works, or {@code null} if no work is planned.
+     */
+    public Double getTauxRealisation() {
+        long nbPrevu = getNbPrevu();
+        return nbPrevu == 0 ? null : (double) getNbRealise() / nbPrevu;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CompletionRateDTO{" +
+            "annee=" + getAnnee() +
+            ", location=" + getLocation() +
+            ", nbPrevu=" + getNbPrevu() +
+            ", nbRealise=" + getNbRealise() +
+            ", realisations=" + getRealisations() +
+            "}";
+    }
+
+    /**
+     * The number of realised sheets of a nature d'ouvrage.
+     */
+    public static class Realisation implements Serializable {
+
+        private IdLibelleDTO natureouvrage;
+
+        private long nbRealise;
+
+        public Realisation() {}
+
+        public Realisation(IdLibelleDTO natureouvrage, long nbRealise) {
+            this.natureouvrage = natureouvrage;
+            this.nbRealise = nbRealise;
+        }
+
+        public IdLibelleDTO getNatureouvrage() {
+            return natureouvrage;
+        }
+
+        public void setNatureouvrage(IdLibelleDTO natureouvrage) {
+            this.natureouvrage = natureouvrage;
+        }
+
+        public long getNbRealise() {
+            return nbRealise;
+        }
+
+        public void setNbRealise(long nbRealise) {
+            this.nbRealise = nbRealise;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Realisation{" +
+                "natureouvrage=" + getNatureouvrage() +
+                ", nbRealise=" + getNbRealise() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The number of {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage} matching a search which have a value of a
+ * facet, as a nature d'ouvrage or a year.
+ */
+public class FacetCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String libelle;
+
+    private long count;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FacetCountDTO{" +
+            "id=" + getId() +
+            ", libelle='" + getLibelle() + "'" +
+            ", count=" + getCount() +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage} of a cell of the map grid, counted per nature
+ * d'ouvrage and placed at their centroid.
+ */
+public class FicheSuiviOuvrageClusterDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private double latitude;
+
+    private double longitude;
+
+    private long count;
+
+    private HashMap<Long, Long> natureouvrages = new HashMap<>();
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    /**
+     * @return the number of sheets of the cell, including the ones without nature d'ouvrage.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    /**
+     * @return the number of sheets of the cell by nature d'ouvrage id.
+     */
+    public Map<Long, Long> getNatureouvrages() {
+        return natureouvrages;
+    }
+
+    public void setNatureouvrages(Map<Long, Long> natureouvrages) {
+        this.natureouvrages = new HashMap<>(natureouvrages);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvrageClusterDTO{" +
+            "latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
+            ", count=" + getCount() +
+            ", natureouvrages=" + getNatureouvrages() +
+            "}";
+    }
+}
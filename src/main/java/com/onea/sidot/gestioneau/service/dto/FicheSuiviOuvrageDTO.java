@@ -12,6 +12,8 @@ public class FicheSuiviOuvrageDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     @NotNull
     private String prjAppuis;
 
@@ -99,6 +101,18 @@ public class FicheSuiviOuvrageDTO implements Serializable {
         this.id = id;
     }
 
+    /**
+     * @return the version of the entity, which the updates are checked against: a full update needs it, or an
+     * {@code If-Match} header, and a partial update without either is applied to the current version unchecked.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPrjAppuis() {
         return prjAppuis;
     }
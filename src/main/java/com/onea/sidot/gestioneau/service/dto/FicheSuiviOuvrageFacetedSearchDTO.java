@@ -0,0 +1,54 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage} search results, with the counts of the facets
+ * over all the results.
+ */
+public class FicheSuiviOuvrageFacetedSearchDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<FicheSuiviOuvrageDTO> content;
+
+    private long totalElements;
+
+    private Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+
+    /**
+     * @return the sheets of the page.
+     */
+    public List<FicheSuiviOuvrageDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<FicheSuiviOuvrageDTO> content) {
+        this.content = content;
+    }
+
+    /**
+     * @return the number of sheets matching the search.
+     */
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * @return the counts of each facet of the set, the most frequent values first.
+     */
+    public Map<String, List<FacetCountDTO>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCountDTO>> facets) {
+        this.facets = facets;
+    }
+}
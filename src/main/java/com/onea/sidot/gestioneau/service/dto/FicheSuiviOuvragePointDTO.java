@@ -0,0 +1,83 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A lightweight DTO placing a {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage} on the map: only its
+ * coordinates and what its marker needs.
+ */
+public class FicheSuiviOuvragePointDTO implements Serializable {
+
+    private Long id;
+
+    private Float latitude;
+
+    private Float longitude;
+
+    private Long natureouvrageId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Float getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Float latitude) {
+        this.latitude = latitude;
+    }
+
+    public Float getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Float longitude) {
+        this.longitude = longitude;
+    }
+
+    public Long getNatureouvrageId() {
+        return natureouvrageId;
+    }
+
+    public void setNatureouvrageId(Long natureouvrageId) {
+        this.natureouvrageId = natureouvrageId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FicheSuiviOuvragePointDTO)) {
+            return false;
+        }
+
+        FicheSuiviOuvragePointDTO ficheSuiviOuvragePointDTO = (FicheSuiviOuvragePointDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, ficheSuiviOuvragePointDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvragePointDTO{" +
+            "id=" + getId() +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
+            ", natureouvrageId=" + getNatureouvrageId() +
+            "}";
+    }
+}
@@ -0,0 +1,285 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Set;
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+
+/**
+ * Typed criteria of a {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage} search; every criterion is
+ * optional, and the given ones must all match.
+ */
+public class FicheSuiviOuvrageSearchCriteriaDTO implements Serializable {
+
+    /**
+     * Full-text search on the name and first name of the beneficiary.
+     */
+    @Size(max = 200)
+    private String beneficiaire;
+
+    @Valid
+    private InstantRange dateDebutTravaux;
+
+    @Valid
+    private InstantRange dateFinTravaux;
+
+    private Set<Long> natureouvrageIds;
+
+    private Set<Long> maconIds;
+
+    private Set<Long> prefabricantIds;
+
+    private Set<Long> centreIds;
+
+    private Set<Long> anneeIds;
+
+    private Set<Long> regionIds;
+
+    private Set<Long> provinceIds;
+
+    private Set<Long> communeIds;
+
+    private Set<Long> localiteIds;
+
+    @Valid
+    private BoundingBox boundingBox;
+
+    public String getBeneficiaire() {
+        return beneficiaire;
+    }
+
+    public void setBeneficiaire(String beneficiaire) {
+        this.beneficiaire = beneficiaire;
+    }
+
+    public InstantRange getDateDebutTravaux() {
+        return dateDebutTravaux;
+    }
+
+    public void setDateDebutTravaux(InstantRange dateDebutTravaux) {
+        this.dateDebutTravaux = dateDebutTravaux;
+    }
+
+    public InstantRange getDateFinTravaux() {
+        return dateFinTravaux;
+    }
+
+    public void setDateFinTravaux(InstantRange dateFinTravaux) {
+        this.dateFinTravaux = dateFinTravaux;
+    }
+
+    public Set<Long> getNatureouvrageIds() {
+        return natureouvrageIds;
+    }
+
+    public void setNatureouvrageIds(Set<Long> natureouvrageIds) {
+        this.natureouvrageIds = natureouvrageIds;
+    }
+
+    public Set<Long> getMaconIds() {
+        return maconIds;
+    }
+
+    public void setMaconIds(Set<Long> maconIds) {
+        this.maconIds = maconIds;
+    }
+
+    public Set<Long> getPrefabricantIds() {
+        return prefabricantIds;
+    }
+
+    public void setPrefabricantIds(Set<Long> prefabricantIds) {
+        this.prefabricantIds = prefabricantIds;
+    }
+
+    public Set<Long> getCentreIds() {
+        return centreIds;
+    }
+
+    public void setCentreIds(Set<Long> centreIds) {
+        this.centreIds = centreIds;
+    }
+
+    public Set<Long> getAnneeIds() {
+        return anneeIds;
+    }
+
+    public void setAnneeIds(Set<Long> anneeIds) {
+        this.anneeIds = anneeIds;
+    }
+
+    public Set<Long> getRegionIds() {
+        return regionIds;
+    }
+
+    public void setRegionIds(Set<Long> regionIds) {
+        this.regionIds = regionIds;
+    }
+
+    public Set<Long> getProvinceIds() {
+        return provinceIds;
+    }
+
+    public void setProvinceIds(Set<Long> provinceIds) {
+        this.provinceIds = provinceIds;
+    }
+
+    public Set<Long> getCommuneIds() {
+        return communeIds;
+    }
+
+    public void setCommuneIds(Set<Long> communeIds) {
+        this.communeIds = communeIds;
+    }
+
+    public Set<Long> getLocaliteIds() {
+        return localiteIds;
+    }
+
+    public void setLocaliteIds(Set<Long> localiteIds) {
+        this.localiteIds = localiteIds;
+    }
+
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    public void setBoundingBox(BoundingBox boundingBox) {
+        this.boundingBox = boundingBox;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FicheSuiviOuvrageSearchCriteriaDTO{" +
+            "beneficiaire='" + getBeneficiaire() + "'" +
+            ", dateDebutTravaux=" + getDateDebutTravaux() +
+            ", dateFinTravaux=" + getDateFinTravaux() +
+            ", natureouvrageIds=" + getNatureouvrageIds() +
+            ", maconIds=" + getMaconIds() +
+            ", prefabricantIds=" + getPrefabricantIds() +
+            ", centreIds=" + getCentreIds() +
+            ", anneeIds=" + getAnneeIds() +
+            ", regionIds=" + getRegionIds() +
+            ", provinceIds=" + getProvinceIds() +
+            ", communeIds=" + getCommuneIds() +
+            ", localiteIds=" + getLocaliteIds() +
+            ", boundingBox=" + getBoundingBox() +
+            "}";
+    }
+
+    /**
+     * A range of dates, both bounds included; a missing bound leaves the range open on that side.
+     */
+    public static class InstantRange implements Serializable {
+
+        private Instant from;
+
+        private Instant to;
+
+        public Instant getFrom() {
+            return from;
+        }
+
+        public void setFrom(Instant from) {
+            this.from = from;
+        }
+
+        public Instant getTo() {
+            return to;
+        }
+
+        public void setTo(Instant to) {
+            this.to = to;
+        }
+
+        @AssertTrue(message = "from must not be after to")
+        private boolean isOrdered() {
+            return from == null || to == null || !from.isAfter(to);
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "InstantRange{" +
+                "from='" + getFrom() + "'" +
+                ", to='" + getTo() + "'" +
+                "}";
+        }
+    }
+
+    /**
+     * A geographic bounding box, in decimal degrees.
+     */
+    public static class BoundingBox implements Serializable {
+
+        @NotNull
+        @DecimalMin("-90")
+        @DecimalMax("90")
+        private Float top;
+
+        @NotNull
+        @DecimalMin("-180")
+        @DecimalMax("180")
+        private Float left;
+
+        @NotNull
+        @DecimalMin("-90")
+        @DecimalMax("90")
+        private Float bottom;
+
+        @NotNull
+        @DecimalMin("-180")
+        @DecimalMax("180")
+        private Float right;
+
+        public Float getTop() {
+            return top;
+        }
+
+        public void setTop(Float top) {
+            this.top = top;
+        }
+
+        public Float getLeft() {
+            return left;
+        }
+
+        public void setLeft(Float left) {
+            this.left = left;
+        }
+
+        public Float getBottom() {
+            return bottom;
+        }
+
+        public void setBottom(Float bottom) {
+            this.bottom = bottom;
+        }
+
+        public Float getRight() {
+            return right;
+        }
+
+        public void setRight(Float right) {
+            this.right = right;
+        }
+
+        @AssertTrue(message = "bottom must not be above top")
+        private boolean isOrdered() {
+            return top == null || bottom == null || bottom <= top;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "BoundingBox{" +
+                "top=" + getTop() +
+                ", left=" + getLeft() +
+                ", bottom=" + getBottom() +
+                ", right=" + getRight() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A projection of a reference entity on its id and libelle, as needed to fill a dropdown.
+ * <p>
+ * Mapped from the {@link com.onea.sidot.gestioneau.repository.IdLibelle} projection of the repository queries, which
+ * then only select these two columns, or built from the columns of a wider query.
+ */
+public class IdLibelleDTO implements Serializable {
+
+    private final Long id;
+
+    private final String libelle;
+
+    public IdLibelleDTO(Long id, String libelle) {
+        this.id = id;
+        this.libelle = libelle;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdLibelleDTO)) {
+            return false;
+        }
+
+        IdLibelleDTO idLibelleDTO = (IdLibelleDTO) o;
+        return Objects.equals(this.id, idLibelleDTO.id) && Objects.equals(this.libelle, idLibelleDTO.libelle);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.libelle);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IdLibelleDTO{" +
+            "id=" + getId() +
+            ", libelle='" + getLibelle() + "'" +
+            "}";
+    }
+}
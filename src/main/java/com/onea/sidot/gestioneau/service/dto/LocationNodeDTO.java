@@ -0,0 +1,74 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.onea.sidot.gestioneau.service.LocationTree;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A node of the location tree, with its children when they were requested.
+ */
+public class LocationNodeDTO implements Serializable {
+
+    private Long id;
+
+    private LocationTree.Level level;
+
+    private String libelle;
+
+    private int childCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<LocationNodeDTO> children;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocationTree.Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(LocationTree.Level level) {
+        this.level = level;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public void setChildCount(int childCount) {
+        this.childCount = childCount;
+    }
+
+    public List<LocationNodeDTO> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<LocationNodeDTO> children) {
+        this.children = children;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LocationNodeDTO{" +
+            "id=" + getId() +
+            ", level='" + getLevel() + "'" +
+            ", libelle='" + getLibelle() + "'" +
+            ", childCount=" + getChildCount() +
+            "}";
+    }
+}
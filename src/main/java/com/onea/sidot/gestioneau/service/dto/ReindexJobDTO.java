@@ -0,0 +1,193 @@
+package com.onea.sidot.gestioneau.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of an Elasticsearch reindex job, returned by the reindex endpoints.
+ */
+public class ReindexJobDTO implements Serializable {
+
+    public enum Mode {
+        /**
+         * Rebuild each index aside from the database and swap it in once complete.
+         */
+        FULL,
+        /**
+         * Index again, in place, the rows modified since a date.
+         */
+        INCREMENTAL,
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private Mode mode;
+
+    private Instant since;
+
+    private Status status;
+
+    private Instant startedDate;
+
+    private Instant finishedDate;
+
+    private String error;
+
+    private List<Entity> entities = new ArrayList<>();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public void setSince(Instant since) {
+        this.since = since;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Instant startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    public void setFinishedDate(Instant finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<Entity> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<Entity> entities) {
+        this.entities = entities;
+    }
+
+    @Override
+    public String toString() {
+        return "ReindexJobDTO{" +
+            "mode=" + getMode() +
+            ", since='" + getSince() + "'" +
+            ", status=" + getStatus() +
+            ", startedDate='" + getStartedDate() + "'" +
+            ", finishedDate='" + getFinishedDate() + "'" +
+            ", error='" + getError() + "'" +
+            ", entities=" + getEntities() +
+            "}";
+    }
+
+    /**
+     * Progress of the reindex of one entity type.
+     */
+    public static class Entity implements Serializable {
+
+        private String entityType;
+
+        private String indexName;
+
+        private Status status;
+
+        private long total;
+
+        private long indexed;
+
+        private double documentsPerSecond;
+
+        public String getEntityType() {
+            return entityType;
+        }
+
+        public void setEntityType(String entityType) {
+            this.entityType = entityType;
+        }
+
+        /**
+         * @return the index written to: the new versioned index in {@link Mode#FULL} mode, the live one otherwise.
+         */
+        public String getIndexName() {
+            return indexName;
+        }
+
+        public void setIndexName(String indexName) {
+            this.indexName = indexName;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public long getIndexed() {
+            return indexed;
+        }
+
+        public void setIndexed(long indexed) {
+            this.indexed = indexed;
+        }
+
+        public double getDocumentsPerSecond() {
+            return documentsPerSecond;
+        }
+
+        public void setDocumentsPerSecond(double documentsPerSecond) {
+            this.documentsPerSecond = documentsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "Entity{" +
+                "entityType='" + getEntityType() + "'" +
+                ", indexName='" + getIndexName() + "'" +
+                ", status=" + getStatus() +
+                ", total=" + getTotal() +
+                ", indexed=" + getIndexed() +
+                "}";
+        }
+    }
+}
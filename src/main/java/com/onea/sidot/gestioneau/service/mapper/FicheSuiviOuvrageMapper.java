@@ -2,6 +2,7 @@ package com.onea.sidot.gestioneau.service.mapper;
 
 import com.onea.sidot.gestioneau.domain.*;
 import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvragePointDTO;
 import org.mapstruct.*;
 
 /**
@@ -32,4 +33,7 @@ public interface FicheSuiviOuvrageMapper extends EntityMapper<FicheSuiviOuvrageD
     @Mapping(target = "macon", source = "macon", qualifiedByName = "libelle")
     @Mapping(target = "prefabricant", source = "prefabricant", qualifiedByName = "libelle")
     FicheSuiviOuvrageDTO toDto(FicheSuiviOuvrage s);
+
+    @Mapping(target = "natureouvrageId", source = "natureouvrage.id")
+    FicheSuiviOuvragePointDTO toPointDto(FicheSuiviOuvrage s);
 }
@@ -0,0 +1,16 @@
+package com.onea.sidot.gestioneau.service.mapper;
+
+import com.onea.sidot.gestioneau.repository.IdLibelle;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
+import java.util.List;
+import org.mapstruct.*;
+
+/**
+ * Mapper for the projection {@link IdLibelle} and its DTO {@link IdLibelleDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface IdLibelleMapper {
+    IdLibelleDTO toDto(IdLibelle idLibelle);
+
+    List<IdLibelleDTO> toDto(List<IdLibelle> idLibelleList);
+}
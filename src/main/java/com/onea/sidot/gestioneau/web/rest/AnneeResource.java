@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Annee;
 import com.onea.sidot.gestioneau.repository.AnneeRepository;
 import com.onea.sidot.gestioneau.service.AnneeService;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.dto.AnneeDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,7 +24,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -46,9 +49,12 @@ public class AnneeResource {
 
     private final AnneeRepository anneeRepository;
 
-    public AnneeResource(AnneeService anneeService, AnneeRepository anneeRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public AnneeResource(AnneeService anneeService, AnneeRepository anneeRepository, EntityVersionService entityVersionService) {
         this.anneeService = anneeService;
         this.anneeRepository = anneeRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +82,20 @@ public class AnneeResource {
      *
      * @param id the id of the anneeDTO to save.
      * @param anneeDTO the anneeDTO to update.
+     * @param ifMatch the ETag of the anneeDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated anneeDTO,
      * or with status {@code 400 (Bad Request)} if the anneeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the annee has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the anneeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/annees/{id}")
     public ResponseEntity<AnneeDTO> updateAnnee(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody AnneeDTO anneeDTO
+        @Valid @RequestBody AnneeDTO anneeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Annee : {}, {}", id, anneeDTO);
         if (anneeDTO.getId() == null) {
@@ -97,6 +108,7 @@ public class AnneeResource {
         if (!anneeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        anneeDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, anneeDTO.getVersion(), ENTITY_NAME));
 
         AnneeDTO result = anneeService.save(anneeDTO);
         return ResponseEntity
@@ -110,8 +122,11 @@ public class AnneeResource {
      *
      * @param id the id of the anneeDTO to save.
      * @param anneeDTO the anneeDTO to update.
+     * @param ifMatch the ETag of the anneeDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated anneeDTO,
      * or with status {@code 400 (Bad Request)} if the anneeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the annee has changed since it was read,
      * or with status {@code 404 (Not Found)} if the anneeDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the anneeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +134,8 @@ public class AnneeResource {
     @PatchMapping(value = "/annees/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<AnneeDTO> partialUpdateAnnee(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody AnneeDTO anneeDTO
+        @NotNull @RequestBody AnneeDTO anneeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Annee partially : {}, {}", id, anneeDTO);
         if (anneeDTO.getId() == null) {
@@ -132,6 +148,7 @@ public class AnneeResource {
         if (!anneeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(anneeDTO::setVersion);
 
         Optional<AnneeDTO> result = anneeService.partialUpdate(anneeDTO);
 
@@ -146,31 +163,83 @@ public class AnneeResource {
      *
      * @param pageable the pagination information.
      * @param filter the filter of the request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of annees in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of annees in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/annees")
-    public ResponseEntity<List<AnneeDTO>> getAllAnnees(Pageable pageable, @RequestParam(required = false) String filter) {
+    public ResponseEntity<List<AnneeDTO>> getAllAnnees(
+        Pageable pageable,
+        @RequestParam(required = false) String filter,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Annee.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
         if ("prevision-is-null".equals(filter)) {
             log.debug("REST request to get all Annees where prevision is null");
-            return new ResponseEntity<>(anneeService.findAllWherePrevisionIsNull(), HttpStatus.OK);
+            return ResponseEntity.ok().eTag(tableTag).body(anneeService.findAllWherePrevisionIsNull());
         }
-        log.debug("REST request to get a page of Annees");
-        Page<AnneeDTO> page = anneeService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        log.debug("REST request to get the Annees after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            anneeService::findAllAfter,
+            anneeService::findAll,
+            AnneeDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /annees/_all} : get all the annees, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the annees to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of annees in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/annees/_all")
+    public ResponseEntity<List<AnneeDTO>> getAllAnneesUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all Annees of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(Annee.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<AnneeDTO> annees = libelle == null ? anneeService.findAll() : anneeService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(annees);
     }
 
     /**
      * {@code GET  /annees/:id} : get the "id" annee.
      *
      * @param id the id of the anneeDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the anneeDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the anneeDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the anneeDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/annees/{id}")
-    public ResponseEntity<AnneeDTO> getAnnee(@PathVariable Long id) {
+    public ResponseEntity<AnneeDTO> getAnnee(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Annee : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Annee.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<AnneeDTO> anneeDTO = anneeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(anneeDTO);
+        return EntityTagUtil.wrapOrNotFound(anneeDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
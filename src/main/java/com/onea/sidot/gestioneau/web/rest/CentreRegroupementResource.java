@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.CentreRegroupement;
 import com.onea.sidot.gestioneau.repository.CentreRegroupementRepository;
 import com.onea.sidot.gestioneau.service.CentreRegroupementService;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.dto.CentreRegroupementDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,12 +50,16 @@ public class CentreRegroupementResource {
 
     private final CentreRegroupementRepository centreRegroupementRepository;
 
+    private final EntityVersionService entityVersionService;
+
     public CentreRegroupementResource(
         CentreRegroupementService centreRegroupementService,
-        CentreRegroupementRepository centreRegroupementRepository
+        CentreRegroupementRepository centreRegroupementRepository,
+        EntityVersionService entityVersionService
     ) {
         this.centreRegroupementService = centreRegroupementService;
         this.centreRegroupementRepository = centreRegroupementRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -80,15 +88,20 @@ public class CentreRegroupementResource {
      *
      * @param id the id of the centreRegroupementDTO to save.
      * @param centreRegroupementDTO the centreRegroupementDTO to update.
+     * @param ifMatch the ETag of the centreRegroupementDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreRegroupementDTO,
      * or with status {@code 400 (Bad Request)} if the centreRegroupementDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centreRegroupement has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreRegroupementDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/centre-regroupements/{id}")
     public ResponseEntity<CentreRegroupementDTO> updateCentreRegroupement(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody CentreRegroupementDTO centreRegroupementDTO
+        @Valid @RequestBody CentreRegroupementDTO centreRegroupementDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update CentreRegroupement : {}, {}", id, centreRegroupementDTO);
         if (centreRegroupementDTO.getId() == null) {
@@ -101,6 +114,7 @@ public class CentreRegroupementResource {
         if (!centreRegroupementRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        centreRegroupementDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, centreRegroupementDTO.getVersion(), ENTITY_NAME));
 
         CentreRegroupementDTO result = centreRegroupementService.save(centreRegroupementDTO);
         return ResponseEntity
@@ -114,8 +128,11 @@ public class CentreRegroupementResource {
      *
      * @param id the id of the centreRegroupementDTO to save.
      * @param centreRegroupementDTO the centreRegroupementDTO to update.
+     * @param ifMatch the ETag of the centreRegroupementDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreRegroupementDTO,
      * or with status {@code 400 (Bad Request)} if the centreRegroupementDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centreRegroupement has changed since it was read,
      * or with status {@code 404 (Not Found)} if the centreRegroupementDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the centreRegroupementDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,7 +140,8 @@ public class CentreRegroupementResource {
     @PatchMapping(value = "/centre-regroupements/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<CentreRegroupementDTO> partialUpdateCentreRegroupement(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody CentreRegroupementDTO centreRegroupementDTO
+        @NotNull @RequestBody CentreRegroupementDTO centreRegroupementDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update CentreRegroupement partially : {}, {}", id, centreRegroupementDTO);
         if (centreRegroupementDTO.getId() == null) {
@@ -136,6 +154,7 @@ public class CentreRegroupementResource {
         if (!centreRegroupementRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(centreRegroupementDTO::setVersion);
 
         Optional<CentreRegroupementDTO> result = centreRegroupementService.partialUpdate(centreRegroupementDTO);
 
@@ -149,27 +168,55 @@ public class CentreRegroupementResource {
      * {@code GET  /centre-regroupements} : get all the centreRegroupements.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centreRegroupements in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centreRegroupements in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/centre-regroupements")
-    public ResponseEntity<List<CentreRegroupementDTO>> getAllCentreRegroupements(Pageable pageable) {
-        log.debug("REST request to get a page of CentreRegroupements");
-        Page<CentreRegroupementDTO> page = centreRegroupementService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<CentreRegroupementDTO>> getAllCentreRegroupements(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(CentreRegroupement.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the CentreRegroupements after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            centreRegroupementService::findAllAfter,
+            centreRegroupementService::findAll,
+            CentreRegroupementDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
     }
 
     /**
      * {@code GET  /centre-regroupements/:id} : get the "id" centreRegroupement.
      *
      * @param id the id of the centreRegroupementDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreRegroupementDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the centreRegroupementDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreRegroupementDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/centre-regroupements/{id}")
-    public ResponseEntity<CentreRegroupementDTO> getCentreRegroupement(@PathVariable Long id) {
+    public ResponseEntity<CentreRegroupementDTO> getCentreRegroupement(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get CentreRegroupement : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(CentreRegroupement.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<CentreRegroupementDTO> centreRegroupementDTO = centreRegroupementService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(centreRegroupementDTO);
+        return EntityTagUtil.wrapOrNotFound(centreRegroupementDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
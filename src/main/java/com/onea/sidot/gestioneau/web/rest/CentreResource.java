@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Centre;
 import com.onea.sidot.gestioneau.repository.CentreRepository;
 import com.onea.sidot.gestioneau.service.CentreService;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.dto.CentreDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,7 +24,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -46,9 +49,12 @@ public class CentreResource {
 
     private final CentreRepository centreRepository;
 
-    public CentreResource(CentreService centreService, CentreRepository centreRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public CentreResource(CentreService centreService, CentreRepository centreRepository, EntityVersionService entityVersionService) {
         this.centreService = centreService;
         this.centreRepository = centreRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +82,20 @@ public class CentreResource {
      *
      * @param id the id of the centreDTO to save.
      * @param centreDTO the centreDTO to update.
+     * @param ifMatch the ETag of the centreDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreDTO,
      * or with status {@code 400 (Bad Request)} if the centreDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centre has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the centreDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/centres/{id}")
     public ResponseEntity<CentreDTO> updateCentre(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody CentreDTO centreDTO
+        @Valid @RequestBody CentreDTO centreDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Centre : {}, {}", id, centreDTO);
         if (centreDTO.getId() == null) {
@@ -97,6 +108,7 @@ public class CentreResource {
         if (!centreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        centreDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, centreDTO.getVersion(), ENTITY_NAME));
 
         CentreDTO result = centreService.save(centreDTO);
         return ResponseEntity
@@ -110,8 +122,11 @@ public class CentreResource {
      *
      * @param id the id of the centreDTO to save.
      * @param centreDTO the centreDTO to update.
+     * @param ifMatch the ETag of the centreDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated centreDTO,
      * or with status {@code 400 (Bad Request)} if the centreDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the centre has changed since it was read,
      * or with status {@code 404 (Not Found)} if the centreDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the centreDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +134,8 @@ public class CentreResource {
     @PatchMapping(value = "/centres/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<CentreDTO> partialUpdateCentre(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody CentreDTO centreDTO
+        @NotNull @RequestBody CentreDTO centreDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Centre partially : {}, {}", id, centreDTO);
         if (centreDTO.getId() == null) {
@@ -132,6 +148,7 @@ public class CentreResource {
         if (!centreRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(centreDTO::setVersion);
 
         Optional<CentreDTO> result = centreService.partialUpdate(centreDTO);
 
@@ -146,31 +163,60 @@ public class CentreResource {
      *
      * @param pageable the pagination information.
      * @param filter the filter of the request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centres in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of centres in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/centres")
-    public ResponseEntity<List<CentreDTO>> getAllCentres(Pageable pageable, @RequestParam(required = false) String filter) {
+    public ResponseEntity<List<CentreDTO>> getAllCentres(
+        Pageable pageable,
+        @RequestParam(required = false) String filter,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Centre.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
         if ("prevision-is-null".equals(filter)) {
             log.debug("REST request to get all Centres where prevision is null");
-            return new ResponseEntity<>(centreService.findAllWherePrevisionIsNull(), HttpStatus.OK);
+            return ResponseEntity.ok().eTag(tableTag).body(centreService.findAllWherePrevisionIsNull());
         }
-        log.debug("REST request to get a page of Centres");
-        Page<CentreDTO> page = centreService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        log.debug("REST request to get the Centres after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            centreService::findAllAfter,
+            centreService::findAll,
+            CentreDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
     }
 
     /**
      * {@code GET  /centres/:id} : get the "id" centre.
      *
      * @param id the id of the centreDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the centreDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the centreDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/centres/{id}")
-    public ResponseEntity<CentreDTO> getCentre(@PathVariable Long id) {
+    public ResponseEntity<CentreDTO> getCentre(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Centre : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Centre.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<CentreDTO> centreDTO = centreService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(centreDTO);
+        return EntityTagUtil.wrapOrNotFound(centreDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
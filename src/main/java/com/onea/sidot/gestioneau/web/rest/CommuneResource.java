@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Commune;
 import com.onea.sidot.gestioneau.repository.CommuneRepository;
 import com.onea.sidot.gestioneau.service.CommuneService;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.dto.CommuneDTO;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,12 @@ public class CommuneResource {
 
     private final CommuneRepository communeRepository;
 
-    public CommuneResource(CommuneService communeService, CommuneRepository communeRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public CommuneResource(CommuneService communeService, CommuneRepository communeRepository, EntityVersionService entityVersionService) {
         this.communeService = communeService;
         this.communeRepository = communeRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +84,20 @@ public class CommuneResource {
      *
      * @param id the id of the communeDTO to save.
      * @param communeDTO the communeDTO to update.
+     * @param ifMatch the ETag of the communeDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated communeDTO,
      * or with status {@code 400 (Bad Request)} if the communeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the commune has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the communeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/communes/{id}")
     public ResponseEntity<CommuneDTO> updateCommune(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody CommuneDTO communeDTO
+        @Valid @RequestBody CommuneDTO communeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Commune : {}, {}", id, communeDTO);
         if (communeDTO.getId() == null) {
@@ -97,6 +110,7 @@ public class CommuneResource {
         if (!communeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        communeDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, communeDTO.getVersion(), ENTITY_NAME));
 
         CommuneDTO result = communeService.save(communeDTO);
         return ResponseEntity
@@ -110,8 +124,11 @@ public class CommuneResource {
      *
      * @param id the id of the communeDTO to save.
      * @param communeDTO the communeDTO to update.
+     * @param ifMatch the ETag of the communeDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated communeDTO,
      * or with status {@code 400 (Bad Request)} if the communeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the commune has changed since it was read,
      * or with status {@code 404 (Not Found)} if the communeDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the communeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +136,8 @@ public class CommuneResource {
     @PatchMapping(value = "/communes/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<CommuneDTO> partialUpdateCommune(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody CommuneDTO communeDTO
+        @NotNull @RequestBody CommuneDTO communeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Commune partially : {}, {}", id, communeDTO);
         if (communeDTO.getId() == null) {
@@ -132,6 +150,7 @@ public class CommuneResource {
         if (!communeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(communeDTO::setVersion);
 
         Optional<CommuneDTO> result = communeService.partialUpdate(communeDTO);
 
@@ -145,27 +164,76 @@ public class CommuneResource {
      * {@code GET  /communes} : get all the communes.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of communes in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of communes in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/communes")
-    public ResponseEntity<List<CommuneDTO>> getAllCommunes(Pageable pageable) {
-        log.debug("REST request to get a page of Communes");
-        Page<CommuneDTO> page = communeService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<CommuneDTO>> getAllCommunes(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Commune.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Communes after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            communeService::findAllAfter,
+            communeService::findAll,
+            CommuneDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /communes?provinceId=:provinceId} : get the id and libelle of the communes of the "provinceId" province.
+     *
+     * @param provinceId the id of the province.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of communes in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/communes", params = "provinceId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllCommunesByProvince(
+        @RequestParam Long provinceId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Communes of Province : {}", provinceId);
+        String tableTag = entityVersionService.getTableTag(Commune.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(communeService.findAllByProvince(provinceId));
     }
 
     /**
      * {@code GET  /communes/:id} : get the "id" commune.
      *
      * @param id the id of the communeDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the communeDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the communeDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the communeDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/communes/{id}")
-    public ResponseEntity<CommuneDTO> getCommune(@PathVariable Long id) {
+    public ResponseEntity<CommuneDTO> getCommune(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Commune : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Commune.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<CommuneDTO> communeDTO = communeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(communeDTO);
+        return EntityTagUtil.wrapOrNotFound(communeDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.DirectionRegionale;
 import com.onea.sidot.gestioneau.repository.DirectionRegionaleRepository;
 import com.onea.sidot.gestioneau.service.DirectionRegionaleService;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.dto.DirectionRegionaleDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,12 +50,16 @@ public class DirectionRegionaleResource {
 
     private final DirectionRegionaleRepository directionRegionaleRepository;
 
+    private final EntityVersionService entityVersionService;
+
     public DirectionRegionaleResource(
         DirectionRegionaleService directionRegionaleService,
-        DirectionRegionaleRepository directionRegionaleRepository
+        DirectionRegionaleRepository directionRegionaleRepository,
+        EntityVersionService entityVersionService
     ) {
         this.directionRegionaleService = directionRegionaleService;
         this.directionRegionaleRepository = directionRegionaleRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -80,15 +88,20 @@ public class DirectionRegionaleResource {
      *
      * @param id the id of the directionRegionaleDTO to save.
      * @param directionRegionaleDTO the directionRegionaleDTO to update.
+     * @param ifMatch the ETag of the directionRegionaleDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated directionRegionaleDTO,
      * or with status {@code 400 (Bad Request)} if the directionRegionaleDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the directionRegionale has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the directionRegionaleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/direction-regionales/{id}")
     public ResponseEntity<DirectionRegionaleDTO> updateDirectionRegionale(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody DirectionRegionaleDTO directionRegionaleDTO
+        @Valid @RequestBody DirectionRegionaleDTO directionRegionaleDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update DirectionRegionale : {}, {}", id, directionRegionaleDTO);
         if (directionRegionaleDTO.getId() == null) {
@@ -101,6 +114,7 @@ public class DirectionRegionaleResource {
         if (!directionRegionaleRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        directionRegionaleDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, directionRegionaleDTO.getVersion(), ENTITY_NAME));
 
         DirectionRegionaleDTO result = directionRegionaleService.save(directionRegionaleDTO);
         return ResponseEntity
@@ -114,8 +128,11 @@ public class DirectionRegionaleResource {
      *
      * @param id the id of the directionRegionaleDTO to save.
      * @param directionRegionaleDTO the directionRegionaleDTO to update.
+     * @param ifMatch the ETag of the directionRegionaleDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated directionRegionaleDTO,
      * or with status {@code 400 (Bad Request)} if the directionRegionaleDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the directionRegionale has changed since it was read,
      * or with status {@code 404 (Not Found)} if the directionRegionaleDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the directionRegionaleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,7 +140,8 @@ public class DirectionRegionaleResource {
     @PatchMapping(value = "/direction-regionales/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<DirectionRegionaleDTO> partialUpdateDirectionRegionale(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody DirectionRegionaleDTO directionRegionaleDTO
+        @NotNull @RequestBody DirectionRegionaleDTO directionRegionaleDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update DirectionRegionale partially : {}, {}", id, directionRegionaleDTO);
         if (directionRegionaleDTO.getId() == null) {
@@ -136,6 +154,7 @@ public class DirectionRegionaleResource {
         if (!directionRegionaleRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(directionRegionaleDTO::setVersion);
 
         Optional<DirectionRegionaleDTO> result = directionRegionaleService.partialUpdate(directionRegionaleDTO);
 
@@ -149,27 +168,55 @@ public class DirectionRegionaleResource {
      * {@code GET  /direction-regionales} : get all the directionRegionales.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of directionRegionales in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of directionRegionales in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/direction-regionales")
-    public ResponseEntity<List<DirectionRegionaleDTO>> getAllDirectionRegionales(Pageable pageable) {
-        log.debug("REST request to get a page of DirectionRegionales");
-        Page<DirectionRegionaleDTO> page = directionRegionaleService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<DirectionRegionaleDTO>> getAllDirectionRegionales(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(DirectionRegionale.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the DirectionRegionales after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            directionRegionaleService::findAllAfter,
+            directionRegionaleService::findAll,
+            DirectionRegionaleDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
     }
 
     /**
      * {@code GET  /direction-regionales/:id} : get the "id" directionRegionale.
      *
      * @param id the id of the directionRegionaleDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the directionRegionaleDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the directionRegionaleDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the directionRegionaleDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/direction-regionales/{id}")
-    public ResponseEntity<DirectionRegionaleDTO> getDirectionRegionale(@PathVariable Long id) {
+    public ResponseEntity<DirectionRegionaleDTO> getDirectionRegionale(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get DirectionRegionale : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(DirectionRegionale.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<DirectionRegionaleDTO> directionRegionaleDTO = directionRegionaleService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(directionRegionaleDTO);
+        return EntityTagUtil.wrapOrNotFound(directionRegionaleDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
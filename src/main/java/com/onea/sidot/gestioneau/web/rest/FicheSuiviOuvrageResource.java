@@ -2,25 +2,44 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
 import com.onea.sidot.gestioneau.repository.FicheSuiviOuvrageRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageClusterService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageExportService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageFacetService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageImportService;
 import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageService;
+import com.onea.sidot.gestioneau.service.dto.BulkImportResultDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageClusterDTO;
 import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageFacetedSearchDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvragePointDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageSearchCriteriaDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -44,14 +63,34 @@ public class FicheSuiviOuvrageResource {
 
     private final FicheSuiviOuvrageService ficheSuiviOuvrageService;
 
+    private final FicheSuiviOuvrageImportService ficheSuiviOuvrageImportService;
+
+    private final FicheSuiviOuvrageExportService ficheSuiviOuvrageExportService;
+
+    private final FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    private final FicheSuiviOuvrageFacetService ficheSuiviOuvrageFacetService;
+
     private final FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
 
+    private final EntityVersionService entityVersionService;
+
     public FicheSuiviOuvrageResource(
         FicheSuiviOuvrageService ficheSuiviOuvrageService,
-        FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository
+        FicheSuiviOuvrageImportService ficheSuiviOuvrageImportService,
+        FicheSuiviOuvrageExportService ficheSuiviOuvrageExportService,
+        FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService,
+        FicheSuiviOuvrageFacetService ficheSuiviOuvrageFacetService,
+        FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository,
+        EntityVersionService entityVersionService
     ) {
         this.ficheSuiviOuvrageService = ficheSuiviOuvrageService;
+        this.ficheSuiviOuvrageImportService = ficheSuiviOuvrageImportService;
+        this.ficheSuiviOuvrageExportService = ficheSuiviOuvrageExportService;
+        this.ficheSuiviOuvrageClusterService = ficheSuiviOuvrageClusterService;
+        this.ficheSuiviOuvrageFacetService = ficheSuiviOuvrageFacetService;
         this.ficheSuiviOuvrageRepository = ficheSuiviOuvrageRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -75,20 +114,48 @@ public class FicheSuiviOuvrageResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /fiche-suivi-ouvrages/_bulk} : Create many new ficheSuiviOuvrages.
+     * <p>
+     * The body is either a JSON array or newline-delimited JSON, and is streamed rather than loaded in memory.
+     *
+     * @param inputStream the ficheSuiviOuvrageDTOs to create.
+     * @param chunkSize the number of rows saved per transaction, defaults to {@code application.bulk.chunk-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the per-row import report.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(
+        value = "/fiche-suivi-ouvrages/_bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public ResponseEntity<BulkImportResultDTO> bulkCreateFicheSuiviOuvrages(
+        InputStream inputStream,
+        @RequestParam(required = false) Integer chunkSize
+    ) throws IOException {
+        log.debug("REST request to bulk save FicheSuiviOuvrages");
+        BulkImportResultDTO result = ficheSuiviOuvrageImportService.importFrom(inputStream, chunkSize);
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * {@code PUT  /fiche-suivi-ouvrages/:id} : Updates an existing ficheSuiviOuvrage.
      *
      * @param id the id of the ficheSuiviOuvrageDTO to save.
      * @param ficheSuiviOuvrageDTO the ficheSuiviOuvrageDTO to update.
+     * @param ifMatch the ETag of the ficheSuiviOuvrageDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ficheSuiviOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the ficheSuiviOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the ficheSuiviOuvrage has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the ficheSuiviOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/fiche-suivi-ouvrages/{id}")
     public ResponseEntity<FicheSuiviOuvrageDTO> updateFicheSuiviOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO
+        @Valid @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update FicheSuiviOuvrage : {}, {}", id, ficheSuiviOuvrageDTO);
         if (ficheSuiviOuvrageDTO.getId() == null) {
@@ -101,6 +168,7 @@ public class FicheSuiviOuvrageResource {
         if (!ficheSuiviOuvrageRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        ficheSuiviOuvrageDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, ficheSuiviOuvrageDTO.getVersion(), ENTITY_NAME));
 
         FicheSuiviOuvrageDTO result = ficheSuiviOuvrageService.save(ficheSuiviOuvrageDTO);
         return ResponseEntity
@@ -114,8 +182,11 @@ public class FicheSuiviOuvrageResource {
      *
      * @param id the id of the ficheSuiviOuvrageDTO to save.
      * @param ficheSuiviOuvrageDTO the ficheSuiviOuvrageDTO to update.
+     * @param ifMatch the ETag of the ficheSuiviOuvrageDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated ficheSuiviOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the ficheSuiviOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the ficheSuiviOuvrage has changed since it was read,
      * or with status {@code 404 (Not Found)} if the ficheSuiviOuvrageDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the ficheSuiviOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,7 +194,8 @@ public class FicheSuiviOuvrageResource {
     @PatchMapping(value = "/fiche-suivi-ouvrages/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<FicheSuiviOuvrageDTO> partialUpdateFicheSuiviOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO
+        @NotNull @RequestBody FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update FicheSuiviOuvrage partially : {}, {}", id, ficheSuiviOuvrageDTO);
         if (ficheSuiviOuvrageDTO.getId() == null) {
@@ -136,6 +208,7 @@ public class FicheSuiviOuvrageResource {
         if (!ficheSuiviOuvrageRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(ficheSuiviOuvrageDTO::setVersion);
 
         Optional<FicheSuiviOuvrageDTO> result = ficheSuiviOuvrageService.partialUpdate(ficheSuiviOuvrageDTO);
 
@@ -149,27 +222,209 @@ public class FicheSuiviOuvrageResource {
      * {@code GET  /fiche-suivi-ouvrages} : get all the ficheSuiviOuvrages.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ficheSuiviOuvrages in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/fiche-suivi-ouvrages")
-    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getAllFicheSuiviOuvrages(Pageable pageable) {
-        log.debug("REST request to get a page of FicheSuiviOuvrages");
-        Page<FicheSuiviOuvrageDTO> page = ficheSuiviOuvrageService.findAll(pageable);
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> getAllFicheSuiviOuvrages(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(FicheSuiviOuvrage.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the FicheSuiviOuvrages after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            ficheSuiviOuvrageService::findAllAfter,
+            ficheSuiviOuvrageService::findAll,
+            FicheSuiviOuvrageDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/_export?format=csv|ndjson&query=:query} : export the ficheSuiviOuvrages.
+     * <p>
+     * Rows are written straight to the response as they are read, so the export is not paginated.
+     *
+     * @param format the output format, {@code csv} or {@code ndjson}.
+     * @param query the optional query of the ficheSuiviOuvrage search, as taken by {@code /_search/fiche-suivi-ouvrages}.
+     * @param response the response to write the export to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/_export")
+    public void exportFicheSuiviOuvrages(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestParam(required = false) String query,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export FicheSuiviOuvrages as {} for query {}", format, query);
+        FicheSuiviOuvrageExportService.Format exportFormat = prepareExport(format, response);
+        ficheSuiviOuvrageExportService.export(exportFormat, query, response.getOutputStream());
+    }
+
+    /**
+     * {@code POST  /fiche-suivi-ouvrages/_export?format=csv|ndjson} : export the ficheSuiviOuvrages matching the typed
+     * criteria.
+     *
+     * @param format the output format, {@code csv} or {@code ndjson}.
+     * @param criteria the criteria of the ficheSuiviOuvrage search, as taken by {@code POST /_search/fiche-suivi-ouvrages}.
+     * @param response the response to write the export to.
+     * @throws IOException if the response cannot be written.
+     */
+    @PostMapping("/fiche-suivi-ouvrages/_export")
+    public void exportFicheSuiviOuvrages(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @Valid @RequestBody FicheSuiviOuvrageSearchCriteriaDTO criteria,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export FicheSuiviOuvrages as {} for criteria {}", format, criteria);
+        FicheSuiviOuvrageExportService.Format exportFormat = prepareExport(format, response);
+        ficheSuiviOuvrageExportService.export(exportFormat, criteria, response.getOutputStream());
+    }
+
+    private FicheSuiviOuvrageExportService.Format prepareExport(String format, HttpServletResponse response) {
+        FicheSuiviOuvrageExportService.Format exportFormat;
+        try {
+            exportFormat = FicheSuiviOuvrageExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid export format", ENTITY_NAME, "formatinvalid");
+        }
+        String extension = exportFormat == FicheSuiviOuvrageExportService.Format.CSV ? "csv" : "ndjson";
+        response.setContentType(exportFormat == FicheSuiviOuvrageExportService.Format.CSV ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"fiche-suivi-ouvrages." + extension + "\"");
+        return exportFormat;
+    }
+
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/_within?bbox=:bbox} or {@code ?near=:near&radius=:radius} : get the points
+     * of the ficheSuiviOuvrages inside a bounding box, or around a location.
+     *
+     * @param bbox the bounding box, as {@code west,south,east,north} in decimal degrees.
+     * @param near the location, as {@code latitude,longitude} in decimal degrees; the nearest points come first.
+     * @param radius the distance from the location, in meters.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of points in body, or with status
+     * {@code 400 (Bad Request)} if neither or both of the box and the location are given, or if they are invalid.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/_within")
+    public ResponseEntity<List<FicheSuiviOuvragePointDTO>> getFicheSuiviOuvragePoints(
+        @RequestParam(required = false) String bbox,
+        @RequestParam(required = false) String near,
+        @RequestParam(required = false) Double radius,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get the FicheSuiviOuvrage points within {} or {}m of {}", bbox, radius, near);
+        if ((bbox == null) == (near == null)) {
+            throw new BadRequestAlertException("Either a bounding box or a location is required", ENTITY_NAME, "geoinvalid");
+        }
+        Page<FicheSuiviOuvragePointDTO> page;
+        if (bbox != null) {
+            double[] box = parseCoordinates(bbox, 4, "bboxinvalid");
+            if (!isLongitude(box[0]) || !isLatitude(box[1]) || !isLongitude(box[2]) || !isLatitude(box[3]) || box[1] > box[3]) {
+                throw new BadRequestAlertException("Invalid bounding box", ENTITY_NAME, "bboxinvalid");
+            }
+            page = ficheSuiviOuvrageService.findPointsWithin(box[3], box[0], box[1], box[2], pageable);
+        } else {
+            double[] location = parseCoordinates(near, 2, "nearinvalid");
+            if (!isLatitude(location[0]) || !isLongitude(location[1])) {
+                throw new BadRequestAlertException("Invalid location", ENTITY_NAME, "nearinvalid");
+            }
+            if (radius == null || !(radius > 0)) {
+                throw new BadRequestAlertException("Invalid radius", ENTITY_NAME, "radiusinvalid");
+            }
+            page = ficheSuiviOuvrageService.findPointsNear(location[0], location[1], radius, pageable);
+        }
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /fiche-suivi-ouvrages/_clusters?zoom=:zoom&bbox=:bbox} : get the ficheSuiviOuvrages of the map tiles
+     * covering a bounding box, clustered per cell of the grid of the zoom level.
+     *
+     * @param zoom the zoom level of the map.
+     * @param bbox the bounding box, as {@code west,south,east,north} in decimal degrees.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of clusters in body, or with status
+     * {@code 400 (Bad Request)} if the zoom level or the box are invalid, or if the box covers too many tiles.
+     */
+    @GetMapping("/fiche-suivi-ouvrages/_clusters")
+    public ResponseEntity<List<FicheSuiviOuvrageClusterDTO>> getFicheSuiviOuvrageClusters(
+        @RequestParam int zoom,
+        @RequestParam String bbox
+    ) {
+        log.debug("REST request to get the FicheSuiviOuvrage clusters of zoom {} within {}", zoom, bbox);
+        if (zoom < 0 || zoom > FicheSuiviOuvrageClusterService.MAX_ZOOM) {
+            throw new BadRequestAlertException("Invalid zoom level", ENTITY_NAME, "zoominvalid");
+        }
+        double[] box = parseCoordinates(bbox, 4, "bboxinvalid");
+        // The tiles do not wrap around the antimeridian
+        if (
+            !isLongitude(box[0]) || !isLatitude(box[1]) || !isLongitude(box[2]) || !isLatitude(box[3]) || box[1] > box[3] || box[0] > box[2]
+        ) {
+            throw new BadRequestAlertException("Invalid bounding box", ENTITY_NAME, "bboxinvalid");
+        }
+        long tileCount = FicheSuiviOuvrageClusterService.getTileCount(zoom, box[3], box[0], box[1], box[2]);
+        if (tileCount > ficheSuiviOuvrageClusterService.getMaxTiles()) {
+            throw new BadRequestAlertException("Too many tiles for the bounding box", ENTITY_NAME, "bboxtoolarge");
+        }
+        return ResponseEntity.ok().body(ficheSuiviOuvrageClusterService.findClusters(zoom, box[3], box[0], box[1], box[2]));
+    }
+
+    private static double[] parseCoordinates(String value, int count, String errorKey) {
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new BadRequestAlertException("Expected " + count + " coordinates", ENTITY_NAME, errorKey);
+        }
+        double[] coordinates = new double[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                coordinates[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid coordinates", ENTITY_NAME, errorKey);
+        }
+        return coordinates;
+    }
+
+    private static boolean isLatitude(double value) {
+        return value >= -90 && value <= 90;
+    }
+
+    private static boolean isLongitude(double value) {
+        return value >= -180 && value <= 180;
+    }
+
     /**
      * {@code GET  /fiche-suivi-ouvrages/:id} : get the "id" ficheSuiviOuvrage.
      *
      * @param id the id of the ficheSuiviOuvrageDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ficheSuiviOuvrageDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the ficheSuiviOuvrageDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ficheSuiviOuvrageDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/fiche-suivi-ouvrages/{id}")
-    public ResponseEntity<FicheSuiviOuvrageDTO> getFicheSuiviOuvrage(@PathVariable Long id) {
+    public ResponseEntity<FicheSuiviOuvrageDTO> getFicheSuiviOuvrage(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get FicheSuiviOuvrage : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(FicheSuiviOuvrage.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<FicheSuiviOuvrageDTO> ficheSuiviOuvrageDTO = ficheSuiviOuvrageService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(ficheSuiviOuvrageDTO);
+        return EntityTagUtil.wrapOrNotFound(ficheSuiviOuvrageDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -203,4 +458,81 @@ public class FicheSuiviOuvrageResource {
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
+
+    /**
+     * {@code POST  /_search/fiche-suivi-ouvrages} : search for the ficheSuiviOuvrages matching the typed criteria.
+     *
+     * @param criteria the criteria of the ficheSuiviOuvrage search.
+     * @param pageable the pagination information.
+     * @return the result of the search, or with status {@code 400 (Bad Request)} if the criteria are not valid.
+     */
+    @PostMapping("/_search/fiche-suivi-ouvrages")
+    public ResponseEntity<List<FicheSuiviOuvrageDTO>> searchFicheSuiviOuvrages(
+        @Valid @RequestBody FicheSuiviOuvrageSearchCriteriaDTO criteria,
+        Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of FicheSuiviOuvrages for criteria {}", criteria);
+        Page<FicheSuiviOuvrageDTO> page = ficheSuiviOuvrageService.search(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code SEARCH  /_search/fiche-suivi-ouvrages/_faceted?query=:query&facets=:facets} : search for the
+     * ficheSuiviOuvrage corresponding to the query, with the counts of a set of facets over all the results.
+     *
+     * @param query the query of the ficheSuiviOuvrage search.
+     * @param facets the name of the facet set, of {@code application.search-facets.sets}.
+     * @param pageable the pagination information.
+     * @return the page of results and the facet counts, or with status {@code 400 (Bad Request)} if the facet set is
+     * not known.
+     */
+    @GetMapping("/_search/fiche-suivi-ouvrages/_faceted")
+    public ResponseEntity<FicheSuiviOuvrageFacetedSearchDTO> searchFicheSuiviOuvragesWithFacets(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "default") String facets,
+        Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of FicheSuiviOuvrages with the {} facets for query {}", facets, query);
+        checkFacetSet(facets);
+        FicheSuiviOuvrageFacetedSearchDTO result = ficheSuiviOuvrageFacetService.search(query, facets, pageable);
+        return facetedSearchResponse(result, pageable);
+    }
+
+    /**
+     * {@code POST  /_search/fiche-suivi-ouvrages/_faceted?facets=:facets} : search for the ficheSuiviOuvrages matching
+     * the typed criteria, with the counts of a set of facets over all the results.
+     *
+     * @param criteria the criteria of the ficheSuiviOuvrage search.
+     * @param facets the name of the facet set, of {@code application.search-facets.sets}.
+     * @param pageable the pagination information.
+     * @return the page of results and the facet counts, or with status {@code 400 (Bad Request)} if the criteria are
+     * not valid or the facet set is not known.
+     */
+    @PostMapping("/_search/fiche-suivi-ouvrages/_faceted")
+    public ResponseEntity<FicheSuiviOuvrageFacetedSearchDTO> searchFicheSuiviOuvragesWithFacets(
+        @Valid @RequestBody FicheSuiviOuvrageSearchCriteriaDTO criteria,
+        @RequestParam(defaultValue = "default") String facets,
+        Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of FicheSuiviOuvrages with the {} facets for criteria {}", facets, criteria);
+        checkFacetSet(facets);
+        FicheSuiviOuvrageFacetedSearchDTO result = ficheSuiviOuvrageFacetService.search(criteria, facets, pageable);
+        return facetedSearchResponse(result, pageable);
+    }
+
+    private void checkFacetSet(String facets) {
+        if (!ficheSuiviOuvrageFacetService.isFacetSet(facets)) {
+            throw new BadRequestAlertException("Invalid facet set", ENTITY_NAME, "facetsinvalid");
+        }
+    }
+
+    private ResponseEntity<FicheSuiviOuvrageFacetedSearchDTO> facetedSearchResponse(
+        FicheSuiviOuvrageFacetedSearchDTO result,
+        Pageable pageable
+    ) {
+        Page<FicheSuiviOuvrageDTO> page = new PageImpl<>(result.getContent(), pageable, result.getTotalElements());
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(result);
+    }
 }
@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Localite;
 import com.onea.sidot.gestioneau.repository.LocaliteRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.LocaliteService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.LocaliteDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,16 @@ public class LocaliteResource {
 
     private final LocaliteRepository localiteRepository;
 
-    public LocaliteResource(LocaliteService localiteService, LocaliteRepository localiteRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public LocaliteResource(
+        LocaliteService localiteService,
+        LocaliteRepository localiteRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.localiteService = localiteService;
         this.localiteRepository = localiteRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +88,20 @@ public class LocaliteResource {
      *
      * @param id the id of the localiteDTO to save.
      * @param localiteDTO the localiteDTO to update.
+     * @param ifMatch the ETag of the localiteDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated localiteDTO,
      * or with status {@code 400 (Bad Request)} if the localiteDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the localite has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the localiteDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/localites/{id}")
     public ResponseEntity<LocaliteDTO> updateLocalite(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody LocaliteDTO localiteDTO
+        @Valid @RequestBody LocaliteDTO localiteDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Localite : {}, {}", id, localiteDTO);
         if (localiteDTO.getId() == null) {
@@ -97,6 +114,7 @@ public class LocaliteResource {
         if (!localiteRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        localiteDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, localiteDTO.getVersion(), ENTITY_NAME));
 
         LocaliteDTO result = localiteService.save(localiteDTO);
         return ResponseEntity
@@ -110,8 +128,11 @@ public class LocaliteResource {
      *
      * @param id the id of the localiteDTO to save.
      * @param localiteDTO the localiteDTO to update.
+     * @param ifMatch the ETag of the localiteDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated localiteDTO,
      * or with status {@code 400 (Bad Request)} if the localiteDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the localite has changed since it was read,
      * or with status {@code 404 (Not Found)} if the localiteDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the localiteDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +140,8 @@ public class LocaliteResource {
     @PatchMapping(value = "/localites/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<LocaliteDTO> partialUpdateLocalite(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody LocaliteDTO localiteDTO
+        @NotNull @RequestBody LocaliteDTO localiteDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Localite partially : {}, {}", id, localiteDTO);
         if (localiteDTO.getId() == null) {
@@ -132,6 +154,7 @@ public class LocaliteResource {
         if (!localiteRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(localiteDTO::setVersion);
 
         Optional<LocaliteDTO> result = localiteService.partialUpdate(localiteDTO);
 
@@ -145,27 +168,76 @@ public class LocaliteResource {
      * {@code GET  /localites} : get all the localites.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of localites in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of localites in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/localites")
-    public ResponseEntity<List<LocaliteDTO>> getAllLocalites(Pageable pageable) {
-        log.debug("REST request to get a page of Localites");
-        Page<LocaliteDTO> page = localiteService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<LocaliteDTO>> getAllLocalites(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Localite.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Localites after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            localiteService::findAllAfter,
+            localiteService::findAll,
+            LocaliteDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /localites?communeId=:communeId} : get the id and libelle of the localites of the "communeId" commune.
+     *
+     * @param communeId the id of the commune.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of localites in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/localites", params = "communeId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllLocalitesByCommune(
+        @RequestParam Long communeId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Localites of Commune : {}", communeId);
+        String tableTag = entityVersionService.getTableTag(Localite.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(localiteService.findAllByCommune(communeId));
     }
 
     /**
      * {@code GET  /localites/:id} : get the "id" localite.
      *
      * @param id the id of the localiteDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the localiteDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the localiteDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the localiteDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/localites/{id}")
-    public ResponseEntity<LocaliteDTO> getLocalite(@PathVariable Long id) {
+    public ResponseEntity<LocaliteDTO> getLocalite(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Localite : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Localite.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<LocaliteDTO> localiteDTO = localiteService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(localiteDTO);
+        return EntityTagUtil.wrapOrNotFound(localiteDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
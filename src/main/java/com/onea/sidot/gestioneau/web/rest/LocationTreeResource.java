@@ -0,0 +1,74 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import com.onea.sidot.gestioneau.service.LocationTree;
+import com.onea.sidot.gestioneau.service.LocationTreeService;
+import com.onea.sidot.gestioneau.service.dto.LocationNodeDTO;
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for reading the location hierarchy, from the regions down to the parcelles.
+ */
+@RestController
+@RequestMapping("/api")
+public class LocationTreeResource {
+
+    private final Logger log = LoggerFactory.getLogger(LocationTreeResource.class);
+
+    private static final String ENTITY_NAME = "gestioneauLocationTree";
+
+    private final LocationTreeService locationTreeService;
+
+    public LocationTreeResource(LocationTreeService locationTreeService) {
+        this.locationTreeService = locationTreeService;
+    }
+
+    /**
+     * {@code GET  /location-tree} : get the regions, the roots of the location tree.
+     *
+     * @param depth the number of levels of descendants to include under each region, 1 by default for their provinces,
+     * at most {@code application.location-tree.max-depth}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of regions in body.
+     */
+    @GetMapping("/location-tree")
+    public ResponseEntity<List<LocationNodeDTO>> getLocationTree(@RequestParam(defaultValue = "1") int depth) {
+        log.debug("REST request to get the location tree with a depth of {}", depth);
+        return ResponseEntity.ok().body(locationTreeService.findRoots(depth));
+    }
+
+    /**
+     * {@code GET  /location-tree/:level/:id} : get the location subtree rooted at the "id" node of the level.
+     *
+     * @param level the level of the node, for example {@code commune}.
+     * @param id the id of the node.
+     * @param depth the number of levels of descendants to include under the node, at most
+     * {@code application.location-tree.max-depth}; the parcelles are only included under a lot.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the node, or with status {@code 404 (Not Found)},
+     * or with status {@code 400 (Bad Request)} if the level is not valid.
+     */
+    @GetMapping("/location-tree/{level}/{id}")
+    public ResponseEntity<LocationNodeDTO> getLocationSubtree(
+        @PathVariable String level,
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "1") int depth
+    ) {
+        log.debug("REST request to get the location subtree of {} {} with a depth of {}", level, id, depth);
+        Optional<LocationNodeDTO> locationNodeDTO = locationTreeService.findSubtree(parseLevel(level), id, depth);
+        return ResponseUtil.wrapOrNotFound(locationNodeDTO);
+    }
+
+    private static LocationTree.Level parseLevel(String level) {
+        try {
+            return LocationTree.Level.valueOf(level.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid location level", ENTITY_NAME, "levelinvalid");
+        }
+    }
+}
@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Lot;
 import com.onea.sidot.gestioneau.repository.LotRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.LotService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.LotDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,12 @@ public class LotResource {
 
     private final LotRepository lotRepository;
 
-    public LotResource(LotService lotService, LotRepository lotRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public LotResource(LotService lotService, LotRepository lotRepository, EntityVersionService entityVersionService) {
         this.lotService = lotService;
         this.lotRepository = lotRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,13 +84,21 @@ public class LotResource {
      *
      * @param id the id of the lotDTO to save.
      * @param lotDTO the lotDTO to update.
+     * @param ifMatch the ETag of the lotDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated lotDTO,
      * or with status {@code 400 (Bad Request)} if the lotDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the lot has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the lotDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/lots/{id}")
-    public ResponseEntity<LotDTO> updateLot(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody LotDTO lotDTO)
+    public ResponseEntity<LotDTO> updateLot(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody LotDTO lotDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    )
         throws URISyntaxException {
         log.debug("REST request to update Lot : {}, {}", id, lotDTO);
         if (lotDTO.getId() == null) {
@@ -95,6 +111,7 @@ public class LotResource {
         if (!lotRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        lotDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, lotDTO.getVersion(), ENTITY_NAME));
 
         LotDTO result = lotService.save(lotDTO);
         return ResponseEntity
@@ -108,8 +125,11 @@ public class LotResource {
      *
      * @param id the id of the lotDTO to save.
      * @param lotDTO the lotDTO to update.
+     * @param ifMatch the ETag of the lotDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated lotDTO,
      * or with status {@code 400 (Bad Request)} if the lotDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the lot has changed since it was read,
      * or with status {@code 404 (Not Found)} if the lotDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the lotDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -117,7 +137,8 @@ public class LotResource {
     @PatchMapping(value = "/lots/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<LotDTO> partialUpdateLot(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody LotDTO lotDTO
+        @NotNull @RequestBody LotDTO lotDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Lot partially : {}, {}", id, lotDTO);
         if (lotDTO.getId() == null) {
@@ -130,6 +151,7 @@ public class LotResource {
         if (!lotRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(lotDTO::setVersion);
 
         Optional<LotDTO> result = lotService.partialUpdate(lotDTO);
 
@@ -143,27 +165,76 @@ public class LotResource {
      * {@code GET  /lots} : get all the lots.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of lots in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of lots in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/lots")
-    public ResponseEntity<List<LotDTO>> getAllLots(Pageable pageable) {
-        log.debug("REST request to get a page of Lots");
-        Page<LotDTO> page = lotService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<LotDTO>> getAllLots(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Lot.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Lots after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            lotService::findAllAfter,
+            lotService::findAll,
+            LotDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /lots?sectionId=:sectionId} : get the id and libelle of the lots of the "sectionId" section.
+     *
+     * @param sectionId the id of the section.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of lots in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/lots", params = "sectionId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllLotsBySection(
+        @RequestParam Long sectionId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Lots of Section : {}", sectionId);
+        String tableTag = entityVersionService.getTableTag(Lot.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(lotService.findAllBySection(sectionId));
     }
 
     /**
      * {@code GET  /lots/:id} : get the "id" lot.
      *
      * @param id the id of the lotDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the lotDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the lotDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the lotDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/lots/{id}")
-    public ResponseEntity<LotDTO> getLot(@PathVariable Long id) {
+    public ResponseEntity<LotDTO> getLot(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Lot : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Lot.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<LotDTO> lotDTO = lotService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(lotDTO);
+        return EntityTagUtil.wrapOrNotFound(lotDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Macon;
 import com.onea.sidot.gestioneau.repository.MaconRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.MaconService;
 import com.onea.sidot.gestioneau.service.dto.MaconDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,12 @@ public class MaconResource {
 
     private final MaconRepository maconRepository;
 
-    public MaconResource(MaconService maconService, MaconRepository maconRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public MaconResource(MaconService maconService, MaconRepository maconRepository, EntityVersionService entityVersionService) {
         this.maconService = maconService;
         this.maconRepository = maconRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +83,20 @@ public class MaconResource {
      *
      * @param id the id of the maconDTO to save.
      * @param maconDTO the maconDTO to update.
+     * @param ifMatch the ETag of the maconDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated maconDTO,
      * or with status {@code 400 (Bad Request)} if the maconDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the macon has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the maconDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/macons/{id}")
     public ResponseEntity<MaconDTO> updateMacon(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody MaconDTO maconDTO
+        @Valid @RequestBody MaconDTO maconDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Macon : {}, {}", id, maconDTO);
         if (maconDTO.getId() == null) {
@@ -97,6 +109,7 @@ public class MaconResource {
         if (!maconRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        maconDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, maconDTO.getVersion(), ENTITY_NAME));
 
         MaconDTO result = maconService.save(maconDTO);
         return ResponseEntity
@@ -110,8 +123,11 @@ public class MaconResource {
      *
      * @param id the id of the maconDTO to save.
      * @param maconDTO the maconDTO to update.
+     * @param ifMatch the ETag of the maconDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated maconDTO,
      * or with status {@code 400 (Bad Request)} if the maconDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the macon has changed since it was read,
      * or with status {@code 404 (Not Found)} if the maconDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the maconDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +135,8 @@ public class MaconResource {
     @PatchMapping(value = "/macons/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<MaconDTO> partialUpdateMacon(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody MaconDTO maconDTO
+        @NotNull @RequestBody MaconDTO maconDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Macon partially : {}, {}", id, maconDTO);
         if (maconDTO.getId() == null) {
@@ -132,6 +149,7 @@ public class MaconResource {
         if (!maconRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(maconDTO::setVersion);
 
         Optional<MaconDTO> result = maconService.partialUpdate(maconDTO);
 
@@ -145,27 +163,78 @@ public class MaconResource {
      * {@code GET  /macons} : get all the macons.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of macons in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of macons in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/macons")
-    public ResponseEntity<List<MaconDTO>> getAllMacons(Pageable pageable) {
-        log.debug("REST request to get a page of Macons");
-        Page<MaconDTO> page = maconService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<MaconDTO>> getAllMacons(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Macon.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Macons after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            maconService::findAllAfter,
+            maconService::findAll,
+            MaconDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /macons/_all} : get all the macons, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the macons to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of macons in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/macons/_all")
+    public ResponseEntity<List<MaconDTO>> getAllMaconsUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all Macons of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(Macon.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<MaconDTO> macons = libelle == null ? maconService.findAll() : maconService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(macons);
     }
 
     /**
      * {@code GET  /macons/:id} : get the "id" macon.
      *
      * @param id the id of the maconDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the maconDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the maconDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the maconDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/macons/{id}")
-    public ResponseEntity<MaconDTO> getMacon(@PathVariable Long id) {
+    public ResponseEntity<MaconDTO> getMacon(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Macon : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Macon.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<MaconDTO> maconDTO = maconService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(maconDTO);
+        return EntityTagUtil.wrapOrNotFound(maconDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.ModeEvacExcreta;
 import com.onea.sidot.gestioneau.repository.ModeEvacExcretaRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.ModeEvacExcretaService;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacExcretaDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class ModeEvacExcretaResource {
 
     private final ModeEvacExcretaRepository modeEvacExcretaRepository;
 
-    public ModeEvacExcretaResource(ModeEvacExcretaService modeEvacExcretaService, ModeEvacExcretaRepository modeEvacExcretaRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public ModeEvacExcretaResource(
+        ModeEvacExcretaService modeEvacExcretaService,
+        ModeEvacExcretaRepository modeEvacExcretaRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.modeEvacExcretaService = modeEvacExcretaService;
         this.modeEvacExcretaRepository = modeEvacExcretaRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -77,15 +88,20 @@ public class ModeEvacExcretaResource {
      *
      * @param id the id of the modeEvacExcretaDTO to save.
      * @param modeEvacExcretaDTO the modeEvacExcretaDTO to update.
+     * @param ifMatch the ETag of the modeEvacExcretaDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacExcretaDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacExcretaDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacExcreta has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacExcretaDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/mode-evac-excretas/{id}")
     public ResponseEntity<ModeEvacExcretaDTO> updateModeEvacExcreta(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO
+        @Valid @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update ModeEvacExcreta : {}, {}", id, modeEvacExcretaDTO);
         if (modeEvacExcretaDTO.getId() == null) {
@@ -98,6 +114,7 @@ public class ModeEvacExcretaResource {
         if (!modeEvacExcretaRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        modeEvacExcretaDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, modeEvacExcretaDTO.getVersion(), ENTITY_NAME));
 
         ModeEvacExcretaDTO result = modeEvacExcretaService.save(modeEvacExcretaDTO);
         return ResponseEntity
@@ -111,8 +128,11 @@ public class ModeEvacExcretaResource {
      *
      * @param id the id of the modeEvacExcretaDTO to save.
      * @param modeEvacExcretaDTO the modeEvacExcretaDTO to update.
+     * @param ifMatch the ETag of the modeEvacExcretaDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacExcretaDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacExcretaDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacExcreta has changed since it was read,
      * or with status {@code 404 (Not Found)} if the modeEvacExcretaDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacExcretaDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +140,8 @@ public class ModeEvacExcretaResource {
     @PatchMapping(value = "/mode-evac-excretas/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ModeEvacExcretaDTO> partialUpdateModeEvacExcreta(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO
+        @NotNull @RequestBody ModeEvacExcretaDTO modeEvacExcretaDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update ModeEvacExcreta partially : {}, {}", id, modeEvacExcretaDTO);
         if (modeEvacExcretaDTO.getId() == null) {
@@ -133,6 +154,7 @@ public class ModeEvacExcretaResource {
         if (!modeEvacExcretaRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(modeEvacExcretaDTO::setVersion);
 
         Optional<ModeEvacExcretaDTO> result = modeEvacExcretaService.partialUpdate(modeEvacExcretaDTO);
 
@@ -146,27 +168,80 @@ public class ModeEvacExcretaResource {
      * {@code GET  /mode-evac-excretas} : get all the modeEvacExcretas.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacExcretas in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacExcretas in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/mode-evac-excretas")
-    public ResponseEntity<List<ModeEvacExcretaDTO>> getAllModeEvacExcretas(Pageable pageable) {
-        log.debug("REST request to get a page of ModeEvacExcretas");
-        Page<ModeEvacExcretaDTO> page = modeEvacExcretaService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<ModeEvacExcretaDTO>> getAllModeEvacExcretas(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(ModeEvacExcreta.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the ModeEvacExcretas after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            modeEvacExcretaService::findAllAfter,
+            modeEvacExcretaService::findAll,
+            ModeEvacExcretaDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /mode-evac-excretas/_all} : get all the modeEvacExcretas, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the modeEvacExcretas to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacExcretas in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/mode-evac-excretas/_all")
+    public ResponseEntity<List<ModeEvacExcretaDTO>> getAllModeEvacExcretasUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all ModeEvacExcretas of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(ModeEvacExcreta.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<ModeEvacExcretaDTO> modeEvacExcretas = libelle == null
+            ? modeEvacExcretaService.findAll()
+            : modeEvacExcretaService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(modeEvacExcretas);
     }
 
     /**
      * {@code GET  /mode-evac-excretas/:id} : get the "id" modeEvacExcreta.
      *
      * @param id the id of the modeEvacExcretaDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacExcretaDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the modeEvacExcretaDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacExcretaDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/mode-evac-excretas/{id}")
-    public ResponseEntity<ModeEvacExcretaDTO> getModeEvacExcreta(@PathVariable Long id) {
+    public ResponseEntity<ModeEvacExcretaDTO> getModeEvacExcreta(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get ModeEvacExcreta : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(ModeEvacExcreta.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<ModeEvacExcretaDTO> modeEvacExcretaDTO = modeEvacExcretaService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(modeEvacExcretaDTO);
+        return EntityTagUtil.wrapOrNotFound(modeEvacExcretaDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.ModeEvacuationEauUsee;
 import com.onea.sidot.gestioneau.repository.ModeEvacuationEauUseeRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.ModeEvacuationEauUseeService;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacuationEauUseeDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,12 +50,16 @@ public class ModeEvacuationEauUseeResource {
 
     private final ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository;
 
+    private final EntityVersionService entityVersionService;
+
     public ModeEvacuationEauUseeResource(
         ModeEvacuationEauUseeService modeEvacuationEauUseeService,
-        ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository
+        ModeEvacuationEauUseeRepository modeEvacuationEauUseeRepository,
+        EntityVersionService entityVersionService
     ) {
         this.modeEvacuationEauUseeService = modeEvacuationEauUseeService;
         this.modeEvacuationEauUseeRepository = modeEvacuationEauUseeRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -81,15 +89,20 @@ public class ModeEvacuationEauUseeResource {
      *
      * @param id the id of the modeEvacuationEauUseeDTO to save.
      * @param modeEvacuationEauUseeDTO the modeEvacuationEauUseeDTO to update.
+     * @param ifMatch the ETag of the modeEvacuationEauUseeDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacuationEauUseeDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacuationEauUseeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacuationEauUsee has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacuationEauUseeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/mode-evacuation-eau-usees/{id}")
     public ResponseEntity<ModeEvacuationEauUseeDTO> updateModeEvacuationEauUsee(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO
+        @Valid @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update ModeEvacuationEauUsee : {}, {}", id, modeEvacuationEauUseeDTO);
         if (modeEvacuationEauUseeDTO.getId() == null) {
@@ -102,6 +115,7 @@ public class ModeEvacuationEauUseeResource {
         if (!modeEvacuationEauUseeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        modeEvacuationEauUseeDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, modeEvacuationEauUseeDTO.getVersion(), ENTITY_NAME));
 
         ModeEvacuationEauUseeDTO result = modeEvacuationEauUseeService.save(modeEvacuationEauUseeDTO);
         return ResponseEntity
@@ -115,8 +129,11 @@ public class ModeEvacuationEauUseeResource {
      *
      * @param id the id of the modeEvacuationEauUseeDTO to save.
      * @param modeEvacuationEauUseeDTO the modeEvacuationEauUseeDTO to update.
+     * @param ifMatch the ETag of the modeEvacuationEauUseeDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated modeEvacuationEauUseeDTO,
      * or with status {@code 400 (Bad Request)} if the modeEvacuationEauUseeDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the modeEvacuationEauUsee has changed since it was read,
      * or with status {@code 404 (Not Found)} if the modeEvacuationEauUseeDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the modeEvacuationEauUseeDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -124,7 +141,8 @@ public class ModeEvacuationEauUseeResource {
     @PatchMapping(value = "/mode-evacuation-eau-usees/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ModeEvacuationEauUseeDTO> partialUpdateModeEvacuationEauUsee(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO
+        @NotNull @RequestBody ModeEvacuationEauUseeDTO modeEvacuationEauUseeDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update ModeEvacuationEauUsee partially : {}, {}", id, modeEvacuationEauUseeDTO);
         if (modeEvacuationEauUseeDTO.getId() == null) {
@@ -137,6 +155,7 @@ public class ModeEvacuationEauUseeResource {
         if (!modeEvacuationEauUseeRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(modeEvacuationEauUseeDTO::setVersion);
 
         Optional<ModeEvacuationEauUseeDTO> result = modeEvacuationEauUseeService.partialUpdate(modeEvacuationEauUseeDTO);
 
@@ -150,27 +169,80 @@ public class ModeEvacuationEauUseeResource {
      * {@code GET  /mode-evacuation-eau-usees} : get all the modeEvacuationEauUsees.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacuationEauUsees in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacuationEauUsees in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/mode-evacuation-eau-usees")
-    public ResponseEntity<List<ModeEvacuationEauUseeDTO>> getAllModeEvacuationEauUsees(Pageable pageable) {
-        log.debug("REST request to get a page of ModeEvacuationEauUsees");
-        Page<ModeEvacuationEauUseeDTO> page = modeEvacuationEauUseeService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<ModeEvacuationEauUseeDTO>> getAllModeEvacuationEauUsees(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(ModeEvacuationEauUsee.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the ModeEvacuationEauUsees after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            modeEvacuationEauUseeService::findAllAfter,
+            modeEvacuationEauUseeService::findAll,
+            ModeEvacuationEauUseeDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /mode-evacuation-eau-usees/_all} : get all the modeEvacuationEauUsees, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the modeEvacuationEauUsees to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modeEvacuationEauUsees in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/mode-evacuation-eau-usees/_all")
+    public ResponseEntity<List<ModeEvacuationEauUseeDTO>> getAllModeEvacuationEauUseesUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all ModeEvacuationEauUsees of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(ModeEvacuationEauUsee.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<ModeEvacuationEauUseeDTO> modeEvacuationEauUsees = libelle == null
+            ? modeEvacuationEauUseeService.findAll()
+            : modeEvacuationEauUseeService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(modeEvacuationEauUsees);
     }
 
     /**
      * {@code GET  /mode-evacuation-eau-usees/:id} : get the "id" modeEvacuationEauUsee.
      *
      * @param id the id of the modeEvacuationEauUseeDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacuationEauUseeDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the modeEvacuationEauUseeDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the modeEvacuationEauUseeDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/mode-evacuation-eau-usees/{id}")
-    public ResponseEntity<ModeEvacuationEauUseeDTO> getModeEvacuationEauUsee(@PathVariable Long id) {
+    public ResponseEntity<ModeEvacuationEauUseeDTO> getModeEvacuationEauUsee(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get ModeEvacuationEauUsee : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(ModeEvacuationEauUsee.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<ModeEvacuationEauUseeDTO> modeEvacuationEauUseeDTO = modeEvacuationEauUseeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(modeEvacuationEauUseeDTO);
+        return EntityTagUtil.wrapOrNotFound(modeEvacuationEauUseeDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
 import com.onea.sidot.gestioneau.repository.NatureOuvrageRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.NatureOuvrageService;
 import com.onea.sidot.gestioneau.service.dto.NatureOuvrageDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class NatureOuvrageResource {
 
     private final NatureOuvrageRepository natureOuvrageRepository;
 
-    public NatureOuvrageResource(NatureOuvrageService natureOuvrageService, NatureOuvrageRepository natureOuvrageRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public NatureOuvrageResource(
+        NatureOuvrageService natureOuvrageService,
+        NatureOuvrageRepository natureOuvrageRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.natureOuvrageService = natureOuvrageService;
         this.natureOuvrageRepository = natureOuvrageRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -77,15 +88,20 @@ public class NatureOuvrageResource {
      *
      * @param id the id of the natureOuvrageDTO to save.
      * @param natureOuvrageDTO the natureOuvrageDTO to update.
+     * @param ifMatch the ETag of the natureOuvrageDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated natureOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the natureOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the natureOuvrage has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the natureOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/nature-ouvrages/{id}")
     public ResponseEntity<NatureOuvrageDTO> updateNatureOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody NatureOuvrageDTO natureOuvrageDTO
+        @Valid @RequestBody NatureOuvrageDTO natureOuvrageDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update NatureOuvrage : {}, {}", id, natureOuvrageDTO);
         if (natureOuvrageDTO.getId() == null) {
@@ -98,6 +114,7 @@ public class NatureOuvrageResource {
         if (!natureOuvrageRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        natureOuvrageDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, natureOuvrageDTO.getVersion(), ENTITY_NAME));
 
         NatureOuvrageDTO result = natureOuvrageService.save(natureOuvrageDTO);
         return ResponseEntity
@@ -111,8 +128,11 @@ public class NatureOuvrageResource {
      *
      * @param id the id of the natureOuvrageDTO to save.
      * @param natureOuvrageDTO the natureOuvrageDTO to update.
+     * @param ifMatch the ETag of the natureOuvrageDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated natureOuvrageDTO,
      * or with status {@code 400 (Bad Request)} if the natureOuvrageDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the natureOuvrage has changed since it was read,
      * or with status {@code 404 (Not Found)} if the natureOuvrageDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the natureOuvrageDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +140,8 @@ public class NatureOuvrageResource {
     @PatchMapping(value = "/nature-ouvrages/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<NatureOuvrageDTO> partialUpdateNatureOuvrage(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody NatureOuvrageDTO natureOuvrageDTO
+        @NotNull @RequestBody NatureOuvrageDTO natureOuvrageDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update NatureOuvrage partially : {}, {}", id, natureOuvrageDTO);
         if (natureOuvrageDTO.getId() == null) {
@@ -133,6 +154,7 @@ public class NatureOuvrageResource {
         if (!natureOuvrageRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(natureOuvrageDTO::setVersion);
 
         Optional<NatureOuvrageDTO> result = natureOuvrageService.partialUpdate(natureOuvrageDTO);
 
@@ -146,27 +168,80 @@ public class NatureOuvrageResource {
      * {@code GET  /nature-ouvrages} : get all the natureOuvrages.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of natureOuvrages in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of natureOuvrages in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/nature-ouvrages")
-    public ResponseEntity<List<NatureOuvrageDTO>> getAllNatureOuvrages(Pageable pageable) {
-        log.debug("REST request to get a page of NatureOuvrages");
-        Page<NatureOuvrageDTO> page = natureOuvrageService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<NatureOuvrageDTO>> getAllNatureOuvrages(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(NatureOuvrage.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the NatureOuvrages after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            natureOuvrageService::findAllAfter,
+            natureOuvrageService::findAll,
+            NatureOuvrageDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /nature-ouvrages/_all} : get all the natureOuvrages, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the natureOuvrages to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of natureOuvrages in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/nature-ouvrages/_all")
+    public ResponseEntity<List<NatureOuvrageDTO>> getAllNatureOuvragesUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all NatureOuvrages of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(NatureOuvrage.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<NatureOuvrageDTO> natureOuvrages = libelle == null
+            ? natureOuvrageService.findAll()
+            : natureOuvrageService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(natureOuvrages);
     }
 
     /**
      * {@code GET  /nature-ouvrages/:id} : get the "id" natureOuvrage.
      *
      * @param id the id of the natureOuvrageDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the natureOuvrageDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the natureOuvrageDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the natureOuvrageDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/nature-ouvrages/{id}")
-    public ResponseEntity<NatureOuvrageDTO> getNatureOuvrage(@PathVariable Long id) {
+    public ResponseEntity<NatureOuvrageDTO> getNatureOuvrage(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get NatureOuvrage : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(NatureOuvrage.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<NatureOuvrageDTO> natureOuvrageDTO = natureOuvrageService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(natureOuvrageDTO);
+        return EntityTagUtil.wrapOrNotFound(natureOuvrageDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
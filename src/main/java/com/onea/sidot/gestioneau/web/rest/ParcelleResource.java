@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Parcelle;
 import com.onea.sidot.gestioneau.repository.ParcelleRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.ParcelleService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.ParcelleDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,16 @@ public class ParcelleResource {
 
     private final ParcelleRepository parcelleRepository;
 
-    public ParcelleResource(ParcelleService parcelleService, ParcelleRepository parcelleRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public ParcelleResource(
+        ParcelleService parcelleService,
+        ParcelleRepository parcelleRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.parcelleService = parcelleService;
         this.parcelleRepository = parcelleRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +88,20 @@ public class ParcelleResource {
      *
      * @param id the id of the parcelleDTO to save.
      * @param parcelleDTO the parcelleDTO to update.
+     * @param ifMatch the ETag of the parcelleDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated parcelleDTO,
      * or with status {@code 400 (Bad Request)} if the parcelleDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the parcelle has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the parcelleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/parcelles/{id}")
     public ResponseEntity<ParcelleDTO> updateParcelle(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody ParcelleDTO parcelleDTO
+        @Valid @RequestBody ParcelleDTO parcelleDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Parcelle : {}, {}", id, parcelleDTO);
         if (parcelleDTO.getId() == null) {
@@ -97,6 +114,7 @@ public class ParcelleResource {
         if (!parcelleRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        parcelleDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, parcelleDTO.getVersion(), ENTITY_NAME));
 
         ParcelleDTO result = parcelleService.save(parcelleDTO);
         return ResponseEntity
@@ -110,8 +128,11 @@ public class ParcelleResource {
      *
      * @param id the id of the parcelleDTO to save.
      * @param parcelleDTO the parcelleDTO to update.
+     * @param ifMatch the ETag of the parcelleDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated parcelleDTO,
      * or with status {@code 400 (Bad Request)} if the parcelleDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the parcelle has changed since it was read,
      * or with status {@code 404 (Not Found)} if the parcelleDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the parcelleDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +140,8 @@ public class ParcelleResource {
     @PatchMapping(value = "/parcelles/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ParcelleDTO> partialUpdateParcelle(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody ParcelleDTO parcelleDTO
+        @NotNull @RequestBody ParcelleDTO parcelleDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Parcelle partially : {}, {}", id, parcelleDTO);
         if (parcelleDTO.getId() == null) {
@@ -132,6 +154,7 @@ public class ParcelleResource {
         if (!parcelleRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(parcelleDTO::setVersion);
 
         Optional<ParcelleDTO> result = parcelleService.partialUpdate(parcelleDTO);
 
@@ -145,27 +168,76 @@ public class ParcelleResource {
      * {@code GET  /parcelles} : get all the parcelles.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of parcelles in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of parcelles in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/parcelles")
-    public ResponseEntity<List<ParcelleDTO>> getAllParcelles(Pageable pageable) {
-        log.debug("REST request to get a page of Parcelles");
-        Page<ParcelleDTO> page = parcelleService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<ParcelleDTO>> getAllParcelles(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Parcelle.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Parcelles after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            parcelleService::findAllAfter,
+            parcelleService::findAll,
+            ParcelleDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /parcelles?lotId=:lotId} : get the id and libelle of the parcelles of the "lotId" lot.
+     *
+     * @param lotId the id of the lot.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of parcelles in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/parcelles", params = "lotId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllParcellesByLot(
+        @RequestParam Long lotId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Parcelles of Lot : {}", lotId);
+        String tableTag = entityVersionService.getTableTag(Parcelle.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(parcelleService.findAllByLot(lotId));
     }
 
     /**
      * {@code GET  /parcelles/:id} : get the "id" parcelle.
      *
      * @param id the id of the parcelleDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the parcelleDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the parcelleDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the parcelleDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/parcelles/{id}")
-    public ResponseEntity<ParcelleDTO> getParcelle(@PathVariable Long id) {
+    public ResponseEntity<ParcelleDTO> getParcelle(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Parcelle : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Parcelle.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<ParcelleDTO> parcelleDTO = parcelleService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(parcelleDTO);
+        return EntityTagUtil.wrapOrNotFound(parcelleDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
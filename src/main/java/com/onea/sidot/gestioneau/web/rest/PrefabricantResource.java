@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Prefabricant;
 import com.onea.sidot.gestioneau.repository.PrefabricantRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.PrefabricantService;
 import com.onea.sidot.gestioneau.service.dto.PrefabricantDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class PrefabricantResource {
 
     private final PrefabricantRepository prefabricantRepository;
 
-    public PrefabricantResource(PrefabricantService prefabricantService, PrefabricantRepository prefabricantRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public PrefabricantResource(
+        PrefabricantService prefabricantService,
+        PrefabricantRepository prefabricantRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.prefabricantService = prefabricantService;
         this.prefabricantRepository = prefabricantRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -77,15 +88,20 @@ public class PrefabricantResource {
      *
      * @param id the id of the prefabricantDTO to save.
      * @param prefabricantDTO the prefabricantDTO to update.
+     * @param ifMatch the ETag of the prefabricantDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated prefabricantDTO,
      * or with status {@code 400 (Bad Request)} if the prefabricantDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prefabricant has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the prefabricantDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/prefabricants/{id}")
     public ResponseEntity<PrefabricantDTO> updatePrefabricant(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody PrefabricantDTO prefabricantDTO
+        @Valid @RequestBody PrefabricantDTO prefabricantDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Prefabricant : {}, {}", id, prefabricantDTO);
         if (prefabricantDTO.getId() == null) {
@@ -98,6 +114,7 @@ public class PrefabricantResource {
         if (!prefabricantRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        prefabricantDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, prefabricantDTO.getVersion(), ENTITY_NAME));
 
         PrefabricantDTO result = prefabricantService.save(prefabricantDTO);
         return ResponseEntity
@@ -111,8 +128,11 @@ public class PrefabricantResource {
      *
      * @param id the id of the prefabricantDTO to save.
      * @param prefabricantDTO the prefabricantDTO to update.
+     * @param ifMatch the ETag of the prefabricantDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated prefabricantDTO,
      * or with status {@code 400 (Bad Request)} if the prefabricantDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prefabricant has changed since it was read,
      * or with status {@code 404 (Not Found)} if the prefabricantDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the prefabricantDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +140,8 @@ public class PrefabricantResource {
     @PatchMapping(value = "/prefabricants/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<PrefabricantDTO> partialUpdatePrefabricant(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody PrefabricantDTO prefabricantDTO
+        @NotNull @RequestBody PrefabricantDTO prefabricantDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Prefabricant partially : {}, {}", id, prefabricantDTO);
         if (prefabricantDTO.getId() == null) {
@@ -133,6 +154,7 @@ public class PrefabricantResource {
         if (!prefabricantRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(prefabricantDTO::setVersion);
 
         Optional<PrefabricantDTO> result = prefabricantService.partialUpdate(prefabricantDTO);
 
@@ -146,27 +168,80 @@ public class PrefabricantResource {
      * {@code GET  /prefabricants} : get all the prefabricants.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prefabricants in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prefabricants in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/prefabricants")
-    public ResponseEntity<List<PrefabricantDTO>> getAllPrefabricants(Pageable pageable) {
-        log.debug("REST request to get a page of Prefabricants");
-        Page<PrefabricantDTO> page = prefabricantService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<PrefabricantDTO>> getAllPrefabricants(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Prefabricant.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Prefabricants after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            prefabricantService::findAllAfter,
+            prefabricantService::findAll,
+            PrefabricantDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /prefabricants/_all} : get all the prefabricants, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the prefabricants to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prefabricants in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/prefabricants/_all")
+    public ResponseEntity<List<PrefabricantDTO>> getAllPrefabricantsUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all Prefabricants of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(Prefabricant.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<PrefabricantDTO> prefabricants = libelle == null
+            ? prefabricantService.findAll()
+            : prefabricantService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(prefabricants);
     }
 
     /**
      * {@code GET  /prefabricants/:id} : get the "id" prefabricant.
      *
      * @param id the id of the prefabricantDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the prefabricantDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the prefabricantDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the prefabricantDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/prefabricants/{id}")
-    public ResponseEntity<PrefabricantDTO> getPrefabricant(@PathVariable Long id) {
+    public ResponseEntity<PrefabricantDTO> getPrefabricant(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Prefabricant : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Prefabricant.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<PrefabricantDTO> prefabricantDTO = prefabricantService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(prefabricantDTO);
+        return EntityTagUtil.wrapOrNotFound(prefabricantDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Prevision;
 import com.onea.sidot.gestioneau.repository.PrevisionRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.PrevisionService;
 import com.onea.sidot.gestioneau.service.dto.PrevisionDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class PrevisionResource {
 
     private final PrevisionRepository previsionRepository;
 
-    public PrevisionResource(PrevisionService previsionService, PrevisionRepository previsionRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public PrevisionResource(
+        PrevisionService previsionService,
+        PrevisionRepository previsionRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.previsionService = previsionService;
         this.previsionRepository = previsionRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +87,20 @@ public class PrevisionResource {
      *
      * @param id the id of the previsionDTO to save.
      * @param previsionDTO the previsionDTO to update.
+     * @param ifMatch the ETag of the previsionDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated previsionDTO,
      * or with status {@code 400 (Bad Request)} if the previsionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prevision has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the previsionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/previsions/{id}")
     public ResponseEntity<PrevisionDTO> updatePrevision(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody PrevisionDTO previsionDTO
+        @Valid @RequestBody PrevisionDTO previsionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Prevision : {}, {}", id, previsionDTO);
         if (previsionDTO.getId() == null) {
@@ -97,6 +113,7 @@ public class PrevisionResource {
         if (!previsionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        previsionDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, previsionDTO.getVersion(), ENTITY_NAME));
 
         PrevisionDTO result = previsionService.save(previsionDTO);
         return ResponseEntity
@@ -110,8 +127,11 @@ public class PrevisionResource {
      *
      * @param id the id of the previsionDTO to save.
      * @param previsionDTO the previsionDTO to update.
+     * @param ifMatch the ETag of the previsionDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated previsionDTO,
      * or with status {@code 400 (Bad Request)} if the previsionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the prevision has changed since it was read,
      * or with status {@code 404 (Not Found)} if the previsionDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the previsionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +139,8 @@ public class PrevisionResource {
     @PatchMapping(value = "/previsions/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<PrevisionDTO> partialUpdatePrevision(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody PrevisionDTO previsionDTO
+        @NotNull @RequestBody PrevisionDTO previsionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Prevision partially : {}, {}", id, previsionDTO);
         if (previsionDTO.getId() == null) {
@@ -132,6 +153,7 @@ public class PrevisionResource {
         if (!previsionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(previsionDTO::setVersion);
 
         Optional<PrevisionDTO> result = previsionService.partialUpdate(previsionDTO);
 
@@ -145,27 +167,55 @@ public class PrevisionResource {
      * {@code GET  /previsions} : get all the previsions.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of previsions in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of previsions in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/previsions")
-    public ResponseEntity<List<PrevisionDTO>> getAllPrevisions(Pageable pageable) {
-        log.debug("REST request to get a page of Previsions");
-        Page<PrevisionDTO> page = previsionService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<PrevisionDTO>> getAllPrevisions(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Prevision.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Previsions after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            previsionService::findAllAfter,
+            previsionService::findAll,
+            PrevisionDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
     }
 
     /**
      * {@code GET  /previsions/:id} : get the "id" prevision.
      *
      * @param id the id of the previsionDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the previsionDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the previsionDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the previsionDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/previsions/{id}")
-    public ResponseEntity<PrevisionDTO> getPrevision(@PathVariable Long id) {
+    public ResponseEntity<PrevisionDTO> getPrevision(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Prevision : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Prevision.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<PrevisionDTO> previsionDTO = previsionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(previsionDTO);
+        return EntityTagUtil.wrapOrNotFound(previsionDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
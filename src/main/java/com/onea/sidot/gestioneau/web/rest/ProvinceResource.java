@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Province;
 import com.onea.sidot.gestioneau.repository.ProvinceRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.ProvinceService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.ProvinceDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,16 @@ public class ProvinceResource {
 
     private final ProvinceRepository provinceRepository;
 
-    public ProvinceResource(ProvinceService provinceService, ProvinceRepository provinceRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public ProvinceResource(
+        ProvinceService provinceService,
+        ProvinceRepository provinceRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.provinceService = provinceService;
         this.provinceRepository = provinceRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +88,20 @@ public class ProvinceResource {
      *
      * @param id the id of the provinceDTO to save.
      * @param provinceDTO the provinceDTO to update.
+     * @param ifMatch the ETag of the provinceDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated provinceDTO,
      * or with status {@code 400 (Bad Request)} if the provinceDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the province has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the provinceDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/provinces/{id}")
     public ResponseEntity<ProvinceDTO> updateProvince(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody ProvinceDTO provinceDTO
+        @Valid @RequestBody ProvinceDTO provinceDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Province : {}, {}", id, provinceDTO);
         if (provinceDTO.getId() == null) {
@@ -97,6 +114,7 @@ public class ProvinceResource {
         if (!provinceRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        provinceDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, provinceDTO.getVersion(), ENTITY_NAME));
 
         ProvinceDTO result = provinceService.save(provinceDTO);
         return ResponseEntity
@@ -110,8 +128,11 @@ public class ProvinceResource {
      *
      * @param id the id of the provinceDTO to save.
      * @param provinceDTO the provinceDTO to update.
+     * @param ifMatch the ETag of the provinceDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated provinceDTO,
      * or with status {@code 400 (Bad Request)} if the provinceDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the province has changed since it was read,
      * or with status {@code 404 (Not Found)} if the provinceDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the provinceDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +140,8 @@ public class ProvinceResource {
     @PatchMapping(value = "/provinces/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<ProvinceDTO> partialUpdateProvince(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody ProvinceDTO provinceDTO
+        @NotNull @RequestBody ProvinceDTO provinceDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Province partially : {}, {}", id, provinceDTO);
         if (provinceDTO.getId() == null) {
@@ -132,6 +154,7 @@ public class ProvinceResource {
         if (!provinceRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(provinceDTO::setVersion);
 
         Optional<ProvinceDTO> result = provinceService.partialUpdate(provinceDTO);
 
@@ -145,27 +168,76 @@ public class ProvinceResource {
      * {@code GET  /provinces} : get all the provinces.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of provinces in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of provinces in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/provinces")
-    public ResponseEntity<List<ProvinceDTO>> getAllProvinces(Pageable pageable) {
-        log.debug("REST request to get a page of Provinces");
-        Page<ProvinceDTO> page = provinceService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<ProvinceDTO>> getAllProvinces(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Province.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Provinces after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            provinceService::findAllAfter,
+            provinceService::findAll,
+            ProvinceDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /provinces?regionId=:regionId} : get the id and libelle of the provinces of the "regionId" region.
+     *
+     * @param regionId the id of the region.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of provinces in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/provinces", params = "regionId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllProvincesByRegion(
+        @RequestParam Long regionId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Provinces of Region : {}", regionId);
+        String tableTag = entityVersionService.getTableTag(Province.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(provinceService.findAllByRegion(regionId));
     }
 
     /**
      * {@code GET  /provinces/:id} : get the "id" province.
      *
      * @param id the id of the provinceDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the provinceDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the provinceDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the provinceDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/provinces/{id}")
-    public ResponseEntity<ProvinceDTO> getProvince(@PathVariable Long id) {
+    public ResponseEntity<ProvinceDTO> getProvince(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Province : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Province.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<ProvinceDTO> provinceDTO = provinceService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(provinceDTO);
+        return EntityTagUtil.wrapOrNotFound(provinceDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -0,0 +1,54 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import com.onea.sidot.gestioneau.service.RealisationAnalyticsService;
+import com.onea.sidot.gestioneau.service.dto.CompletionRateDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller comparing the previsions to the realised {@link com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage}.
+ */
+@RestController
+@RequestMapping("/api")
+public class RealisationAnalyticsResource {
+
+    private final Logger log = LoggerFactory.getLogger(RealisationAnalyticsResource.class);
+
+    private final RealisationAnalyticsService realisationAnalyticsService;
+
+    public RealisationAnalyticsResource(RealisationAnalyticsService realisationAnalyticsService) {
+        this.realisationAnalyticsService = realisationAnalyticsService;
+    }
+
+    /**
+     * {@code GET  /analytics/completion-rates} : get the completion rates of the previsions.
+     *
+     * @param level the location level to group the previsions by, in addition to their year.
+     * @param anneeId the id of the year to restrict the previsions to, or none for all of them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of completion rates in body.
+     */
+    @GetMapping("/analytics/completion-rates")
+    public ResponseEntity<List<CompletionRateDTO>> getCompletionRates(
+        @RequestParam(defaultValue = "CENTRE") CompletionRateDTO.Level level,
+        @RequestParam(required = false) Long anneeId
+    ) {
+        log.debug("REST request to get the completion rates by {} of the year {}", level, anneeId);
+        return ResponseEntity.ok().body(realisationAnalyticsService.findCompletionRates(level, anneeId));
+    }
+
+    /**
+     * {@code POST  /admin/analytics/completion-rates/rebuild} : count all the sheets again, restricted to the
+     * administrators.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/admin/analytics/completion-rates/rebuild")
+    public ResponseEntity<Void> rebuildCompletionRates() {
+        log.debug("REST request to rebuild the completion rates");
+        realisationAnalyticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
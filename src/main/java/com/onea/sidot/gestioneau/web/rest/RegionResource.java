@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Region;
 import com.onea.sidot.gestioneau.repository.RegionRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.RegionService;
 import com.onea.sidot.gestioneau.service.dto.RegionDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,12 @@ public class RegionResource {
 
     private final RegionRepository regionRepository;
 
-    public RegionResource(RegionService regionService, RegionRepository regionRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public RegionResource(RegionService regionService, RegionRepository regionRepository, EntityVersionService entityVersionService) {
         this.regionService = regionService;
         this.regionRepository = regionRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +83,20 @@ public class RegionResource {
      *
      * @param id the id of the regionDTO to save.
      * @param regionDTO the regionDTO to update.
+     * @param ifMatch the ETag of the regionDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated regionDTO,
      * or with status {@code 400 (Bad Request)} if the regionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the region has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the regionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/regions/{id}")
     public ResponseEntity<RegionDTO> updateRegion(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody RegionDTO regionDTO
+        @Valid @RequestBody RegionDTO regionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Region : {}, {}", id, regionDTO);
         if (regionDTO.getId() == null) {
@@ -97,6 +109,7 @@ public class RegionResource {
         if (!regionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        regionDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, regionDTO.getVersion(), ENTITY_NAME));
 
         RegionDTO result = regionService.save(regionDTO);
         return ResponseEntity
@@ -110,8 +123,11 @@ public class RegionResource {
      *
      * @param id the id of the regionDTO to save.
      * @param regionDTO the regionDTO to update.
+     * @param ifMatch the ETag of the regionDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated regionDTO,
      * or with status {@code 400 (Bad Request)} if the regionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the region has changed since it was read,
      * or with status {@code 404 (Not Found)} if the regionDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the regionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +135,8 @@ public class RegionResource {
     @PatchMapping(value = "/regions/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<RegionDTO> partialUpdateRegion(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody RegionDTO regionDTO
+        @NotNull @RequestBody RegionDTO regionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Region partially : {}, {}", id, regionDTO);
         if (regionDTO.getId() == null) {
@@ -132,6 +149,7 @@ public class RegionResource {
         if (!regionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(regionDTO::setVersion);
 
         Optional<RegionDTO> result = regionService.partialUpdate(regionDTO);
 
@@ -145,27 +163,55 @@ public class RegionResource {
      * {@code GET  /regions} : get all the regions.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of regions in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of regions in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/regions")
-    public ResponseEntity<List<RegionDTO>> getAllRegions(Pageable pageable) {
-        log.debug("REST request to get a page of Regions");
-        Page<RegionDTO> page = regionService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<RegionDTO>> getAllRegions(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Region.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Regions after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            regionService::findAllAfter,
+            regionService::findAll,
+            RegionDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
     }
 
     /**
      * {@code GET  /regions/:id} : get the "id" region.
      *
      * @param id the id of the regionDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the regionDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the regionDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the regionDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/regions/{id}")
-    public ResponseEntity<RegionDTO> getRegion(@PathVariable Long id) {
+    public ResponseEntity<RegionDTO> getRegion(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Region : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Region.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<RegionDTO> regionDTO = regionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(regionDTO);
+        return EntityTagUtil.wrapOrNotFound(regionDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
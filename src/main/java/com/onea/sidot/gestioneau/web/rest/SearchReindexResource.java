@@ -0,0 +1,80 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import com.onea.sidot.gestioneau.service.SearchReindexService;
+import com.onea.sidot.gestioneau.service.dto.ReindexJobDTO;
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.time.Instant;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for rebuilding the Elasticsearch indices, restricted to the administrators.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class SearchReindexResource {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexResource.class);
+
+    private static final String ENTITY_NAME = "gestioneauSearchReindex";
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexResource(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    /**
+     * {@code POST  /admin/search/reindex} : start a reindex job.
+     *
+     * @param entity the entity type to reindex, for example {@code Parcelle}, or none for all of them.
+     * @param mode {@code FULL} to rebuild the indices aside and swap them in, or {@code INCREMENTAL} to index again
+     *             in place the rows modified since the given date.
+     * @param since in {@code INCREMENTAL} mode, the date from which the modified rows are indexed again.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the new job, or with status
+     * {@code 400 (Bad Request)} if the entity type is unknown or a job is already running.
+     */
+    @PostMapping("/search/reindex")
+    public ResponseEntity<ReindexJobDTO> startReindex(
+        @RequestParam(required = false) String entity,
+        @RequestParam(defaultValue = "FULL") ReindexJobDTO.Mode mode,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since
+    ) {
+        log.debug("REST request to start a {} reindex of {} since {}", mode, entity, since);
+        if (entity != null && !searchReindexService.getEntityTypes().contains(entity)) {
+            throw new BadRequestAlertException("Unknown entity type", ENTITY_NAME, "entityinvalid");
+        }
+        return searchReindexService
+            .start(entity, mode, since)
+            .map(job -> ResponseEntity.accepted().body(job))
+            .orElseThrow(() -> new BadRequestAlertException("A reindex job is already running", ENTITY_NAME, "reindexrunning"));
+    }
+
+    /**
+     * {@code GET  /admin/search/reindex} : get the progress of the running reindex job, or of the last one.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job, or with status
+     * {@code 404 (Not Found)} if no job was started.
+     */
+    @GetMapping("/search/reindex")
+    public ResponseEntity<ReindexJobDTO> getReindex() {
+        log.debug("REST request to get the reindex job");
+        return ResponseUtil.wrapOrNotFound(searchReindexService.getCurrentJob());
+    }
+
+    /**
+     * {@code GET  /admin/search/reindex/entities} : get the entity types which can be reindexed.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the entity types in body.
+     */
+    @GetMapping("/search/reindex/entities")
+    public ResponseEntity<Set<String>> getReindexEntities() {
+        log.debug("REST request to get the reindexable entity types");
+        return ResponseEntity.ok().body(searchReindexService.getEntityTypes());
+    }
+}
@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Secteur;
 import com.onea.sidot.gestioneau.repository.SecteurRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.SecteurService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.SecteurDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,12 @@ public class SecteurResource {
 
     private final SecteurRepository secteurRepository;
 
-    public SecteurResource(SecteurService secteurService, SecteurRepository secteurRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public SecteurResource(SecteurService secteurService, SecteurRepository secteurRepository, EntityVersionService entityVersionService) {
         this.secteurService = secteurService;
         this.secteurRepository = secteurRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +84,20 @@ public class SecteurResource {
      *
      * @param id the id of the secteurDTO to save.
      * @param secteurDTO the secteurDTO to update.
+     * @param ifMatch the ETag of the secteurDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated secteurDTO,
      * or with status {@code 400 (Bad Request)} if the secteurDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the secteur has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the secteurDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/secteurs/{id}")
     public ResponseEntity<SecteurDTO> updateSecteur(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody SecteurDTO secteurDTO
+        @Valid @RequestBody SecteurDTO secteurDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Secteur : {}, {}", id, secteurDTO);
         if (secteurDTO.getId() == null) {
@@ -97,6 +110,7 @@ public class SecteurResource {
         if (!secteurRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        secteurDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, secteurDTO.getVersion(), ENTITY_NAME));
 
         SecteurDTO result = secteurService.save(secteurDTO);
         return ResponseEntity
@@ -110,8 +124,11 @@ public class SecteurResource {
      *
      * @param id the id of the secteurDTO to save.
      * @param secteurDTO the secteurDTO to update.
+     * @param ifMatch the ETag of the secteurDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated secteurDTO,
      * or with status {@code 400 (Bad Request)} if the secteurDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the secteur has changed since it was read,
      * or with status {@code 404 (Not Found)} if the secteurDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the secteurDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +136,8 @@ public class SecteurResource {
     @PatchMapping(value = "/secteurs/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<SecteurDTO> partialUpdateSecteur(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody SecteurDTO secteurDTO
+        @NotNull @RequestBody SecteurDTO secteurDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Secteur partially : {}, {}", id, secteurDTO);
         if (secteurDTO.getId() == null) {
@@ -132,6 +150,7 @@ public class SecteurResource {
         if (!secteurRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(secteurDTO::setVersion);
 
         Optional<SecteurDTO> result = secteurService.partialUpdate(secteurDTO);
 
@@ -145,27 +164,76 @@ public class SecteurResource {
      * {@code GET  /secteurs} : get all the secteurs.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of secteurs in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of secteurs in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/secteurs")
-    public ResponseEntity<List<SecteurDTO>> getAllSecteurs(Pageable pageable) {
-        log.debug("REST request to get a page of Secteurs");
-        Page<SecteurDTO> page = secteurService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<SecteurDTO>> getAllSecteurs(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Secteur.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Secteurs after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            secteurService::findAllAfter,
+            secteurService::findAll,
+            SecteurDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /secteurs?localiteId=:localiteId} : get the id and libelle of the secteurs of the "localiteId" localite.
+     *
+     * @param localiteId the id of the localite.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of secteurs in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/secteurs", params = "localiteId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllSecteursByLocalite(
+        @RequestParam Long localiteId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Secteurs of Localite : {}", localiteId);
+        String tableTag = entityVersionService.getTableTag(Secteur.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(secteurService.findAllByLocalite(localiteId));
     }
 
     /**
      * {@code GET  /secteurs/:id} : get the "id" secteur.
      *
      * @param id the id of the secteurDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the secteurDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the secteurDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the secteurDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/secteurs/{id}")
-    public ResponseEntity<SecteurDTO> getSecteur(@PathVariable Long id) {
+    public ResponseEntity<SecteurDTO> getSecteur(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Secteur : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Secteur.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<SecteurDTO> secteurDTO = secteurService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(secteurDTO);
+        return EntityTagUtil.wrapOrNotFound(secteurDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,15 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.Section;
 import com.onea.sidot.gestioneau.repository.SectionRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.SectionService;
+import com.onea.sidot.gestioneau.service.dto.IdLibelleDTO;
 import com.onea.sidot.gestioneau.service.dto.SectionDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +51,12 @@ public class SectionResource {
 
     private final SectionRepository sectionRepository;
 
-    public SectionResource(SectionService sectionService, SectionRepository sectionRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public SectionResource(SectionService sectionService, SectionRepository sectionRepository, EntityVersionService entityVersionService) {
         this.sectionService = sectionService;
         this.sectionRepository = sectionRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +84,20 @@ public class SectionResource {
      *
      * @param id the id of the sectionDTO to save.
      * @param sectionDTO the sectionDTO to update.
+     * @param ifMatch the ETag of the sectionDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sectionDTO,
      * or with status {@code 400 (Bad Request)} if the sectionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the section has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the sectionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/sections/{id}")
     public ResponseEntity<SectionDTO> updateSection(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody SectionDTO sectionDTO
+        @Valid @RequestBody SectionDTO sectionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Section : {}, {}", id, sectionDTO);
         if (sectionDTO.getId() == null) {
@@ -97,6 +110,7 @@ public class SectionResource {
         if (!sectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        sectionDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, sectionDTO.getVersion(), ENTITY_NAME));
 
         SectionDTO result = sectionService.save(sectionDTO);
         return ResponseEntity
@@ -110,8 +124,11 @@ public class SectionResource {
      *
      * @param id the id of the sectionDTO to save.
      * @param sectionDTO the sectionDTO to update.
+     * @param ifMatch the ETag of the sectionDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sectionDTO,
      * or with status {@code 400 (Bad Request)} if the sectionDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the section has changed since it was read,
      * or with status {@code 404 (Not Found)} if the sectionDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the sectionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +136,8 @@ public class SectionResource {
     @PatchMapping(value = "/sections/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<SectionDTO> partialUpdateSection(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody SectionDTO sectionDTO
+        @NotNull @RequestBody SectionDTO sectionDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Section partially : {}, {}", id, sectionDTO);
         if (sectionDTO.getId() == null) {
@@ -132,6 +150,7 @@ public class SectionResource {
         if (!sectionRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(sectionDTO::setVersion);
 
         Optional<SectionDTO> result = sectionService.partialUpdate(sectionDTO);
 
@@ -145,27 +164,76 @@ public class SectionResource {
      * {@code GET  /sections} : get all the sections.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sections in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sections in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/sections")
-    public ResponseEntity<List<SectionDTO>> getAllSections(Pageable pageable) {
-        log.debug("REST request to get a page of Sections");
-        Page<SectionDTO> page = sectionService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<SectionDTO>> getAllSections(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(Section.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the Sections after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            sectionService::findAllAfter,
+            sectionService::findAll,
+            SectionDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /sections?secteurId=:secteurId} : get the id and libelle of the sections of the "secteurId" secteur.
+     *
+     * @param secteurId the id of the secteur.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sections in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping(value = "/sections", params = "secteurId")
+    public ResponseEntity<List<IdLibelleDTO>> getAllSectionsBySecteur(
+        @RequestParam Long secteurId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get the Sections of Secteur : {}", secteurId);
+        String tableTag = entityVersionService.getTableTag(Section.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        return ResponseEntity.ok().eTag(tableTag).body(sectionService.findAllBySecteur(secteurId));
     }
 
     /**
      * {@code GET  /sections/:id} : get the "id" section.
      *
      * @param id the id of the sectionDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sectionDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the sectionDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sectionDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/sections/{id}")
-    public ResponseEntity<SectionDTO> getSection(@PathVariable Long id) {
+    public ResponseEntity<SectionDTO> getSection(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Section : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(Section.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<SectionDTO> sectionDTO = sectionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(sectionDTO);
+        return EntityTagUtil.wrapOrNotFound(sectionDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.SourceApprovEp;
 import com.onea.sidot.gestioneau.repository.SourceApprovEpRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.SourceApprovEpService;
 import com.onea.sidot.gestioneau.service.dto.SourceApprovEpDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class SourceApprovEpResource {
 
     private final SourceApprovEpRepository sourceApprovEpRepository;
 
-    public SourceApprovEpResource(SourceApprovEpService sourceApprovEpService, SourceApprovEpRepository sourceApprovEpRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public SourceApprovEpResource(
+        SourceApprovEpService sourceApprovEpService,
+        SourceApprovEpRepository sourceApprovEpRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.sourceApprovEpService = sourceApprovEpService;
         this.sourceApprovEpRepository = sourceApprovEpRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -77,15 +88,20 @@ public class SourceApprovEpResource {
      *
      * @param id the id of the sourceApprovEpDTO to save.
      * @param sourceApprovEpDTO the sourceApprovEpDTO to update.
+     * @param ifMatch the ETag of the sourceApprovEpDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sourceApprovEpDTO,
      * or with status {@code 400 (Bad Request)} if the sourceApprovEpDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the sourceApprovEp has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the sourceApprovEpDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/source-approv-eps/{id}")
     public ResponseEntity<SourceApprovEpDTO> updateSourceApprovEp(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody SourceApprovEpDTO sourceApprovEpDTO
+        @Valid @RequestBody SourceApprovEpDTO sourceApprovEpDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update SourceApprovEp : {}, {}", id, sourceApprovEpDTO);
         if (sourceApprovEpDTO.getId() == null) {
@@ -98,6 +114,7 @@ public class SourceApprovEpResource {
         if (!sourceApprovEpRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        sourceApprovEpDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, sourceApprovEpDTO.getVersion(), ENTITY_NAME));
 
         SourceApprovEpDTO result = sourceApprovEpService.save(sourceApprovEpDTO);
         return ResponseEntity
@@ -111,8 +128,11 @@ public class SourceApprovEpResource {
      *
      * @param id the id of the sourceApprovEpDTO to save.
      * @param sourceApprovEpDTO the sourceApprovEpDTO to update.
+     * @param ifMatch the ETag of the sourceApprovEpDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated sourceApprovEpDTO,
      * or with status {@code 400 (Bad Request)} if the sourceApprovEpDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the sourceApprovEp has changed since it was read,
      * or with status {@code 404 (Not Found)} if the sourceApprovEpDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the sourceApprovEpDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +140,8 @@ public class SourceApprovEpResource {
     @PatchMapping(value = "/source-approv-eps/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<SourceApprovEpDTO> partialUpdateSourceApprovEp(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody SourceApprovEpDTO sourceApprovEpDTO
+        @NotNull @RequestBody SourceApprovEpDTO sourceApprovEpDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update SourceApprovEp partially : {}, {}", id, sourceApprovEpDTO);
         if (sourceApprovEpDTO.getId() == null) {
@@ -133,6 +154,7 @@ public class SourceApprovEpResource {
         if (!sourceApprovEpRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(sourceApprovEpDTO::setVersion);
 
         Optional<SourceApprovEpDTO> result = sourceApprovEpService.partialUpdate(sourceApprovEpDTO);
 
@@ -146,27 +168,80 @@ public class SourceApprovEpResource {
      * {@code GET  /source-approv-eps} : get all the sourceApprovEps.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sourceApprovEps in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sourceApprovEps in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/source-approv-eps")
-    public ResponseEntity<List<SourceApprovEpDTO>> getAllSourceApprovEps(Pageable pageable) {
-        log.debug("REST request to get a page of SourceApprovEps");
-        Page<SourceApprovEpDTO> page = sourceApprovEpService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<SourceApprovEpDTO>> getAllSourceApprovEps(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(SourceApprovEp.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the SourceApprovEps after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            sourceApprovEpService::findAllAfter,
+            sourceApprovEpService::findAll,
+            SourceApprovEpDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /source-approv-eps/_all} : get all the sourceApprovEps, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the sourceApprovEps to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sourceApprovEps in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/source-approv-eps/_all")
+    public ResponseEntity<List<SourceApprovEpDTO>> getAllSourceApprovEpsUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all SourceApprovEps of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(SourceApprovEp.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<SourceApprovEpDTO> sourceApprovEps = libelle == null
+            ? sourceApprovEpService.findAll()
+            : sourceApprovEpService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(sourceApprovEps);
     }
 
     /**
      * {@code GET  /source-approv-eps/:id} : get the "id" sourceApprovEp.
      *
      * @param id the id of the sourceApprovEpDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sourceApprovEpDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the sourceApprovEpDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sourceApprovEpDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/source-approv-eps/{id}")
-    public ResponseEntity<SourceApprovEpDTO> getSourceApprovEp(@PathVariable Long id) {
+    public ResponseEntity<SourceApprovEpDTO> getSourceApprovEp(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get SourceApprovEp : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(SourceApprovEp.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<SourceApprovEpDTO> sourceApprovEpDTO = sourceApprovEpService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(sourceApprovEpDTO);
+        return EntityTagUtil.wrapOrNotFound(sourceApprovEpDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
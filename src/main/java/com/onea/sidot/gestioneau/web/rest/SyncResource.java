@@ -0,0 +1,58 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import com.onea.sidot.gestioneau.service.SyncService;
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.time.Instant;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the delta sync of the field tablets.
+ */
+@RestController
+@RequestMapping("/api")
+public class SyncResource {
+
+    private static final String ENTITY_NAME = "sync";
+
+    private final Logger log = LoggerFactory.getLogger(SyncResource.class);
+
+    private final SyncService syncService;
+
+    public SyncResource(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * {@code GET  /sync?since=:since} : get the sheets, parcelles, lots and reference data created, modified or
+     * deleted since the previous sync.
+     * <p>
+     * The changes are written straight to the response as newline-delimited JSON, ending with the token of the next
+     * sync; see {@link SyncService} for the format.
+     *
+     * @param since the token sent at the end of the previous sync, or none for a full sync.
+     * @param response the response to write the changes to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/sync")
+    public void sync(@RequestParam(required = false) String since, HttpServletResponse response) throws IOException {
+        log.debug("REST request to sync the changes since {}", since);
+        Instant sinceDate = null;
+        if (since != null) {
+            try {
+                sinceDate = SyncService.parseToken(since);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid sync token", ENTITY_NAME, "synctokeninvalid");
+            }
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        syncService.sync(sinceDate, response.getOutputStream());
+    }
+}
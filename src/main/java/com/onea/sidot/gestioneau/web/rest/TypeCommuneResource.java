@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.TypeCommune;
 import com.onea.sidot.gestioneau.repository.TypeCommuneRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.TypeCommuneService;
 import com.onea.sidot.gestioneau.service.dto.TypeCommuneDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class TypeCommuneResource {
 
     private final TypeCommuneRepository typeCommuneRepository;
 
-    public TypeCommuneResource(TypeCommuneService typeCommuneService, TypeCommuneRepository typeCommuneRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public TypeCommuneResource(
+        TypeCommuneService typeCommuneService,
+        TypeCommuneRepository typeCommuneRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.typeCommuneService = typeCommuneService;
         this.typeCommuneRepository = typeCommuneRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -76,15 +87,20 @@ public class TypeCommuneResource {
      *
      * @param id the id of the typeCommuneDTO to save.
      * @param typeCommuneDTO the typeCommuneDTO to update.
+     * @param ifMatch the ETag of the typeCommuneDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeCommuneDTO,
      * or with status {@code 400 (Bad Request)} if the typeCommuneDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the typeCommune has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the typeCommuneDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/type-communes/{id}")
     public ResponseEntity<TypeCommuneDTO> updateTypeCommune(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody TypeCommuneDTO typeCommuneDTO
+        @Valid @RequestBody TypeCommuneDTO typeCommuneDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update TypeCommune : {}, {}", id, typeCommuneDTO);
         if (typeCommuneDTO.getId() == null) {
@@ -97,6 +113,7 @@ public class TypeCommuneResource {
         if (!typeCommuneRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        typeCommuneDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, typeCommuneDTO.getVersion(), ENTITY_NAME));
 
         TypeCommuneDTO result = typeCommuneService.save(typeCommuneDTO);
         return ResponseEntity
@@ -110,8 +127,11 @@ public class TypeCommuneResource {
      *
      * @param id the id of the typeCommuneDTO to save.
      * @param typeCommuneDTO the typeCommuneDTO to update.
+     * @param ifMatch the ETag of the typeCommuneDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeCommuneDTO,
      * or with status {@code 400 (Bad Request)} if the typeCommuneDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the typeCommune has changed since it was read,
      * or with status {@code 404 (Not Found)} if the typeCommuneDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the typeCommuneDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +139,8 @@ public class TypeCommuneResource {
     @PatchMapping(value = "/type-communes/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<TypeCommuneDTO> partialUpdateTypeCommune(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody TypeCommuneDTO typeCommuneDTO
+        @NotNull @RequestBody TypeCommuneDTO typeCommuneDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update TypeCommune partially : {}, {}", id, typeCommuneDTO);
         if (typeCommuneDTO.getId() == null) {
@@ -132,6 +153,7 @@ public class TypeCommuneResource {
         if (!typeCommuneRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(typeCommuneDTO::setVersion);
 
         Optional<TypeCommuneDTO> result = typeCommuneService.partialUpdate(typeCommuneDTO);
 
@@ -145,27 +167,78 @@ public class TypeCommuneResource {
      * {@code GET  /type-communes} : get all the typeCommunes.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeCommunes in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeCommunes in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/type-communes")
-    public ResponseEntity<List<TypeCommuneDTO>> getAllTypeCommunes(Pageable pageable) {
-        log.debug("REST request to get a page of TypeCommunes");
-        Page<TypeCommuneDTO> page = typeCommuneService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<TypeCommuneDTO>> getAllTypeCommunes(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(TypeCommune.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the TypeCommunes after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            typeCommuneService::findAllAfter,
+            typeCommuneService::findAll,
+            TypeCommuneDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /type-communes/_all} : get all the typeCommunes, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the typeCommunes to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeCommunes in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/type-communes/_all")
+    public ResponseEntity<List<TypeCommuneDTO>> getAllTypeCommunesUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all TypeCommunes of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(TypeCommune.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<TypeCommuneDTO> typeCommunes = libelle == null ? typeCommuneService.findAll() : typeCommuneService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(typeCommunes);
     }
 
     /**
      * {@code GET  /type-communes/:id} : get the "id" typeCommune.
      *
      * @param id the id of the typeCommuneDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the typeCommuneDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the typeCommuneDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the typeCommuneDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/type-communes/{id}")
-    public ResponseEntity<TypeCommuneDTO> getTypeCommune(@PathVariable Long id) {
+    public ResponseEntity<TypeCommuneDTO> getTypeCommune(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get TypeCommune : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(TypeCommune.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<TypeCommuneDTO> typeCommuneDTO = typeCommuneService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(typeCommuneDTO);
+        return EntityTagUtil.wrapOrNotFound(typeCommuneDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
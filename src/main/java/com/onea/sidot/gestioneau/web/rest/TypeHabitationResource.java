@@ -2,10 +2,14 @@ package com.onea.sidot.gestioneau.web.rest;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
+import com.onea.sidot.gestioneau.domain.TypeHabitation;
 import com.onea.sidot.gestioneau.repository.TypeHabitationRepository;
+import com.onea.sidot.gestioneau.service.EntityVersionService;
 import com.onea.sidot.gestioneau.service.TypeHabitationService;
 import com.onea.sidot.gestioneau.service.dto.TypeHabitationDTO;
 import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import com.onea.sidot.gestioneau.web.rest.util.EntityTagUtil;
+import com.onea.sidot.gestioneau.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -46,9 +50,16 @@ public class TypeHabitationResource {
 
     private final TypeHabitationRepository typeHabitationRepository;
 
-    public TypeHabitationResource(TypeHabitationService typeHabitationService, TypeHabitationRepository typeHabitationRepository) {
+    private final EntityVersionService entityVersionService;
+
+    public TypeHabitationResource(
+        TypeHabitationService typeHabitationService,
+        TypeHabitationRepository typeHabitationRepository,
+        EntityVersionService entityVersionService
+    ) {
         this.typeHabitationService = typeHabitationService;
         this.typeHabitationRepository = typeHabitationRepository;
+        this.entityVersionService = entityVersionService;
     }
 
     /**
@@ -77,15 +88,20 @@ public class TypeHabitationResource {
      *
      * @param id the id of the typeHabitationDTO to save.
      * @param typeHabitationDTO the typeHabitationDTO to update.
+     * @param ifMatch the ETag of the typeHabitationDTO as read, checked instead of its version if present:
+     * an update with neither is rejected.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeHabitationDTO,
      * or with status {@code 400 (Bad Request)} if the typeHabitationDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the typeHabitation has changed since it was read,
+     * or with status {@code 428 (Precondition Required)} if it has neither a version nor an {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the typeHabitationDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/type-habitations/{id}")
     public ResponseEntity<TypeHabitationDTO> updateTypeHabitation(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody TypeHabitationDTO typeHabitationDTO
+        @Valid @RequestBody TypeHabitationDTO typeHabitationDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update TypeHabitation : {}, {}", id, typeHabitationDTO);
         if (typeHabitationDTO.getId() == null) {
@@ -98,6 +114,7 @@ public class TypeHabitationResource {
         if (!typeHabitationRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        typeHabitationDTO.setVersion(EntityTagUtil.getRequiredVersion(ifMatch, typeHabitationDTO.getVersion(), ENTITY_NAME));
 
         TypeHabitationDTO result = typeHabitationService.save(typeHabitationDTO);
         return ResponseEntity
@@ -111,8 +128,11 @@ public class TypeHabitationResource {
      *
      * @param id the id of the typeHabitationDTO to save.
      * @param typeHabitationDTO the typeHabitationDTO to update.
+     * @param ifMatch the ETag of the typeHabitationDTO as read, checked instead of its version if present:
+     * an update with neither is applied to the current version, unchecked.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated typeHabitationDTO,
      * or with status {@code 400 (Bad Request)} if the typeHabitationDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the typeHabitation has changed since it was read,
      * or with status {@code 404 (Not Found)} if the typeHabitationDTO is not found,
      * or with status {@code 500 (Internal Server Error)} if the typeHabitationDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +140,8 @@ public class TypeHabitationResource {
     @PatchMapping(value = "/type-habitations/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<TypeHabitationDTO> partialUpdateTypeHabitation(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody TypeHabitationDTO typeHabitationDTO
+        @NotNull @RequestBody TypeHabitationDTO typeHabitationDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update TypeHabitation partially : {}, {}", id, typeHabitationDTO);
         if (typeHabitationDTO.getId() == null) {
@@ -133,6 +154,7 @@ public class TypeHabitationResource {
         if (!typeHabitationRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        EntityTagUtil.getVersion(ifMatch, ENTITY_NAME).ifPresent(typeHabitationDTO::setVersion);
 
         Optional<TypeHabitationDTO> result = typeHabitationService.partialUpdate(typeHabitationDTO);
 
@@ -146,27 +168,80 @@ public class TypeHabitationResource {
      * {@code GET  /type-habitations} : get all the typeHabitations.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeHabitations in body.
+     * @param after the id after which to start, to read the list with keyset pagination instead of pages, in id order:
+     * a {@code sort} is then rejected.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeHabitations in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
      */
     @GetMapping("/type-habitations")
-    public ResponseEntity<List<TypeHabitationDTO>> getAllTypeHabitations(Pageable pageable) {
-        log.debug("REST request to get a page of TypeHabitations");
-        Page<TypeHabitationDTO> page = typeHabitationService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    public ResponseEntity<List<TypeHabitationDTO>> getAllTypeHabitations(
+        Pageable pageable,
+        @RequestParam(required = false) Long after,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String tableTag = entityVersionService.getTableTag(TypeHabitation.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        log.debug("REST request to get the TypeHabitations after id {}, or else the page {}", after, pageable);
+        return KeysetPaginationUtil.respond(
+            after,
+            pageable,
+            typeHabitationService::findAllAfter,
+            typeHabitationService::findAll,
+            TypeHabitationDTO::getId,
+            ENTITY_NAME,
+            tableTag
+        );
+    }
+
+    /**
+     * {@code GET  /type-habitations/_all} : get all the typeHabitations, or the ones of a libelle, without pagination.
+     * Served from a cache, as the reference data seldom changes.
+     *
+     * @param libelle the libelle of the typeHabitations to get, or none for all of them.
+     * @param ifNoneMatch the ETag of the list already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of typeHabitations in body,
+     * or with status {@code 304 (Not Modified)} if they have not changed since they were read.
+     */
+    @GetMapping("/type-habitations/_all")
+    public ResponseEntity<List<TypeHabitationDTO>> getAllTypeHabitationsUnpaged(
+        @RequestParam(required = false) String libelle,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("REST request to get all TypeHabitations of libelle {}", libelle);
+        String tableTag = entityVersionService.getTableTag(TypeHabitation.class);
+        if (EntityTagUtil.matches(ifNoneMatch, tableTag)) {
+            return EntityTagUtil.notModified(tableTag);
+        }
+        List<TypeHabitationDTO> typeHabitations = libelle == null
+            ? typeHabitationService.findAll()
+            : typeHabitationService.findAllByLibelle(libelle);
+        return ResponseEntity.ok().eTag(tableTag).body(typeHabitations);
     }
 
     /**
      * {@code GET  /type-habitations/:id} : get the "id" typeHabitation.
      *
      * @param id the id of the typeHabitationDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the typeHabitationDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the typeHabitationDTO already read, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the typeHabitationDTO,
+     * or with status {@code 304 (Not Modified)} if it has not changed since it was read,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/type-habitations/{id}")
-    public ResponseEntity<TypeHabitationDTO> getTypeHabitation(@PathVariable Long id) {
+    public ResponseEntity<TypeHabitationDTO> getTypeHabitation(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get TypeHabitation : {}", id);
+        EntityVersionService.EntityTag entityTag = entityVersionService.getEntityTag(TypeHabitation.class, id);
+        if (EntityTagUtil.matches(ifNoneMatch, entityTag.getValue())) {
+            return EntityTagUtil.notModified(entityTag.getValue());
+        }
         Optional<TypeHabitationDTO> typeHabitationDTO = typeHabitationService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(typeHabitationDTO);
+        return EntityTagUtil.wrapOrNotFound(typeHabitationDTO, dto -> entityTag.withVersion(dto.getVersion()));
     }
 
     /**
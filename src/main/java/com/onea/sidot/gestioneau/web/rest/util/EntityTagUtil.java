@@ -0,0 +1,117 @@
+package com.onea.sidot.gestioneau.web.rest.util;
+
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for handling the ETags of the REST resources, built by
+ * {@link com.onea.sidot.gestioneau.service.EntityVersionService}.
+ * <p>
+ * An entity tag starts with the version of the entity, which is what an {@code If-Match} header is checked against.
+ */
+public final class EntityTagUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTagUtil() {}
+
+    /**
+     * Check whether an {@code If-None-Match} header matches a tag.
+     *
+     * @param ifNoneMatch the header, if any.
+     * @param entityTag the current tag, if known.
+     * @return whether the tag is listed by the header.
+     */
+    public static boolean matches(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null || entityTag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = unquote(tag);
+            if ("*".equals(candidate) || entityTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the version of an entity from an {@code If-Match} header.
+     *
+     * @param ifMatch the header, if any.
+     * @param entityName the name of the entity, for the error.
+     * @return the version, or none if there is no header or if it matches any version.
+     * @throws BadRequestAlertException if the header is not a tag of the entity.
+     */
+    public static Optional<Long> getVersion(String ifMatch, String entityName) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return Optional.empty();
+        }
+        String tag = unquote(ifMatch);
+        try {
+            return Optional.of(Long.parseLong(tag.substring(0, tag.indexOf('-') < 0 ? tag.length() : tag.indexOf('-'))));
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid If-Match header", entityName, "ifmatchinvalid");
+        }
+    }
+
+    /**
+     * Get the version a full update is checked against, from an {@code If-Match} header or else from the entity.
+     *
+     * @param ifMatch the header, if any.
+     * @param version the version carried by the entity, if any.
+     * @param entityName the name of the entity, for the errors.
+     * @return the version.
+     * @throws BadRequestAlertException if the header is not a tag of the entity.
+     * @throws ResponseStatusException with status {@code 428 (Precondition Required)} if there is no version: the
+     * update would overwrite the changes it was not made from.
+     */
+    public static Long getRequiredVersion(String ifMatch, Long version, String entityName) {
+        return getVersion(ifMatch, entityName)
+            .or(() -> Optional.ofNullable(version))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "No version for the update of " + entityName));
+    }
+
+    /**
+     * Build a {@code 304 (Not Modified)} response.
+     *
+     * @param entityTag the current tag.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> notModified(String entityTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+    }
+
+    /**
+     * Wrap the optional into a {@link ResponseEntity} with an {@code ETag} header, or throw a
+     * {@link ResponseStatusException} with status {@code 404 (Not Found)}.
+     * <p>
+     * An {@code If-None-Match} header matching the tag still gets a {@code 304 (Not Modified)} response.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param entityTag the function returning the tag of the response.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, Function<X, String> entityTag) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().eTag(entityTag.apply(response)).body(response))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private static String unquote(String tag) {
+        String value = tag.trim();
+        if (value.startsWith(WEAK_PREFIX)) {
+            value = value.substring(WEAK_PREFIX.length());
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
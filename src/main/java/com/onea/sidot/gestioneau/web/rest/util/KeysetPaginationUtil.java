@@ -0,0 +1,96 @@
+package com.onea.sidot.gestioneau.web.rest.util;
+
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ * <p>
+ * Counterpart of {@link tech.jhipster.web.util.PaginationUtil} for the {@code ?after=<id>&size=N} mode: there is no
+ * total count, and the {@code Link} header only carries the {@code next} cursor, when there is one.
+ */
+public final class KeysetPaginationUtil {
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Answer a list request of the current request, with keyset pagination when it has a cursor and with pages
+     * otherwise.
+     * <p>
+     * The keyset pagination is in id order: a request with both a cursor and a {@code sort} is rejected, rather than
+     * answered in an order it did not ask for.
+     *
+     * @param after the id after which to start, or {@code null} to read a page.
+     * @param pageable the pagination information.
+     * @param findAllAfter the function reading the slice following a cursor.
+     * @param findAll the function reading a page.
+     * @param cursor the function returning the cursor (the id) of an element.
+     * @param entityName the name of the entity, for the error of a sorted keyset request.
+     * @param eTag the ETag of the list.
+     * @param <T> the type of the elements.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the pagination headers and the list in body.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the request has both a cursor and a sort.
+     */
+    public static <T> ResponseEntity<List<T>> respond(
+        Long after,
+        Pageable pageable,
+        BiFunction<Long, Pageable, Slice<T>> findAllAfter,
+        Function<Pageable, Page<T>> findAll,
+        Function<T, ?> cursor,
+        String entityName,
+        String eTag
+    ) {
+        if (after == null) {
+            Page<T> page = findAll.apply(pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+        }
+        if (pageable.getSort().isSorted()) {
+            throw new BadRequestAlertException("The keyset pagination is in id order and cannot be sorted", entityName, "sortafter");
+        }
+        Slice<T> slice = findAllAfter.apply(after, pageable);
+        HttpHeaders headers = generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice, cursor);
+        return ResponseEntity.ok().headers(headers).eTag(eTag).body(slice.getContent());
+    }
+
+    /**
+     * Generate the pagination headers of a slice read with keyset pagination.
+     *
+     * @param uriBuilder the current request URI.
+     * @param slice the slice.
+     * @param cursor the function returning the cursor (the id) of an element.
+     * @param <T> the type of the elements.
+     * @return the {@link HttpHeaders}.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        Function<T, ?> cursor
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            String next = uriBuilder
+                .replaceQueryParam("after", cursor.apply(last))
+                .replaceQueryParam("size", slice.getSize())
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, next, "next"));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,33 @@
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+
+import scala.concurrent.duration._
+
+/**
+ * Throughput under a constant number of concurrent clients, 1000 by default, which each read a page of sheets, of
+ * parcelles and of search results in a loop: run it against each execution mode, pooled and elastic, to compare them.
+ */
+class ConcurrentClientsGatlingTest extends Simulation {
+
+    val clients: Int = Integer.getInteger("clients", 1000)
+
+    val duration: FiniteDuration = Integer.getInteger("duration", 60).intValue.seconds
+
+    val scn = scenario("ConcurrentClients")
+        .forever {
+            exec(http("list")
+                .get("/api/fiche-suivi-ouvrages?page=0&size=20")
+                .check(status.is(200)))
+            .exec(http("list-parcelles")
+                .get("/api/parcelles?page=0&size=20")
+                .check(status.is(200)))
+            .exec(http("search")
+                .get("/api/_search/fiche-suivi-ouvrages?query=*&page=0&size=20")
+                .check(status.is(200)))
+        }
+
+    setUp(scn.inject(rampConcurrentUsers(0).to(clients).during(10.seconds), constantConcurrentUsers(clients).during(duration)))
+        .protocols(LoadTest.httpProtocol)
+        .maxDuration(duration + 10.seconds)
+        .assertions(LoadTest.assertions("concurrent-clients", Seq("list", "list-parcelles", "search")))
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.atomic.AtomicLong
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+
+import scala.concurrent.duration._
+
+/**
+ * Load test of the FicheSuiviOuvrage resource: each user creates a sheet, reads it, lists and searches the sheets,
+ * then patches it.
+ */
+class FicheSuiviOuvrageGatlingTest extends Simulation {
+
+    val sequence = new AtomicLong()
+
+    val feeder = Iterator.continually(Map("nomBenef" -> ("LOADTEST" + sequence.incrementAndGet())))
+
+    val headersMergePatch = Map("Content-Type" -> "application/merge-patch+json")
+
+    val scn = scenario("FicheSuiviOuvrage")
+        .feed(feeder)
+        .exec(http("create")
+            .post("/api/fiche-suivi-ouvrages")
+            .body(StringBody("""{
+                "prjAppuis":"LOADTEST",
+                "nomBenef":"${nomBenef}",
+                "prenomBenef":"Prenom",
+                "professionBenef":"Cultivateur",
+                "nbUsagers":8,
+                "contacts":"70000000",
+                "longitude":-1.53,
+                "latitude":12.37,
+                "dateRemiseDevis":"2021-03-01T00:00:00.000Z",
+                "dateDebutTravaux":"2021-03-15T00:00:00.000Z",
+                "dateFinTravaux":"2021-04-15T00:00:00.000Z",
+                "coutMenage":"25000",
+                "subvOnea":10000,
+                "subvProjet":5000,
+                "autreSubv":0,
+                "toles":4,
+                "animateur":"Animateur",
+                "superviseur":"Superviseur",
+                "controleur":"Controleur"
+            }""")).asJson
+            .check(status.is(201))
+            .check(jsonPath("$.id").saveAs("ficheSuiviOuvrageId")))
+        .pause(1.second)
+        .repeat(3) {
+            exec(http("get")
+                .get("/api/fiche-suivi-ouvrages/${ficheSuiviOuvrageId}")
+                .check(status.is(200)))
+            .exec(http("list")
+                .get("/api/fiche-suivi-ouvrages?page=0&size=20")
+                .check(status.is(200)))
+            .exec(http("search")
+                .get("/api/_search/fiche-suivi-ouvrages?query=nomBenef:${nomBenef}&page=0&size=20")
+                .check(status.is(200)))
+            .pause(1.second)
+        }
+        .exec(http("patch")
+            .patch("/api/fiche-suivi-ouvrages/${ficheSuiviOuvrageId}")
+            .headers(headersMergePatch)
+            .body(StringBody("""{"id":${ficheSuiviOuvrageId},"nbUsagers":9}"""))
+            .check(status.is(200)))
+
+    setUp(scn.inject(rampUsers(LoadTest.users).during(LoadTest.ramp)))
+        .protocols(LoadTest.httpProtocol)
+        .assertions(LoadTest.assertions("fiche-suivi-ouvrages", Seq("create", "get", "list", "search", "patch")))
+}
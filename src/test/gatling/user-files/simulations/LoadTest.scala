@@ -0,0 +1,94 @@
+import java.io.FileInputStream
+import java.util.{Date, Properties}
+
+import io.gatling.core.Predef._
+import io.gatling.core.assertion.Assertion
+import io.gatling.http.Predef._
+import io.gatling.http.protocol.HttpProtocolBuilder
+import io.jsonwebtoken.{Jwts, SignatureAlgorithm}
+import io.jsonwebtoken.io.Decoders
+import io.jsonwebtoken.security.Keys
+
+import scala.concurrent.duration._
+
+/**
+ * Settings of the simulations, passed as system properties by the gatling maven profile, and the thresholds they
+ * are checked against.
+ */
+object LoadTest {
+
+    val baseURL: String = System.getProperty("baseURL", "http://localhost:8081")
+
+    val users: Int = Integer.getInteger("users", 50)
+
+    val ramp: FiniteDuration = Integer.getInteger("ramp", 30).intValue.seconds
+
+    /** The regression, in percent of the baseline, which fails the run. */
+    val regression: Double = System.getProperty("regression", "20").toDouble
+
+    /** Whether a simulation without any baseline value fails, rather than only being checked for failed requests. */
+    val requireBaseline: Boolean = java.lang.Boolean.getBoolean("requireBaseline")
+
+    /** The secret of the dev profile, as the microservice validates the tokens of the gateway but does not issue any. */
+    val jwtSecret: String = System.getProperty(
+        "jwtSecret",
+        "NzMzZDlhN2Y3NjJhMmRjMGZhNmM3NDczNjhiNWU1ODBlZjVlYjFjM2YxZWM2NmQ4ZThmMWY5MDg2NjUxNDBlZTcwMjZjNTI5NzY2N2E5MGZkZWJiNDU0ODRkNGU5YTJhNGU4M2VkNmIzMGQ1MmQ0OWQwZDJhYmMwNmJmNjdlYzk="
+    )
+
+    val token: String = Jwts.builder()
+        .setSubject("loadtest")
+        .claim("auth", "ROLE_ADMIN,ROLE_USER")
+        .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+        .setExpiration(new Date(System.currentTimeMillis() + 24.hours.toMillis))
+        .compact()
+
+    val httpProtocol: HttpProtocolBuilder = http
+        .baseUrl(baseURL)
+        .acceptHeader("application/json")
+        .acceptEncodingHeader("gzip, deflate")
+        .connectionHeader("keep-alive")
+        .userAgentHeader("Gatling")
+        .authorizationHeader("Bearer " + token)
+
+    private val baselineFile = new java.io.File(System.getProperty("baseline", "src/test/gatling/baseline.properties"))
+
+    private val baseline: Properties = {
+        val properties = new Properties()
+        if (baselineFile.exists) {
+            val input = new FileInputStream(baselineFile)
+            try properties.load(input) finally input.close()
+        }
+        properties
+    }
+
+    private def baselineValue(key: String): Option[Double] = Option(baseline.getProperty(key)).map(_.trim.toDouble)
+
+    /**
+     * The assertions of a simulation: no failed request, and, for the values of the baseline, the 95th and 99th
+     * percentiles of each request and the throughput at most `regression` percent worse.
+     *
+     * A simulation without any baseline value is not checked for regressions: it fails if `requireBaseline` is set,
+     * and is otherwise run with a warning, as the baseline is recorded once per machine.
+     *
+     * @param simulation the prefix of the baseline keys of the simulation, as in `parcelles.get.p95`.
+     * @param requests the names of the requests.
+     */
+    def assertions(simulation: String, requests: Seq[String]): Seq[Assertion] = {
+        val percentiles = requests.flatMap { request =>
+            baselineValue(s"$simulation.$request.p95").map(p95 => details(request).responseTime.percentile3.lte(slower(p95))) ++
+                baselineValue(s"$simulation.$request.p99").map(p99 => details(request).responseTime.percentile4.lte(slower(p99)))
+        }
+        val throughput = baselineValue(s"$simulation.throughput").map(rps => global.requestsPerSec.gte(rps * (100 - regression) / 100))
+        if (percentiles.isEmpty && throughput.isEmpty) {
+            val message = s"No baseline recorded for the $simulation simulation in $baselineFile: its regressions are not checked. " +
+                "Record the values of a reference run, see the Load tests section of the README."
+            if (requireBaseline) {
+                throw new IllegalStateException(message)
+            }
+            Console.err.println(s"\n${"*" * 80}\nWARNING: $message\n${"*" * 80}\n")
+        }
+        Seq(global.failedRequests.percent.lte(0.0)) ++ percentiles ++ throughput
+    }
+
+    private def slower(milliseconds: Double): Int = math.ceil(milliseconds * (100 + regression) / 100).toInt
+}
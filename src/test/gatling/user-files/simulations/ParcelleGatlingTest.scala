@@ -0,0 +1,49 @@
+import java.util.concurrent.atomic.AtomicLong
+
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+
+import scala.concurrent.duration._
+
+/**
+ * Load test of the Parcelle resource: each user creates a parcelle, reads it, lists and searches the parcelles,
+ * then patches it.
+ */
+class ParcelleGatlingTest extends Simulation {
+
+    val sequence = new AtomicLong()
+
+    val feeder = Iterator.continually(Map("libelle" -> ("LOADTEST" + sequence.incrementAndGet())))
+
+    val headersMergePatch = Map("Content-Type" -> "application/merge-patch+json")
+
+    val scn = scenario("Parcelle")
+        .feed(feeder)
+        .exec(http("create")
+            .post("/api/parcelles")
+            .body(StringBody("""{"libelle":"${libelle}"}""")).asJson
+            .check(status.is(201))
+            .check(jsonPath("$.id").saveAs("parcelleId")))
+        .pause(1.second)
+        .repeat(3) {
+            exec(http("get")
+                .get("/api/parcelles/${parcelleId}")
+                .check(status.is(200)))
+            .exec(http("list")
+                .get("/api/parcelles?page=0&size=20")
+                .check(status.is(200)))
+            .exec(http("search")
+                .get("/api/_search/parcelles?query=libelle:${libelle}&page=0&size=20")
+                .check(status.is(200)))
+            .pause(1.second)
+        }
+        .exec(http("patch")
+            .patch("/api/parcelles/${parcelleId}")
+            .headers(headersMergePatch)
+            .body(StringBody("""{"id":${parcelleId},"libelle":"${libelle}-P"}"""))
+            .check(status.is(200)))
+
+    setUp(scn.inject(rampUsers(LoadTest.users).during(LoadTest.ramp)))
+        .protocols(LoadTest.httpProtocol)
+        .assertions(LoadTest.assertions("parcelles", Seq("create", "get", "list", "search", "patch")))
+}
@@ -1,11 +1,26 @@
 package com.onea.sidot.gestioneau;
 
+import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.classes;
 import static com.tngtech.archunit.lang.syntax.ArchRuleDefinition.noClasses;
 
+import com.tngtech.archunit.core.domain.JavaClass;
 import com.tngtech.archunit.core.domain.JavaClasses;
 import com.tngtech.archunit.core.importer.ClassFileImporter;
 import com.tngtech.archunit.core.importer.ImportOption;
+import com.tngtech.archunit.lang.ArchCondition;
+import com.tngtech.archunit.lang.ConditionEvents;
+import com.tngtech.archunit.lang.SimpleConditionEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
 
 class ArchTest {
 
@@ -26,4 +41,81 @@ class ArchTest {
             .because("Services and repositories should not depend on web layer")
             .check(importedClasses);
     }
+
+    @Test
+    void repositoriesShouldNotDependOnServiceLayer() {
+        JavaClasses importedClasses = new ClassFileImporter()
+            .withImportOption(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS)
+            .importPackages("com.onea.sidot.gestioneau");
+
+        noClasses()
+            .that()
+            .resideInAnyPackage("com.onea.sidot.gestioneau.repository..")
+            .should()
+            .dependOnClassesThat()
+            .resideInAnyPackage("com.onea.sidot.gestioneau.service..")
+            .because("Repositories should return entities or projections, mapped to DTOs by the services")
+            .check(importedClasses);
+    }
+
+    @Test
+    void classesShouldNotHoldMonitors() {
+        JavaClasses importedClasses = new ClassFileImporter()
+            .withImportOption(ImportOption.Predefined.DO_NOT_INCLUDE_TESTS)
+            .importPackages("com.onea.sidot.gestioneau");
+
+        classes()
+            .should(notHoldMonitors())
+            .because(
+                "A thread blocked while it holds a monitor blocks the threads waiting for it, and pins the carrier of a virtual " +
+                "thread: use the java.util.concurrent locks and atomics"
+            )
+            .check(importedClasses);
+    }
+
+    /**
+     * Finds the synchronized methods and blocks in the bytecode, as ArchUnit does not see the blocks.
+     */
+    private static ArchCondition<JavaClass> notHoldMonitors() {
+        return new ArchCondition<>("not have synchronized methods or blocks") {
+            @Override
+            public void check(JavaClass javaClass, ConditionEvents events) {
+                for (String method : getSynchronizedMethods(javaClass)) {
+                    events.add(SimpleConditionEvent.violated(javaClass, javaClass.getName() + "." + method + "() is synchronized"));
+                }
+            }
+        };
+    }
+
+    private static Set<String> getSynchronizedMethods(JavaClass javaClass) {
+        Set<String> methods = new LinkedHashSet<>();
+        String resource = javaClass.getName().replace('.', '/') + ".class";
+        try (InputStream input = ArchTest.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                return methods;
+            }
+            new ClassReader(input).accept(
+                new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+                    @Override
+                    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                        if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                            methods.add(name);
+                        }
+                        return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                            @Override
+                            public void visitInsn(int opcode) {
+                                if (opcode == Opcodes.MONITORENTER) {
+                                    methods.add(name);
+                                }
+                            }
+                        };
+                    }
+                },
+                ClassReader.SKIP_DEBUG
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return methods;
+    }
 }
@@ -0,0 +1,58 @@
+package com.onea.sidot.gestioneau.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.service.NatureOuvrageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link MethodTimingAspect}, which samples every call in the tests.
+ */
+@IntegrationTest
+class MethodTimingAspectIT {
+
+    @Autowired
+    private NatureOuvrageService natureOuvrageService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @Transactional
+    void timesServiceAndRepositoryCalls() {
+        long serviceCalls = count("NatureOuvrageService", "findOne", "none");
+        long repositoryCalls = count("NatureOuvrageRepository", "findById", "none");
+
+        assertThat(natureOuvrageService.findOne(Long.MAX_VALUE)).isEmpty();
+
+        assertThat(count("NatureOuvrageService", "findOne", "none")).isEqualTo(serviceCalls + 1);
+        assertThat(count("NatureOuvrageRepository", "findById", "none")).isEqualTo(repositoryCalls + 1);
+    }
+
+    @Test
+    @Transactional
+    void timesFailedCallsByException() {
+        long failedCalls = count("NatureOuvrageService", "findOne", "InvalidDataAccessApiUsageException");
+
+        assertThatThrownBy(() -> natureOuvrageService.findOne(null)).isInstanceOf(InvalidDataAccessApiUsageException.class);
+
+        assertThat(count("NatureOuvrageService", "findOne", "InvalidDataAccessApiUsageException")).isEqualTo(failedCalls + 1);
+    }
+
+    private long count(String className, String method, String exception) {
+        Timer timer = meterRegistry
+            .find(MethodTimingAspect.TIMER_NAME)
+            .tag("class", className)
+            .tag("method", method)
+            .tag("exception", exception)
+            .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,51 @@
+package com.onea.sidot.gestioneau.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.service.dto.NatureOuvrageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the slow call log of the {@link MethodTimingAspect}.
+ */
+class MethodTimingAspectTest {
+
+    private MethodTimingAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMethodTiming().setMaxArgumentLength(5);
+        aspect = new MethodTimingAspect(new SimpleMeterRegistry(), applicationProperties);
+    }
+
+    @Test
+    void formatsTheScalarsAndCutsTheTexts() {
+        assertThat(aspect.formatArguments(new Object[] { 42L, null, "abc", "abcdefgh" }))
+            .isEqualTo("[42, null, abc, abcde... (8 characters)]");
+    }
+
+    @Test
+    void formatsTheCollectionsWithTheirSizeOnly() {
+        List<String> list = new ArrayList<>(List.of("secret", "data"));
+        Map<String, String> map = new HashMap<>(Map.of("key", "value"));
+
+        assertThat(aspect.formatArguments(new Object[] { list, map, new long[3] }))
+            .isEqualTo("[ArrayList(size=2), HashMap(size=1), long[3]]");
+    }
+
+    @Test
+    void formatsTheOtherObjectsWithTheirTypeOnly() {
+        NatureOuvrageDTO natureOuvrageDTO = new NatureOuvrageDTO();
+        natureOuvrageDTO.setLibelle("Personal data");
+
+        assertThat(aspect.formatArguments(new Object[] { natureOuvrageDTO })).isEqualTo("[NatureOuvrageDTO]");
+    }
+}
@@ -0,0 +1,138 @@
+package com.onea.sidot.gestioneau.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class GuardedFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.FeignClient settings;
+
+    private Client delegate;
+
+    @BeforeEach
+    public void setup() {
+        SecurityContextHolder.clearContext();
+        meterRegistry = new SimpleMeterRegistry();
+        settings = new ApplicationProperties.FeignClient();
+        settings.setCacheTimeToLiveSeconds(30);
+        delegate =
+            (request, options) ->
+                Response
+                    .builder()
+                    .status(200)
+                    .headers(Collections.emptyMap())
+                    .body("call " + calls.incrementAndGet(), StandardCharsets.UTF_8)
+                    .request(request)
+                    .build();
+    }
+
+    @Test
+    void testGetResponseIsCached() throws IOException {
+        GuardedFeignClient client = newClient();
+
+        assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("call 1");
+        assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("call 1");
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "feign-peer").tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "feign-peer").tag("result", "miss").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("feign.client.requests").tag("client", "peer").tag("status", "200").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPostResponseIsNotCached() throws IOException {
+        GuardedFeignClient client = newClient();
+
+        client.execute(request(Request.HttpMethod.POST), OPTIONS);
+        assertThat(body(client.execute(request(Request.HttpMethod.POST), OPTIONS))).isEqualTo("call 2");
+        assertThat(meterRegistry.get("feign.client.requests").tag("method", "POST").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testNoCacheWhenTimeToLiveIsZero() throws IOException {
+        settings.setCacheTimeToLiveSeconds(0);
+        GuardedFeignClient client = newClient();
+
+        client.execute(request(Request.HttpMethod.GET), OPTIONS);
+        client.execute(request(Request.HttpMethod.GET), OPTIONS);
+
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.find("cache.gets").meter()).isNull();
+    }
+
+    @Test
+    void testCallFailsWhenTheBulkheadIsFull() throws Exception {
+        settings.setMaxConcurrentCalls(1);
+        settings.setMaxWaitMs(10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        delegate =
+            (request, options) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Response.builder().status(204).headers(Collections.emptyMap()).request(request).build();
+            };
+        GuardedFeignClient client = newClient();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> slowCall = executor.submit(() -> client.execute(request(Request.HttpMethod.POST), OPTIONS));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> client.execute(request(Request.HttpMethod.POST), OPTIONS)).isInstanceOf(IOException.class);
+
+            release.countDown();
+            assertThat(slowCall.get(5, TimeUnit.SECONDS).status()).isEqualTo(204);
+            assertThat(meterRegistry.get("feign.client.requests").tag("exception", "BulkheadFullException").timer().count())
+                .isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private GuardedFeignClient newClient() {
+        return new GuardedFeignClient(delegate, "peer", settings, meterRegistry, Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+    }
+
+    private static Request request(Request.HttpMethod method) {
+        return Request.create(method, "http://peer/api/items", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static String body(Response response) throws IOException {
+        return Util.toString(response.body().asReader(StandardCharsets.UTF_8));
+    }
+}
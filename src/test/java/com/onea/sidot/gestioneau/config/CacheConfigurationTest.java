@@ -0,0 +1,115 @@
+package com.onea.sidot.gestioneau.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageFacetService;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the Hazelcast maps of the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    private JHipsterProperties jHipsterProperties;
+
+    private List<ApplicationProperties.CacheRegion> cacheRegions;
+
+    @BeforeEach
+    void setUp() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getHazelcast().setTimeToLiveSeconds(3600);
+        cacheRegions = bindCacheRegions();
+    }
+
+    @Test
+    void namesTheRegionsAfterTheEntityClasses() {
+        assertThat(cacheRegions)
+            .extracting(CacheConfiguration::getRegionName)
+            .containsExactly(NatureOuvrage.class.getName(), FicheSuiviOuvrage.class.getName());
+    }
+
+    @Test
+    void keepsTheNearCacheRegionsForTheDomainTimeToLive() {
+        MapConfig mapConfig = CacheConfiguration.initializeRegionMapConfig(
+            NatureOuvrage.class.getName(),
+            cacheRegions.get(0),
+            jHipsterProperties
+        );
+
+        assertThat(mapConfig.getName()).isEqualTo(NatureOuvrage.class.getName());
+        assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(3600);
+        assertThat(mapConfig.getEvictionConfig().getEvictionPolicy()).isEqualTo(EvictionPolicy.NONE);
+        NearCacheConfig nearCacheConfig = mapConfig.getNearCacheConfig();
+        assertThat(nearCacheConfig).isNotNull();
+        assertThat(nearCacheConfig.isInvalidateOnChange()).isTrue();
+        assertThat(nearCacheConfig.getEvictionConfig().getEvictionPolicy()).isEqualTo(EvictionPolicy.LRU);
+        assertThat(nearCacheConfig.getEvictionConfig().getSize()).isEqualTo(500);
+    }
+
+    @Test
+    void boundsTheRegionsWithAMaxSize() {
+        MapConfig mapConfig = CacheConfiguration.initializeRegionMapConfig(
+            FicheSuiviOuvrage.class.getName() + ".*",
+            cacheRegions.get(1),
+            jHipsterProperties
+        );
+
+        assertThat(mapConfig.getName()).isEqualTo(FicheSuiviOuvrage.class.getName() + ".*");
+        assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(600);
+        assertThat(mapConfig.getEvictionConfig().getEvictionPolicy()).isEqualTo(EvictionPolicy.LRU);
+        assertThat(mapConfig.getEvictionConfig().getMaxSizePolicy()).isEqualTo(MaxSizePolicy.PER_NODE);
+        assertThat(mapConfig.getEvictionConfig().getSize()).isEqualTo(10000);
+        assertThat(mapConfig.getNearCacheConfig()).isNull();
+    }
+
+    @Test
+    void boundsTheFacetCounts() {
+        ApplicationProperties.SearchFacets searchFacets = new ApplicationProperties.SearchFacets();
+        searchFacets.setTimeToLiveSeconds(300);
+        searchFacets.setMaxSize(2000);
+
+        MapConfig mapConfig = CacheConfiguration.initializeFacetCountsMapConfig(searchFacets, jHipsterProperties);
+
+        assertThat(mapConfig.getName()).isEqualTo(FicheSuiviOuvrageFacetService.FACET_COUNTS_MAP);
+        assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(300);
+        assertThat(mapConfig.getEvictionConfig().getEvictionPolicy()).isEqualTo(EvictionPolicy.LRU);
+        assertThat(mapConfig.getEvictionConfig().getMaxSizePolicy()).isEqualTo(MaxSizePolicy.PER_NODE);
+        assertThat(mapConfig.getEvictionConfig().getSize()).isEqualTo(2000);
+    }
+
+    /**
+     * @return the cache regions, bound as the {@code application.cache-regions} property of the application.
+     */
+    static List<ApplicationProperties.CacheRegion> bindCacheRegions() {
+        Map<String, String> properties = Map.of(
+            "application.cache-regions[0].name",
+            "NatureOuvrage",
+            "application.cache-regions[0].near-cache",
+            "true",
+            "application.cache-regions[0].near-cache-max-size",
+            "500",
+            "application.cache-regions[1].name",
+            "FicheSuiviOuvrage",
+            "application.cache-regions[1].max-size",
+            "10000",
+            "application.cache-regions[1].time-to-live-seconds",
+            "600"
+        );
+        return new Binder(new MapConfigurationPropertySource(properties))
+            .bind("application", ApplicationProperties.class)
+            .get()
+            .getCacheRegions();
+    }
+}
@@ -0,0 +1,82 @@
+package com.onea.sidot.gestioneau.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.LocalMapStats;
+import com.hazelcast.nearcache.NearCacheStats;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link CacheRegionMetrics} class.
+ */
+class CacheRegionMetricsTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        NearCacheStats nearCacheStats = mock(NearCacheStats.class);
+        when(nearCacheStats.getHits()).thenReturn(6L);
+        when(nearCacheStats.getMisses()).thenReturn(4L);
+        LocalMapStats natureOuvrageStats = mockStats(10, 8, 20, 5);
+        when(natureOuvrageStats.getNearCacheStats()).thenReturn(nearCacheStats);
+        mockMap(hazelcastInstance, NatureOuvrage.class.getName(), natureOuvrageStats);
+        mockMap(hazelcastInstance, FicheSuiviOuvrage.class.getName(), mockStats(0, 0, 0, 0));
+
+        meterRegistry = new SimpleMeterRegistry();
+        new CacheRegionMetrics(hazelcastInstance, CacheConfigurationTest.bindCacheRegions()).bindTo(meterRegistry);
+    }
+
+    @Test
+    void publishesTheStatisticsOfTheRegionMaps() {
+        assertThat(meterRegistry.get("cache.region.gets").tag("region", "NatureOuvrage").functionCounter().count()).isEqualTo(10);
+        assertThat(meterRegistry.get("cache.region.hits").tag("region", "NatureOuvrage").functionCounter().count()).isEqualTo(8);
+        assertThat(meterRegistry.get("cache.region.hit.ratio").tag("region", "NatureOuvrage").gauge().value()).isEqualTo(0.8);
+        assertThat(meterRegistry.get("cache.region.get.latency").tag("region", "NatureOuvrage").functionTimer().count()).isEqualTo(10);
+        assertThat(
+            meterRegistry.get("cache.region.get.latency").tag("region", "NatureOuvrage").functionTimer().totalTime(TimeUnit.MILLISECONDS)
+        )
+            .isEqualTo(20);
+        assertThat(meterRegistry.get("cache.region.entries").tag("region", "NatureOuvrage").gauge().value()).isEqualTo(5);
+    }
+
+    @Test
+    void publishesTheNearCacheStatisticsOfTheRegionsWithANearCache() {
+        assertThat(meterRegistry.get("cache.region.near.hits").tag("region", "NatureOuvrage").functionCounter().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("cache.region.near.misses").tag("region", "NatureOuvrage").functionCounter().count()).isEqualTo(4);
+        assertThat(meterRegistry.find("cache.region.near.hits").tag("region", "FicheSuiviOuvrage").functionCounter()).isNull();
+    }
+
+    @Test
+    void leavesTheHitRatioUndefinedUntilARead() {
+        assertThat(meterRegistry.get("cache.region.gets").tag("region", "FicheSuiviOuvrage").functionCounter().count()).isZero();
+        assertThat(meterRegistry.get("cache.region.hit.ratio").tag("region", "FicheSuiviOuvrage").gauge().value()).isNaN();
+    }
+
+    private static LocalMapStats mockStats(long gets, long hits, long totalGetLatency, long entries) {
+        LocalMapStats stats = mock(LocalMapStats.class);
+        when(stats.getGetOperationCount()).thenReturn(gets);
+        when(stats.getHits()).thenReturn(hits);
+        when(stats.getTotalGetLatency()).thenReturn(totalGetLatency);
+        when(stats.getOwnedEntryCount()).thenReturn(entries);
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mockMap(HazelcastInstance hazelcastInstance, String name, LocalMapStats stats) {
+        IMap<Object, Object> map = mock(IMap.class);
+        when(map.getLocalMapStats()).thenReturn(stats);
+        when(hazelcastInstance.getMap(name)).thenReturn(map);
+    }
+}
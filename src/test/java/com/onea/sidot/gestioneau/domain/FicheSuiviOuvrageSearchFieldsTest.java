@@ -0,0 +1,42 @@
+package com.onea.sidot.gestioneau.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrageSearchFields.Label;
+import org.junit.jupiter.api.Test;
+
+class FicheSuiviOuvrageSearchFieldsTest {
+
+    @Test
+    void flattensTheFullLocationPath() {
+        Region region = new Region().id(1L).libelle("Centre");
+        Province province = new Province().id(2L).libelle("Kadiogo").region(region);
+        TypeCommune typeCommune = new TypeCommune().id(3L).libelle("Urbaine");
+        Commune commune = new Commune().id(4L).libelle("Ouagadougou").province(province).typecommune(typeCommune);
+        Localite localite = new Localite().id(5L).libelle("Tampouy").commune(commune);
+        Secteur secteur = new Secteur().id(6L).libelle("Secteur 20").localite(localite);
+        Section section = new Section().id(7L).libelle("Section A").secteur(secteur);
+        Lot lot = new Lot().id(8L).libelle("Lot 12").section(section);
+        Parcelle parcelle = new Parcelle().id(9L).libelle("Parcelle 3").lot(lot);
+        NatureOuvrage natureOuvrage = new NatureOuvrage().id(10L).libelle("Latrine");
+
+        FicheSuiviOuvrageSearchFields searchFields = FicheSuiviOuvrageSearchFields.of(
+            new FicheSuiviOuvrage().id(11L).parcelle(parcelle).natureouvrage(natureOuvrage)
+        );
+
+        assertThat(searchFields.getParcelle()).extracting(Label::getId, Label::getLibelle).containsExactly(9L, "Parcelle 3");
+        assertThat(searchFields.getLot()).extracting(Label::getId, Label::getLibelle).containsExactly(8L, "Lot 12");
+        assertThat(searchFields.getSection()).extracting(Label::getId, Label::getLibelle).containsExactly(7L, "Section A");
+        assertThat(searchFields.getSecteur()).extracting(Label::getId, Label::getLibelle).containsExactly(6L, "Secteur 20");
+        assertThat(searchFields.getLocalite()).extracting(Label::getId, Label::getLibelle).containsExactly(5L, "Tampouy");
+        assertThat(searchFields.getCommune()).extracting(Label::getId, Label::getLibelle).containsExactly(4L, "Ouagadougou");
+        assertThat(searchFields.getTypecommune()).extracting(Label::getId, Label::getLibelle).containsExactly(3L, "Urbaine");
+        assertThat(searchFields.getProvince()).extracting(Label::getId, Label::getLibelle).containsExactly(2L, "Kadiogo");
+        assertThat(searchFields.getRegion()).extracting(Label::getId, Label::getLibelle).containsExactly(1L, "Centre");
+        assertThat(searchFields.getNatureouvrage()).extracting(Label::getId, Label::getLibelle).containsExactly(10L, "Latrine");
+        // The associations the sheet does not have are left out
+        assertThat(searchFields.getPrevision()).isNull();
+        assertThat(searchFields.getCentre()).isNull();
+        assertThat(searchFields.getMacon()).isNull();
+    }
+}
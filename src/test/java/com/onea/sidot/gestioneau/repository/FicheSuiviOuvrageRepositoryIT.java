@@ -0,0 +1,136 @@
+package com.onea.sidot.gestioneau.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.*;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageService;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.web.rest.*;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking the number of SQL statements issued to read {@link FicheSuiviOuvrage}s.
+ */
+@IntegrationTest
+class FicheSuiviOuvrageRepositoryIT {
+
+    private static final int SHEET_COUNT = 5;
+
+    @Autowired
+    private FicheSuiviOuvrageService ficheSuiviOuvrageService;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    private List<FicheSuiviOuvrage> ficheSuiviOuvrages;
+
+    @BeforeEach
+    public void initTest() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private void createFicheSuiviOuvrages() {
+        Region region = persist(RegionResourceIT.createEntity(em));
+        Province province = persist(ProvinceResourceIT.createEntity(em).region(region));
+        TypeCommune typeCommune = persist(TypeCommuneResourceIT.createEntity(em));
+        Commune commune = persist(CommuneResourceIT.createEntity(em).province(province).typecommune(typeCommune));
+        Localite localite = persist(LocaliteResourceIT.createEntity(em).commune(commune));
+        Secteur secteur = persist(SecteurResourceIT.createEntity(em).localite(localite));
+        Section section = persist(SectionResourceIT.createEntity(em).secteur(secteur));
+        Lot lot = persist(LotResourceIT.createEntity(em).section(section));
+
+        DirectionRegionale directionRegionale = persist(DirectionRegionaleResourceIT.createEntity(em));
+        CentreRegroupement centreRegroupement = persist(
+            CentreRegroupementResourceIT.createEntity(em).directionregionale(directionRegionale)
+        );
+        Centre centre = persist(CentreResourceIT.createEntity(em).centreregroupement(centreRegroupement));
+        Annee annee = persist(AnneeResourceIT.createEntity(em));
+        Prevision prevision = persist(PrevisionResourceIT.createEntity(em).centre(centre).refannee(annee));
+
+        NatureOuvrage natureOuvrage = persist(NatureOuvrageResourceIT.createEntity(em));
+        Macon macon = persist(MaconResourceIT.createEntity(em));
+        ficheSuiviOuvrages = new ArrayList<>();
+        for (int i = 0; i < SHEET_COUNT; i++) {
+            // Each sheet gets its own parcelle, as it would in production
+            Parcelle parcelle = persist(ParcelleResourceIT.createEntity(em).lot(lot));
+            ficheSuiviOuvrages.add(
+                persist(
+                    FicheSuiviOuvrageResourceIT
+                        .createEntity(em)
+                        .parcelle(parcelle)
+                        .prevision(prevision)
+                        .natureouvrage(natureOuvrage)
+                        .macon(macon)
+                )
+            );
+        }
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    private <T> T persist(T entity) {
+        em.persist(entity);
+        return entity;
+    }
+
+    @Test
+    @Transactional
+    void findAllUsesASingleSelect() {
+        createFicheSuiviOuvrages();
+
+        Page<FicheSuiviOuvrageDTO> page = ficheSuiviOuvrageService.findAll(PageRequest.of(0, SHEET_COUNT * 2));
+
+        assertThat(page.getContent()).hasSizeGreaterThanOrEqualTo(SHEET_COUNT);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getParcelle()).isNotNull());
+        // One select for the page, plus the count query when the page is full
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void findAllAfterUsesASingleSelect() {
+        createFicheSuiviOuvrages();
+
+        Slice<FicheSuiviOuvrageDTO> slice = ficheSuiviOuvrageService.findAllAfter(
+            ficheSuiviOuvrages.get(0).getId() - 1,
+            PageRequest.of(0, SHEET_COUNT - 1)
+        );
+
+        assertThat(slice.getContent()).hasSize(SHEET_COUNT - 1);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(slice.getContent()).allSatisfy(dto -> assertThat(dto.getParcelle()).isNotNull());
+        // No count query, the next slice is detected with one extra row
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void findOneUsesASingleSelect() {
+        createFicheSuiviOuvrages();
+
+        assertThat(ficheSuiviOuvrageService.findOne(ficheSuiviOuvrages.get(0).getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -3,6 +3,7 @@ package com.onea.sidot.gestioneau.security.jwt;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.onea.sidot.gestioneau.security.AuthoritiesConstants;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.util.Collections;
@@ -13,6 +14,7 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -56,6 +58,39 @@ class JWTFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication().getCredentials()).hasToString(jwt);
     }
 
+    @Test
+    void testJWTFilterCachesVerifiedToken() throws Exception {
+        jwtFilter = new JWTFilter(tokenProvider, new VerifiedTokenCache(100));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        request.setRequestURI("/api/test");
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication firstAuthentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.getContext().setAuthentication(null);
+
+        // A parser which would reject the token, to check that it is not verified again
+        String otherSecret = "Xfd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+        ReflectionTestUtils.setField(
+            tokenProvider,
+            "jwtParser",
+            Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(otherSecret))).build()
+        );
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        Authentication secondAuthentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(secondAuthentication).isNotSameAs(firstAuthentication);
+        assertThat(secondAuthentication.getName()).isEqualTo("test-user");
+        assertThat(secondAuthentication.getAuthorities()).isEqualTo(firstAuthentication.getAuthorities());
+        assertThat(secondAuthentication.getCredentials()).hasToString(jwt);
+    }
+
     @Test
     void testJWTFilterInvalidToken() throws Exception {
         String jwt = "wrong_jwt";
@@ -0,0 +1,88 @@
+package com.onea.sidot.gestioneau.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.onea.sidot.gestioneau.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2021-04-01T10:00:00Z");
+
+    private static final Date IN_ONE_MINUTE = Date.from(NOW.plusSeconds(60));
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private MeterRegistry meterRegistry;
+
+    private VerifiedClaims verifiedClaims;
+
+    @BeforeEach
+    public void setup() {
+        verifiedTokenCache = new VerifiedTokenCache(2, Clock.fixed(NOW, ZoneOffset.UTC));
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache.bindTo(meterRegistry);
+        verifiedClaims = claimsExpiringAt(IN_ONE_MINUTE);
+    }
+
+    private static VerifiedClaims claimsExpiringAt(Date expiration) {
+        return new VerifiedClaims(
+            "test-user",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)),
+            expiration
+        );
+    }
+
+    @Test
+    void testGetReturnsTheClaimsUntilTheTokenExpires() {
+        verifiedTokenCache.put("token", verifiedClaims);
+        verifiedTokenCache.put("expired-token", claimsExpiringAt(Date.from(NOW)));
+
+        assertThat(verifiedTokenCache.get("token")).isSameAs(verifiedClaims);
+        assertThat(verifiedTokenCache.get("expired-token")).isNull();
+        assertThat(verifiedTokenCache.get("unknown-token")).isNull();
+
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isZero();
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testPutIsBounded() {
+        verifiedTokenCache.put("expired-token", claimsExpiringAt(Date.from(NOW.minusSeconds(1))));
+        verifiedTokenCache.put("token-1", verifiedClaims);
+        verifiedTokenCache.put("token-2", verifiedClaims);
+        verifiedTokenCache.put("token-3", verifiedClaims);
+
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(1);
+        assertThat(Stream.of("token-1", "token-2", "token-3").map(verifiedTokenCache::get).filter(Objects::nonNull)).hasSize(2);
+    }
+
+    @Test
+    void testTokenWithoutExpirationIsNotCached() {
+        verifiedTokenCache.put("token", claimsExpiringAt(null));
+
+        assertThat(verifiedTokenCache.get("token")).isNull();
+    }
+
+    @Test
+    void testNoCacheWhenMaxSizeIsZero() {
+        VerifiedTokenCache disabledCache = new VerifiedTokenCache(0);
+        disabledCache.put("token", verifiedClaims);
+
+        assertThat(disabledCache.get("token")).isNull();
+    }
+}
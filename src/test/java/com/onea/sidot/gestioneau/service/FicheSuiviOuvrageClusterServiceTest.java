@@ -0,0 +1,46 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.onea.sidot.gestioneau.config.ApplicationProperties;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the settings check of the {@link FicheSuiviOuvrageClusterService}.
+ */
+class FicheSuiviOuvrageClusterServiceTest {
+
+    private FicheSuiviOuvrageClusterService createService(int cellPrecision, int maxTiles) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMapClusters().setCellPrecision(cellPrecision);
+        applicationProperties.getMapClusters().setMaxTiles(maxTiles);
+        return new FicheSuiviOuvrageClusterService(
+            mock(FicheSuiviOuvrageSearchRepository.class),
+            mock(HazelcastInstance.class),
+            applicationProperties
+        );
+    }
+
+    @Test
+    void acceptsTheCellsWithinTheBound() {
+        assertThat(createService(1, 100).getMaxTiles()).isEqualTo(100);
+        // 100 tiles of 4 x 4 cells, with their nature d'ouvrage buckets 33,600 buckets at most
+        assertThat(createService(2, 100).getMaxTiles()).isEqualTo(100);
+    }
+
+    @Test
+    void rejectsMoreCellsThanTheBound() {
+        // 100 tiles of 8 x 8 cells, with their nature d'ouvrage buckets 134,400 buckets at most
+        assertThatThrownBy(() -> createService(3, 100)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> createService(1, FicheSuiviOuvrageClusterService.MAX_CELLS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsANegativeCellPrecision() {
+        assertThatThrownBy(() -> createService(-1, 100)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.onea.sidot.gestioneau.service;
+
+import static com.onea.sidot.gestioneau.service.FicheSuiviOuvrageReprojectionService.SEARCH_FIELDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.mockito.Mockito.*;
+
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.Province;
+import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageReprojectionService.Level;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link FicheSuiviOuvrageReprojectionService}.
+ */
+class FicheSuiviOuvrageReprojectionServiceTest {
+
+    private static final Level<Region> REGION = Level.of(Region.class, "region", Region::getId, Region::getLibelle);
+
+    private static final Level<Province> PROVINCE = Level
+        .of(Province.class, "province", Province::getId, Province::getLibelle)
+        .parent("region", entity -> entity.getRegion() == null ? null : entity.getRegion().getId());
+
+    @Test
+    void staleQueryFindsTheDocumentsWithAnotherLibelle() {
+        Region region = new Region().id(1L).libelle("Centre-Est");
+
+        assertThat(REGION.toStaleQuery(region))
+            .isEqualTo(
+                boolQuery()
+                    .filter(termQuery(SEARCH_FIELDS + "region.id", 1L))
+                    .mustNot(boolQuery().filter(termQuery(SEARCH_FIELDS + "region.libelle.keyword", "Centre-Est")))
+            );
+    }
+
+    @Test
+    void staleQueryFindsTheDocumentsWithAnotherParent() {
+        Province province = new Province().id(2L).libelle("Kadiogo").region(new Region().id(3L));
+
+        assertThat(PROVINCE.toStaleQuery(province))
+            .isEqualTo(
+                boolQuery()
+                    .filter(termQuery(SEARCH_FIELDS + "province.id", 2L))
+                    .mustNot(
+                        boolQuery()
+                            .filter(termQuery(SEARCH_FIELDS + "province.libelle.keyword", "Kadiogo"))
+                            .filter(termQuery(SEARCH_FIELDS + "region.id", 3L))
+                    )
+            );
+    }
+
+    @Test
+    void staleQueryFindsTheDocumentsWithAParentTheEntityLost() {
+        Province province = new Province().id(2L).libelle("Kadiogo");
+
+        assertThat(PROVINCE.toStaleQuery(province))
+            .isEqualTo(
+                boolQuery()
+                    .filter(termQuery(SEARCH_FIELDS + "province.id", 2L))
+                    .mustNot(
+                        boolQuery()
+                            .filter(termQuery(SEARCH_FIELDS + "province.libelle.keyword", "Kadiogo"))
+                            .mustNot(existsQuery(SEARCH_FIELDS + "region.id"))
+                    )
+            );
+    }
+
+    @Test
+    void queuesTheStaleSheetsOfTheIndexedEntities() {
+        FicheSuiviOuvrageSearchRepository searchRepository = mock(FicheSuiviOuvrageSearchRepository.class);
+        SearchOutboxService searchOutboxService = mock(SearchOutboxService.class);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FicheSuiviOuvrageReprojectionService service = new FicheSuiviOuvrageReprojectionService(
+            searchRepository,
+            searchOutboxService,
+            meterRegistry
+        );
+        Region region = new Region().id(1L).libelle("Centre-Est");
+        Stream<Long> staleIds = Stream.of(42L, 43L);
+        when(searchRepository.searchIdsForStream(REGION.toStaleQuery(region))).thenReturn(staleIds);
+        when(searchOutboxService.enqueueAll(FicheSuiviOuvrage.class, staleIds)).thenReturn(2L);
+
+        service.onSearchIndexed(new SearchIndexedEvent("Region", List.of(region), List.of()));
+
+        verify(searchOutboxService).enqueueAll(FicheSuiviOuvrage.class, staleIds);
+        assertThat(meterRegistry.get("search.reprojection.queued").tag("entity", "Region").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.reprojection.queued").tag("entity", "Province").counter().count()).isZero();
+    }
+
+    @Test
+    void ignoresTheEntitiesNotFlattened() {
+        FicheSuiviOuvrageSearchRepository searchRepository = mock(FicheSuiviOuvrageSearchRepository.class);
+        SearchOutboxService searchOutboxService = mock(SearchOutboxService.class);
+        FicheSuiviOuvrageReprojectionService service = new FicheSuiviOuvrageReprojectionService(
+            searchRepository,
+            searchOutboxService,
+            new SimpleMeterRegistry()
+        );
+
+        service.onSearchIndexed(new SearchIndexedEvent("FicheSuiviOuvrage", List.of(new FicheSuiviOuvrage().id(1L)), List.of()));
+
+        verifyNoInteractions(searchRepository, searchOutboxService);
+    }
+}
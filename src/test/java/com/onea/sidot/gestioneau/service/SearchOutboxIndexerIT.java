@@ -0,0 +1,137 @@
+package com.onea.sidot.gestioneau.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.mockito.Mockito.*;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.repository.RegionRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
+import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.repository.search.RegionSearchRepository;
+import com.onea.sidot.gestioneau.repository.search.SearchIndexRepository;
+import com.onea.sidot.gestioneau.web.rest.RegionResourceIT;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link SearchOutboxIndexer}.
+ */
+@IntegrationTest
+@Transactional
+class SearchOutboxIndexerIT {
+
+    @Autowired
+    private SearchOutboxIndexer searchOutboxIndexer;
+
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    /**
+     * This repository is mocked in the com.onea.sidot.gestioneau.repository.search test package.
+     *
+     * @see com.onea.sidot.gestioneau.repository.search.RegionSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private RegionSearchRepository mockRegionSearchRepository;
+
+    /**
+     * This repository is mocked in the com.onea.sidot.gestioneau.repository.search test package.
+     *
+     * @see com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private FicheSuiviOuvrageSearchRepository mockFicheSuiviOuvrageSearchRepository;
+
+    /**
+     * This repository is mocked in the com.onea.sidot.gestioneau.repository.search test package.
+     *
+     * @see com.onea.sidot.gestioneau.repository.search.SearchIndexRepositoryMockConfiguration
+     */
+    @Autowired
+    private SearchIndexRepository mockSearchIndexRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void drainIndexesTheQueuedEntities() {
+        Region region = regionRepository.saveAndFlush(RegionResourceIT.createEntity(em));
+        searchOutboxService.enqueue(Region.class, region.getId());
+        searchOutboxService.enqueue(Region.class, region.getId());
+
+        assertThat(searchOutboxIndexer.drainBatch()).isEqualTo(2);
+
+        // Both entries are indexed with a single request
+        verify(mockRegionSearchRepository, times(1)).saveAll(List.of(region));
+        assertThat(searchOutboxRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void drainRemovesTheDeletedEntities() {
+        when(mockSearchIndexRepository.getAlias(Region.class)).thenReturn("region");
+        searchOutboxService.enqueue(Region.class, Long.MAX_VALUE);
+        searchOutboxService.enqueue(Region.class, Long.MAX_VALUE - 1);
+
+        assertThat(searchOutboxIndexer.drainBatch()).isEqualTo(2);
+
+        // Both entities are deleted with a single request
+        verify(mockSearchIndexRepository, times(1)).delete("region", Set.of(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+        verify(mockRegionSearchRepository, times(0)).deleteById(anyLong());
+        verify(mockRegionSearchRepository, times(0)).saveAll(anyIterable());
+        assertThat(searchOutboxRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void drainRetriesTheFailedEntitiesLater() {
+        Region region = regionRepository.saveAndFlush(RegionResourceIT.createEntity(em));
+        searchOutboxService.enqueue(Region.class, region.getId());
+        when(mockRegionSearchRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("Elasticsearch is down"));
+        Instant beforeDrain = Instant.now();
+
+        assertThat(searchOutboxIndexer.drainBatch()).isEqualTo(1);
+
+        List<SearchOutboxEntry> entries = searchOutboxRepository.findAll();
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getAttempts()).isEqualTo(1);
+        assertThat(entries.get(0).getNextAttemptDate()).isAfter(beforeDrain);
+        assertThat(entries.get(0).getLastError()).isEqualTo("Elasticsearch is down");
+
+        // The entry is not due before its backoff is over
+        assertThat(searchOutboxIndexer.drainBatch()).isZero();
+    }
+
+    @Test
+    void drainQueuesTheSheetsFlatteningAChangedEntity() {
+        Region region = regionRepository.saveAndFlush(RegionResourceIT.createEntity(em));
+        searchOutboxService.enqueue(Region.class, region.getId());
+        QueryBuilder staleQuery = boolQuery()
+            .filter(termQuery("searchFields.region.id", region.getId()))
+            .mustNot(boolQuery().filter(termQuery("searchFields.region.libelle.keyword", region.getLibelle())));
+        when(mockFicheSuiviOuvrageSearchRepository.searchIdsForStream(staleQuery)).thenReturn(Stream.of(42L, 43L));
+
+        assertThat(searchOutboxIndexer.drainBatch()).isEqualTo(1);
+
+        // The sheets whose document holds another libellé for the region are indexed again
+        List<SearchOutboxEntry> entries = searchOutboxRepository.findAll();
+        assertThat(entries).extracting(SearchOutboxEntry::getEntityType).containsOnly(FicheSuiviOuvrage.class.getSimpleName());
+        assertThat(entries).extracting(SearchOutboxEntry::getEntityId).containsExactlyInAnyOrder(42L, 43L);
+    }
+}
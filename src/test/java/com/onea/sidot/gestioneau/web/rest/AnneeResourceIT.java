@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Annee;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.AnneeRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.AnneeSearchRepository;
+import com.onea.sidot.gestioneau.service.AnneeService;
 import com.onea.sidot.gestioneau.service.dto.AnneeDTO;
 import com.onea.sidot.gestioneau.service.mapper.AnneeMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class AnneeResourceIT {
     private static final String ENTITY_API_URL = "/api/annees";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/annees";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class AnneeResourceIT {
     @Autowired
     private AnneeSearchRepository mockAnneeSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +133,10 @@ class AnneeResourceIT {
         Annee testAnnee = anneeList.get(anneeList.size() - 1);
         assertThat(testAnnee.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository, times(1)).save(testAnnee);
+        // Validate the Annee is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Annee", testAnnee.getId()));
     }
 
     @Test
@@ -175,6 +194,65 @@ class AnneeResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllAnneesUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        annee = anneeRepository.saveAndFlush(annee.libelle("getAllAnneesUnpaged"));
+        try {
+            restAnneeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllAnneesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(annee.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restAnneeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllAnneesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(annee.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restAnneeMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, annee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(anneeMapper.toDto(annee.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restAnneeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllAnneesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(annee.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            anneeRepository.deleteById(annee.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "Annee".equals(entry.getEntityType()) && annee.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", AnneeService.ANNEES_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(AnneeService.ANNEES_CACHE).clear();
+        cacheManager.getCache(AnneeService.ANNEES_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getAnnee() throws Exception {
@@ -226,8 +304,10 @@ class AnneeResourceIT {
         Annee testAnnee = anneeList.get(anneeList.size() - 1);
         assertThat(testAnnee.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository).save(testAnnee);
+        // Validate the Annee is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Annee", testAnnee.getId()));
     }
 
     @Test
@@ -453,8 +533,10 @@ class AnneeResourceIT {
         List<Annee> anneeList = anneeRepository.findAll();
         assertThat(anneeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Annee in Elasticsearch
-        verify(mockAnneeSearchRepository, times(1)).deleteById(annee.getId());
+        // Validate the Annee is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Annee", annee.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.CentreRegroupement;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.CentreRegroupementRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.CentreRegroupementSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.CentreRegroupementDTO;
 import com.onea.sidot.gestioneau.service.mapper.CentreRegroupementMapper;
@@ -71,6 +74,9 @@ class CentreRegroupementResourceIT {
     @Autowired
     private CentreRegroupementSearchRepository mockCentreRegroupementSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -134,8 +140,10 @@ class CentreRegroupementResourceIT {
         assertThat(testCentreRegroupement.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testCentreRegroupement.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository, times(1)).save(testCentreRegroupement);
+        // Validate the CentreRegroupement is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("CentreRegroupement", testCentreRegroupement.getId()));
     }
 
     @Test
@@ -302,8 +310,10 @@ class CentreRegroupementResourceIT {
         assertThat(testCentreRegroupement.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testCentreRegroupement.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository).save(testCentreRegroupement);
+        // Validate the CentreRegroupement is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("CentreRegroupement", testCentreRegroupement.getId()));
     }
 
     @Test
@@ -541,8 +551,10 @@ class CentreRegroupementResourceIT {
         List<CentreRegroupement> centreRegroupementList = centreRegroupementRepository.findAll();
         assertThat(centreRegroupementList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the CentreRegroupement in Elasticsearch
-        verify(mockCentreRegroupementSearchRepository, times(1)).deleteById(centreRegroupement.getId());
+        // Validate the CentreRegroupement is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("CentreRegroupement", centreRegroupement.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Centre;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.CentreRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.CentreSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.CentreDTO;
 import com.onea.sidot.gestioneau.service.mapper.CentreMapper;
@@ -71,6 +74,9 @@ class CentreResourceIT {
     @Autowired
     private CentreSearchRepository mockCentreSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -124,8 +130,10 @@ class CentreResourceIT {
         assertThat(testCentre.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testCentre.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository, times(1)).save(testCentre);
+        // Validate the Centre is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Centre", testCentre.getId()));
     }
 
     @Test
@@ -276,8 +284,10 @@ class CentreResourceIT {
         assertThat(testCentre.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testCentre.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository).save(testCentre);
+        // Validate the Centre is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Centre", testCentre.getId()));
     }
 
     @Test
@@ -507,8 +517,10 @@ class CentreResourceIT {
         List<Centre> centreList = centreRepository.findAll();
         assertThat(centreList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Centre in Elasticsearch
-        verify(mockCentreSearchRepository, times(1)).deleteById(centre.getId());
+        // Validate the Centre is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Centre", centre.getId()));
     }
 
     @Test
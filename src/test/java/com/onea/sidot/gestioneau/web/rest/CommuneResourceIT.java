@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Commune;
+import com.onea.sidot.gestioneau.domain.Province;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.CommuneRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.CommuneSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.CommuneDTO;
 import com.onea.sidot.gestioneau.service.mapper.CommuneMapper;
@@ -65,6 +69,9 @@ class CommuneResourceIT {
     @Autowired
     private CommuneSearchRepository mockCommuneSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class CommuneResourceIT {
         Commune testCommune = communeList.get(communeList.size() - 1);
         assertThat(testCommune.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Commune in Elasticsearch
-        verify(mockCommuneSearchRepository, times(1)).save(testCommune);
+        // Validate the Commune is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Commune", testCommune.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class CommuneResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllCommunesByProvince() throws Exception {
+        // Initialize the database
+        Province province = ProvinceResourceIT.createEntity(em);
+        em.persist(province);
+        commune.setProvince(province);
+        communeRepository.saveAndFlush(commune);
+
+        // Get the id and libelle of the communes of the province
+        restCommuneMockMvc
+            .perform(get(ENTITY_API_URL + "?provinceId={provinceId}", province.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(commune.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the communes of an unknown province
+        restCommuneMockMvc
+            .perform(get(ENTITY_API_URL + "?provinceId={provinceId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getCommune() throws Exception {
@@ -226,8 +260,10 @@ class CommuneResourceIT {
         Commune testCommune = communeList.get(communeList.size() - 1);
         assertThat(testCommune.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Commune in Elasticsearch
-        verify(mockCommuneSearchRepository).save(testCommune);
+        // Validate the Commune is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Commune", testCommune.getId()));
     }
 
     @Test
@@ -453,8 +489,10 @@ class CommuneResourceIT {
         List<Commune> communeList = communeRepository.findAll();
         assertThat(communeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Commune in Elasticsearch
-        verify(mockCommuneSearchRepository, times(1)).deleteById(commune.getId());
+        // Validate the Commune is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Commune", commune.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.DirectionRegionale;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.DirectionRegionaleRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.DirectionRegionaleSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.DirectionRegionaleDTO;
 import com.onea.sidot.gestioneau.service.mapper.DirectionRegionaleMapper;
@@ -71,6 +74,9 @@ class DirectionRegionaleResourceIT {
     @Autowired
     private DirectionRegionaleSearchRepository mockDirectionRegionaleSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -134,8 +140,10 @@ class DirectionRegionaleResourceIT {
         assertThat(testDirectionRegionale.getResponsable()).isEqualTo(DEFAULT_RESPONSABLE);
         assertThat(testDirectionRegionale.getContact()).isEqualTo(DEFAULT_CONTACT);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository, times(1)).save(testDirectionRegionale);
+        // Validate the DirectionRegionale is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("DirectionRegionale", testDirectionRegionale.getId()));
     }
 
     @Test
@@ -302,8 +310,10 @@ class DirectionRegionaleResourceIT {
         assertThat(testDirectionRegionale.getResponsable()).isEqualTo(UPDATED_RESPONSABLE);
         assertThat(testDirectionRegionale.getContact()).isEqualTo(UPDATED_CONTACT);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository).save(testDirectionRegionale);
+        // Validate the DirectionRegionale is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("DirectionRegionale", testDirectionRegionale.getId()));
     }
 
     @Test
@@ -539,8 +549,10 @@ class DirectionRegionaleResourceIT {
         List<DirectionRegionale> directionRegionaleList = directionRegionaleRepository.findAll();
         assertThat(directionRegionaleList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the DirectionRegionale in Elasticsearch
-        verify(mockDirectionRegionaleSearchRepository, times(1)).deleteById(directionRegionale.getId());
+        // Validate the DirectionRegionale is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("DirectionRegionale", directionRegionale.getId()));
     }
 
     @Test
@@ -1,34 +1,65 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.elasticsearch.index.query.QueryBuilders.geoBoundingBoxQuery;
+import static org.elasticsearch.index.query.QueryBuilders.geoDistanceQuery;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.hazelcast.core.HazelcastInstance;
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.FicheSuiviOuvrageRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.FicheSuiviOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageClusterService;
+import com.onea.sidot.gestioneau.service.FicheSuiviOuvrageFacetService;
+import com.onea.sidot.gestioneau.service.SearchIndexedEvent;
 import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageSearchCriteriaDTO;
 import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.geogrid.GeoGrid;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.GeoCentroid;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -108,7 +139,12 @@ class FicheSuiviOuvrageResourceIT {
 
     private static final String ENTITY_API_URL = "/api/fiche-suivi-ouvrages";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_BULK_API_URL = ENTITY_API_URL + "/_bulk";
+    private static final String ENTITY_EXPORT_API_URL = ENTITY_API_URL + "/_export";
+    private static final String ENTITY_WITHIN_API_URL = ENTITY_API_URL + "/_within";
+    private static final String ENTITY_CLUSTERS_API_URL = ENTITY_API_URL + "/_clusters";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/fiche-suivi-ouvrages";
+    private static final String ENTITY_FACETED_SEARCH_API_URL = ENTITY_SEARCH_API_URL + "/_faceted";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -127,6 +163,18 @@ class FicheSuiviOuvrageResourceIT {
     @Autowired
     private FicheSuiviOuvrageSearchRepository mockFicheSuiviOuvrageSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private FicheSuiviOuvrageClusterService ficheSuiviOuvrageClusterService;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private FicheSuiviOuvrageFacetService ficheSuiviOuvrageFacetService;
+
     @Autowired
     private EntityManager em;
 
@@ -244,8 +292,10 @@ class FicheSuiviOuvrageResourceIT {
         assertThat(testFicheSuiviOuvrage.getSuperviseur()).isEqualTo(DEFAULT_SUPERVISEUR);
         assertThat(testFicheSuiviOuvrage.getControleur()).isEqualTo(DEFAULT_CONTROLEUR);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository, times(1)).save(testFicheSuiviOuvrage);
+        // Validate the FicheSuiviOuvrage is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("FicheSuiviOuvrage", testFicheSuiviOuvrage.getId()));
     }
 
     @Test
@@ -274,6 +324,74 @@ class FicheSuiviOuvrageResourceIT {
         verify(mockFicheSuiviOuvrageSearchRepository, times(0)).save(ficheSuiviOuvrage);
     }
 
+    @Test
+    @Transactional
+    void bulkCreateFicheSuiviOuvrages() throws Exception {
+        int databaseSizeBeforeCreate = ficheSuiviOuvrageRepository.findAll().size();
+        FicheSuiviOuvrageDTO validDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+        FicheSuiviOuvrageDTO invalidDTO = ficheSuiviOuvrageMapper.toDto(createEntity(em));
+        invalidDTO.setNomBenef(null);
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_BULK_API_URL + "?chunkSize=1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(validDTO, invalidDTO, validDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.invalid").value(1))
+            .andExpect(jsonPath("$.failed").value(0))
+            .andExpect(jsonPath("$.rows[?(@.index == 1)].status").value(hasItem("INVALID")));
+
+        // Validate the FicheSuiviOuvrages in the database
+        assertThat(ficheSuiviOuvrageRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+
+        // Validate the created FicheSuiviOuvrages are queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .filteredOn(entry -> "FicheSuiviOuvrage".equals(entry.getEntityType()))
+            .hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateFicheSuiviOuvragesFromNdjson() throws Exception {
+        int databaseSizeBeforeCreate = ficheSuiviOuvrageRepository.findAll().size();
+        String row = new String(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage)));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(post(ENTITY_BULK_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(row + "\n" + row + "\n"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.rows[*].id").isNotEmpty());
+
+        assertThat(ficheSuiviOuvrageRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(searchOutboxRepository.findAll())
+            .filteredOn(entry -> "FicheSuiviOuvrage".equals(entry.getEntityType()))
+            .hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateFicheSuiviOuvragesWithExistingId() throws Exception {
+        int databaseSizeBeforeCreate = ficheSuiviOuvrageRepository.findAll().size();
+        ficheSuiviOuvrage.setId(1L);
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage);
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_BULK_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(ficheSuiviOuvrageDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(0))
+            .andExpect(jsonPath("$.invalid").value(1));
+
+        assertThat(ficheSuiviOuvrageRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+        verify(mockFicheSuiviOuvrageSearchRepository, times(0)).saveAll(anyIterable());
+    }
+
     @Test
     @Transactional
     void checkPrjAppuisIsRequired() throws Exception {
@@ -727,6 +845,27 @@ class FicheSuiviOuvrageResourceIT {
             .andExpect(jsonPath("$.[*].controleur").value(hasItem(DEFAULT_CONTROLEUR)));
     }
 
+    @Test
+    @Transactional
+    void getAllFicheSuiviOuvragesAfterId() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+
+        // Get the ficheSuiviOuvrageList following the id just before the ficheSuiviOuvrage, without counting it
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", ficheSuiviOuvrage.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(ficheSuiviOuvrage.getId().intValue()));
+
+        // The ficheSuiviOuvrage is not part of the ficheSuiviOuvrageList following its own id
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(ficheSuiviOuvrage.getId().intValue()))));
+    }
+
     @Test
     @Transactional
     void getFicheSuiviOuvrage() throws Exception {
@@ -762,6 +901,84 @@ class FicheSuiviOuvrageResourceIT {
             .andExpect(jsonPath("$.controleur").value(DEFAULT_CONTROLEUR));
     }
 
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvragesAsNdjson() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+
+        // Export the ficheSuiviOuvrages
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?format=ndjson"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("\"id\":" + ficheSuiviOuvrage.getId() + ",")))
+            .andExpect(content().string(containsString("\"nomBenef\":\"" + DEFAULT_NOM_BENEF + "\"")));
+    }
+
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvragesAsCsv() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+
+        // Export the ficheSuiviOuvrages
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?format=csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(startsWith("id,prjAppuis,nomBenef,")))
+            .andExpect(content().string(containsString(",parcelle,centre,annee,natureouvrage,")))
+            .andExpect(content().string(containsString("\r\n" + ficheSuiviOuvrage.getId() + "," + DEFAULT_PRJ_APPUIS + ",")));
+    }
+
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvragesWithQuery() throws Exception {
+        // Configure the mock search repository
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        when(mockFicheSuiviOuvrageSearchRepository.searchForStream(queryStringQuery("id:" + ficheSuiviOuvrage.getId())))
+            .thenReturn(Stream.of(ficheSuiviOuvrage));
+
+        // Export the matching ficheSuiviOuvrages
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?format=ndjson&query=id:" + ficheSuiviOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"id\":" + ficheSuiviOuvrage.getId() + ",")));
+    }
+
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvragesWithCriteria() throws Exception {
+        // Configure the mock search repository
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        when(mockFicheSuiviOuvrageSearchRepository.searchForStream(any(QueryBuilder.class))).thenReturn(Stream.of(ficheSuiviOuvrage));
+        FicheSuiviOuvrageSearchCriteriaDTO criteria = new FicheSuiviOuvrageSearchCriteriaDTO();
+        criteria.setMaconIds(Set.of(42L));
+
+        // Export the matching ficheSuiviOuvrages
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_EXPORT_API_URL + "?format=csv")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(criteria))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(containsString("\r\n" + ficheSuiviOuvrage.getId() + "," + DEFAULT_PRJ_APPUIS + ",")));
+
+        // Validate that the criteria are compiled as for the search
+        ArgumentCaptor<QueryBuilder> queryCaptor = ArgumentCaptor.forClass(QueryBuilder.class);
+        verify(mockFicheSuiviOuvrageSearchRepository).searchForStream(queryCaptor.capture());
+        assertThat(((BoolQueryBuilder) queryCaptor.getValue()).filter()).containsExactly(termsQuery("macon.id", List.of(42L)));
+    }
+
+    @Test
+    @Transactional
+    void exportFicheSuiviOuvragesWithInvalidFormat() throws Exception {
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_EXPORT_API_URL + "?format=xls")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingFicheSuiviOuvrage() throws Exception {
@@ -839,8 +1056,10 @@ class FicheSuiviOuvrageResourceIT {
         assertThat(testFicheSuiviOuvrage.getSuperviseur()).isEqualTo(UPDATED_SUPERVISEUR);
         assertThat(testFicheSuiviOuvrage.getControleur()).isEqualTo(UPDATED_CONTROLEUR);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository).save(testFicheSuiviOuvrage);
+        // Validate the FicheSuiviOuvrage is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("FicheSuiviOuvrage", testFicheSuiviOuvrage.getId()));
     }
 
     @Test
@@ -1145,8 +1364,10 @@ class FicheSuiviOuvrageResourceIT {
         List<FicheSuiviOuvrage> ficheSuiviOuvrageList = ficheSuiviOuvrageRepository.findAll();
         assertThat(ficheSuiviOuvrageList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the FicheSuiviOuvrage in Elasticsearch
-        verify(mockFicheSuiviOuvrageSearchRepository, times(1)).deleteById(ficheSuiviOuvrage.getId());
+        // Validate the FicheSuiviOuvrage is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("FicheSuiviOuvrage", ficheSuiviOuvrage.getId()));
     }
 
     @Test
@@ -1186,4 +1407,327 @@ class FicheSuiviOuvrageResourceIT {
             .andExpect(jsonPath("$.[*].superviseur").value(hasItem(DEFAULT_SUPERVISEUR)))
             .andExpect(jsonPath("$.[*].controleur").value(hasItem(DEFAULT_CONTROLEUR)));
     }
+
+    @Test
+    @Transactional
+    void searchFicheSuiviOuvrageWithCriteria() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        when(mockFicheSuiviOuvrageSearchRepository.search(any(QueryBuilder.class), eq(PageRequest.of(0, 20))))
+            .thenReturn(new PageImpl<>(Collections.singletonList(ficheSuiviOuvrage), PageRequest.of(0, 1), 1));
+        FicheSuiviOuvrageSearchCriteriaDTO criteria = new FicheSuiviOuvrageSearchCriteriaDTO();
+        criteria.setBeneficiaire(DEFAULT_NOM_BENEF);
+        FicheSuiviOuvrageSearchCriteriaDTO.InstantRange dateDebutTravaux = new FicheSuiviOuvrageSearchCriteriaDTO.InstantRange();
+        dateDebutTravaux.setFrom(DEFAULT_DATE_DEBUT_TRAVAUX);
+        criteria.setDateDebutTravaux(dateDebutTravaux);
+        criteria.setMaconIds(Set.of(42L));
+        criteria.setCommuneIds(Set.of(7L));
+        FicheSuiviOuvrageSearchCriteriaDTO.BoundingBox boundingBox = new FicheSuiviOuvrageSearchCriteriaDTO.BoundingBox();
+        boundingBox.setTop(2F);
+        boundingBox.setLeft(0F);
+        boundingBox.setBottom(0F);
+        boundingBox.setRight(2F);
+        criteria.setBoundingBox(boundingBox);
+
+        // Search the ficheSuiviOuvrage
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_SEARCH_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(criteria))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())))
+            .andExpect(jsonPath("$.[*].nomBenef").value(hasItem(DEFAULT_NOM_BENEF)));
+
+        // Validate that only the full-text criterion is scored, the other ones being cacheable filters
+        ArgumentCaptor<QueryBuilder> queryCaptor = ArgumentCaptor.forClass(QueryBuilder.class);
+        verify(mockFicheSuiviOuvrageSearchRepository).search(queryCaptor.capture(), eq(PageRequest.of(0, 20)));
+        assertThat(queryCaptor.getValue()).isInstanceOf(BoolQueryBuilder.class);
+        BoolQueryBuilder query = (BoolQueryBuilder) queryCaptor.getValue();
+        assertThat(query.must()).hasSize(1).allMatch(MultiMatchQueryBuilder.class::isInstance);
+        assertThat(query.filter())
+            .containsExactly(
+                rangeQuery("dateDebutTravaux").gte(DEFAULT_DATE_DEBUT_TRAVAUX.toString()),
+                termsQuery("macon.id", List.of(42L)),
+                termsQuery("searchFields.commune.id", List.of(7L)),
+                geoBoundingBoxQuery("location").setCorners(2, 0, 0, 2)
+            );
+        assertThat(query.should()).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void searchFicheSuiviOuvrageWithInvalidCriteria() throws Exception {
+        FicheSuiviOuvrageSearchCriteriaDTO criteria = new FicheSuiviOuvrageSearchCriteriaDTO();
+        FicheSuiviOuvrageSearchCriteriaDTO.InstantRange dateFinTravaux = new FicheSuiviOuvrageSearchCriteriaDTO.InstantRange();
+        dateFinTravaux.setFrom(UPDATED_DATE_FIN_TRAVAUX);
+        dateFinTravaux.setTo(DEFAULT_DATE_FIN_TRAVAUX);
+        criteria.setDateFinTravaux(dateFinTravaux);
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_SEARCH_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(criteria))
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(0)).search(any(QueryBuilder.class), any(Pageable.class));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragePointsWithinBoundingBox() throws Exception {
+        // Initialize the database
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        when(mockFicheSuiviOuvrageSearchRepository.searchPoints(any(QueryBuilder.class), any(), eq(PageRequest.of(0, 20))))
+            .thenReturn(new PageImpl<>(Collections.singletonList(ficheSuiviOuvrage), PageRequest.of(0, 1), 1));
+
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_WITHIN_API_URL + "?bbox=0,0,2,2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())))
+            .andExpect(jsonPath("$.[*].latitude").value(hasItem(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(hasItem(DEFAULT_LONGITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].nomBenef").doesNotExist());
+
+        ArgumentCaptor<QueryBuilder> queryCaptor = ArgumentCaptor.forClass(QueryBuilder.class);
+        verify(mockFicheSuiviOuvrageSearchRepository).searchPoints(queryCaptor.capture(), isNull(), eq(PageRequest.of(0, 20)));
+        assertThat(((BoolQueryBuilder) queryCaptor.getValue()).filter())
+            .containsExactly(geoBoundingBoxQuery("location").setCorners(2, 0, 0, 2));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragePointsNearLocation() throws Exception {
+        when(mockFicheSuiviOuvrageSearchRepository.searchPoints(any(QueryBuilder.class), any(), eq(PageRequest.of(0, 20))))
+            .thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 20), 0));
+
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL + "?near=12.37,-1.52&radius=500")).andExpect(status().isOk());
+
+        ArgumentCaptor<QueryBuilder> queryCaptor = ArgumentCaptor.forClass(QueryBuilder.class);
+        verify(mockFicheSuiviOuvrageSearchRepository)
+            .searchPoints(queryCaptor.capture(), eq(SortBuilders.geoDistanceSort("location", 12.37, -1.52)), eq(PageRequest.of(0, 20)));
+        assertThat(((BoolQueryBuilder) queryCaptor.getValue()).filter())
+            .containsExactly(geoDistanceQuery("location").point(12.37, -1.52).distance(500, DistanceUnit.METERS));
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvragePointsWithInvalidArea() throws Exception {
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL)).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL + "?bbox=0,2,2,0")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL + "?bbox=0,0,2")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL + "?near=12.37,-1.52")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_WITHIN_API_URL + "?near=91,0&radius=500")).andExpect(status().isBadRequest());
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(0)).searchPoints(any(QueryBuilder.class), any(), any(Pageable.class));
+    }
+
+    /**
+     * Mock the aggregation of one cell of 3 sheets at (1, 1), in the tile 7/64/63.
+     */
+    private Aggregations mockClusterAggregation() {
+        hazelcastInstance.getMap(FicheSuiviOuvrageClusterService.CLUSTERS_MAP).clear();
+        GeoCentroid centroid = mock(GeoCentroid.class);
+        doReturn(new GeoPoint(1, 1)).when(centroid).centroid();
+        Terms.Bucket natureouvrage = mock(Terms.Bucket.class);
+        doReturn(5L).when(natureouvrage).getKeyAsNumber();
+        doReturn(3L).when(natureouvrage).getDocCount();
+        Terms natureouvrages = mock(Terms.class);
+        doReturn(List.of(natureouvrage)).when(natureouvrages).getBuckets();
+        Aggregations cellAggregations = mock(Aggregations.class);
+        doReturn(centroid).when(cellAggregations).get("centroid");
+        doReturn(natureouvrages).when(cellAggregations).get("natureouvrages");
+        GeoGrid.Bucket cell = mock(GeoGrid.Bucket.class);
+        doReturn("8/128/127").when(cell).getKeyAsString();
+        doReturn(3L).when(cell).getDocCount();
+        doReturn(cellAggregations).when(cell).getAggregations();
+        GeoGrid cells = mock(GeoGrid.class);
+        doReturn(List.of(cell)).when(cells).getBuckets();
+        Aggregations aggregations = mock(Aggregations.class);
+        doReturn(cells).when(aggregations).get("cells");
+        when(mockFicheSuiviOuvrageSearchRepository.aggregate(any(QueryBuilder.class), any())).thenReturn(aggregations);
+        return aggregations;
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvrageClustersIsCachedPerTile() throws Exception {
+        mockClusterAggregation();
+
+        for (int i = 0; i < 2; i++) {
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7&bbox=0,0,2,2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].latitude").value(1.0))
+                .andExpect(jsonPath("$[0].longitude").value(1.0))
+                .andExpect(jsonPath("$[0].count").value(3))
+                .andExpect(jsonPath("$[0].natureouvrages['5']").value(3));
+        }
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(1)).aggregate(any(QueryBuilder.class), any());
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvrageClustersAfterIndexingMovedSheet() throws Exception {
+        mockClusterAggregation();
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7&bbox=0,0,2,2")).andExpect(status().isOk());
+
+        // The sheet moves from the cached tile to a tile far away
+        FicheSuiviOuvrage movedFicheSuiviOuvrage = createEntity(em);
+        movedFicheSuiviOuvrage.setId(Long.MAX_VALUE);
+        ficheSuiviOuvrageClusterService.recordPreviousLocation(movedFicheSuiviOuvrage);
+        movedFicheSuiviOuvrage.latitude(50F).longitude(50F);
+        ficheSuiviOuvrageClusterService.onSearchIndexed(
+            new SearchIndexedEvent(FicheSuiviOuvrage.class.getSimpleName(), List.<Object>of(movedFicheSuiviOuvrage), List.of())
+        );
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7&bbox=0,0,2,2")).andExpect(status().isOk());
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(2)).aggregate(any(QueryBuilder.class), any());
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvrageClustersIsNotCachedStaleByAConcurrentIndexing() throws Exception {
+        Aggregations aggregations = mockClusterAggregation();
+        // A sheet of the tile is indexed while the clusters of the tile are counted
+        FicheSuiviOuvrage indexedFicheSuiviOuvrage = createEntity(em);
+        indexedFicheSuiviOuvrage.setId(Long.MAX_VALUE);
+        indexedFicheSuiviOuvrage.latitude(1F).longitude(1F);
+        when(mockFicheSuiviOuvrageSearchRepository.aggregate(any(QueryBuilder.class), any()))
+            .thenAnswer(
+                invocation -> {
+                    SearchIndexedEvent event = new SearchIndexedEvent(
+                        FicheSuiviOuvrage.class.getSimpleName(),
+                        List.<Object>of(indexedFicheSuiviOuvrage),
+                        List.of()
+                    );
+                    ficheSuiviOuvrageClusterService.onSearchIndexed(event);
+                    return aggregations;
+                }
+            )
+            .thenReturn(aggregations);
+
+        // The clusters counted before the indexing are served, but not cached, the next ones are
+        for (int i = 0; i < 3; i++) {
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7&bbox=0,0,2,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(3));
+        }
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(2)).aggregate(any(QueryBuilder.class), any());
+    }
+
+    @Test
+    @Transactional
+    void getFicheSuiviOuvrageClustersWithInvalidArea() throws Exception {
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=21&bbox=0,0,2,2")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=7&bbox=2,0,0,2")).andExpect(status().isBadRequest());
+        restFicheSuiviOuvrageMockMvc.perform(get(ENTITY_CLUSTERS_API_URL + "?zoom=20&bbox=0,0,2,2")).andExpect(status().isBadRequest());
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(0)).aggregate(any(QueryBuilder.class), any());
+    }
+
+    /**
+     * Mock a search hitting the sheet, with 3 sheets of the nature d'ouvrage 5 when the facets are aggregated.
+     */
+    @SuppressWarnings("unchecked")
+    private void mockFacetedSearch() {
+        hazelcastInstance.getMap(FicheSuiviOuvrageFacetService.FACET_COUNTS_MAP).clear();
+        Terms.Bucket libelle = mock(Terms.Bucket.class);
+        doReturn("LATRINE").when(libelle).getKeyAsString();
+        Terms libelles = mock(Terms.class);
+        doReturn(List.of(libelle)).when(libelles).getBuckets();
+        Aggregations natureouvrageAggregations = mock(Aggregations.class);
+        doReturn(libelles).when(natureouvrageAggregations).get("libelle");
+        Terms.Bucket natureouvrage = mock(Terms.Bucket.class);
+        doReturn(5L).when(natureouvrage).getKeyAsNumber();
+        doReturn(3L).when(natureouvrage).getDocCount();
+        doReturn(natureouvrageAggregations).when(natureouvrage).getAggregations();
+        Terms natureouvrages = mock(Terms.class);
+        doReturn(List.of(natureouvrage)).when(natureouvrages).getBuckets();
+        Aggregations aggregations = mock(Aggregations.class);
+        doReturn(natureouvrages).when(aggregations).get("natureouvrage");
+        SearchHit<FicheSuiviOuvrage> hit = mock(SearchHit.class);
+        doReturn(ficheSuiviOuvrage).when(hit).getContent();
+        SearchHits<FicheSuiviOuvrage> hits = mock(SearchHits.class);
+        doReturn(List.of(hit)).when(hits).getSearchHits();
+        doReturn(1L).when(hits).getTotalHits();
+        doReturn(aggregations).when(hits).getAggregations();
+        when(mockFicheSuiviOuvrageSearchRepository.searchWithAggregations(any(QueryBuilder.class), anyCollection(), any(Pageable.class)))
+            .thenReturn(hits);
+    }
+
+    @Test
+    @Transactional
+    void searchFicheSuiviOuvrageWithFacets() throws Exception {
+        ficheSuiviOuvrageRepository.saveAndFlush(ficheSuiviOuvrage);
+        mockFacetedSearch();
+
+        for (int page = 0; page < 2; page++) {
+            restFicheSuiviOuvrageMockMvc
+                .perform(get(ENTITY_FACETED_SEARCH_API_URL + "?query=*&facets=default&page=" + page))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.content.[*].id").value(hasItem(ficheSuiviOuvrage.getId().intValue())))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.facets.natureouvrage[0].id").value(5))
+                .andExpect(jsonPath("$.facets.natureouvrage[0].libelle").value("LATRINE"))
+                .andExpect(jsonPath("$.facets.natureouvrage[0].count").value(3))
+                .andExpect(jsonPath("$.facets.macon").isEmpty());
+        }
+
+        // The counts of the filters are cached: the next pages only read the hits, still with one request each
+        verify(mockFicheSuiviOuvrageSearchRepository, times(1))
+            .searchWithAggregations(any(QueryBuilder.class), argThat(aggregations -> !aggregations.isEmpty()), any(Pageable.class));
+        verify(mockFicheSuiviOuvrageSearchRepository, times(1))
+            .searchWithAggregations(any(QueryBuilder.class), argThat(aggregations -> aggregations.isEmpty()), any(Pageable.class));
+    }
+
+    @Test
+    @Transactional
+    void searchFicheSuiviOuvrageWithFacetsAfterIndexingSheet() throws Exception {
+        mockFacetedSearch();
+        FicheSuiviOuvrageSearchCriteriaDTO criteria = new FicheSuiviOuvrageSearchCriteriaDTO();
+        criteria.setMaconIds(Set.of(42L, 7L));
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_FACETED_SEARCH_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(criteria))
+            )
+            .andExpect(status().isOk());
+
+        ficheSuiviOuvrageFacetService.onSearchIndexed(
+            new SearchIndexedEvent(FicheSuiviOuvrage.class.getSimpleName(), List.<Object>of(ficheSuiviOuvrage), List.of())
+        );
+        criteria.setMaconIds(Set.of(7L, 42L));
+        restFicheSuiviOuvrageMockMvc
+            .perform(
+                post(ENTITY_FACETED_SEARCH_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(criteria))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.facets.natureouvrage[0].count").value(3));
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(2))
+            .searchWithAggregations(any(QueryBuilder.class), argThat(aggregations -> !aggregations.isEmpty()), any(Pageable.class));
+    }
+
+    @Test
+    @Transactional
+    void searchFicheSuiviOuvrageWithUnknownFacets() throws Exception {
+        restFicheSuiviOuvrageMockMvc
+            .perform(get(ENTITY_FACETED_SEARCH_API_URL + "?query=*&facets=unknown"))
+            .andExpect(status().isBadRequest());
+
+        verify(mockFicheSuiviOuvrageSearchRepository, times(0)).searchWithAggregations(any(QueryBuilder.class), anyCollection(), any());
+    }
 }
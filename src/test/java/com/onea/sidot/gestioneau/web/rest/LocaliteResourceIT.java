@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -8,8 +9,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.Commune;
 import com.onea.sidot.gestioneau.domain.Localite;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.LocaliteRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.LocaliteSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.LocaliteDTO;
 import com.onea.sidot.gestioneau.service.mapper.LocaliteMapper;
@@ -65,6 +69,9 @@ class LocaliteResourceIT {
     @Autowired
     private LocaliteSearchRepository mockLocaliteSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class LocaliteResourceIT {
         Localite testLocalite = localiteList.get(localiteList.size() - 1);
         assertThat(testLocalite.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Localite in Elasticsearch
-        verify(mockLocaliteSearchRepository, times(1)).save(testLocalite);
+        // Validate the Localite is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Localite", testLocalite.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class LocaliteResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllLocalitesByCommune() throws Exception {
+        // Initialize the database
+        Commune commune = CommuneResourceIT.createEntity(em);
+        em.persist(commune);
+        localite.setCommune(commune);
+        localiteRepository.saveAndFlush(localite);
+
+        // Get the id and libelle of the localites of the commune
+        restLocaliteMockMvc
+            .perform(get(ENTITY_API_URL + "?communeId={communeId}", commune.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(localite.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the localites of an unknown commune
+        restLocaliteMockMvc
+            .perform(get(ENTITY_API_URL + "?communeId={communeId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getLocalite() throws Exception {
@@ -226,8 +260,10 @@ class LocaliteResourceIT {
         Localite testLocalite = localiteList.get(localiteList.size() - 1);
         assertThat(testLocalite.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Localite in Elasticsearch
-        verify(mockLocaliteSearchRepository).save(testLocalite);
+        // Validate the Localite is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Localite", testLocalite.getId()));
     }
 
     @Test
@@ -455,8 +491,10 @@ class LocaliteResourceIT {
         List<Localite> localiteList = localiteRepository.findAll();
         assertThat(localiteList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Localite in Elasticsearch
-        verify(mockLocaliteSearchRepository, times(1)).deleteById(localite.getId());
+        // Validate the Localite is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Localite", localite.getId()));
     }
 
     @Test
@@ -0,0 +1,182 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.*;
+import com.onea.sidot.gestioneau.service.LocationTree;
+import com.onea.sidot.gestioneau.service.LocationTreeService;
+import com.onea.sidot.gestioneau.service.ParcelleService;
+import com.onea.sidot.gestioneau.service.mapper.ParcelleMapper;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link LocationTreeResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class LocationTreeResourceIT {
+
+    private static final String API_URL = "/api/location-tree";
+    private static final String API_URL_NODE = API_URL + "/{level}/{id}";
+
+    @Autowired
+    private LocationTreeService locationTreeService;
+
+    @Autowired
+    private ParcelleService parcelleService;
+
+    @Autowired
+    private ParcelleMapper parcelleMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restLocationTreeMockMvc;
+
+    private Region region;
+
+    private Commune commune;
+
+    private Lot lot;
+
+    private Parcelle parcelle;
+
+    private void createHierarchy() {
+        region = persist(RegionResourceIT.createEntity(em));
+        Province province = persist(ProvinceResourceIT.createEntity(em).region(region));
+        commune = persist(CommuneResourceIT.createEntity(em).province(province));
+        Localite localite = persist(LocaliteResourceIT.createEntity(em).commune(commune));
+        Secteur secteur = persist(SecteurResourceIT.createEntity(em).localite(localite));
+        Section section = persist(SectionResourceIT.createEntity(em).secteur(secteur));
+        lot = persist(LotResourceIT.createEntity(em).section(section));
+        parcelle = persist(ParcelleResourceIT.createEntity(em).lot(lot));
+        em.flush();
+        // The tree may have been loaded before these nodes were created
+        locationTreeService.invalidate(LocationTree.Level.PARCELLE);
+    }
+
+    private <T> T persist(T entity) {
+        em.persist(entity);
+        return entity;
+    }
+
+    @Test
+    @Transactional
+    void getLocationTree() throws Exception {
+        createHierarchy();
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(region.getId().intValue())))
+            .andExpect(jsonPath("$.[*].level").value(hasItem("REGION")))
+            // The default depth, 1, stops under the regions at the provinces
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].level").value("PROVINCE"))
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].childCount").value(1))
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].children").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getLocationTreeIsBoundedToTheMaxDepth() throws Exception {
+        createHierarchy();
+
+        // The default max depth, 2, stops under the regions at the communes
+        restLocationTreeMockMvc
+            .perform(get(API_URL + "?depth=8"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].children[0].id").value(commune.getId().intValue()))
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].children[0].childCount").value(1))
+            .andExpect(jsonPath("$[?(@.id == " + region.getId() + ")].children[0].children[0].children").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getLocationSubtree() throws Exception {
+        createHierarchy();
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL_NODE + "?depth=5", "commune", commune.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(commune.getId().intValue()))
+            .andExpect(jsonPath("$.level").value("COMMUNE"))
+            .andExpect(jsonPath("$.libelle").value(commune.getLibelle()))
+            .andExpect(jsonPath("$.childCount").value(1))
+            .andExpect(jsonPath("$.children[0].level").value("LOCALITE"))
+            .andExpect(jsonPath("$.children[0].children[0].level").value("SECTEUR"))
+            .andExpect(jsonPath("$.children[0].children[0].children").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getLocationSubtreeListsTheParcellesUnderALotOnly() throws Exception {
+        createHierarchy();
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL_NODE + "?depth=2", "section", lot.getSection().getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.children[0].id").value(lot.getId().intValue()))
+            .andExpect(jsonPath("$.children[0].childCount").value(1))
+            .andExpect(jsonPath("$.children[0].children").doesNotExist());
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL_NODE, "lot", lot.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.children[0].id").value(parcelle.getId().intValue()))
+            .andExpect(jsonPath("$.children[0].childCount").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getLocationSubtreeWithoutDescendants() throws Exception {
+        createHierarchy();
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL_NODE + "?depth=0", "lot", lot.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.childCount").value(1))
+            .andExpect(jsonPath("$.children").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingLocationSubtree() throws Exception {
+        restLocationTreeMockMvc.perform(get(API_URL_NODE, "parcelle", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getLocationSubtreeWithInvalidLevel() throws Exception {
+        restLocationTreeMockMvc.perform(get(API_URL_NODE, "continent", 1L)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void savingAParcelleInvalidatesTheTree() throws Exception {
+        createHierarchy();
+        restLocationTreeMockMvc.perform(get(API_URL_NODE, "lot", lot.getId())).andExpect(jsonPath("$.childCount").value(1));
+
+        parcelleService.save(parcelleMapper.toDto(ParcelleResourceIT.createEntity(em).lot(lot)));
+        em.flush();
+
+        restLocationTreeMockMvc
+            .perform(get(API_URL_NODE, "lot", lot.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.childCount").value(2))
+            .andExpect(jsonPath("$.children.length()").value(2));
+    }
+}
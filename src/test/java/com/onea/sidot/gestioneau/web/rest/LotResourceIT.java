@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Lot;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.domain.Section;
 import com.onea.sidot.gestioneau.repository.LotRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.LotSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.LotDTO;
 import com.onea.sidot.gestioneau.service.mapper.LotMapper;
@@ -65,6 +69,9 @@ class LotResourceIT {
     @Autowired
     private LotSearchRepository mockLotSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class LotResourceIT {
         Lot testLot = lotList.get(lotList.size() - 1);
         assertThat(testLot.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Lot in Elasticsearch
-        verify(mockLotSearchRepository, times(1)).save(testLot);
+        // Validate the Lot is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Lot", testLot.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class LotResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllLotsBySection() throws Exception {
+        // Initialize the database
+        Section section = SectionResourceIT.createEntity(em);
+        em.persist(section);
+        lot.setSection(section);
+        lotRepository.saveAndFlush(lot);
+
+        // Get the id and libelle of the lots of the section
+        restLotMockMvc
+            .perform(get(ENTITY_API_URL + "?sectionId={sectionId}", section.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(lot.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the lots of an unknown section
+        restLotMockMvc
+            .perform(get(ENTITY_API_URL + "?sectionId={sectionId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getLot() throws Exception {
@@ -226,8 +260,10 @@ class LotResourceIT {
         Lot testLot = lotList.get(lotList.size() - 1);
         assertThat(testLot.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Lot in Elasticsearch
-        verify(mockLotSearchRepository).save(testLot);
+        // Validate the Lot is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Lot", testLot.getId()));
     }
 
     @Test
@@ -451,8 +487,10 @@ class LotResourceIT {
         List<Lot> lotList = lotRepository.findAll();
         assertThat(lotList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Lot in Elasticsearch
-        verify(mockLotSearchRepository, times(1)).deleteById(lot.getId());
+        // Validate the Lot is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Lot", lot.getId()));
     }
 
     @Test
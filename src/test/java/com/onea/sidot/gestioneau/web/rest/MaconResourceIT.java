@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Macon;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.MaconRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.MaconSearchRepository;
+import com.onea.sidot.gestioneau.service.MaconService;
 import com.onea.sidot.gestioneau.service.dto.MaconDTO;
 import com.onea.sidot.gestioneau.service.mapper.MaconMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class MaconResourceIT {
     private static final String ENTITY_API_URL = "/api/macons";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/macons";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class MaconResourceIT {
     @Autowired
     private MaconSearchRepository mockMaconSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +133,10 @@ class MaconResourceIT {
         Macon testMacon = maconList.get(maconList.size() - 1);
         assertThat(testMacon.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository, times(1)).save(testMacon);
+        // Validate the Macon is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Macon", testMacon.getId()));
     }
 
     @Test
@@ -175,6 +194,65 @@ class MaconResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllMaconsUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        macon = maconRepository.saveAndFlush(macon.libelle("getAllMaconsUnpaged"));
+        try {
+            restMaconMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllMaconsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(macon.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restMaconMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllMaconsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(macon.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restMaconMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, macon.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(maconMapper.toDto(macon.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restMaconMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllMaconsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(macon.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            maconRepository.deleteById(macon.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "Macon".equals(entry.getEntityType()) && macon.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", MaconService.MACONS_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(MaconService.MACONS_CACHE).clear();
+        cacheManager.getCache(MaconService.MACONS_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getMacon() throws Exception {
@@ -226,8 +304,10 @@ class MaconResourceIT {
         Macon testMacon = maconList.get(maconList.size() - 1);
         assertThat(testMacon.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository).save(testMacon);
+        // Validate the Macon is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Macon", testMacon.getId()));
     }
 
     @Test
@@ -453,8 +533,10 @@ class MaconResourceIT {
         List<Macon> maconList = maconRepository.findAll();
         assertThat(maconList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Macon in Elasticsearch
-        verify(mockMaconSearchRepository, times(1)).deleteById(macon.getId());
+        // Validate the Macon is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Macon", macon.getId()));
     }
 
     @Test
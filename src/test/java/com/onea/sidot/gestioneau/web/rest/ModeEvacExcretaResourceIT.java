@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.ModeEvacExcreta;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.ModeEvacExcretaRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.ModeEvacExcretaSearchRepository;
+import com.onea.sidot.gestioneau.service.ModeEvacExcretaService;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacExcretaDTO;
 import com.onea.sidot.gestioneau.service.mapper.ModeEvacExcretaMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class ModeEvacExcretaResourceIT {
     private static final String ENTITY_API_URL = "/api/mode-evac-excretas";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/mode-evac-excretas";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class ModeEvacExcretaResourceIT {
     @Autowired
     private ModeEvacExcretaSearchRepository mockModeEvacExcretaSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +135,10 @@ class ModeEvacExcretaResourceIT {
         ModeEvacExcreta testModeEvacExcreta = modeEvacExcretaList.get(modeEvacExcretaList.size() - 1);
         assertThat(testModeEvacExcreta.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository, times(1)).save(testModeEvacExcreta);
+        // Validate the ModeEvacExcreta is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacExcreta", testModeEvacExcreta.getId()));
     }
 
     @Test
@@ -181,6 +200,65 @@ class ModeEvacExcretaResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllModeEvacExcretasUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        modeEvacExcreta = modeEvacExcretaRepository.saveAndFlush(modeEvacExcreta.libelle("getAllModeEvacExcretasUnpaged"));
+        try {
+            restModeEvacExcretaMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacExcretasUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(modeEvacExcreta.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restModeEvacExcretaMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacExcretasUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(modeEvacExcreta.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restModeEvacExcretaMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, modeEvacExcreta.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(modeEvacExcretaMapper.toDto(modeEvacExcreta.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restModeEvacExcretaMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacExcretasUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(modeEvacExcreta.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            modeEvacExcretaRepository.deleteById(modeEvacExcreta.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "ModeEvacExcreta".equals(entry.getEntityType()) && modeEvacExcreta.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", ModeEvacExcretaService.MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(ModeEvacExcretaService.MODE_EVAC_EXCRETAS_CACHE).clear();
+        cacheManager.getCache(ModeEvacExcretaService.MODE_EVAC_EXCRETAS_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getModeEvacExcreta() throws Exception {
@@ -232,8 +310,10 @@ class ModeEvacExcretaResourceIT {
         ModeEvacExcreta testModeEvacExcreta = modeEvacExcretaList.get(modeEvacExcretaList.size() - 1);
         assertThat(testModeEvacExcreta.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository).save(testModeEvacExcreta);
+        // Validate the ModeEvacExcreta is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacExcreta", testModeEvacExcreta.getId()));
     }
 
     @Test
@@ -465,8 +545,10 @@ class ModeEvacExcretaResourceIT {
         List<ModeEvacExcreta> modeEvacExcretaList = modeEvacExcretaRepository.findAll();
         assertThat(modeEvacExcretaList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the ModeEvacExcreta in Elasticsearch
-        verify(mockModeEvacExcretaSearchRepository, times(1)).deleteById(modeEvacExcreta.getId());
+        // Validate the ModeEvacExcreta is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacExcreta", modeEvacExcreta.getId()));
     }
 
     @Test
@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.ModeEvacuationEauUsee;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.ModeEvacuationEauUseeRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.ModeEvacuationEauUseeSearchRepository;
+import com.onea.sidot.gestioneau.service.ModeEvacuationEauUseeService;
 import com.onea.sidot.gestioneau.service.dto.ModeEvacuationEauUseeDTO;
 import com.onea.sidot.gestioneau.service.mapper.ModeEvacuationEauUseeMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class ModeEvacuationEauUseeResourceIT {
     private static final String ENTITY_API_URL = "/api/mode-evacuation-eau-usees";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/mode-evacuation-eau-usees";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class ModeEvacuationEauUseeResourceIT {
     @Autowired
     private ModeEvacuationEauUseeSearchRepository mockModeEvacuationEauUseeSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -120,8 +137,10 @@ class ModeEvacuationEauUseeResourceIT {
         ModeEvacuationEauUsee testModeEvacuationEauUsee = modeEvacuationEauUseeList.get(modeEvacuationEauUseeList.size() - 1);
         assertThat(testModeEvacuationEauUsee.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository, times(1)).save(testModeEvacuationEauUsee);
+        // Validate the ModeEvacuationEauUsee is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacuationEauUsee", testModeEvacuationEauUsee.getId()));
     }
 
     @Test
@@ -187,6 +206,73 @@ class ModeEvacuationEauUseeResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllModeEvacuationEauUseesUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        modeEvacuationEauUsee =
+            modeEvacuationEauUseeRepository.saveAndFlush(modeEvacuationEauUsee.libelle("getAllModeEvacuationEauUseesUnpaged"));
+        try {
+            restModeEvacuationEauUseeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacuationEauUseesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(modeEvacuationEauUsee.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restModeEvacuationEauUseeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacuationEauUseesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(modeEvacuationEauUsee.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restModeEvacuationEauUseeMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, modeEvacuationEauUsee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            TestUtil.convertObjectToJsonBytes(
+                                modeEvacuationEauUseeMapper.toDto(modeEvacuationEauUsee.libelle(UPDATED_LIBELLE))
+                            )
+                        )
+                )
+                .andExpect(status().isOk());
+            restModeEvacuationEauUseeMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllModeEvacuationEauUseesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(modeEvacuationEauUsee.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            modeEvacuationEauUseeRepository.deleteById(modeEvacuationEauUsee.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(
+                    entry ->
+                        "ModeEvacuationEauUsee".equals(entry.getEntityType()) && modeEvacuationEauUsee.getId().equals(entry.getEntityId())
+                )
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", ModeEvacuationEauUseeService.MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(ModeEvacuationEauUseeService.MODE_EVACUATION_EAU_USEES_CACHE).clear();
+        cacheManager.getCache(ModeEvacuationEauUseeService.MODE_EVACUATION_EAU_USEES_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getModeEvacuationEauUsee() throws Exception {
@@ -238,8 +324,10 @@ class ModeEvacuationEauUseeResourceIT {
         ModeEvacuationEauUsee testModeEvacuationEauUsee = modeEvacuationEauUseeList.get(modeEvacuationEauUseeList.size() - 1);
         assertThat(testModeEvacuationEauUsee.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository).save(testModeEvacuationEauUsee);
+        // Validate the ModeEvacuationEauUsee is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacuationEauUsee", testModeEvacuationEauUsee.getId()));
     }
 
     @Test
@@ -473,8 +561,10 @@ class ModeEvacuationEauUseeResourceIT {
         List<ModeEvacuationEauUsee> modeEvacuationEauUseeList = modeEvacuationEauUseeRepository.findAll();
         assertThat(modeEvacuationEauUseeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the ModeEvacuationEauUsee in Elasticsearch
-        verify(mockModeEvacuationEauUseeSearchRepository, times(1)).deleteById(modeEvacuationEauUsee.getId());
+        // Validate the ModeEvacuationEauUsee is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("ModeEvacuationEauUsee", modeEvacuationEauUsee.getId()));
     }
 
     @Test
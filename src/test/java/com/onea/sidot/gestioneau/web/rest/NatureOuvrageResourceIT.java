@@ -1,21 +1,30 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.domain.SyncTombstone;
 import com.onea.sidot.gestioneau.repository.NatureOuvrageRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
+import com.onea.sidot.gestioneau.repository.SyncTombstoneRepository;
 import com.onea.sidot.gestioneau.repository.search.NatureOuvrageSearchRepository;
+import com.onea.sidot.gestioneau.service.NatureOuvrageService;
 import com.onea.sidot.gestioneau.service.dto.NatureOuvrageDTO;
 import com.onea.sidot.gestioneau.service.mapper.NatureOuvrageMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,12 +34,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration tests for the {@link NatureOuvrageResource} REST controller.
@@ -47,6 +60,7 @@ class NatureOuvrageResourceIT {
     private static final String ENTITY_API_URL = "/api/nature-ouvrages";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/nature-ouvrages";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +79,24 @@ class NatureOuvrageResourceIT {
     @Autowired
     private NatureOuvrageSearchRepository mockNatureOuvrageSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Autowired
+    private NatureOuvrageService natureOuvrageService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +150,10 @@ class NatureOuvrageResourceIT {
         NatureOuvrage testNatureOuvrage = natureOuvrageList.get(natureOuvrageList.size() - 1);
         assertThat(testNatureOuvrage.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository, times(1)).save(testNatureOuvrage);
+        // Validate the NatureOuvrage is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("NatureOuvrage", testNatureOuvrage.getId()));
     }
 
     @Test
@@ -181,6 +215,125 @@ class NatureOuvrageResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllNatureOuvragesAfterId() throws Exception {
+        // Initialize the database
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        // Get the natureOuvrageList following the id just before the natureOuvrage, without counting it
+        restNatureOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", natureOuvrage.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(natureOuvrage.getId().intValue()));
+
+        // The natureOuvrage is not part of the natureOuvrageList following its own id
+        restNatureOuvrageMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", natureOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(natureOuvrage.getId().intValue()))));
+    }
+
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllNatureOuvragesUnpagedIsCachedUntilChanged() throws Exception {
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_CACHE).clear();
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_BY_LIBELLE_CACHE).clear();
+        natureOuvrage.libelle("getAllNatureOuvragesUnpaged");
+        natureOuvrage = natureOuvrageRepository.saveAndFlush(natureOuvrage);
+        try {
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllNatureOuvragesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(natureOuvrage.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllNatureOuvragesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(natureOuvrage.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restNatureOuvrageMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, natureOuvrage.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(natureOuvrageMapper.toDto(natureOuvrage.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllNatureOuvragesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(natureOuvrage.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_ALL_API_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[?(@.id == %d)].libelle", natureOuvrage.getId()).value(UPDATED_LIBELLE));
+        } finally {
+            deleteNatureOuvrageAndClearCaches();
+        }
+    }
+
+    /**
+     * A list read before a change commits, and put in the cache after the eviction of the change, is not served to
+     * the later reads.
+     */
+    @Test
+    void getAllNatureOuvragesUnpagedIsNotCachedStaleByAConcurrentRead() throws Exception {
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_CACHE).clear();
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_BY_LIBELLE_CACHE).clear();
+        natureOuvrage.libelle("getAllNatureOuvragesRace");
+        natureOuvrage = natureOuvrageRepository.saveAndFlush(natureOuvrage);
+        try {
+            NatureOuvrageDTO updated = natureOuvrageMapper.toDto(natureOuvrage);
+            updated.setLibelle(UPDATED_LIBELLE);
+            new TransactionTemplate(transactionManager)
+                .executeWithoutResult(
+                    status -> {
+                        assertThat(natureOuvrageService.findAllByLibelle("getAllNatureOuvragesRace"))
+                            .extracting(NatureOuvrageDTO::getId)
+                            .contains(natureOuvrage.getId());
+                        // The change commits, and evicts the cache, while the read still holds the list to put
+                        CompletableFuture.runAsync(() -> natureOuvrageService.save(updated)).join();
+                    }
+                );
+
+            assertThat(natureOuvrageService.findAllByLibelle("getAllNatureOuvragesRace"))
+                .extracting(NatureOuvrageDTO::getId)
+                .doesNotContain(natureOuvrage.getId());
+        } finally {
+            deleteNatureOuvrageAndClearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", NatureOuvrageService.NATURE_OUVRAGES_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void deleteNatureOuvrageAndClearCaches() {
+        natureOuvrageRepository.deleteById(natureOuvrage.getId());
+        searchOutboxRepository
+            .findAll()
+            .stream()
+            .filter(entry -> "NatureOuvrage".equals(entry.getEntityType()) && natureOuvrage.getId().equals(entry.getEntityId()))
+            .forEach(searchOutboxRepository::delete);
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_CACHE).clear();
+        cacheManager.getCache(NatureOuvrageService.NATURE_OUVRAGES_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getNatureOuvrage() throws Exception {
@@ -196,6 +349,67 @@ class NatureOuvrageResourceIT {
             .andExpect(jsonPath("$.libelle").value(DEFAULT_LIBELLE));
     }
 
+    @Test
+    @Transactional
+    void getNatureOuvrageNotModified() throws Exception {
+        // Initialize the database
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        String eTag = restNatureOuvrageMockMvc
+            .perform(get(ENTITY_API_URL_ID, natureOuvrage.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The version was kept by the first request, so the entity is not read again
+        restNatureOuvrageMockMvc
+            .perform(get(ENTITY_API_URL_ID, natureOuvrage.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+    }
+
+    /**
+     * Not transactional, as the changes are only counted once the transactions commit.
+     */
+    @Test
+    void getAllNatureOuvragesNotModifiedUntilChanged() throws Exception {
+        natureOuvrage = natureOuvrageRepository.saveAndFlush(natureOuvrage);
+        try {
+            String eTag = restNatureOuvrageMockMvc
+                .perform(get(ENTITY_API_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+            restNatureOuvrageMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, natureOuvrage.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(natureOuvrageMapper.toDto(natureOuvrage.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restNatureOuvrageMockMvc
+                .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        } finally {
+            natureOuvrageRepository.deleteById(natureOuvrage.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "NatureOuvrage".equals(entry.getEntityType()) && natureOuvrage.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+        }
+    }
+
     @Test
     @Transactional
     void getNonExistingNatureOuvrage() throws Exception {
@@ -232,8 +446,103 @@ class NatureOuvrageResourceIT {
         NatureOuvrage testNatureOuvrage = natureOuvrageList.get(natureOuvrageList.size() - 1);
         assertThat(testNatureOuvrage.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository).save(testNatureOuvrage);
+        // Validate the NatureOuvrage is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("NatureOuvrage", testNatureOuvrage.getId()));
+    }
+
+    @Test
+    @Transactional
+    void putStaleNatureOuvrage() throws Exception {
+        // Initialize the database
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        NatureOuvrage updatedNatureOuvrage = natureOuvrageRepository.findById(natureOuvrage.getId()).get();
+        em.detach(updatedNatureOuvrage);
+        NatureOuvrageDTO natureOuvrageDTO = natureOuvrageMapper.toDto(updatedNatureOuvrage.libelle(UPDATED_LIBELLE));
+
+        restNatureOuvrageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, natureOuvrageDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(natureOuvrageDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(natureOuvrageDTO.getVersion().intValue() + 1));
+
+        // Updated again from the same version
+        restNatureOuvrageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, natureOuvrageDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(natureOuvrageDTO))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void putNatureOuvrageWithoutVersion() throws Exception {
+        // Initialize the database, and change the entity once
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+        natureOuvrageRepository.saveAndFlush(natureOuvrage.libelle(UPDATED_LIBELLE));
+
+        NatureOuvrageDTO natureOuvrageDTO = natureOuvrageMapper.toDto(natureOuvrage);
+        natureOuvrageDTO.setVersion(null);
+        natureOuvrageDTO.setLibelle(DEFAULT_LIBELLE);
+        em.detach(natureOuvrage);
+
+        // Rejected, as it would overwrite the change it was not made from
+        restNatureOuvrageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, natureOuvrageDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(natureOuvrageDTO))
+            )
+            .andExpect(status().isPreconditionRequired());
+        assertThat(natureOuvrageRepository.findById(natureOuvrageDTO.getId()).get().getLibelle()).isEqualTo(UPDATED_LIBELLE);
+
+        // Checked against the version of an If-Match header instead
+        restNatureOuvrageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, natureOuvrageDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_MATCH, "\"" + natureOuvrage.getVersion() + "-0-0\"")
+                    .content(TestUtil.convertObjectToJsonBytes(natureOuvrageDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(natureOuvrage.getVersion().intValue() + 1))
+            .andExpect(jsonPath("$.libelle").value(DEFAULT_LIBELLE));
+    }
+
+    @Test
+    @Transactional
+    void patchNatureOuvrageWithStaleETag() throws Exception {
+        // Initialize the database
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        NatureOuvrage partialUpdatedNatureOuvrage = new NatureOuvrage();
+        partialUpdatedNatureOuvrage.setId(natureOuvrage.getId());
+        partialUpdatedNatureOuvrage.libelle(UPDATED_LIBELLE);
+
+        restNatureOuvrageMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedNatureOuvrage.getId())
+                    .contentType("application/merge-patch+json")
+                    .header(HttpHeaders.IF_MATCH, "not-a-version")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedNatureOuvrage))
+            )
+            .andExpect(status().isBadRequest());
+
+        restNatureOuvrageMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedNatureOuvrage.getId())
+                    .contentType("application/merge-patch+json")
+                    .header(HttpHeaders.IF_MATCH, "\"" + (natureOuvrage.getVersion() + 1) + "-0-0\"")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedNatureOuvrage))
+            )
+            .andExpect(status().isConflict());
     }
 
     @Test
@@ -463,8 +772,15 @@ class NatureOuvrageResourceIT {
         List<NatureOuvrage> natureOuvrageList = natureOuvrageRepository.findAll();
         assertThat(natureOuvrageList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the NatureOuvrage in Elasticsearch
-        verify(mockNatureOuvrageSearchRepository, times(1)).deleteById(natureOuvrage.getId());
+        // Validate the NatureOuvrage is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("NatureOuvrage", natureOuvrage.getId()));
+
+        // Validate the deletion is recorded for the sync of the field tablets
+        assertThat(syncTombstoneRepository.findAll())
+            .extracting(SyncTombstone::getEntityType, SyncTombstone::getEntityId)
+            .contains(tuple("NatureOuvrage", natureOuvrage.getId()));
     }
 
     @Test
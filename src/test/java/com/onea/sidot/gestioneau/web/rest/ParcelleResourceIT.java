@@ -1,15 +1,21 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.Lot;
 import com.onea.sidot.gestioneau.domain.Parcelle;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.ParcelleRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.ParcelleSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.ParcelleDTO;
 import com.onea.sidot.gestioneau.service.mapper.ParcelleMapper;
@@ -27,6 +33,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -65,6 +72,9 @@ class ParcelleResourceIT {
     @Autowired
     private ParcelleSearchRepository mockParcelleSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +126,10 @@ class ParcelleResourceIT {
         Parcelle testParcelle = parcelleList.get(parcelleList.size() - 1);
         assertThat(testParcelle.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Parcelle in Elasticsearch
-        verify(mockParcelleSearchRepository, times(1)).save(testParcelle);
+        // Validate the Parcelle is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Parcelle", testParcelle.getId()));
     }
 
     @Test
@@ -175,6 +187,76 @@ class ParcelleResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllParcellesAfterId() throws Exception {
+        // Initialize the database
+        parcelleRepository.saveAndFlush(parcelle);
+
+        // Get the parcelleList following the id just before the parcelle, without counting it
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", parcelle.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(parcelle.getId().intValue()));
+
+        // The parcelle is not part of the parcelleList following its own id
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", parcelle.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(parcelle.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllParcellesByLot() throws Exception {
+        // Initialize the database
+        Lot lot = LotResourceIT.createEntity(em);
+        em.persist(lot);
+        parcelle.setLot(lot);
+        parcelleRepository.saveAndFlush(parcelle);
+
+        // Get the id and libelle of the parcelles of the lot
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?lotId={lotId}", lot.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(parcelle.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the parcelles of an unknown lot
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?lotId={lotId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getAllParcellesAfterIdLinksToTheNextSlice() throws Exception {
+        // Initialize the database
+        parcelleRepository.saveAndFlush(parcelle);
+        parcelleRepository.saveAndFlush(createEntity(em));
+
+        // Get the first parcelle, the Link header points after it
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", parcelle.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + parcelle.getId() + "&size=1>; rel=\"next\"")));
+    }
+
+    @Test
+    @Transactional
+    void getAllParcellesAfterIdSortedIsRejected() throws Exception {
+        // The keyset pagination is in id order only
+        restParcelleMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&sort=libelle,asc", 0))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getParcelle() throws Exception {
@@ -226,8 +308,10 @@ class ParcelleResourceIT {
         Parcelle testParcelle = parcelleList.get(parcelleList.size() - 1);
         assertThat(testParcelle.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Parcelle in Elasticsearch
-        verify(mockParcelleSearchRepository).save(testParcelle);
+        // Validate the Parcelle is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Parcelle", testParcelle.getId()));
     }
 
     @Test
@@ -455,8 +539,10 @@ class ParcelleResourceIT {
         List<Parcelle> parcelleList = parcelleRepository.findAll();
         assertThat(parcelleList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Parcelle in Elasticsearch
-        verify(mockParcelleSearchRepository, times(1)).deleteById(parcelle.getId());
+        // Validate the Parcelle is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Parcelle", parcelle.getId()));
     }
 
     @Test
@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Prefabricant;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.PrefabricantRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.PrefabricantSearchRepository;
+import com.onea.sidot.gestioneau.service.PrefabricantService;
 import com.onea.sidot.gestioneau.service.dto.PrefabricantDTO;
 import com.onea.sidot.gestioneau.service.mapper.PrefabricantMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class PrefabricantResourceIT {
     private static final String ENTITY_API_URL = "/api/prefabricants";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/prefabricants";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class PrefabricantResourceIT {
     @Autowired
     private PrefabricantSearchRepository mockPrefabricantSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +135,10 @@ class PrefabricantResourceIT {
         Prefabricant testPrefabricant = prefabricantList.get(prefabricantList.size() - 1);
         assertThat(testPrefabricant.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository, times(1)).save(testPrefabricant);
+        // Validate the Prefabricant is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prefabricant", testPrefabricant.getId()));
     }
 
     @Test
@@ -181,6 +200,65 @@ class PrefabricantResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllPrefabricantsUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        prefabricant = prefabricantRepository.saveAndFlush(prefabricant.libelle("getAllPrefabricantsUnpaged"));
+        try {
+            restPrefabricantMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllPrefabricantsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(prefabricant.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restPrefabricantMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllPrefabricantsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(prefabricant.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restPrefabricantMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, prefabricant.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(prefabricantMapper.toDto(prefabricant.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restPrefabricantMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllPrefabricantsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(prefabricant.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            prefabricantRepository.deleteById(prefabricant.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "Prefabricant".equals(entry.getEntityType()) && prefabricant.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", PrefabricantService.PREFABRICANTS_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(PrefabricantService.PREFABRICANTS_CACHE).clear();
+        cacheManager.getCache(PrefabricantService.PREFABRICANTS_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getPrefabricant() throws Exception {
@@ -232,8 +310,10 @@ class PrefabricantResourceIT {
         Prefabricant testPrefabricant = prefabricantList.get(prefabricantList.size() - 1);
         assertThat(testPrefabricant.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository).save(testPrefabricant);
+        // Validate the Prefabricant is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prefabricant", testPrefabricant.getId()));
     }
 
     @Test
@@ -463,8 +543,10 @@ class PrefabricantResourceIT {
         List<Prefabricant> prefabricantList = prefabricantRepository.findAll();
         assertThat(prefabricantList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Prefabricant in Elasticsearch
-        verify(mockPrefabricantSearchRepository, times(1)).deleteById(prefabricant.getId());
+        // Validate the Prefabricant is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prefabricant", prefabricant.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Prevision;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.PrevisionRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.PrevisionSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.PrevisionDTO;
 import com.onea.sidot.gestioneau.service.mapper.PrevisionMapper;
@@ -74,6 +77,9 @@ class PrevisionResourceIT {
     @Autowired
     private PrevisionSearchRepository mockPrevisionSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -136,8 +142,10 @@ class PrevisionResourceIT {
         assertThat(testPrevision.getNbPublic()).isEqualTo(DEFAULT_NB_PUBLIC);
         assertThat(testPrevision.getNbScolaire()).isEqualTo(DEFAULT_NB_SCOLAIRE);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository, times(1)).save(testPrevision);
+        // Validate the Prevision is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prevision", testPrevision.getId()));
     }
 
     @Test
@@ -313,8 +321,10 @@ class PrevisionResourceIT {
         assertThat(testPrevision.getNbPublic()).isEqualTo(UPDATED_NB_PUBLIC);
         assertThat(testPrevision.getNbScolaire()).isEqualTo(UPDATED_NB_SCOLAIRE);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository).save(testPrevision);
+        // Validate the Prevision is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prevision", testPrevision.getId()));
     }
 
     @Test
@@ -556,8 +566,10 @@ class PrevisionResourceIT {
         List<Prevision> previsionList = previsionRepository.findAll();
         assertThat(previsionList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Prevision in Elasticsearch
-        verify(mockPrevisionSearchRepository, times(1)).deleteById(prevision.getId());
+        // Validate the Prevision is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Prevision", prevision.getId()));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -9,7 +10,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Province;
+import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.ProvinceRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.ProvinceSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.ProvinceDTO;
 import com.onea.sidot.gestioneau.service.mapper.ProvinceMapper;
@@ -65,6 +69,9 @@ class ProvinceResourceIT {
     @Autowired
     private ProvinceSearchRepository mockProvinceSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class ProvinceResourceIT {
         Province testProvince = provinceList.get(provinceList.size() - 1);
         assertThat(testProvince.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Province in Elasticsearch
-        verify(mockProvinceSearchRepository, times(1)).save(testProvince);
+        // Validate the Province is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Province", testProvince.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class ProvinceResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllProvincesByRegion() throws Exception {
+        // Initialize the database
+        Region region = RegionResourceIT.createEntity(em);
+        em.persist(region);
+        province.setRegion(region);
+        provinceRepository.saveAndFlush(province);
+
+        // Get the id and libelle of the provinces of the region
+        restProvinceMockMvc
+            .perform(get(ENTITY_API_URL + "?regionId={regionId}", region.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(province.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the provinces of an unknown region
+        restProvinceMockMvc
+            .perform(get(ENTITY_API_URL + "?regionId={regionId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getProvince() throws Exception {
@@ -226,8 +260,10 @@ class ProvinceResourceIT {
         Province testProvince = provinceList.get(provinceList.size() - 1);
         assertThat(testProvince.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Province in Elasticsearch
-        verify(mockProvinceSearchRepository).save(testProvince);
+        // Validate the Province is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Province", testProvince.getId()));
     }
 
     @Test
@@ -455,8 +491,10 @@ class ProvinceResourceIT {
         List<Province> provinceList = provinceRepository.findAll();
         assertThat(provinceList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Province in Elasticsearch
-        verify(mockProvinceSearchRepository, times(1)).deleteById(province.getId());
+        // Validate the Province is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Province", province.getId()));
     }
 
     @Test
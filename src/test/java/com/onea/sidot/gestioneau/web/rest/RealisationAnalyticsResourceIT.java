@@ -0,0 +1,193 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.Annee;
+import com.onea.sidot.gestioneau.domain.Centre;
+import com.onea.sidot.gestioneau.domain.FicheSuiviOuvrage;
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import com.onea.sidot.gestioneau.domain.Prevision;
+import com.onea.sidot.gestioneau.domain.RealisationRollup;
+import com.onea.sidot.gestioneau.domain.RealisationRollupId;
+import com.onea.sidot.gestioneau.repository.FicheSuiviOuvrageRepository;
+import com.onea.sidot.gestioneau.repository.RealisationRollupRepository;
+import com.onea.sidot.gestioneau.security.AuthoritiesConstants;
+import com.onea.sidot.gestioneau.service.dto.FicheSuiviOuvrageDTO;
+import com.onea.sidot.gestioneau.service.dto.NatureOuvrageDTO;
+import com.onea.sidot.gestioneau.service.mapper.FicheSuiviOuvrageMapper;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link RealisationAnalyticsResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class RealisationAnalyticsResourceIT {
+
+    private static final String API_URL = "/api/analytics/completion-rates";
+    private static final String REBUILD_API_URL = "/api/admin/analytics/completion-rates/rebuild";
+    private static final String FICHE_SUIVI_OUVRAGE_API_URL = "/api/fiche-suivi-ouvrages";
+
+    @Autowired
+    private FicheSuiviOuvrageRepository ficheSuiviOuvrageRepository;
+
+    @Autowired
+    private FicheSuiviOuvrageMapper ficheSuiviOuvrageMapper;
+
+    @Autowired
+    private RealisationRollupRepository realisationRollupRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restRealisationAnalyticsMockMvc;
+
+    private Centre centre;
+
+    private Annee annee;
+
+    private Prevision prevision;
+
+    private NatureOuvrage natureOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        centre = CentreResourceIT.createEntity(em);
+        em.persist(centre);
+        annee = AnneeResourceIT.createEntity(em);
+        em.persist(annee);
+        prevision = PrevisionResourceIT.createEntity(em).nbLatrine(3).nbPuisard(1).nbPublic(0).nbScolaire(0).centre(centre).refannee(annee);
+        em.persist(prevision);
+        natureOuvrage = NatureOuvrageResourceIT.createEntity(em);
+        em.persist(natureOuvrage);
+        em.flush();
+    }
+
+    private FicheSuiviOuvrageDTO createFicheSuiviOuvrage() throws Exception {
+        FicheSuiviOuvrage ficheSuiviOuvrage = FicheSuiviOuvrageResourceIT
+            .createEntity(em)
+            .prevision(prevision)
+            .natureouvrage(natureOuvrage);
+        restRealisationAnalyticsMockMvc
+            .perform(
+                post(FICHE_SUIVI_OUVRAGE_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageMapper.toDto(ficheSuiviOuvrage)))
+            )
+            .andExpect(status().isCreated());
+        return ficheSuiviOuvrageRepository
+            .findAll()
+            .stream()
+            .filter(created -> prevision.equals(created.getPrevision()))
+            .reduce((first, second) -> second)
+            .map(ficheSuiviOuvrageMapper::toDto)
+            .orElseThrow();
+    }
+
+    private Optional<RealisationRollup> findRealisationRollup(NatureOuvrage natureOuvrage) {
+        return realisationRollupRepository.findById(new RealisationRollupId(prevision.getId(), natureOuvrage.getId()));
+    }
+
+    @Test
+    @Transactional
+    void getCompletionRatesByCentre() throws Exception {
+        createFicheSuiviOuvrage();
+        createFicheSuiviOuvrage();
+
+        restRealisationAnalyticsMockMvc
+            .perform(get(API_URL + "?level=CENTRE&anneeId=" + annee.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].annee.id").value(annee.getId().intValue()))
+            .andExpect(jsonPath("$[0].location.id").value(centre.getId().intValue()))
+            .andExpect(jsonPath("$[0].nbLatrinePrevu").value(3))
+            .andExpect(jsonPath("$[0].nbPrevu").value(4))
+            .andExpect(jsonPath("$[0].nbRealise").value(2))
+            .andExpect(jsonPath("$[0].tauxRealisation").value(0.5))
+            .andExpect(jsonPath("$[0].realisations[0].natureouvrage.id").value(natureOuvrage.getId().intValue()))
+            .andExpect(jsonPath("$[0].realisations[0].nbRealise").value(2));
+    }
+
+    @Test
+    @Transactional
+    void getCompletionRatesByAnnee() throws Exception {
+        createFicheSuiviOuvrage();
+
+        restRealisationAnalyticsMockMvc
+            .perform(get(API_URL + "?level=ANNEE&anneeId=" + annee.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].location").isEmpty())
+            .andExpect(jsonPath("$[0].nbRealise").value(1));
+    }
+
+    @Test
+    @Transactional
+    void updateFicheSuiviOuvrageMovesItsRealisation() throws Exception {
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = createFicheSuiviOuvrage();
+        NatureOuvrage otherNatureOuvrage = NatureOuvrageResourceIT.createUpdatedEntity(em);
+        em.persist(otherNatureOuvrage);
+        NatureOuvrageDTO otherNatureOuvrageDTO = new NatureOuvrageDTO();
+        otherNatureOuvrageDTO.setId(otherNatureOuvrage.getId());
+        ficheSuiviOuvrageDTO.setNatureouvrage(otherNatureOuvrageDTO);
+
+        restRealisationAnalyticsMockMvc
+            .perform(
+                put(FICHE_SUIVI_OUVRAGE_API_URL + "/{id}", ficheSuiviOuvrageDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(ficheSuiviOuvrageDTO))
+            )
+            .andExpect(status().isOk());
+
+        assertThat(findRealisationRollup(natureOuvrage)).isEmpty();
+        assertThat(findRealisationRollup(otherNatureOuvrage)).get().extracting(RealisationRollup::getNbRealise).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void deleteFicheSuiviOuvrageRemovesItsRealisation() throws Exception {
+        FicheSuiviOuvrageDTO ficheSuiviOuvrageDTO = createFicheSuiviOuvrage();
+
+        restRealisationAnalyticsMockMvc
+            .perform(delete(FICHE_SUIVI_OUVRAGE_API_URL + "/{id}", ficheSuiviOuvrageDTO.getId()))
+            .andExpect(status().isNoContent());
+
+        assertThat(findRealisationRollup(natureOuvrage)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void rebuildCompletionRates() throws Exception {
+        // Written without the service, so not counted yet
+        em.persist(FicheSuiviOuvrageResourceIT.createEntity(em).prevision(prevision).natureouvrage(natureOuvrage));
+        em.flush();
+        assertThat(findRealisationRollup(natureOuvrage)).isEmpty();
+
+        restRealisationAnalyticsMockMvc.perform(post(REBUILD_API_URL)).andExpect(status().isNoContent());
+
+        em.clear();
+        assertThat(findRealisationRollup(natureOuvrage)).get().extracting(RealisationRollup::getNbRealise).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void rebuildCompletionRatesIsForbiddenToUsers() throws Exception {
+        restRealisationAnalyticsMockMvc.perform(post(REBUILD_API_URL)).andExpect(status().isForbidden());
+    }
+}
@@ -1,15 +1,19 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
 import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.repository.RegionRepository;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.search.RegionSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.RegionDTO;
 import com.onea.sidot.gestioneau.service.mapper.RegionMapper;
@@ -65,6 +69,9 @@ class RegionResourceIT {
     @Autowired
     private RegionSearchRepository mockRegionSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class RegionResourceIT {
         Region testRegion = regionList.get(regionList.size() - 1);
         assertThat(testRegion.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Region in Elasticsearch
-        verify(mockRegionSearchRepository, times(1)).save(testRegion);
+        // Validate the Region is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Region", testRegion.getId()));
     }
 
     @Test
@@ -175,6 +184,27 @@ class RegionResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllRegionsAfterId() throws Exception {
+        // Initialize the database
+        regionRepository.saveAndFlush(region);
+
+        // Get the regionList following the id just before the region, without counting it
+        restRegionMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&size=1", region.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(region.getId().intValue()));
+
+        // The region is not part of the regionList following its own id
+        restRegionMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", region.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(region.getId().intValue()))));
+    }
+
     @Test
     @Transactional
     void getRegion() throws Exception {
@@ -226,8 +256,10 @@ class RegionResourceIT {
         Region testRegion = regionList.get(regionList.size() - 1);
         assertThat(testRegion.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Region in Elasticsearch
-        verify(mockRegionSearchRepository).save(testRegion);
+        // Validate the Region is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Region", testRegion.getId()));
     }
 
     @Test
@@ -453,8 +485,10 @@ class RegionResourceIT {
         List<Region> regionList = regionRepository.findAll();
         assertThat(regionList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Region in Elasticsearch
-        verify(mockRegionSearchRepository, times(1)).deleteById(region.getId());
+        // Validate the Region is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Region", region.getId()));
     }
 
     @Test
@@ -0,0 +1,167 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.Region;
+import com.onea.sidot.gestioneau.repository.RegionRepository;
+import com.onea.sidot.gestioneau.repository.search.SearchIndexRepository;
+import com.onea.sidot.gestioneau.security.AuthoritiesConstants;
+import com.onea.sidot.gestioneau.service.SearchReindexService;
+import com.onea.sidot.gestioneau.service.dto.ReindexJobDTO;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link SearchReindexResource} REST controller.
+ * <p>
+ * The job reads committed rows on another thread, so these tests are not transactional and remove their rows.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class SearchReindexResourceIT {
+
+    private static final String API_URL = "/api/admin/search/reindex";
+
+    private static final long JOB_TIMEOUT_MS = 10000;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    /**
+     * This repository is mocked in the com.onea.sidot.gestioneau.repository.search test package.
+     *
+     * @see com.onea.sidot.gestioneau.repository.search.SearchIndexRepositoryMockConfiguration
+     */
+    @Autowired
+    private SearchIndexRepository mockSearchIndexRepository;
+
+    @Autowired
+    private SearchReindexService searchReindexService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restSearchReindexMockMvc;
+
+    private List<Region> regions;
+
+    @BeforeEach
+    public void initTest() {
+        regions = regionRepository.saveAll(List.of(RegionResourceIT.createEntity(em), RegionResourceIT.createEntity(em)));
+        when(mockSearchIndexRepository.getAlias(Region.class)).thenReturn("region");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        regionRepository.deleteAll(regions);
+    }
+
+    @Test
+    void fullReindexRebuildsAndSwapsTheIndex() throws Exception {
+        restSearchReindexMockMvc
+            .perform(post(API_URL).param("entity", "Region"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.mode").value("FULL"))
+            .andExpect(jsonPath("$.entities[0].entityType").value("Region"));
+
+        ReindexJobDTO job = awaitJob();
+        assertThat(job.getStatus()).isEqualTo(ReindexJobDTO.Status.COMPLETED);
+        ReindexJobDTO.Entity progress = job.getEntities().get(0);
+        assertThat(progress.getStatus()).isEqualTo(ReindexJobDTO.Status.COMPLETED);
+        assertThat(progress.getIndexed()).isEqualTo(progress.getTotal()).isGreaterThanOrEqualTo(regions.size());
+        String indexName = progress.getIndexName();
+        assertThat(indexName).startsWith("region_");
+
+        InOrder inOrder = inOrder(mockSearchIndexRepository);
+        inOrder.verify(mockSearchIndexRepository).createIndex(indexName, Region.class);
+        inOrder.verify(mockSearchIndexRepository).bulkIndex(eq(indexName), argThat(entities -> entities.containsAll(regions)));
+        inOrder.verify(mockSearchIndexRepository).finishBulkLoad(indexName, Region.class);
+        inOrder.verify(mockSearchIndexRepository).swapAlias("region", indexName);
+        verify(mockSearchIndexRepository, never()).deleteIndex(anyString());
+
+        restSearchReindexMockMvc
+            .perform(get(API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.entities[0].indexName").value(indexName));
+    }
+
+    @Test
+    void failedFullReindexKeepsTheLiveIndex() throws Exception {
+        doThrow(new IllegalStateException("Elasticsearch is down")).when(mockSearchIndexRepository).swapAlias(anyString(), anyString());
+
+        restSearchReindexMockMvc.perform(post(API_URL).param("entity", "Region")).andExpect(status().isAccepted());
+
+        ReindexJobDTO job = awaitJob();
+        assertThat(job.getStatus()).isEqualTo(ReindexJobDTO.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Elasticsearch is down");
+        assertThat(job.getEntities().get(0).getStatus()).isEqualTo(ReindexJobDTO.Status.FAILED);
+        verify(mockSearchIndexRepository).deleteIndex(job.getEntities().get(0).getIndexName());
+    }
+
+    @Test
+    void incrementalReindexIndexesInPlace() throws Exception {
+        restSearchReindexMockMvc
+            .perform(post(API_URL).param("entity", "Region").param("mode", "INCREMENTAL").param("since", "2021-01-01T00:00:00Z"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.mode").value("INCREMENTAL"));
+
+        ReindexJobDTO job = awaitJob();
+        assertThat(job.getStatus()).isEqualTo(ReindexJobDTO.Status.COMPLETED);
+        assertThat(job.getEntities().get(0).getIndexName()).isEqualTo("region");
+        verify(mockSearchIndexRepository).bulkIndex(eq("region"), argThat(entities -> entities.containsAll(regions)));
+        verify(mockSearchIndexRepository, never()).createIndex(anyString(), any());
+        verify(mockSearchIndexRepository, never()).swapAlias(anyString(), anyString());
+    }
+
+    @Test
+    void startReindexWithUnknownEntity() throws Exception {
+        restSearchReindexMockMvc.perform(post(API_URL).param("entity", "Unknown")).andExpect(status().isBadRequest());
+
+        verify(mockSearchIndexRepository, never()).bulkIndex(anyString(), anyList());
+    }
+
+    @Test
+    @WithMockUser
+    void startReindexRequiresAdmin() throws Exception {
+        restSearchReindexMockMvc.perform(post(API_URL).param("entity", "Region")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getReindexEntities() throws Exception {
+        restSearchReindexMockMvc
+            .perform(get(API_URL + "/entities"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasItem("Region")))
+            .andExpect(jsonPath("$").value(hasItem("FicheSuiviOuvrage")));
+    }
+
+    private ReindexJobDTO awaitJob() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MS;
+        ReindexJobDTO job = searchReindexService.getCurrentJob().orElseThrow();
+        while (isRunning(job) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            job = searchReindexService.getCurrentJob().orElseThrow();
+        }
+        return job;
+    }
+
+    private static boolean isRunning(ReindexJobDTO job) {
+        return job.getStatus() == ReindexJobDTO.Status.PENDING || job.getStatus() == ReindexJobDTO.Status.RUNNING;
+    }
+}
@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -8,7 +9,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.Localite;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.domain.Secteur;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.SecteurRepository;
 import com.onea.sidot.gestioneau.repository.search.SecteurSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.SecteurDTO;
@@ -65,6 +69,9 @@ class SecteurResourceIT {
     @Autowired
     private SecteurSearchRepository mockSecteurSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class SecteurResourceIT {
         Secteur testSecteur = secteurList.get(secteurList.size() - 1);
         assertThat(testSecteur.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Secteur in Elasticsearch
-        verify(mockSecteurSearchRepository, times(1)).save(testSecteur);
+        // Validate the Secteur is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Secteur", testSecteur.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class SecteurResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllSecteursByLocalite() throws Exception {
+        // Initialize the database
+        Localite localite = LocaliteResourceIT.createEntity(em);
+        em.persist(localite);
+        secteur.setLocalite(localite);
+        secteurRepository.saveAndFlush(secteur);
+
+        // Get the id and libelle of the secteurs of the localite
+        restSecteurMockMvc
+            .perform(get(ENTITY_API_URL + "?localiteId={localiteId}", localite.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(secteur.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the secteurs of an unknown localite
+        restSecteurMockMvc
+            .perform(get(ENTITY_API_URL + "?localiteId={localiteId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getSecteur() throws Exception {
@@ -226,8 +260,10 @@ class SecteurResourceIT {
         Secteur testSecteur = secteurList.get(secteurList.size() - 1);
         assertThat(testSecteur.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Secteur in Elasticsearch
-        verify(mockSecteurSearchRepository).save(testSecteur);
+        // Validate the Secteur is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Secteur", testSecteur.getId()));
     }
 
     @Test
@@ -453,8 +489,10 @@ class SecteurResourceIT {
         List<Secteur> secteurList = secteurRepository.findAll();
         assertThat(secteurList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Secteur in Elasticsearch
-        verify(mockSecteurSearchRepository, times(1)).deleteById(secteur.getId());
+        // Validate the Secteur is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Secteur", secteur.getId()));
     }
 
     @Test
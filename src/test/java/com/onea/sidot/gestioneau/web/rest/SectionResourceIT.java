@@ -1,6 +1,7 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
@@ -8,7 +9,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
+import com.onea.sidot.gestioneau.domain.Secteur;
 import com.onea.sidot.gestioneau.domain.Section;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.SectionRepository;
 import com.onea.sidot.gestioneau.repository.search.SectionSearchRepository;
 import com.onea.sidot.gestioneau.service.dto.SectionDTO;
@@ -65,6 +69,9 @@ class SectionResourceIT {
     @Autowired
     private SectionSearchRepository mockSectionSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -116,8 +123,10 @@ class SectionResourceIT {
         Section testSection = sectionList.get(sectionList.size() - 1);
         assertThat(testSection.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the Section in Elasticsearch
-        verify(mockSectionSearchRepository, times(1)).save(testSection);
+        // Validate the Section is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Section", testSection.getId()));
     }
 
     @Test
@@ -175,6 +184,31 @@ class SectionResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    @Test
+    @Transactional
+    void getAllSectionsBySecteur() throws Exception {
+        // Initialize the database
+        Secteur secteur = SecteurResourceIT.createEntity(em);
+        em.persist(secteur);
+        section.setSecteur(secteur);
+        sectionRepository.saveAndFlush(section);
+
+        // Get the id and libelle of the sections of the secteur
+        restSectionMockMvc
+            .perform(get(ENTITY_API_URL + "?secteurId={secteurId}", secteur.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(section.getId().intValue()))
+            .andExpect(jsonPath("$.[0].libelle").value(DEFAULT_LIBELLE));
+
+        // Get the sections of an unknown secteur
+        restSectionMockMvc
+            .perform(get(ENTITY_API_URL + "?secteurId={secteurId}", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     void getSection() throws Exception {
@@ -226,8 +260,10 @@ class SectionResourceIT {
         Section testSection = sectionList.get(sectionList.size() - 1);
         assertThat(testSection.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the Section in Elasticsearch
-        verify(mockSectionSearchRepository).save(testSection);
+        // Validate the Section is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Section", testSection.getId()));
     }
 
     @Test
@@ -455,8 +491,10 @@ class SectionResourceIT {
         List<Section> sectionList = sectionRepository.findAll();
         assertThat(sectionList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Section in Elasticsearch
-        verify(mockSectionSearchRepository, times(1)).deleteById(section.getId());
+        // Validate the Section is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("Section", section.getId()));
     }
 
     @Test
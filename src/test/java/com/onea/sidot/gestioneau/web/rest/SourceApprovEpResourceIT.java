@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.domain.SourceApprovEp;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.SourceApprovEpRepository;
 import com.onea.sidot.gestioneau.repository.search.SourceApprovEpSearchRepository;
+import com.onea.sidot.gestioneau.service.SourceApprovEpService;
 import com.onea.sidot.gestioneau.service.dto.SourceApprovEpDTO;
 import com.onea.sidot.gestioneau.service.mapper.SourceApprovEpMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class SourceApprovEpResourceIT {
     private static final String ENTITY_API_URL = "/api/source-approv-eps";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/source-approv-eps";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class SourceApprovEpResourceIT {
     @Autowired
     private SourceApprovEpSearchRepository mockSourceApprovEpSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +135,10 @@ class SourceApprovEpResourceIT {
         SourceApprovEp testSourceApprovEp = sourceApprovEpList.get(sourceApprovEpList.size() - 1);
         assertThat(testSourceApprovEp.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository, times(1)).save(testSourceApprovEp);
+        // Validate the SourceApprovEp is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("SourceApprovEp", testSourceApprovEp.getId()));
     }
 
     @Test
@@ -181,6 +200,65 @@ class SourceApprovEpResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllSourceApprovEpsUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        sourceApprovEp = sourceApprovEpRepository.saveAndFlush(sourceApprovEp.libelle("getAllSourceApprovEpsUnpaged"));
+        try {
+            restSourceApprovEpMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllSourceApprovEpsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(sourceApprovEp.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restSourceApprovEpMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllSourceApprovEpsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(sourceApprovEp.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restSourceApprovEpMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, sourceApprovEp.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(sourceApprovEpMapper.toDto(sourceApprovEp.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restSourceApprovEpMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllSourceApprovEpsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(sourceApprovEp.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            sourceApprovEpRepository.deleteById(sourceApprovEp.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "SourceApprovEp".equals(entry.getEntityType()) && sourceApprovEp.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", SourceApprovEpService.SOURCE_APPROV_EPS_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(SourceApprovEpService.SOURCE_APPROV_EPS_CACHE).clear();
+        cacheManager.getCache(SourceApprovEpService.SOURCE_APPROV_EPS_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getSourceApprovEp() throws Exception {
@@ -232,8 +310,10 @@ class SourceApprovEpResourceIT {
         SourceApprovEp testSourceApprovEp = sourceApprovEpList.get(sourceApprovEpList.size() - 1);
         assertThat(testSourceApprovEp.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository).save(testSourceApprovEp);
+        // Validate the SourceApprovEp is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("SourceApprovEp", testSourceApprovEp.getId()));
     }
 
     @Test
@@ -463,8 +543,10 @@ class SourceApprovEpResourceIT {
         List<SourceApprovEp> sourceApprovEpList = sourceApprovEpRepository.findAll();
         assertThat(sourceApprovEpList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the SourceApprovEp in Elasticsearch
-        verify(mockSourceApprovEpSearchRepository, times(1)).deleteById(sourceApprovEp.getId());
+        // Validate the SourceApprovEp is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("SourceApprovEp", sourceApprovEp.getId()));
     }
 
     @Test
@@ -0,0 +1,117 @@
+package com.onea.sidot.gestioneau.web.rest;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.NatureOuvrage;
+import com.onea.sidot.gestioneau.repository.NatureOuvrageRepository;
+import com.onea.sidot.gestioneau.service.SyncService;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link SyncResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SyncResourceIT {
+
+    private static final String SYNC_API_URL = "/api/sync";
+
+    @Autowired
+    private NatureOuvrageRepository natureOuvrageRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restSyncMockMvc;
+
+    private NatureOuvrage natureOuvrage;
+
+    @BeforeEach
+    public void initTest() {
+        natureOuvrage = NatureOuvrageResourceIT.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    void syncSinceToken() throws Exception {
+        String token = SyncService.getToken(Instant.now().minus(10, ChronoUnit.MINUTES));
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        restSyncMockMvc
+            .perform(get(SYNC_API_URL).param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(not(containsString("{\"op\":\"reset\"}"))))
+            .andExpect(content().string(containsString(upsertLine())))
+            .andExpect(content().string(containsString("\n{\"op\":\"end\",\"token\":\"")))
+            .andExpect(content().string(endsWith("\"}\n")));
+    }
+
+    @Test
+    @Transactional
+    void syncDeletionSinceToken() throws Exception {
+        String token = SyncService.getToken(Instant.now().minus(10, ChronoUnit.MINUTES));
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        Long deletedId = natureOuvrage.getId();
+        restSyncMockMvc.perform(delete("/api/nature-ouvrages/{id}", deletedId)).andExpect(status().isNoContent());
+        em.flush();
+
+        restSyncMockMvc
+            .perform(get(SYNC_API_URL).param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("{\"type\":\"NatureOuvrage\",\"op\":\"delete\",\"id\":" + deletedId + "}\n")))
+            .andExpect(content().string(not(containsString(upsertLine()))));
+    }
+
+    @Test
+    @Transactional
+    void syncWithoutToken() throws Exception {
+        natureOuvrageRepository.saveAndFlush(natureOuvrage);
+
+        restSyncMockMvc
+            .perform(get(SYNC_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().string(startsWith("{\"op\":\"reset\"}\n")))
+            .andExpect(content().string(containsString(upsertLine())));
+    }
+
+    @Test
+    @Transactional
+    void syncWithExpiredToken() throws Exception {
+        String token = SyncService.getToken(Instant.now().minus(365, ChronoUnit.DAYS));
+
+        restSyncMockMvc
+            .perform(get(SYNC_API_URL).param("since", token))
+            .andExpect(status().isOk())
+            .andExpect(content().string(startsWith("{\"op\":\"reset\"}\n")));
+    }
+
+    @Test
+    @Transactional
+    void syncWithInvalidToken() throws Exception {
+        restSyncMockMvc.perform(get(SYNC_API_URL).param("since", "not a token")).andExpect(status().isBadRequest());
+    }
+
+    private String upsertLine() {
+        return "{\"type\":\"NatureOuvrage\",\"op\":\"upsert\",\"data\":{\"id\":" + natureOuvrage.getId() + ",";
+    }
+}
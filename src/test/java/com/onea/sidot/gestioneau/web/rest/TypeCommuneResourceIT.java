@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.domain.TypeCommune;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.TypeCommuneRepository;
 import com.onea.sidot.gestioneau.repository.search.TypeCommuneSearchRepository;
+import com.onea.sidot.gestioneau.service.TypeCommuneService;
 import com.onea.sidot.gestioneau.service.dto.TypeCommuneDTO;
 import com.onea.sidot.gestioneau.service.mapper.TypeCommuneMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class TypeCommuneResourceIT {
     private static final String ENTITY_API_URL = "/api/type-communes";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/type-communes";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class TypeCommuneResourceIT {
     @Autowired
     private TypeCommuneSearchRepository mockTypeCommuneSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +135,10 @@ class TypeCommuneResourceIT {
         TypeCommune testTypeCommune = typeCommuneList.get(typeCommuneList.size() - 1);
         assertThat(testTypeCommune.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the TypeCommune in Elasticsearch
-        verify(mockTypeCommuneSearchRepository, times(1)).save(testTypeCommune);
+        // Validate the TypeCommune is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeCommune", testTypeCommune.getId()));
     }
 
     @Test
@@ -181,6 +200,65 @@ class TypeCommuneResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllTypeCommunesUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        typeCommune = typeCommuneRepository.saveAndFlush(typeCommune.libelle("getAllTypeCommunesUnpaged"));
+        try {
+            restTypeCommuneMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeCommunesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(typeCommune.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restTypeCommuneMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeCommunesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(typeCommune.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restTypeCommuneMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, typeCommune.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(typeCommuneMapper.toDto(typeCommune.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restTypeCommuneMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeCommunesUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(typeCommune.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            typeCommuneRepository.deleteById(typeCommune.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "TypeCommune".equals(entry.getEntityType()) && typeCommune.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", TypeCommuneService.TYPE_COMMUNES_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(TypeCommuneService.TYPE_COMMUNES_CACHE).clear();
+        cacheManager.getCache(TypeCommuneService.TYPE_COMMUNES_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getTypeCommune() throws Exception {
@@ -232,8 +310,10 @@ class TypeCommuneResourceIT {
         TypeCommune testTypeCommune = typeCommuneList.get(typeCommuneList.size() - 1);
         assertThat(testTypeCommune.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the TypeCommune in Elasticsearch
-        verify(mockTypeCommuneSearchRepository).save(testTypeCommune);
+        // Validate the TypeCommune is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeCommune", testTypeCommune.getId()));
     }
 
     @Test
@@ -459,8 +539,10 @@ class TypeCommuneResourceIT {
         List<TypeCommune> typeCommuneList = typeCommuneRepository.findAll();
         assertThat(typeCommuneList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the TypeCommune in Elasticsearch
-        verify(mockTypeCommuneSearchRepository, times(1)).deleteById(typeCommune.getId());
+        // Validate the TypeCommune is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeCommune", typeCommune.getId()));
     }
 
     @Test
@@ -1,18 +1,24 @@
 package com.onea.sidot.gestioneau.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.onea.sidot.gestioneau.IntegrationTest;
+import com.onea.sidot.gestioneau.domain.SearchOutboxEntry;
 import com.onea.sidot.gestioneau.domain.TypeHabitation;
+import com.onea.sidot.gestioneau.repository.SearchOutboxRepository;
 import com.onea.sidot.gestioneau.repository.TypeHabitationRepository;
 import com.onea.sidot.gestioneau.repository.search.TypeHabitationSearchRepository;
+import com.onea.sidot.gestioneau.service.TypeHabitationService;
 import com.onea.sidot.gestioneau.service.dto.TypeHabitationDTO;
 import com.onea.sidot.gestioneau.service.mapper.TypeHabitationMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -25,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
@@ -47,6 +54,7 @@ class TypeHabitationResourceIT {
     private static final String ENTITY_API_URL = "/api/type-habitations";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/type-habitations";
+    private static final String ENTITY_ALL_API_URL = ENTITY_API_URL + "/_all";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -65,6 +73,15 @@ class TypeHabitationResourceIT {
     @Autowired
     private TypeHabitationSearchRepository mockTypeHabitationSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private EntityManager em;
 
@@ -118,8 +135,10 @@ class TypeHabitationResourceIT {
         TypeHabitation testTypeHabitation = typeHabitationList.get(typeHabitationList.size() - 1);
         assertThat(testTypeHabitation.getLibelle()).isEqualTo(DEFAULT_LIBELLE);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository, times(1)).save(testTypeHabitation);
+        // Validate the TypeHabitation is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeHabitation", testTypeHabitation.getId()));
     }
 
     @Test
@@ -181,6 +200,65 @@ class TypeHabitationResourceIT {
             .andExpect(jsonPath("$.[*].libelle").value(hasItem(DEFAULT_LIBELLE)));
     }
 
+    /**
+     * Not transactional, as the cache is only written once the transactions commit.
+     */
+    @Test
+    void getAllTypeHabitationsUnpagedIsCachedUntilChanged() throws Exception {
+        clearCaches();
+        typeHabitation = typeHabitationRepository.saveAndFlush(typeHabitation.libelle("getAllTypeHabitationsUnpaged"));
+        try {
+            restTypeHabitationMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeHabitationsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(typeHabitation.getId().intValue())));
+            double hits = getLibelleCacheHits();
+
+            // Unchanged, so read from the cache
+            restTypeHabitationMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeHabitationsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(typeHabitation.getId().intValue())));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+
+            // Changed through the service, which evicts the cache
+            restTypeHabitationMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, typeHabitation.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(typeHabitationMapper.toDto(typeHabitation.libelle(UPDATED_LIBELLE))))
+                )
+                .andExpect(status().isOk());
+            restTypeHabitationMockMvc
+                .perform(get(ENTITY_ALL_API_URL + "?libelle=getAllTypeHabitationsUnpaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(typeHabitation.getId().intValue()))));
+            assertThat(getLibelleCacheHits()).isEqualTo(hits + 1);
+        } finally {
+            typeHabitationRepository.deleteById(typeHabitation.getId());
+            searchOutboxRepository
+                .findAll()
+                .stream()
+                .filter(entry -> "TypeHabitation".equals(entry.getEntityType()) && typeHabitation.getId().equals(entry.getEntityId()))
+                .forEach(searchOutboxRepository::delete);
+            clearCaches();
+        }
+    }
+
+    private double getLibelleCacheHits() {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", TypeHabitationService.TYPE_HABITATIONS_BY_LIBELLE_CACHE)
+            .tag("result", "hit")
+            .counter()
+            .count();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(TypeHabitationService.TYPE_HABITATIONS_CACHE).clear();
+        cacheManager.getCache(TypeHabitationService.TYPE_HABITATIONS_BY_LIBELLE_CACHE).clear();
+    }
+
     @Test
     @Transactional
     void getTypeHabitation() throws Exception {
@@ -232,8 +310,10 @@ class TypeHabitationResourceIT {
         TypeHabitation testTypeHabitation = typeHabitationList.get(typeHabitationList.size() - 1);
         assertThat(testTypeHabitation.getLibelle()).isEqualTo(UPDATED_LIBELLE);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository).save(testTypeHabitation);
+        // Validate the TypeHabitation is queued for indexing in Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeHabitation", testTypeHabitation.getId()));
     }
 
     @Test
@@ -465,8 +545,10 @@ class TypeHabitationResourceIT {
         List<TypeHabitation> typeHabitationList = typeHabitationRepository.findAll();
         assertThat(typeHabitationList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the TypeHabitation in Elasticsearch
-        verify(mockTypeHabitationSearchRepository, times(1)).deleteById(typeHabitation.getId());
+        // Validate the TypeHabitation is queued for removal from Elasticsearch
+        assertThat(searchOutboxRepository.findAll())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .contains(tuple("TypeHabitation", typeHabitation.getId()));
     }
 
     @Test
@@ -0,0 +1,116 @@
+package com.onea.sidot.gestioneau.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.onea.sidot.gestioneau.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Test class for the {@link KeysetPaginationUtil} utility class.
+ */
+class KeysetPaginationUtilTest {
+
+    private static final String ETAG = "\"table-1\"";
+
+    @BeforeEach
+    void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lots");
+        request.setQueryString("after=3&size=2");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void respondWithCursorReadsTheNextSlice() {
+        ResponseEntity<List<Long>> response = KeysetPaginationUtil.respond(
+            3L,
+            PageRequest.of(0, 2),
+            (after, pageable) -> new SliceImpl<>(List.of(after + 1, after + 2), pageable, true),
+            pageable -> {
+                throw new AssertionError("No page is read with a cursor");
+            },
+            id -> id,
+            "lot",
+            ETAG
+        );
+
+        assertThat(response.getBody()).containsExactly(4L, 5L);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getHeaders().containsKey("X-Total-Count")).isFalse();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).endsWith("/api/lots?after=5&size=2>; rel=\"next\"");
+    }
+
+    @Test
+    void respondWithCursorOnTheLastSliceHasNoNextLink() {
+        ResponseEntity<List<Long>> response = KeysetPaginationUtil.respond(
+            3L,
+            PageRequest.of(0, 2),
+            (after, pageable) -> new SliceImpl<>(List.of(after + 1), pageable, false),
+            pageable -> {
+                throw new AssertionError("No page is read with a cursor");
+            },
+            id -> id,
+            "lot",
+            ETAG
+        );
+
+        assertThat(response.getBody()).containsExactly(4L);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.LINK)).isFalse();
+    }
+
+    @Test
+    void respondWithoutCursorReadsAPage() {
+        ResponseEntity<List<Long>> response = KeysetPaginationUtil.respond(
+            null,
+            PageRequest.of(0, 2, Sort.by("libelle")),
+            (after, pageable) -> {
+                throw new AssertionError("No slice is read without a cursor");
+            },
+            pageable -> new PageImpl<>(List.of(1L, 2L), pageable, 5),
+            id -> id,
+            "lot",
+            ETAG
+        );
+
+        assertThat(response.getBody()).containsExactly(1L, 2L);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("5");
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+    }
+
+    @Test
+    void respondWithCursorRejectsASort() {
+        Pageable sorted = PageRequest.of(0, 2, Sort.by("libelle"));
+
+        assertThatThrownBy(
+                () ->
+                    KeysetPaginationUtil.<Long>respond(
+                        3L,
+                        sorted,
+                        (after, pageable) -> new SliceImpl<>(List.of(), pageable, false),
+                        pageable -> new PageImpl<>(List.of(), pageable, 0),
+                        id -> id,
+                        "lot",
+                        ETAG
+                    )
+            )
+            .isInstanceOf(BadRequestAlertException.class);
+    }
+}